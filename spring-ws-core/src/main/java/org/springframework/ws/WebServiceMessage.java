@@ -55,7 +55,9 @@ public interface WebServiceMessage {
 
     /**
      * Writes the entire message to the given output stream. <p>If the given stream is an instance of {@link
-     * org.springframework.ws.transport.TransportOutputStream}, the corresponding headers will be written as well.
+     * org.springframework.ws.transport.TransportOutputStream}, the corresponding headers will be written as well. If
+     * that stream only accepts {@linkplain org.springframework.ws.transport.TransportOutputStream#isHeadersOnly()
+     * headers}, implementations can return after writing the headers.
      *
      * @param outputStream the stream to write to
      * @throws IOException if an I/O exception occurs
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.xml.transform.Source;
+
+/**
+ * Specifies a basic set of asynchronous Web service operations. Implemented by {@link AsyncWebServiceTemplate} and
+ * {@link ExecutorWebServiceTemplate}.
+ * <p/>
+ * Each operation returns immediately with a {@link Future} for its result, and optionally notifies a {@link
+ * WebServiceResultCallback} when it completes. The semantics of the operations, including client interceptors, fault
+ * resolution, and marshalling, are those of the corresponding {@link WebServiceOperations} methods; exceptions thrown
+ * by these are reported as the cause of the {@link java.util.concurrent.ExecutionException} thrown by {@link
+ * Future#get()}.
+ * <p/>
+ * Asynchronous here means that the calling thread does not wait for the result; it does not imply non-blocking I/O.
+ * The {@link AsyncWebServiceTemplate} implementation exchanges messages with non-blocking I/O, without occupying a
+ * thread per operation. The {@link ExecutorWebServiceTemplate} implementation, on the other hand, performs each
+ * operation as a blocking call in a thread of a bounded executor.
+ *
+ * @author agent
+ * @see AsyncWebServiceTemplate
+ * @see ExecutorWebServiceTemplate
+ * @see WebServiceOperations
+ * @since 2.1.5
+ */
+public interface AsyncWebServiceOperations {
+
+    /**
+     * Asynchronously sends a web service message that can be manipulated with the given callback, reading the result
+     * with a <code>WebServiceMessageExtractor</code>.
+     *
+     * @param uri               the URI to send the message to
+     * @param requestCallback   the requestCallback to be used for manipulating the request message
+     * @param responseExtractor object that will extract results
+     * @return a future for the result, as returned by the <code>WebServiceMessageExtractor</code>
+     * @see WebServiceOperations#sendAndReceive(String, WebServiceMessageCallback, WebServiceMessageExtractor)
+     */
+    <T> Future<T> sendAndReceive(String uri,
+                                 WebServiceMessageCallback requestCallback,
+                                 WebServiceMessageExtractor<T> responseExtractor);
+
+    /**
+     * Asynchronously sends a web service message that can be manipulated with the given callback, reading the result
+     * with a <code>WebServiceMessageExtractor</code>, and notifying the given result callback.
+     *
+     * @param uri               the URI to send the message to
+     * @param requestCallback   the requestCallback to be used for manipulating the request message
+     * @param responseExtractor object that will extract results
+     * @param resultCallback    the callback that is notified of the result
+     * @return a future for the result, as returned by the <code>WebServiceMessageExtractor</code>
+     * @see WebServiceOperations#sendAndReceive(String, WebServiceMessageCallback, WebServiceMessageExtractor)
+     */
+    <T> Future<T> sendAndReceive(String uri,
+                                 WebServiceMessageCallback requestCallback,
+                                 WebServiceMessageExtractor<T> responseExtractor,
+                                 WebServiceResultCallback<T> resultCallback);
+
+    /**
+     * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+     * <code>Marshaller</code>. Returns the unmarshalled payload of the response message, if any.
+     * <p/>
+     * This will only work with a default uri specified!
+     *
+     * @param requestPayload the object to marshal into the request message payload
+     * @return a future for the unmarshalled payload of the response message, or <code>null</code> if no response is
+     *         given
+     * @see WebServiceOperations#marshalSendAndReceive(Object)
+     */
+    Future<Object> marshalSendAndReceive(Object requestPayload);
+
+    /**
+     * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+     * <code>Marshaller</code>. Returns the unmarshalled payload of the response message, if any.
+     *
+     * @param uri            the URI to send the message to
+     * @param requestPayload the object to marshal into the request message payload
+     * @return a future for the unmarshalled payload of the response message, or <code>null</code> if no response is
+     *         given
+     * @see WebServiceOperations#marshalSendAndReceive(String, Object)
+     */
+    Future<Object> marshalSendAndReceive(String uri, Object requestPayload);
+
+    /**
+     * Asynchronously sends a web service message that contains the given payload, marshalled by the configured
+     * <code>Marshaller</code>, and notifies the given result callback of the unmarshalled payload of the response
+     * message, if any.
+     *
+     * @param uri             the URI to send the message to
+     * @param requestPayload  the object to marshal into the request message payload
+     * @param requestCallback callback to change message, can be <code>null</code>
+     * @param resultCallback  the callback that is notified of the result, can be <code>null</code>
+     * @return a future for the unmarshalled payload of the response message, or <code>null</code> if no response is
+     *         given
+     * @see WebServiceOperations#marshalSendAndReceive(String, Object, WebServiceMessageCallback)
+     */
+    Future<Object> marshalSendAndReceive(String uri,
+                                         Object requestPayload,
+                                         WebServiceMessageCallback requestCallback,
+                                         WebServiceResultCallback<Object> resultCallback);
+
+    /**
+     * Asynchronously sends a web service message that contains the given payload. Reads the result with a
+     * <code>SourceExtractor</code>.
+     *
+     * @param uri               the URI to send the message to
+     * @param requestPayload    the payload of the request message
+     * @param responseExtractor object that will extract results
+     * @return a future for the result, as returned by the <code>SourceExtractor</code>
+     * @see WebServiceOperations#sendSourceAndReceive(String, Source, SourceExtractor)
+     */
+    <T> Future<T> sendSourceAndReceive(String uri, Source requestPayload, SourceExtractor<T> responseExtractor);
+
+    /**
+     * Concurrently sends the given batch of requests, each containing a payload marshalled by the configured
+     * <code>Marshaller</code>, and waits for their responses.
+     * <p/>
+     * Each request has to complete within the given call timeout, measured from the moment it starts executing, and the
+     * batch as a whole within the given batch timeout. Requests that do not complete in time are cancelled, and result
+     * in a {@link java.util.concurrent.TimeoutException} failure.
+     *
+     * @param requests     the requests to send
+     * @param callTimeout  the maximum time to wait for a single request
+     * @param batchTimeout the maximum time to wait for the entire batch
+     * @param unit         the time unit of the timeout arguments
+     * @return the results, in the order of the requests
+     * @throws InterruptedException if the current thread was interrupted while waiting; all requests are cancelled
+     */
+    List<WebServiceBatchResult> marshalSendAndReceiveAll(List<WebServiceBatchRequest> requests,
+                                                         long callTimeout,
+                                                         long batchTimeout,
+                                                         TimeUnit unit) throws InterruptedException;
+
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.client.WebServiceIOException;
+import org.springframework.ws.client.WebServiceTransformerException;
+import org.springframework.ws.client.WebServiceTransportException;
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.transport.AsyncWebServiceConnection;
+import org.springframework.ws.transport.AsyncWebServiceMessageSender;
+import org.springframework.ws.transport.ExchangeCallback;
+import org.springframework.ws.transport.TransportException;
+import org.springframework.ws.transport.WebServiceMessageSender;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.support.TransportUtils;
+import org.springframework.xml.transform.TransformerObjectSupport;
+
+/**
+ * Implementation of {@link AsyncWebServiceOperations} that performs the operations of a {@link WebServiceTemplate}
+ * with non-blocking I/O, using an {@link AsyncWebServiceMessageSender}, such as the {@link
+ * org.springframework.ws.transport.http.HttpComponentsAsyncMessageSender}.
+ * <p/>
+ * Unlike the {@link ExecutorWebServiceTemplate}, this template does not occupy a thread for the duration of a call. The
+ * request is created, passed to the request callback and the client interceptors, and written to the connection in
+ * the calling thread. It is then exchanged by the I/O threads of the message sender. Once the response has been
+ * received in full, it is handled in such an I/O thread: by the client interceptors, fault resolution, the response
+ * extractor or unmarshaller, and the result callback. These should therefore not block.
+ * <p/>
+ * The message factory, message senders, client interceptors, fault resolution, and marshaller of the given
+ * <code>WebServiceTemplate</code> apply as is. Its first message sender that is an {@link
+ * AsyncWebServiceMessageSender} and supports the URI of an operation is used; other message senders are ignored. The
+ * response is handled with the {@link TransportContext} of its connection.
+ *
+ * @author agent
+ * @see WebServiceTemplate
+ * @see AsyncWebServiceMessageSender
+ * @since 2.1.5
+ */
+public class AsyncWebServiceTemplate extends TransformerObjectSupport implements AsyncWebServiceOperations {
+
+    private final WebServiceTemplate webServiceTemplate;
+
+    /**
+     * Creates a new <code>AsyncWebServiceTemplate</code> that performs the operations of the given template.
+     *
+     * @param webServiceTemplate the template whose configuration to use; its message senders should include an {@link
+     *                           AsyncWebServiceMessageSender}
+     */
+    public AsyncWebServiceTemplate(WebServiceTemplate webServiceTemplate) {
+        Assert.notNull(webServiceTemplate, "'webServiceTemplate' must not be null");
+        this.webServiceTemplate = webServiceTemplate;
+    }
+
+    /** Returns the template whose operations are performed by this template. */
+    public WebServiceTemplate getWebServiceTemplate() {
+        return webServiceTemplate;
+    }
+
+    public <T> Future<T> sendAndReceive(String uri,
+                                        WebServiceMessageCallback requestCallback,
+                                        WebServiceMessageExtractor<T> responseExtractor) {
+        return sendAndReceive(uri, requestCallback, responseExtractor, null);
+    }
+
+    public <T> Future<T> sendAndReceive(String uriString,
+                                        WebServiceMessageCallback requestCallback,
+                                        WebServiceMessageExtractor<T> responseExtractor,
+                                        WebServiceResultCallback<T> resultCallback) {
+        Assert.notNull(responseExtractor, "'responseExtractor' must not be null");
+        Assert.hasLength(uriString, "'uri' must not be empty");
+        ExchangeFuture<T> future = new ExchangeFuture<T>(resultCallback);
+        TransportContext previousTransportContext = TransportContextHolder.getTransportContext();
+        AsyncWebServiceConnection connection = null;
+        boolean exchanging = false;
+        try {
+            connection = createConnection(URI.create(uriString));
+            TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+            MessageContext messageContext = new DefaultMessageContext(webServiceTemplate.getMessageFactory());
+            int interceptorIndex = webServiceTemplate.prepareRequest(messageContext, requestCallback);
+            if (messageContext.hasResponse()) {
+                // an interceptor has set a response, we don't send/receive
+                future.complete(webServiceTemplate
+                        .handleResponse(messageContext, connection, interceptorIndex, responseExtractor));
+            }
+            else {
+                webServiceTemplate.sendRequest(connection, messageContext.getRequest());
+                future.setConnection(connection);
+                connection.exchange(
+                        new ResponseHandler<T>(connection, messageContext, interceptorIndex, responseExtractor,
+                                future));
+                exchanging = true;
+            }
+        }
+        catch (Throwable ex) {
+            future.fail(ex);
+        }
+        finally {
+            if (!exchanging) {
+                TransportUtils.closeConnection(connection);
+            }
+            TransportContextHolder.setTransportContext(previousTransportContext);
+        }
+        return future;
+    }
+
+    public Future<Object> marshalSendAndReceive(Object requestPayload) {
+        return marshalSendAndReceive(webServiceTemplate.getDefaultUri(), requestPayload);
+    }
+
+    public Future<Object> marshalSendAndReceive(String uri, Object requestPayload) {
+        return marshalSendAndReceive(uri, requestPayload, null, null);
+    }
+
+    public Future<Object> marshalSendAndReceive(String uri,
+                                                Object requestPayload,
+                                                WebServiceMessageCallback requestCallback,
+                                                WebServiceResultCallback<Object> resultCallback) {
+        return sendAndReceive(uri, webServiceTemplate.createMarshallingRequestCallback(requestPayload, requestCallback),
+                webServiceTemplate.createUnmarshallingResponseExtractor(), resultCallback);
+    }
+
+    public <T> Future<T> sendSourceAndReceive(String uri, Source requestPayload, SourceExtractor<T> responseExtractor) {
+        Assert.notNull(responseExtractor, "responseExtractor must not be null");
+        WebServiceMessageCallback requestCallback;
+        try {
+            requestCallback = webServiceTemplate.createSourceRequestCallback(createTransformer(), requestPayload, null);
+        }
+        catch (TransformerConfigurationException ex) {
+            throw new WebServiceTransformerException("Could not create transformer", ex);
+        }
+        return sendAndReceive(uri, requestCallback,
+                new WebServiceTemplate.SourceExtractorMessageExtractor<T>(responseExtractor));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * All requests are started at once, so that the call timeout is measured from the moment this method is invoked.
+     * The concurrency is limited by the connection pool of the message sender, if any; requests waiting for a
+     * connection do not occupy a thread.
+     */
+    public List<WebServiceBatchResult> marshalSendAndReceiveAll(List<WebServiceBatchRequest> requests,
+                                                                long callTimeout,
+                                                                long batchTimeout,
+                                                                TimeUnit unit) throws InterruptedException {
+        Assert.notNull(requests, "'requests' must not be null");
+        Assert.isTrue(callTimeout > 0, "'callTimeout' must be larger than 0");
+        Assert.isTrue(batchTimeout > 0, "'batchTimeout' must be larger than 0");
+        Assert.notNull(unit, "'unit' must not be null");
+        long now = System.nanoTime();
+        long callDeadline = now + unit.toNanos(callTimeout);
+        long deadline = Math.min(callDeadline, now + unit.toNanos(batchTimeout));
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(requests.size());
+        List<WebServiceBatchResult> results = new ArrayList<WebServiceBatchResult>(requests.size());
+        boolean completed = false;
+        try {
+            for (WebServiceBatchRequest request : requests) {
+                futures.add(marshalSendAndReceive(request.getUri(), request.getRequestPayload(),
+                        request.getRequestCallback(), null));
+            }
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(awaitResult(requests.get(i), futures.get(i), deadline));
+            }
+            completed = true;
+        }
+        finally {
+            if (!completed) {
+                for (Future<Object> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        return results;
+    }
+
+    private WebServiceBatchResult awaitResult(WebServiceBatchRequest request, Future<Object> future, long deadline)
+            throws InterruptedException {
+        try {
+            Object responsePayload = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return new WebServiceBatchResult(request, responsePayload, null);
+        }
+        catch (TimeoutException ex) {
+            future.cancel(true);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Request to [" + request.getUri() + "] timed out; cancelled");
+            }
+            return new WebServiceBatchResult(request, null,
+                    new TimeoutException("Request to [" + request.getUri() + "] timed out"));
+        }
+        catch (ExecutionException ex) {
+            return new WebServiceBatchResult(request, null, ex.getCause());
+        }
+        catch (CancellationException ex) {
+            return new WebServiceBatchResult(request, null, ex);
+        }
+    }
+
+    /**
+     * Creates an asynchronous connection to the given URI, using the first message sender of the template that is an
+     * {@link AsyncWebServiceMessageSender} and supports it.
+     *
+     * @param uri the URI to open a connection to
+     * @return the created connection
+     * @throws IllegalArgumentException when the uri cannot be resolved
+     * @throws IOException              when an I/O error occurs
+     */
+    protected AsyncWebServiceConnection createConnection(URI uri) throws IOException {
+        WebServiceMessageSender[] messageSenders = webServiceTemplate.getMessageSenders();
+        Assert.notEmpty(messageSenders, "Property 'messageSenders' is required");
+        for (WebServiceMessageSender messageSender : messageSenders) {
+            if (messageSender instanceof AsyncWebServiceMessageSender && messageSender.supports(uri)) {
+                AsyncWebServiceConnection connection =
+                        ((AsyncWebServiceMessageSender) messageSender).createConnection(uri);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Opening [" + connection + "] to [" + uri + "]");
+                }
+                return connection;
+            }
+        }
+        throw new IllegalArgumentException("Could not resolve [" + uri + "] to an AsyncWebServiceMessageSender");
+    }
+
+    /** Converts the given exception into the exception that the blocking operations would have thrown. */
+    private static Throwable convertException(Throwable ex) {
+        if (ex instanceof TransportException) {
+            return new WebServiceTransportException("Could not use transport: " + ex.getMessage(),
+                    (TransportException) ex);
+        }
+        else if (ex instanceof IOException) {
+            return new WebServiceIOException("I/O error: " + ex.getMessage(), (IOException) ex);
+        }
+        else if (ex instanceof TransformerException) {
+            return new WebServiceTransformerException("Transformation error: " + ex.getMessage(),
+                    (TransformerException) ex);
+        }
+        return ex;
+    }
+
+    /** Handles the response of an exchange, in the thread that notifies of its completion. */
+    private class ResponseHandler<T> implements ExchangeCallback {
+
+        private final AsyncWebServiceConnection connection;
+
+        private final MessageContext messageContext;
+
+        private final int interceptorIndex;
+
+        private final WebServiceMessageExtractor<T> responseExtractor;
+
+        private final ExchangeFuture<T> future;
+
+        private ResponseHandler(AsyncWebServiceConnection connection,
+                                MessageContext messageContext,
+                                int interceptorIndex,
+                                WebServiceMessageExtractor<T> responseExtractor,
+                                ExchangeFuture<T> future) {
+            this.connection = connection;
+            this.messageContext = messageContext;
+            this.interceptorIndex = interceptorIndex;
+            this.responseExtractor = responseExtractor;
+            this.future = future;
+        }
+
+        public void completed() {
+            TransportContext previousTransportContext = TransportContextHolder.getTransportContext();
+            try {
+                TransportContextHolder.setTransportContext(new DefaultTransportContext(connection));
+                future.complete(webServiceTemplate
+                        .handleResponse(messageContext, connection, interceptorIndex, responseExtractor));
+            }
+            catch (Throwable ex) {
+                future.fail(ex);
+            }
+            finally {
+                TransportUtils.closeConnection(connection);
+                TransportContextHolder.setTransportContext(previousTransportContext);
+            }
+        }
+
+        public void failed(Exception ex) {
+            try {
+                future.fail(ex);
+            }
+            finally {
+                TransportUtils.closeConnection(connection);
+            }
+        }
+    }
+
+    /** Future for the result of an exchange, which cancels the exchange when cancelled. */
+    private static class ExchangeFuture<T> extends ResultCallbackFutureTask<T> {
+
+        private volatile AsyncWebServiceConnection connection;
+
+        private ExchangeFuture(WebServiceResultCallback<T> resultCallback) {
+            super(new Callable<T>() {
+                public T call() throws Exception {
+                    throw new UnsupportedOperationException("Completed by its exchange");
+                }
+            }, resultCallback);
+        }
+
+        private void setConnection(AsyncWebServiceConnection connection) {
+            this.connection = connection;
+        }
+
+        private void complete(T result) {
+            set(result);
+        }
+
+        private void fail(Throwable ex) {
+            setException(convertException(ex));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            AsyncWebServiceConnection connection = this.connection;
+            if (cancelled && connection != null) {
+                connection.cancel();
+            }
+            return cancelled;
+        }
+    }
+
+}
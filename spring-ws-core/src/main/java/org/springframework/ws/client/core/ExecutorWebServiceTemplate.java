@@ -0,0 +1,275 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.xml.transform.Source;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+
+/**
+ * Implementation of {@link AsyncWebServiceOperations} that executes the operations of a {@link WebServiceOperations},
+ * typically a {@link WebServiceTemplate}, using an {@link Executor}.
+ * <p/>
+ * Note that this template is <strong>not</strong> non-blocking: each operation still performs blocking I/O, and
+ * occupies an executor thread for its entire duration. It merely moves that blocking call off the calling thread. The
+ * number of concurrent calls is therefore bounded by the executor, which must be given explicitly; typically a thread
+ * pool, such as a {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor}, sized for the expected
+ * number of concurrent calls and with a bounded queue. For non-blocking I/O, use the {@link AsyncWebServiceTemplate}.
+ * <p/>
+ * Since the operations are delegated to the given <code>WebServiceOperations</code>, its configuration applies to them
+ * as is: the message factory, message senders, client interceptors, fault resolution, and marshaller. Each operation
+ * runs in an executor thread, with its own {@link org.springframework.ws.transport.context.TransportContext}.
+ *
+ * @author Arjen Poutsma
+ * @see WebServiceTemplate
+ * @see AsyncWebServiceTemplate
+ * @since 2.1.5
+ */
+public class ExecutorWebServiceTemplate implements AsyncWebServiceOperations {
+
+    /** Logger available to subclasses. */
+    protected final Log logger = LogFactory.getLog(getClass());
+
+    private final WebServiceOperations webServiceOperations;
+
+    private final Executor executor;
+
+    /**
+     * Creates a new <code>ExecutorWebServiceTemplate</code> for the given operations, using the given executor. The
+     * executor must bound the number of threads it uses; a {@link SimpleAsyncTaskExecutor}, which creates a new thread
+     * for each task, is only accepted with a concurrency limit.
+     *
+     * @param webServiceOperations the operations to execute
+     * @param executor             the bounded executor to execute the operations with
+     */
+    public ExecutorWebServiceTemplate(WebServiceOperations webServiceOperations, Executor executor) {
+        Assert.notNull(webServiceOperations, "'webServiceOperations' must not be null");
+        Assert.notNull(executor, "'executor' must not be null");
+        Assert.isTrue(!(executor instanceof SimpleAsyncTaskExecutor) ||
+                ((SimpleAsyncTaskExecutor) executor).isThrottleActive(),
+                "'executor' must be bounded; set a concurrency limit on the SimpleAsyncTaskExecutor");
+        this.webServiceOperations = webServiceOperations;
+        this.executor = executor;
+    }
+
+    /** Returns the operations executed by this template. */
+    public WebServiceOperations getWebServiceOperations() {
+        return webServiceOperations;
+    }
+
+    /** Returns the executor used by this template. */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public <T> Future<T> sendAndReceive(String uri,
+                                        WebServiceMessageCallback requestCallback,
+                                        WebServiceMessageExtractor<T> responseExtractor) {
+        return sendAndReceive(uri, requestCallback, responseExtractor, null);
+    }
+
+    public <T> Future<T> sendAndReceive(final String uri,
+                                        final WebServiceMessageCallback requestCallback,
+                                        final WebServiceMessageExtractor<T> responseExtractor,
+                                        WebServiceResultCallback<T> resultCallback) {
+        return execute(new Callable<T>() {
+            public T call() throws Exception {
+                return webServiceOperations.sendAndReceive(uri, requestCallback, responseExtractor);
+            }
+        }, resultCallback);
+    }
+
+    public Future<Object> marshalSendAndReceive(final Object requestPayload) {
+        return execute(new Callable<Object>() {
+            public Object call() throws Exception {
+                return webServiceOperations.marshalSendAndReceive(requestPayload);
+            }
+        }, null);
+    }
+
+    public Future<Object> marshalSendAndReceive(String uri, Object requestPayload) {
+        return marshalSendAndReceive(uri, requestPayload, null, null);
+    }
+
+    public Future<Object> marshalSendAndReceive(final String uri,
+                                                final Object requestPayload,
+                                                final WebServiceMessageCallback requestCallback,
+                                                WebServiceResultCallback<Object> resultCallback) {
+        return execute(new Callable<Object>() {
+            public Object call() throws Exception {
+                return webServiceOperations.marshalSendAndReceive(uri, requestPayload, requestCallback);
+            }
+        }, resultCallback);
+    }
+
+    public <T> Future<T> sendSourceAndReceive(final String uri,
+                                              final Source requestPayload,
+                                              final SourceExtractor<T> responseExtractor) {
+        return execute(new Callable<T>() {
+            public T call() throws Exception {
+                return webServiceOperations.sendSourceAndReceive(uri, requestPayload, responseExtractor);
+            }
+        }, null);
+    }
+
+    public List<WebServiceBatchResult> marshalSendAndReceiveAll(List<WebServiceBatchRequest> requests,
+                                                                long callTimeout,
+                                                                long batchTimeout,
+                                                                TimeUnit unit) throws InterruptedException {
+        Assert.notNull(requests, "'requests' must not be null");
+        Assert.isTrue(callTimeout > 0, "'callTimeout' must be larger than 0");
+        Assert.isTrue(batchTimeout > 0, "'batchTimeout' must be larger than 0");
+        Assert.notNull(unit, "'unit' must not be null");
+        long callNanos = unit.toNanos(callTimeout);
+        long batchDeadline = System.nanoTime() + unit.toNanos(batchTimeout);
+        List<BatchCall> calls = new ArrayList<BatchCall>(requests.size());
+        List<WebServiceBatchResult> results = new ArrayList<WebServiceBatchResult>(requests.size());
+        boolean completed = false;
+        try {
+            for (WebServiceBatchRequest request : requests) {
+                BatchCall call = new BatchCall(request);
+                calls.add(call);
+                try {
+                    executor.execute(call.future);
+                }
+                catch (RuntimeException ex) {
+                    // executor rejected the call
+                    call.future.cancel(false);
+                    call.rejection = ex;
+                }
+            }
+            for (BatchCall call : calls) {
+                results.add(awaitResult(call, callNanos, batchDeadline));
+            }
+            completed = true;
+        }
+        finally {
+            if (!completed) {
+                for (BatchCall call : calls) {
+                    call.future.cancel(true);
+                }
+            }
+        }
+        return results;
+    }
+
+    private WebServiceBatchResult awaitResult(BatchCall call, long callNanos, long batchDeadline)
+            throws InterruptedException {
+        if (call.rejection != null) {
+            return new WebServiceBatchResult(call.request, null, call.rejection);
+        }
+        while (true) {
+            long now = System.nanoTime();
+            long deadline;
+            if (call.started) {
+                deadline = Math.min(batchDeadline, call.startTime + callNanos);
+            }
+            else {
+                // not started yet; wait for at most the call timeout, and check again
+                deadline = Math.min(batchDeadline, now + callNanos);
+            }
+            long remaining = deadline - now;
+            if (remaining <= 0) {
+                call.future.cancel(true);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Request to [" + call.request.getUri() + "] timed out; cancelled");
+                }
+                return new WebServiceBatchResult(call.request, null,
+                        new TimeoutException("Request to [" + call.request.getUri() + "] timed out"));
+            }
+            try {
+                Object responsePayload = call.future.get(remaining, TimeUnit.NANOSECONDS);
+                return new WebServiceBatchResult(call.request, responsePayload, null);
+            }
+            catch (TimeoutException ex) {
+                // re-evaluate the deadline
+            }
+            catch (ExecutionException ex) {
+                return new WebServiceBatchResult(call.request, null, ex.getCause());
+            }
+            catch (CancellationException ex) {
+                return new WebServiceBatchResult(call.request, null, ex);
+            }
+        }
+    }
+
+    /**
+     * Executes the given operation using the executor, notifying the given callback when it completes.
+     *
+     * @param operation      the operation to execute
+     * @param resultCallback the callback to notify; may be <code>null</code>
+     * @return a future for the result of the operation
+     */
+    protected <T> Future<T> execute(Callable<T> operation, WebServiceResultCallback<T> resultCallback) {
+        FutureTask<T> future = new ResultCallbackFutureTask<T>(operation, resultCallback);
+        executor.execute(future);
+        return future;
+    }
+
+    /**
+     * A single call of a batch. Restores the thread-bound transport context after the call, so that it is neither
+     * carried over from one call to the next by pooled executor threads, nor lost by a caller that runs the call
+     * itself.
+     */
+    private class BatchCall implements Callable<Object> {
+
+        private final WebServiceBatchRequest request;
+
+        private final FutureTask<Object> future;
+
+        private volatile boolean started;
+
+        private volatile long startTime;
+
+        private RuntimeException rejection;
+
+        private BatchCall(WebServiceBatchRequest request) {
+            this.request = request;
+            this.future = new FutureTask<Object>(this);
+        }
+
+        public Object call() throws Exception {
+            startTime = System.nanoTime();
+            started = true;
+            TransportContext previousTransportContext = TransportContextHolder.getTransportContext();
+            try {
+                return webServiceOperations.marshalSendAndReceive(request.getUri(), request.getRequestPayload(),
+                        request.getRequestCallback());
+            }
+            finally {
+                TransportContextHolder.setTransportContext(previousTransportContext);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * <code>FutureTask</code> that notifies a {@link WebServiceResultCallback} when done. Used by the {@link
+ * AsyncWebServiceOperations} implementations.
+ *
+ * @author agent
+ * @since 2.1.5
+ */
+class ResultCallbackFutureTask<T> extends FutureTask<T> {
+
+    private static final Log logger = LogFactory.getLog(ResultCallbackFutureTask.class);
+
+    private final WebServiceResultCallback<T> resultCallback;
+
+    ResultCallbackFutureTask(Callable<T> operation, WebServiceResultCallback<T> resultCallback) {
+        super(operation);
+        this.resultCallback = resultCallback;
+    }
+
+    @Override
+    protected void done() {
+        if (resultCallback == null || isCancelled()) {
+            return;
+        }
+        T result;
+        try {
+            result = get();
+        }
+        catch (InterruptedException ex) {
+            // cannot happen, since the task is done
+            Thread.currentThread().interrupt();
+            return;
+        }
+        catch (ExecutionException ex) {
+            notifyFailure(ex.getCause());
+            return;
+        }
+        try {
+            resultCallback.onSuccess(result);
+        }
+        catch (RuntimeException ex) {
+            logger.warn("Result callback threw exception", ex);
+        }
+    }
+
+    private void notifyFailure(Throwable cause) {
+        try {
+            resultCallback.onFailure(cause);
+        }
+        catch (RuntimeException ex) {
+            logger.warn("Result callback threw exception", ex);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import org.springframework.util.Assert;
+
+/**
+ * A single request of a batch sent by {@link ExecutorWebServiceTemplate#marshalSendAndReceiveAll}: a payload that is
+ * marshalled and sent to a URI, optionally manipulated by a {@link WebServiceMessageCallback}.
+ *
+ * @author agent
+ * @see WebServiceBatchResult
+ * @since 2.1.5
+ */
+public class WebServiceBatchRequest {
+
+    private final String uri;
+
+    private final Object requestPayload;
+
+    private final WebServiceMessageCallback requestCallback;
+
+    /**
+     * Creates a new batch request.
+     *
+     * @param uri            the URI to send the message to
+     * @param requestPayload the object to marshal into the request message payload
+     */
+    public WebServiceBatchRequest(String uri, Object requestPayload) {
+        this(uri, requestPayload, null);
+    }
+
+    /**
+     * Creates a new batch request.
+     *
+     * @param uri             the URI to send the message to
+     * @param requestPayload  the object to marshal into the request message payload
+     * @param requestCallback callback to change message, can be <code>null</code>
+     */
+    public WebServiceBatchRequest(String uri, Object requestPayload, WebServiceMessageCallback requestCallback) {
+        Assert.hasLength(uri, "'uri' must not be empty");
+        this.uri = uri;
+        this.requestPayload = requestPayload;
+        this.requestCallback = requestCallback;
+    }
+
+    /** Returns the URI to send the message to. */
+    public String getUri() {
+        return uri;
+    }
+
+    /** Returns the object to marshal into the request message payload. */
+    public Object getRequestPayload() {
+        return requestPayload;
+    }
+
+    /** Returns the callback to change the message, if any. */
+    public WebServiceMessageCallback getRequestCallback() {
+        return requestCallback;
+    }
+
+    @Override
+    public String toString() {
+        return "WebServiceBatchRequest[" + uri + "]";
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+/**
+ * The result of a single {@link WebServiceBatchRequest}: either the unmarshalled response payload, or the failure that
+ * prevented it, which is a {@link java.util.concurrent.TimeoutException} if a deadline passed.
+ *
+ * @author agent
+ * @see ExecutorWebServiceTemplate#marshalSendAndReceiveAll
+ * @since 2.1.5
+ */
+public class WebServiceBatchResult {
+
+    private final WebServiceBatchRequest request;
+
+    private final Object responsePayload;
+
+    private final Throwable failure;
+
+    WebServiceBatchResult(WebServiceBatchRequest request, Object responsePayload, Throwable failure) {
+        this.request = request;
+        this.responsePayload = responsePayload;
+        this.failure = failure;
+    }
+
+    /** Returns the request of this result. */
+    public WebServiceBatchRequest getRequest() {
+        return request;
+    }
+
+    /** Indicates whether the request was successful. */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * Returns the unmarshalled payload of the response message, or <code>null</code> if no response was given or the
+     * request failed.
+     */
+    public Object getResponsePayload() {
+        return responsePayload;
+    }
+
+    /** Returns the failure of the request, or <code>null</code> if the request was successful. */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "WebServiceBatchResult[" + request.getUri() + ", " + (failure == null ? "success" : failure) + "]";
+    }
+}
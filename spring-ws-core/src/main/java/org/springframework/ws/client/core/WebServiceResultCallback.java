@@ -0,0 +1,47 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import org.springframework.ws.client.WebServiceClientException;
+
+/**
+ * Callback interface for the result of an asynchronous Web service operation. Used by {@link
+ * AsyncWebServiceOperations}.
+ * <p/>
+ * The callback methods are invoked in the thread that executed the operation, once it has completed.
+ *
+ * @author agent
+ * @see AsyncWebServiceOperations
+ * @since 2.1.5
+ */
+public interface WebServiceResultCallback<T> {
+
+    /**
+     * Called when the operation has completed successfully.
+     *
+     * @param result the result of the operation; may be <code>null</code>
+     */
+    void onSuccess(T result);
+
+    /**
+     * Called when the operation has failed.
+     *
+     * @param ex the exception that caused the failure, typically a {@link WebServiceClientException}
+     */
+    void onFailure(Throwable ex);
+
+}
@@ -383,7 +383,17 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
     public Object marshalSendAndReceive(String uri,
                                         final Object requestPayload,
                                         final WebServiceMessageCallback requestCallback) {
-        return sendAndReceive(uri, new WebServiceMessageCallback() {
+        return sendAndReceive(uri, createMarshallingRequestCallback(requestPayload, requestCallback),
+                createUnmarshallingResponseExtractor());
+    }
+
+    /**
+     * Returns a callback that marshals the given payload into the request message, and then invokes the given
+     * callback, if any.
+     */
+    WebServiceMessageCallback createMarshallingRequestCallback(final Object requestPayload,
+                                                               final WebServiceMessageCallback requestCallback) {
+        return new WebServiceMessageCallback() {
 
             public void doWithMessage(WebServiceMessage request) throws IOException, TransformerException {
                 if (requestPayload != null) {
@@ -398,7 +408,12 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
                     }
                 }
             }
-        }, new WebServiceMessageExtractor<Object>() {
+        };
+    }
+
+    /** Returns an extractor that unmarshals the payload of the response message. */
+    WebServiceMessageExtractor<Object> createUnmarshallingResponseExtractor() {
+        return new WebServiceMessageExtractor<Object>() {
 
             public Object extractData(WebServiceMessage response) throws IOException {
                 Unmarshaller unmarshaller = getUnmarshaller();
@@ -408,7 +423,7 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
                 }
                 return MarshallingUtils.unmarshal(unmarshaller, response);
             }
-        });
+        };
     }
 
     //
@@ -491,14 +506,25 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
                                     final WebServiceMessageCallback requestCallback,
                                     final SourceExtractor<T> responseExtractor) {
         Assert.notNull(responseExtractor, "responseExtractor must not be null");
-        return sendAndReceive(uri, new WebServiceMessageCallback() {
+        return sendAndReceive(uri, createSourceRequestCallback(transformer, requestPayload, requestCallback),
+                new SourceExtractorMessageExtractor<T>(responseExtractor));
+    }
+
+    /**
+     * Returns a callback that transforms the given payload into the request message, and then invokes the given
+     * callback, if any.
+     */
+    WebServiceMessageCallback createSourceRequestCallback(final Transformer transformer,
+                                                          final Source requestPayload,
+                                                          final WebServiceMessageCallback requestCallback) {
+        return new WebServiceMessageCallback() {
             public void doWithMessage(WebServiceMessage message) throws IOException, TransformerException {
                 transformer.transform(requestPayload, message.getPayloadResult());
                 if (requestCallback != null) {
                     requestCallback.doWithMessage(message);
                 }
             }
-        }, new SourceExtractorMessageExtractor<T>(responseExtractor));
+        };
     }
 
     //
@@ -563,56 +589,87 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
      * @throws WebServiceClientException if there is a problem sending or receiving the message
      * @throws IOException               in case of I/O errors
      */
-    @SuppressWarnings("unchecked")
     protected <T> T doSendAndReceive(MessageContext messageContext,
                                      WebServiceConnection connection,
                                      WebServiceMessageCallback requestCallback,
                                      WebServiceMessageExtractor<T> responseExtractor) throws IOException {
         try {
-            if (requestCallback != null) {
-                requestCallback.doWithMessage(messageContext.getRequest());
-            }
-            // Apply handleRequest of registered interceptors
-            int interceptorIndex = -1;
-            if (interceptors != null) {
-                for (int i = 0; i < interceptors.length; i++) {
-                    interceptorIndex = i;
-                    if (!interceptors[i].handleRequest(messageContext)) {
-                        break;
-                    }
-                }
-            }
+            int interceptorIndex = prepareRequest(messageContext, requestCallback);
             // if an interceptor has set a response, we don't send/receive
             if (!messageContext.hasResponse()) {
                 sendRequest(connection, messageContext.getRequest());
-                if (hasError(connection, messageContext.getRequest())) {
-                    return (T)handleError(connection, messageContext.getRequest());
-                }
-                WebServiceMessage response = connection.receive(getMessageFactory());
-                messageContext.setResponse(response);
             }
-            logResponse(messageContext);
-            if (messageContext.hasResponse()) {
-                if (!hasFault(connection, messageContext.getResponse())) {
-                    triggerHandleResponse(interceptorIndex, messageContext);
-                    return responseExtractor.extractData(messageContext.getResponse());
-                }
-                else {
-                    triggerHandleFault(interceptorIndex, messageContext);
-                    return (T)handleFault(connection, messageContext);
+            return handleResponse(messageContext, connection, interceptorIndex, responseExtractor);
+        }
+        catch (TransformerException ex) {
+            throw new WebServiceTransformerException("Transformation error: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Invokes the request callback, if any, and applies handleRequest of the registered interceptors to the request in
+     * the given message context.
+     *
+     * @return the index of the last interceptor that was called, or -1 if none
+     */
+    int prepareRequest(MessageContext messageContext, WebServiceMessageCallback requestCallback)
+            throws IOException, TransformerException {
+        if (requestCallback != null) {
+            requestCallback.doWithMessage(messageContext.getRequest());
+        }
+        // Apply handleRequest of registered interceptors
+        int interceptorIndex = -1;
+        if (interceptors != null) {
+            for (int i = 0; i < interceptors.length; i++) {
+                interceptorIndex = i;
+                if (!interceptors[i].handleRequest(messageContext)) {
+                    break;
                 }
             }
+        }
+        return interceptorIndex;
+    }
+
+    /**
+     * Receives the response over the connection, unless an interceptor has already set it in the given message context,
+     * and extracts the result from it after error and fault handling.
+     *
+     * @param messageContext    the message context
+     * @param connection        the connection the request has been sent over
+     * @param interceptorIndex  index of the last interceptor that was called
+     * @param responseExtractor object that will extract results
+     * @return an arbitrary result object, as returned by the <code>WebServiceMessageExtractor</code>
+     */
+    @SuppressWarnings("unchecked")
+    <T> T handleResponse(MessageContext messageContext,
+                         WebServiceConnection connection,
+                         int interceptorIndex,
+                         WebServiceMessageExtractor<T> responseExtractor) throws IOException, TransformerException {
+        if (!messageContext.hasResponse()) {
+            if (hasError(connection, messageContext.getRequest())) {
+                return (T)handleError(connection, messageContext.getRequest());
+            }
+            WebServiceMessage response = connection.receive(getMessageFactory());
+            messageContext.setResponse(response);
+        }
+        logResponse(messageContext);
+        if (messageContext.hasResponse()) {
+            if (!hasFault(connection, messageContext.getResponse())) {
+                triggerHandleResponse(interceptorIndex, messageContext);
+                return responseExtractor.extractData(messageContext.getResponse());
+            }
             else {
-                return null;
+                triggerHandleFault(interceptorIndex, messageContext);
+                return (T)handleFault(connection, messageContext);
             }
         }
-        catch (TransformerException ex) {
-            throw new WebServiceTransformerException("Transformation error: " + ex.getMessage(), ex);
+        else {
+            return null;
         }
     }
 
     /** Sends the request in the given message context over the connection. */
-    private void sendRequest(WebServiceConnection connection, WebServiceMessage request) throws IOException {
+    void sendRequest(WebServiceConnection connection, WebServiceMessage request) throws IOException {
         if (sentMessageTracingLogger.isTraceEnabled()) {
             ByteArrayOutputStream os = new ByteArrayOutputStream();
             request.writeTo(os);
@@ -797,11 +854,11 @@ public class WebServiceTemplate extends WebServiceAccessor implements WebService
     }
 
     /** Adapter to enable use of a SourceExtractor inside a WebServiceMessageExtractor. */
-    private static class SourceExtractorMessageExtractor<T> implements WebServiceMessageExtractor<T> {
+    static class SourceExtractorMessageExtractor<T> implements WebServiceMessageExtractor<T> {
 
         private final SourceExtractor<T> sourceExtractor;
 
-        private SourceExtractorMessageExtractor(SourceExtractor<T> sourceExtractor) {
+        SourceExtractorMessageExtractor(SourceExtractor<T> sourceExtractor) {
             this.sourceExtractor = sourceExtractor;
         }
 
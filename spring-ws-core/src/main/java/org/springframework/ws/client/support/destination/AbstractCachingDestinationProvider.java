@@ -1,5 +1,5 @@
 /*
- * Copyright 2008 the original author or authors.
+ * Copyright 2008-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,15 +17,22 @@
 package org.springframework.ws.client.support.destination;
 
 import java.net.URI;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.Assert;
+
 /**
  * Abstract base class for {@link DestinationProvider} implementations that cache destination URI.
  * <p/>
  * Caching can be disabled by setting the {@link #setCache(boolean) cache} property to <code>false</code>; forcing a
- * destination lookup for every call.
+ * destination lookup for every call. Alternatively, cached destinations can be expired after a number of {@linkplain
+ * #setCacheSeconds(int) seconds}, after which they are looked up again, either by the calling thread, or {@linkplain
+ * #setAsyncRefresh(boolean) asynchronously} while the expired destination is still returned.
  *
  * @author Arjen Poutsma
  * @since 1.5.4
@@ -35,35 +42,154 @@ public abstract class AbstractCachingDestinationProvider implements DestinationP
     /** Logger available to subclasses. */
     protected final Log logger = LogFactory.getLog(getClass());
 
-    private URI cachedUri;
+    private volatile URI cachedUri;
+
+    private volatile long cachedTimestamp;
+
+    /** Cache duration in milliseconds; -1 caches forever, 0 disables caching. */
+    private long cacheMillis = -1;
+
+    private boolean asyncRefresh = false;
+
+    private Executor refreshExecutor = new SimpleAsyncTaskExecutor(getClass().getSimpleName() + "-");
+
+    private boolean fallbackToCachedDestination = false;
 
-    private boolean cache = true;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
 
     /**
      * Set whether to cache resolved destinations. Default is <code>true</code>. This flag can be turned off to
      * re-lookup a destination for each operation, which allows for hot restarting of destinations. This is mainly
      * useful during development.
+     *
+     * @see #setCacheSeconds(int)
      */
     public void setCache(boolean cache) {
-        this.cache = cache;
+        this.cacheMillis = cache ? -1 : 0;
+    }
+
+    /**
+     * Set the number of seconds to cache resolved destinations. After this time, the destination is looked up again,
+     * which allows for picking up changed destinations without disabling the cache altogether.
+     * <p/>
+     * Default is -1, caching forever. A value of 0 disables caching, just like setting the {@link #setCache(boolean)
+     * cache} property to <code>false</code>.
+     */
+    public void setCacheSeconds(int cacheSeconds) {
+        Assert.isTrue(cacheSeconds >= -1, "'cacheSeconds' must be -1 or larger");
+        this.cacheMillis = cacheSeconds * 1000L;
+    }
+
+    /**
+     * Set whether expired destinations are looked up asynchronously, by the {@linkplain #setRefreshExecutor(Executor)
+     * refresh executor}. If <code>true</code>, the expired destination is returned until the lookup completes, so that
+     * callers do not block on it; only the very first lookup blocks. Default is <code>false</code>.
+     *
+     * @see #setCacheSeconds(int)
+     */
+    public void setAsyncRefresh(boolean asyncRefresh) {
+        this.asyncRefresh = asyncRefresh;
+    }
+
+    /**
+     * Set the executor used to look up expired destinations asynchronously. Only used when {@linkplain
+     * #setAsyncRefresh(boolean) asynchronous refresh} is enabled. Defaults to a {@link SimpleAsyncTaskExecutor}.
+     */
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        Assert.notNull(refreshExecutor, "'refreshExecutor' must not be null");
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Set whether the last successfully looked up destination is kept when looking up an expired destination fails.
+     * If <code>true</code>, the failure is logged, and the expired destination is used for another cache period. If
+     * <code>false</code>, the failure is thrown to the caller. Default is <code>false</code>.
+     */
+    public void setFallbackToCachedDestination(boolean fallbackToCachedDestination) {
+        this.fallbackToCachedDestination = fallbackToCachedDestination;
     }
 
     public final URI getDestination() {
-        if (cache) {
-            if (cachedUri == null) {
-                cachedUri = lookupDestination();
+        if (cacheMillis == 0) {
+            return lookupDestination();
+        }
+        URI uri = cachedUri;
+        if (uri == null) {
+            return refreshDestination();
+        }
+        if (isExpired()) {
+            if (asyncRefresh) {
+                scheduleRefresh();
+            }
+            else {
+                return refreshDestination();
             }
-            return cachedUri;
         }
-        else {
-            return lookupDestination();
+        return uri;
+    }
+
+    private boolean isExpired() {
+        return cacheMillis > 0 && currentTimeMillis() - cachedTimestamp >= cacheMillis;
+    }
+
+    private synchronized URI refreshDestination() {
+        URI uri = cachedUri;
+        if (uri != null && !isExpired()) {
+            // refreshed by another thread in the meantime
+            return uri;
+        }
+        try {
+            uri = lookupDestination();
+        }
+        catch (RuntimeException ex) {
+            if (fallbackToCachedDestination && uri != null) {
+                logger.warn("Could not look up destination; using cached destination [" + uri + "]", ex);
+                cachedTimestamp = currentTimeMillis();
+                return uri;
+            }
+            cachedUri = null;
+            throw ex;
         }
+        cachedUri = uri;
+        cachedTimestamp = currentTimeMillis();
+        return uri;
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        refreshDestination();
+                    }
+                    catch (RuntimeException ex) {
+                        logger.warn("Could not look up destination", ex);
+                    }
+                    finally {
+                        refreshing.set(false);
+                    }
+                }
+            });
+        }
+        catch (RuntimeException ex) {
+            refreshing.set(false);
+            logger.warn("Could not schedule destination lookup", ex);
+        }
+    }
+
+    /** Returns the current time in milliseconds. Can be overridden for testing purposes. */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
     }
 
     /**
      * Abstract template method that looks up the URI.
      * <p/>
-     * If {@linkplain #setCache(boolean) caching}  is enabled, this method will only be called once.
+     * If {@linkplain #setCache(boolean) caching} is enabled, this method will only be called once, or once per
+     * {@linkplain #setCacheSeconds(int) cache period}.
      *
      * @return the destination URI
      */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,6 +41,9 @@ import org.springframework.xml.xpath.XPathExpressionFactory;
  * The extraction relies on an XPath expression to locate the URI. By default, the {@link
  * #DEFAULT_WSDL_LOCATION_EXPRESSION} will be used, but this expression can be overridden by setting the {@link
  * #setLocationExpression(String) locationExpression} property.
+ * <p/>
+ * When the destination is looked up again, for instance because {@linkplain #setCacheSeconds(int) the cached
+ * destination has expired}, the WSDL is only parsed again if its last-modified timestamp has changed, or is unknown.
  *
  * @author Tareq Abed Rabbo
  * @author Arjen Poutsma
@@ -60,6 +63,9 @@ public class Wsdl11DestinationProvider extends AbstractCachingDestinationProvide
 
     private Resource wsdlResource;
 
+    /** The location last parsed from the WSDL, if any. */
+    private volatile ParsedLocation parsedLocation;
+
     public Wsdl11DestinationProvider() {
         expressionNamespaces.put("wsdl", "http://schemas.xmlsoap.org/wsdl/");
         expressionNamespaces.put("soap", "http://schemas.xmlsoap.org/wsdl/soap/");
@@ -74,6 +80,7 @@ public class Wsdl11DestinationProvider extends AbstractCachingDestinationProvide
         Assert.notNull(wsdlResource, "'wsdl' must not be null");
         Assert.isTrue(wsdlResource.exists(), wsdlResource + " does not exist");
         this.wsdlResource = wsdlResource;
+        this.parsedLocation = null;
     }
 
     /**
@@ -91,10 +98,35 @@ public class Wsdl11DestinationProvider extends AbstractCachingDestinationProvide
         Assert.hasText(expression, "'expression' must not be empty");
         locationXPathExpression = XPathExpressionFactory
                 .createXPathExpression(expression, expressionNamespaces);
+        parsedLocation = null;
     }
 
     @Override
     protected URI lookupDestination() {
+        long lastModified = getLastModified();
+        ParsedLocation parsed = parsedLocation;
+        if (parsed != null && lastModified > 0 && lastModified == parsed.lastModified) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(wsdlResource + " has not been modified; using location [" + parsed.location + "]");
+            }
+            return parsed.location;
+        }
+        URI location = parseLocation();
+        parsedLocation = new ParsedLocation(location, lastModified);
+        return location;
+    }
+
+    private long getLastModified() {
+        try {
+            return wsdlResource.lastModified();
+        }
+        catch (IOException ex) {
+            // last-modified timestamp unknown
+            return 0;
+        }
+    }
+
+    private URI parseLocation() {
         try {
             DOMResult result = new DOMResult();
             Transformer transformer = transformerFactory.newTransformer();
@@ -114,4 +146,17 @@ public class Wsdl11DestinationProvider extends AbstractCachingDestinationProvide
         }
     }
 
+    /** A location parsed from the WSDL, together with the last-modified timestamp of the WSDL at that time. */
+    private static class ParsedLocation {
+
+        private final URI location;
+
+        private final long lastModified;
+
+        private ParsedLocation(URI location, long lastModified) {
+            this.location = location;
+            this.lastModified = lastModified;
+        }
+    }
+
 }
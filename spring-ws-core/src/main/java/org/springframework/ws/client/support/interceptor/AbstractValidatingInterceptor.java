@@ -29,6 +29,7 @@ import org.springframework.ws.client.WebServiceClientException;
 import org.springframework.ws.client.WebServiceIOException;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.xml.transform.TransformerObjectSupport;
+import org.springframework.xml.validation.PooledXmlValidator;
 import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.validation.XmlValidatorFactory;
 import org.springframework.xml.xsd.XsdSchema;
@@ -62,6 +63,8 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 
     private XmlValidator validator;
 
+    private int validatorPoolSize = 0;
+
     public String getSchemaLanguage() {
         return schemaLanguage;
     }
@@ -138,6 +141,29 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
         this.validateResponse = validateResponse;
     }
 
+    /**
+     * Sets the maximum number of idle JAXP validators kept for reuse. Applies to the {@link #setSchemas(Resource[])
+     * schemas} property, and to the {@link #setXsdSchema(XsdSchema) xsdSchema} and {@link
+     * #setXsdSchemaCollection(XsdSchemaCollection) xsdSchemaCollection} properties if their validator was created by
+     * the {@link XmlValidatorFactory}, as is the case for the implementations in Spring Web Services. Defaults to
+     * <code>0</code>, meaning that a new validator is created for every validation.
+     *
+     * @see XmlValidatorFactory#createValidator(Resource[], String, int)
+     * @see XmlValidatorFactory#createPooledValidator(XmlValidator, int)
+     */
+    public void setValidatorPoolSize(int validatorPoolSize) {
+        Assert.isTrue(validatorPoolSize >= 0, "'validatorPoolSize' must not be negative");
+        this.validatorPoolSize = validatorPoolSize;
+    }
+
+    /**
+     * Returns the validator used by this interceptor. Pool statistics are available when it is a {@link
+     * PooledXmlValidator}.
+     */
+    public XmlValidator getValidator() {
+        return validator;
+    }
+
     public void afterPropertiesSet() throws Exception {
         if (validator == null && !ObjectUtils.isEmpty(schemas)) {
             Assert.hasLength(schemaLanguage, "schemaLanguage is required");
@@ -147,9 +173,13 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
             if (logger.isInfoEnabled()) {
                 logger.info("Validating using " + StringUtils.arrayToCommaDelimitedString(schemas));
             }
-            validator = XmlValidatorFactory.createValidator(schemas, schemaLanguage);
+            validator = XmlValidatorFactory.createValidator(schemas, schemaLanguage, validatorPoolSize);
         }
         Assert.notNull(validator, "Setting 'schema', 'schemas', 'xsdSchema', or 'xsdSchemaCollection' is required");
+        if (validatorPoolSize > 0) {
+            // validators created by an xsdSchema or xsdSchemaCollection are not pooled yet
+            validator = XmlValidatorFactory.createPooledValidator(validator, validatorPoolSize);
+        }
     }
 
     /**
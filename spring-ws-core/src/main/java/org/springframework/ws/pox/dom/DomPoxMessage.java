@@ -105,6 +105,9 @@ public class DomPoxMessage implements PoxMessage {
             if (outputStream instanceof TransportOutputStream) {
                 TransportOutputStream transportOutputStream = (TransportOutputStream) outputStream;
                 transportOutputStream.addHeader(TransportConstants.HEADER_CONTENT_TYPE, contentType);
+                if (transportOutputStream.isHeadersOnly()) {
+                    return;
+                }
             }
             transformer.transform(getPayloadSource(), new StreamResult(outputStream));
         }
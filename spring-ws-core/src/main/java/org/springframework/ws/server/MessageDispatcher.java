@@ -22,13 +22,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.OrderComparator;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.servlet.DispatcherServlet;
@@ -37,12 +42,15 @@ import org.springframework.ws.NoEndpointFoundException;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.MessageEndpoint;
+import org.springframework.ws.server.endpoint.MethodEndpoint;
 import org.springframework.ws.server.endpoint.PayloadEndpoint;
 import org.springframework.ws.server.endpoint.adapter.MessageEndpointAdapter;
 import org.springframework.ws.server.endpoint.adapter.PayloadEndpointAdapter;
+import org.springframework.ws.server.endpoint.support.PayloadRootUtils;
 import org.springframework.ws.soap.server.SoapMessageDispatcher;
 import org.springframework.ws.support.DefaultStrategiesHelper;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
+import org.springframework.xml.transform.TransformerHelper;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -68,6 +76,11 @@ import org.apache.commons.logging.LogFactory;
  * exception resolvers can be added through the {@link #setEndpointExceptionResolvers(List) endpointExceptionResolvers}
  * property.</li>
  * </ul>
+ * <p/>
+ * Optionally, this dispatcher can keep a <em>dispatch table</em>, by setting the {@link #setDispatchTableEnabled(boolean)
+ * dispatchTableEnabled} property. When enabled, the endpoint adapter resolved for an endpoint, and the invocation chain
+ * resolved for a {@linkplain #getDispatchKey(MessageContext) dispatch key} are remembered after the first lookup, and
+ * reused for subsequent messages. The table is cleared whenever the application context is refreshed.
  *
  * @author Arjen Poutsma
  * @see EndpointMapping
@@ -76,7 +89,9 @@ import org.apache.commons.logging.LogFactory;
  * @see org.springframework.web.servlet.DispatcherServlet
  * @since 1.0.0
  */
-public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAware, ApplicationContextAware {
+public class MessageDispatcher
+        implements WebServiceMessageReceiver, BeanNameAware, ApplicationContextAware,
+        ApplicationListener<ContextRefreshedEvent> {
 
     /** Logger available to subclasses. */
     protected final Log logger = LogFactory.getLog(getClass());
@@ -113,6 +128,23 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
     /** List of EndpointMappings used in this dispatcher. */
     private List<EndpointMapping> endpointMappings;
 
+    /** Default maximum number of invocation chains kept in the dispatch table. */
+    public static final int DEFAULT_DISPATCH_TABLE_LIMIT = 1024;
+
+    private boolean dispatchTableEnabled = false;
+
+    private int dispatchTableLimit = DEFAULT_DISPATCH_TABLE_LIMIT;
+
+    /** Invocation chains resolved so far, keyed by dispatch key. */
+    private final ConcurrentMap<Object, EndpointInvocationChain> endpointTable =
+            new ConcurrentHashMap<Object, EndpointInvocationChain>();
+
+    /** Endpoint adapters resolved so far, keyed by endpoint method or endpoint class. */
+    private final ConcurrentMap<Object, EndpointAdapter> endpointAdapterTable =
+            new ConcurrentHashMap<Object, EndpointAdapter>();
+
+    private final TransformerHelper transformerHelper = new TransformerHelper();
+
     /** Initializes a new instance of the <code>MessageDispatcher</code>. */
     public MessageDispatcher() {
         defaultStrategiesHelper = new DefaultStrategiesHelper(getClass());
@@ -148,6 +180,44 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
         this.endpointMappings = endpointMappings;
     }
 
+    /** Indicates whether the dispatch table is enabled. */
+    public boolean isDispatchTableEnabled() {
+        return dispatchTableEnabled;
+    }
+
+    /**
+     * Indicates whether resolved endpoints and endpoint adapters should be kept in a dispatch table. Defaults to
+     * <code>false</code>.
+     * <p/>
+     * Only enable this when all registered endpoint mappings (including any smart interceptors) resolve a request
+     * solely based on its {@linkplain #getDispatchKey(MessageContext) dispatch key}, i.e. the payload root element name
+     * (and SOAP action, for SOAP messages).
+     * <p/>
+     * Computing the dispatch key accounts for most of the cost of a table hit. The table therefore pays off when
+     * resolving the endpoint involves several mappings or interceptors, but hardly when a single SOAP action mapping
+     * resolves all requests.
+     */
+    public void setDispatchTableEnabled(boolean dispatchTableEnabled) {
+        this.dispatchTableEnabled = dispatchTableEnabled;
+        clearDispatchTable();
+    }
+
+    /**
+     * Sets the maximum number of invocation chains, and of endpoint adapters, kept in the dispatch table. Requests with a
+     * key that is not in the table once this limit is reached are resolved by the endpoint mappings and adapters, as
+     * usual. Defaults to {@link #DEFAULT_DISPATCH_TABLE_LIMIT}.
+     */
+    public void setDispatchTableLimit(int dispatchTableLimit) {
+        Assert.isTrue(dispatchTableLimit >= 0, "'dispatchTableLimit' must not be negative");
+        this.dispatchTableLimit = dispatchTableLimit;
+    }
+
+    /** Removes all entries from the dispatch table. */
+    public void clearDispatchTable() {
+        endpointTable.clear();
+        endpointAdapterTable.clear();
+    }
+
     public final void setBeanName(String beanName) {
         this.beanName = beanName;
     }
@@ -156,6 +226,11 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
         initEndpointAdapters(applicationContext);
         initEndpointExceptionResolvers(applicationContext);
         initEndpointMappings(applicationContext);
+        clearDispatchTable();
+    }
+
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        clearDispatchTable();
     }
 
     public void receive(MessageContext messageContext) throws Exception {
@@ -265,6 +340,16 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
      * @return the <code>EndpointInvocationChain</code>, or <code>null</code> if no endpoint could be found.
      */
     protected EndpointInvocationChain getEndpoint(MessageContext messageContext) throws Exception {
+        Object dispatchKey = null;
+        if (dispatchTableEnabled) {
+            dispatchKey = getDispatchKey(messageContext);
+            if (dispatchKey != null) {
+                EndpointInvocationChain endpoint = endpointTable.get(dispatchKey);
+                if (endpoint != null) {
+                    return endpoint;
+                }
+            }
+        }
         for (EndpointMapping endpointMapping : getEndpointMappings()) {
             EndpointInvocationChain endpoint = endpointMapping.getEndpoint(messageContext);
             if (endpoint != null) {
@@ -272,6 +357,9 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
                     logger.debug("Endpoint mapping [" + endpointMapping + "] maps request to endpoint [" +
                             endpoint.getEndpoint() + "]");
                 }
+                if (dispatchKey != null && endpointTable.size() < dispatchTableLimit) {
+                    endpointTable.putIfAbsent(dispatchKey, endpoint);
+                }
                 return endpoint;
             }
             else if (logger.isDebugEnabled()) {
@@ -288,11 +376,22 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
      * @return the adapter
      */
     protected EndpointAdapter getEndpointAdapter(Object endpoint) {
+        Object adapterKey = null;
+        if (dispatchTableEnabled) {
+            adapterKey = getEndpointAdapterKey(endpoint);
+            EndpointAdapter endpointAdapter = endpointAdapterTable.get(adapterKey);
+            if (endpointAdapter != null) {
+                return endpointAdapter;
+            }
+        }
         for (EndpointAdapter endpointAdapter : getEndpointAdapters()) {
             if (logger.isDebugEnabled()) {
                 logger.debug("Testing endpoint adapter [" + endpointAdapter + "]");
             }
             if (endpointAdapter.supports(endpoint)) {
+                if (adapterKey != null && endpointAdapterTable.size() < dispatchTableLimit) {
+                    endpointAdapterTable.putIfAbsent(adapterKey, endpointAdapter);
+                }
                 return endpointAdapter;
             }
         }
@@ -300,6 +399,33 @@ public class MessageDispatcher implements WebServiceMessageReceiver, BeanNameAwa
                 "@Endpoint, or does it implement a supported interface like MessageHandler or PayloadEndpoint?");
     }
 
+    /**
+     * Returns the key under which the adapter for the given endpoint is stored in the dispatch table. Endpoint adapters
+     * decide whether they support an endpoint based on its type, or on the signature of its method for a {@link
+     * MethodEndpoint}, so that is what the adapter is stored under; keying by endpoint instance would let the table
+     * grow with every endpoint instance created by the mappings.
+     */
+    private Object getEndpointAdapterKey(Object endpoint) {
+        if (endpoint instanceof MethodEndpoint) {
+            return ((MethodEndpoint) endpoint).getMethod();
+        }
+        return endpoint.getClass();
+    }
+
+    /**
+     * Returns the key under which the endpoint for the given message context is stored in the dispatch table. Only
+     * called when the {@link #setDispatchTableEnabled(boolean) dispatch table} is enabled.
+     * <p/>
+     * Default implementation returns the qualified name of the request payload root element. Can be overridden in
+     * subclasses.
+     *
+     * @param messageContext the message context
+     * @return the dispatch key, or <code>null</code> if the request should not be resolved using the dispatch table
+     */
+    protected Object getDispatchKey(MessageContext messageContext) throws Exception {
+        return PayloadRootUtils.getPayloadRootQName(messageContext.getRequest().getPayloadSource(), transformerHelper);
+    }
+
     /**
      * Callback for pre-processing of given invocation chain and message context. Gets called before invocation of
      * <code>handleRequest</code> on the interceptors.
@@ -16,13 +16,27 @@
 
 package org.springframework.ws.server.endpoint.adapter;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.MethodParameter;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
@@ -38,18 +52,27 @@ import org.springframework.ws.server.endpoint.adapter.method.dom.Dom4jPayloadMet
 import org.springframework.ws.server.endpoint.adapter.method.dom.DomPayloadMethodProcessor;
 import org.springframework.ws.server.endpoint.adapter.method.dom.JDomPayloadMethodProcessor;
 import org.springframework.ws.server.endpoint.adapter.method.dom.XomPayloadMethodProcessor;
+import org.springframework.ws.server.endpoint.adapter.method.jaxb.AbstractJaxb2PayloadMethodProcessor;
 import org.springframework.ws.server.endpoint.adapter.method.jaxb.JaxbElementPayloadMethodProcessor;
 import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElementPayloadMethodProcessor;
+import org.springframework.ws.server.endpoint.mapping.AbstractMethodEndpointMapping;
 
 /**
  * Default extension of {@link AbstractMethodEndpointAdapter} with support for pluggable {@linkplain
  * MethodArgumentResolver argument resolvers} and {@linkplain MethodReturnValueHandler return value handlers}.
+ * <p/>
+ * The argument resolvers and return value handler to use for a given endpoint method are determined on its first
+ * invocation, and reused for subsequent invocations.
+ * <p/>
+ * When the {@link #setInitJaxbContexts(boolean) initJaxbContexts} property is set, the JAXB contexts required by all
+ * endpoint methods registered with {@link AbstractMethodEndpointMapping}s in the application context are created in
+ * parallel when the context is refreshed, rather than when the first message for a method is received.
  *
  * @author Arjen Poutsma
  * @since 2.0
  */
 public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
-        implements BeanClassLoaderAware, InitializingBean {
+        implements BeanClassLoaderAware, InitializingBean, ApplicationListener<ContextRefreshedEvent> {
 
     private static final String DOM4J_CLASS_NAME = "org.dom4j.Element";
 
@@ -73,6 +96,13 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
 
     private ClassLoader classLoader;
 
+    private final ConcurrentMap<Method, MethodEndpointBinding> methodEndpointBindings =
+            new ConcurrentHashMap<Method, MethodEndpointBinding>();
+
+    private boolean initJaxbContexts = false;
+
+    private boolean sharedJaxbContext = false;
+
     /** Returns the list of {@code MethodArgumentResolver}s to use. */
     public List<MethodArgumentResolver> getMethodArgumentResolvers() {
         return methodArgumentResolvers;
@@ -81,6 +111,7 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     /** Sets the list of {@code MethodArgumentResolver}s to use. */
     public void setMethodArgumentResolvers(List<MethodArgumentResolver> methodArgumentResolvers) {
         this.methodArgumentResolvers = methodArgumentResolvers;
+        this.methodEndpointBindings.clear();
     }
 
     /** Returns the list of {@code MethodReturnValueHandler}s to use. */
@@ -91,6 +122,24 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     /** Sets the list of {@code MethodReturnValueHandler}s to use. */
     public void setMethodReturnValueHandlers(List<MethodReturnValueHandler> methodReturnValueHandlers) {
         this.methodReturnValueHandlers = methodReturnValueHandlers;
+        this.methodEndpointBindings.clear();
+    }
+
+    /**
+     * Indicates whether the JAXB contexts of all registered endpoint methods should be created when the application
+     * context is refreshed. Defaults to {@code false}, creating contexts when they are first needed.
+     */
+    public void setInitJaxbContexts(boolean initJaxbContexts) {
+        this.initJaxbContexts = initJaxbContexts;
+    }
+
+    /**
+     * Indicates whether a single JAXB context should be created for all classes handled by a JAXB argument resolver or
+     * return value handler, rather than one context per class. Only applies when {@link #setInitJaxbContexts(boolean)
+     * initJaxbContexts} is enabled. Defaults to {@code false}.
+     */
+    public void setSharedJaxbContext(boolean sharedJaxbContext) {
+        this.sharedJaxbContext = sharedJaxbContext;
     }
 
     private ClassLoader getClassLoader() {
@@ -188,6 +237,94 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
         return ClassUtils.isPresent(className, getClassLoader());
     }
 
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!initJaxbContexts || !isPresent(JAXB2_CLASS_NAME)) {
+            return;
+        }
+        Map<String, AbstractMethodEndpointMapping> endpointMappings = BeanFactoryUtils
+                .beansOfTypeIncludingAncestors(event.getApplicationContext(), AbstractMethodEndpointMapping.class,
+                        true, false);
+        List<MethodEndpoint> methodEndpoints = new ArrayList<MethodEndpoint>();
+        for (AbstractMethodEndpointMapping<?> endpointMapping : endpointMappings.values()) {
+            methodEndpoints.addAll(endpointMapping.getRegisteredEndpoints());
+        }
+        try {
+            initJaxbContexts(methodEndpoints);
+        }
+        catch (Exception ex) {
+            logger.warn("Could not initialize JAXB contexts, creating them on first use instead", ex);
+        }
+    }
+
+    /**
+     * Creates the JAXB contexts for the parameters and return types of the given method endpoints, in parallel. Returns
+     * when all contexts have been created.
+     */
+    private void initJaxbContexts(List<MethodEndpoint> methodEndpoints) throws Exception {
+        Map<AbstractJaxb2PayloadMethodProcessor, Set<Class<?>>> jaxbClasses =
+                new LinkedHashMap<AbstractJaxb2PayloadMethodProcessor, Set<Class<?>>>();
+        for (MethodEndpoint methodEndpoint : methodEndpoints) {
+            if (!supports(methodEndpoint)) {
+                continue;
+            }
+            MethodEndpointBinding binding = getMethodEndpointBinding(methodEndpoint);
+            for (int i = 0; i < binding.parameters.length; i++) {
+                addJaxbClass(jaxbClasses, binding.argumentResolvers[i], binding.parameters[i]);
+            }
+            if (!Void.TYPE.equals(binding.returnType.getParameterType())) {
+                addJaxbClass(jaxbClasses, binding.getReturnValueHandler(), binding.returnType);
+            }
+        }
+        if (jaxbClasses.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (Map.Entry<AbstractJaxb2PayloadMethodProcessor, Set<Class<?>>> entry : jaxbClasses.entrySet()) {
+            AbstractJaxb2PayloadMethodProcessor processor = entry.getKey();
+            Set<Class<?>> classes = entry.getValue();
+            if (sharedJaxbContext) {
+                tasks.add(new InitJaxbContextTask(processor, classes.toArray(new Class<?>[classes.size()])));
+            }
+            else {
+                for (Class<?> clazz : classes) {
+                    tasks.add(new InitJaxbContextTask(processor, clazz));
+                }
+            }
+        }
+        int threadCount = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info("Initialized " + tasks.size() + " JAXB context(s) in " +
+                    (System.currentTimeMillis() - startTime) + " ms");
+        }
+    }
+
+    private void addJaxbClass(Map<AbstractJaxb2PayloadMethodProcessor, Set<Class<?>>> jaxbClasses,
+                              Object processor,
+                              MethodParameter parameter) {
+        if (processor instanceof AbstractJaxb2PayloadMethodProcessor) {
+            AbstractJaxb2PayloadMethodProcessor jaxbProcessor = (AbstractJaxb2PayloadMethodProcessor) processor;
+            Class<?> clazz = jaxbProcessor.getJaxbClass(parameter);
+            if (clazz != null) {
+                Set<Class<?>> classes = jaxbClasses.get(jaxbProcessor);
+                if (classes == null) {
+                    classes = new LinkedHashSet<Class<?>>();
+                    jaxbClasses.put(jaxbProcessor, classes);
+                }
+                classes.add(clazz);
+            }
+        }
+    }
+
     @Override
     protected boolean supportsInternal(MethodEndpoint methodEndpoint) {
         return supportsParameters(methodEndpoint.getMethodParameters()) &&
@@ -252,8 +389,8 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     /**
      * Returns the argument array for the given method endpoint.
      * <p/>
-     * This implementation iterates over the set {@linkplain #setMethodArgumentResolvers(List) argument resolvers} to
-     * resolve each argument.
+     * This implementation uses the first of the set {@linkplain #setMethodArgumentResolvers(List) argument resolvers}
+     * that supports a parameter to resolve each argument.
      *
      * @param messageContext the current message context
      * @param methodEndpoint the method endpoint to get arguments for
@@ -262,14 +399,13 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
      */
     protected Object[] getMethodArguments(MessageContext messageContext, MethodEndpoint methodEndpoint)
             throws Exception {
-        MethodParameter[] parameters = methodEndpoint.getMethodParameters();
+        MethodEndpointBinding binding = getMethodEndpointBinding(methodEndpoint);
+        MethodParameter[] parameters = binding.parameters;
         Object[] args = new Object[parameters.length];
         for (int i = 0; i < parameters.length; i++) {
-            for (MethodArgumentResolver methodArgumentResolver : methodArgumentResolvers) {
-                if (methodArgumentResolver.supportsParameter(parameters[i])) {
-                    args[i] = methodArgumentResolver.resolveArgument(messageContext, parameters[i]);
-                    break;
-                }
+            MethodArgumentResolver methodArgumentResolver = binding.argumentResolvers[i];
+            if (methodArgumentResolver != null) {
+                args[i] = methodArgumentResolver.resolveArgument(messageContext, parameters[i]);
             }
         }
         return args;
@@ -278,8 +414,8 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     /**
      * Handle the return value for the given method endpoint.
      * <p/>
-     * This implementation iterates over the set {@linkplain #setMethodReturnValueHandlers(java.util.List)}  return value
-     * handlers} to resolve the return value.
+     * This implementation uses the first of the set {@linkplain #setMethodReturnValueHandlers(java.util.List) return
+     * value handlers} that supports the return type to handle the return value.
      *
      * @param messageContext the current message context
      * @param returnValue    the return value
@@ -289,14 +425,85 @@ public class DefaultMethodEndpointAdapter extends AbstractMethodEndpointAdapter
     protected void handleMethodReturnValue(MessageContext messageContext,
                                            Object returnValue,
                                            MethodEndpoint methodEndpoint) throws Exception {
-        MethodParameter returnType = methodEndpoint.getReturnType();
-        for (MethodReturnValueHandler methodReturnValueHandler : methodReturnValueHandlers) {
-            if (methodReturnValueHandler.supportsReturnType(returnType)) {
-                methodReturnValueHandler.handleReturnValue(messageContext, returnType, returnValue);
-                return;
-            }
+        MethodEndpointBinding binding = getMethodEndpointBinding(methodEndpoint);
+        MethodReturnValueHandler methodReturnValueHandler = binding.getReturnValueHandler();
+        if (methodReturnValueHandler != null) {
+            methodReturnValueHandler.handleReturnValue(messageContext, binding.returnType, returnValue);
+            return;
         }
         throw new IllegalStateException(
                 "Return value [" + returnValue + "] not resolved by any MethodReturnValueHandler");
     }
+
+    private MethodEndpointBinding getMethodEndpointBinding(MethodEndpoint methodEndpoint) {
+        Method method = methodEndpoint.getMethod();
+        MethodEndpointBinding binding = methodEndpointBindings.get(method);
+        if (binding == null) {
+            binding = new MethodEndpointBinding(methodEndpoint);
+            MethodEndpointBinding existing = methodEndpointBindings.putIfAbsent(method, binding);
+            if (existing != null) {
+                binding = existing;
+            }
+        }
+        return binding;
+    }
+
+    /**
+     * The method parameters of an endpoint method, together with the argument resolvers and return value handler that
+     * support them. The return value handler is determined when it is first needed.
+     */
+    private class MethodEndpointBinding {
+
+        private final MethodParameter[] parameters;
+
+        private final MethodArgumentResolver[] argumentResolvers;
+
+        private final MethodParameter returnType;
+
+        private volatile MethodReturnValueHandler returnValueHandler;
+
+        private MethodEndpointBinding(MethodEndpoint methodEndpoint) {
+            parameters = methodEndpoint.getMethodParameters();
+            argumentResolvers = new MethodArgumentResolver[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                for (MethodArgumentResolver methodArgumentResolver : methodArgumentResolvers) {
+                    if (methodArgumentResolver.supportsParameter(parameters[i])) {
+                        argumentResolvers[i] = methodArgumentResolver;
+                        break;
+                    }
+                }
+            }
+            returnType = methodEndpoint.getReturnType();
+        }
+
+        private MethodReturnValueHandler getReturnValueHandler() {
+            MethodReturnValueHandler result = returnValueHandler;
+            if (result == null) {
+                for (MethodReturnValueHandler methodReturnValueHandler : methodReturnValueHandlers) {
+                    if (methodReturnValueHandler.supportsReturnType(returnType)) {
+                        returnValueHandler = result = methodReturnValueHandler;
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class InitJaxbContextTask implements Callable<Object> {
+
+        private final AbstractJaxb2PayloadMethodProcessor processor;
+
+        private final Class<?>[] classes;
+
+        private InitJaxbContextTask(AbstractJaxb2PayloadMethodProcessor processor, Class<?>... classes) {
+            this.processor = processor;
+            this.classes = classes;
+        }
+
+        public Object call() throws Exception {
+            processor.initJaxbContext(classes);
+            return null;
+        }
+    }
 }
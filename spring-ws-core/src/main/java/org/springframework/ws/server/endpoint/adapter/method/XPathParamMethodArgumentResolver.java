@@ -16,22 +16,30 @@
 
 package org.springframework.ws.server.endpoint.adapter.method;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 import javax.xml.namespace.QName;
-import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.ConversionServiceFactory;
+import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.annotation.XPathParam;
 import org.springframework.ws.server.endpoint.support.NamespaceUtils;
 import org.springframework.xml.transform.TransformerHelper;
+import org.springframework.xml.xpath.StreamingXPathExpression;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -45,14 +53,42 @@ import org.w3c.dom.NodeList;
  * that should be bound to that parameter. The parameter can either a "natively supported" XPath type ({@link Boolean
  * boolean}, {@link Double double}, {@link String}, {@link Node}, or {@link NodeList}), or a type that is {@linkplain
  * ConversionService#canConvert(Class, Class) supported} by the {@link ConversionService}.
+ * <p/>
+ * The XPath expression of each parameter is compiled once, and the request payload is converted to a DOM only once per
+ * message, regardless of the number of {@code @XPathParam} parameters.
+ * <p/>
+ * When the {@linkplain #setStreamingEvaluation(boolean) streamingEvaluation} property is enabled, and all {@code
+ * XPathParam} expressions of a method fall within the subset supported by {@link StreamingXPathExpression}, they are
+ * evaluated together in a single pass over the payload stream, without building a DOM. This does not apply to {@link
+ * Node} or {@link NodeList} parameters, nor to payloads that are not available as a stream; these are evaluated on
+ * the DOM as usual.
  *
  * @author Arjen Poutsma
  * @since 2.0
  */
 public class XPathParamMethodArgumentResolver implements MethodArgumentResolver {
 
+    /** Name of the message context property that holds the payload root element of the request. */
+    private static final String PAYLOAD_ROOT_ELEMENT_PROPERTY =
+            XPathParamMethodArgumentResolver.class.getName() + ".PAYLOAD_ROOT_ELEMENT";
+
+    /** Name of the message context property that holds the streaming evaluation results of the request. */
+    private static final String STREAMING_RESULTS_PROPERTY =
+            XPathParamMethodArgumentResolver.class.getName() + ".STREAMING_RESULTS";
+
+    /** The format of a number, as defined by the XPath <code>number()</code> function. */
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("-?(\\d+(\\.\\d*)?|\\.\\d+)");
+
     private final XPathFactory xpathFactory = createXPathFactory();
 
+    private final ConcurrentMap<MethodParameter, XPathExpression> expressions =
+            new ConcurrentHashMap<MethodParameter, XPathExpression>();
+
+    private final ConcurrentMap<Method, StreamingExpressions> streamingExpressions =
+            new ConcurrentHashMap<Method, StreamingExpressions>();
+
+    private boolean streamingEvaluation = false;
+
     private TransformerHelper transformerHelper = new TransformerHelper();
 
     private ConversionService conversionService = ConversionServiceFactory.createDefaultConversionService();
@@ -71,6 +107,17 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
         this.transformerHelper = transformerHelper;
     }
 
+    /**
+     * Indicates whether {@code @XPathParam} expressions should be evaluated on the payload stream, if possible.
+     * Defaults to <code>false</code>.
+     *
+     * @see StreamingXPathExpression
+     */
+    public void setStreamingEvaluation(boolean streamingEvaluation) {
+        this.streamingEvaluation = streamingEvaluation;
+        streamingExpressions.clear();
+    }
+
     public boolean supportsParameter(MethodParameter parameter) {
         if (parameter.getParameterAnnotation(XPathParam.class) == null) {
             return false;
@@ -97,15 +144,48 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
             useConversionService = true;
         }
 
-        XPath xpath = createXPath();
-        xpath.setNamespaceContext(NamespaceUtils.getNamespaceContext(parameter.getMethod()));
+        if (streamingEvaluation) {
+            String[] streamingResults = getStreamingResults(messageContext, parameter);
+            if (streamingResults != null) {
+                String value = streamingResults[parameter.getParameterIndex()];
+                Object result;
+                if (XPathConstants.BOOLEAN.equals(evaluationReturnType)) {
+                    result = value != null;
+                }
+                else if (XPathConstants.NUMBER.equals(evaluationReturnType)) {
+                    result = toNumber(value);
+                }
+                else {
+                    result = value != null ? value : "";
+                }
+                return useConversionService ? conversionService.convert(result, parameterType) : result;
+            }
+        }
 
-        Element rootElement = getRootElement(messageContext.getRequest().getPayloadSource());
-        String expression = parameter.getParameterAnnotation(XPathParam.class).value();
-        Object result = xpath.evaluate(expression, rootElement, evaluationReturnType);
+        XPathExpression expression = getXPathExpression(parameter);
+        Element rootElement = getRootElement(messageContext);
+        Object result;
+        // XPathExpression is not thread-safe
+        synchronized (expression) {
+            result = expression.evaluate(rootElement, evaluationReturnType);
+        }
         return useConversionService ? conversionService.convert(result, parameterType) : result;
     }
 
+    private XPathExpression getXPathExpression(MethodParameter parameter) throws XPathExpressionException {
+        XPathExpression expression = expressions.get(parameter);
+        if (expression == null) {
+            XPath xpath = createXPath();
+            xpath.setNamespaceContext(NamespaceUtils.getNamespaceContext(parameter.getMethod()));
+            expression = xpath.compile(parameter.getParameterAnnotation(XPathParam.class).value());
+            XPathExpression existing = expressions.putIfAbsent(parameter, expression);
+            if (existing != null) {
+                expression = existing;
+            }
+        }
+        return expression;
+    }
+
     private QName getReturnType(Class<?> parameterType) {
         if (Boolean.class.equals(parameterType) || Boolean.TYPE.equals(parameterType)) {
             return XPathConstants.BOOLEAN;
@@ -133,11 +213,104 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
         }
     }
 
-    private Element getRootElement(Source source) throws TransformerException {
+    /**
+     * Returns the payload root element of the request, transforming the payload only if this has not been done
+     * before for the current request.
+     */
+    private Element getRootElement(MessageContext messageContext) throws TransformerException {
+        WebServiceMessage request = messageContext.getRequest();
+        Object property = messageContext.getProperty(PAYLOAD_ROOT_ELEMENT_PROPERTY);
+        if (property instanceof PayloadRootElement && ((PayloadRootElement) property).request == request) {
+            return ((PayloadRootElement) property).element;
+        }
         DOMResult domResult = new DOMResult();
-        transformerHelper.transform(source, domResult);
+        transformerHelper.transform(request.getPayloadSource(), domResult);
         Document document = (Document) domResult.getNode();
-        return document.getDocumentElement();
+        Element rootElement = document.getDocumentElement();
+        messageContext.setProperty(PAYLOAD_ROOT_ELEMENT_PROPERTY, new PayloadRootElement(request, rootElement));
+        return rootElement;
+    }
+
+    /**
+     * Returns the results of evaluating all {@code @XPathParam} expressions of the parameter's method on the payload
+     * stream, indexed by parameter index. The payload is only streamed once per request. Returns <code>null</code> if
+     * the expressions cannot be evaluated on the stream.
+     */
+    private String[] getStreamingResults(MessageContext messageContext, MethodParameter parameter) {
+        WebServiceMessage request = messageContext.getRequest();
+        Method method = parameter.getMethod();
+        Object property = messageContext.getProperty(STREAMING_RESULTS_PROPERTY);
+        if (property instanceof StreamingResults && ((StreamingResults) property).request == request &&
+                ((StreamingResults) property).method.equals(method)) {
+            return ((StreamingResults) property).results;
+        }
+        StreamingExpressions expressions = getStreamingExpressions(method);
+        String[] results = null;
+        if (expressions.expressions != null) {
+            List<StreamingXPathExpression> bound = new ArrayList<StreamingXPathExpression>();
+            for (StreamingXPathExpression expression : expressions.expressions) {
+                if (expression != null) {
+                    bound.add(expression);
+                }
+            }
+            String[] boundResults = StreamingXPathExpression.evaluate(request.getPayloadSource(),
+                    bound.toArray(new StreamingXPathExpression[bound.size()]));
+            if (boundResults != null) {
+                results = new String[expressions.expressions.length];
+                for (int i = 0, j = 0; i < results.length; i++) {
+                    if (expressions.expressions[i] != null) {
+                        results[i] = boundResults[j++];
+                    }
+                }
+            }
+        }
+        messageContext.setProperty(STREAMING_RESULTS_PROPERTY, new StreamingResults(request, method, results));
+        return results;
+    }
+
+    /**
+     * Returns the streaming expressions for all {@code @XPathParam} parameters of the given method, indexed by
+     * parameter index. If any of these cannot be evaluated on a stream, none of them are, so that the payload is
+     * read only once.
+     */
+    private StreamingExpressions getStreamingExpressions(Method method) {
+        StreamingExpressions result = streamingExpressions.get(method);
+        if (result == null) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            StreamingXPathExpression[] expressions = new StreamingXPathExpression[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                MethodParameter methodParameter = new MethodParameter(method, i);
+                XPathParam annotation = methodParameter.getParameterAnnotation(XPathParam.class);
+                if (annotation == null) {
+                    continue;
+                }
+                QName returnType = getReturnType(parameterTypes[i]);
+                if (XPathConstants.NODE.equals(returnType) || XPathConstants.NODESET.equals(returnType)) {
+                    expressions = null;
+                    break;
+                }
+                expressions[i] = StreamingXPathExpression
+                        .compile(annotation.value(), NamespaceUtils.getNamespaceContext(method));
+                if (expressions[i] == null) {
+                    expressions = null;
+                    break;
+                }
+            }
+            result = new StreamingExpressions(expressions);
+            streamingExpressions.putIfAbsent(method, result);
+        }
+        return result;
+    }
+
+    /** Converts the given string value to a number, following the XPath <code>number()</code> function. */
+    private Double toNumber(String value) {
+        if (value != null) {
+            value = value.trim();
+            if (NUMBER_PATTERN.matcher(value).matches()) {
+                return Double.valueOf(value);
+            }
+        }
+        return Double.NaN;
     }
 
     /**
@@ -152,5 +325,46 @@ public class XPathParamMethodArgumentResolver implements MethodArgumentResolver
         return XPathFactory.newInstance();
     }
 
+    /** The payload root element of a request, kept as message context property. */
+    private static class PayloadRootElement {
+
+        private final WebServiceMessage request;
+
+        private final Element element;
+
+        private PayloadRootElement(WebServiceMessage request, Element element) {
+            this.request = request;
+            this.element = element;
+        }
+    }
+
+    /**
+     * The streaming expressions of a method, indexed by parameter index; <code>null</code> if the method cannot be
+     * evaluated on a stream.
+     */
+    private static class StreamingExpressions {
+
+        private final StreamingXPathExpression[] expressions;
+
+        private StreamingExpressions(StreamingXPathExpression[] expressions) {
+            this.expressions = expressions;
+        }
+    }
+
+    /** The streaming evaluation results of a request, kept as message context property. */
+    private static class StreamingResults {
+
+        private final WebServiceMessage request;
+
+        private final Method method;
+
+        private final String[] results;
+
+        private StreamingResults(WebServiceMessage request, Method method, String[] results) {
+            this.request = request;
+            this.method = method;
+            this.results = results;
+        }
+    }
 
 }
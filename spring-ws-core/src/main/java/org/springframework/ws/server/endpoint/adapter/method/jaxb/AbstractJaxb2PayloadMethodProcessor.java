@@ -22,8 +22,13 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
@@ -42,6 +47,7 @@ import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
+import org.springframework.core.MethodParameter;
 import org.springframework.util.Assert;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
@@ -63,14 +69,68 @@ import org.xml.sax.ext.LexicalHandler;
  * {@linkplain #marshalToResponsePayload(org.springframework.ws.context.MessageContext, Class, Object) marshalling} and
  * {@linkplain #unmarshalFromRequestPayload(org.springframework.ws.context.MessageContext, Class) unmarshalling}
  * methods.
+ * <p/>
+ * Marshallers and unmarshallers are kept in a bounded pool per class after use, and reused for subsequent messages. The
+ * maximum number of idle instances per class can be set through the {@link #setPoolSize(int) poolSize} property.
  *
  * @author Arjen Poutsma
  * @since 2.0
  */
 public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloadMethodProcessor {
 
+    /** Default maximum number of idle marshallers and unmarshallers kept per class. */
+    public static final int DEFAULT_POOL_SIZE = 8;
+
     private final ConcurrentMap<Class, JAXBContext> jaxbContexts = new ConcurrentHashMap<Class, JAXBContext>();
 
+    private final ConcurrentMap<Class, BlockingQueue<Marshaller>> marshallerPools =
+            new ConcurrentHashMap<Class, BlockingQueue<Marshaller>>();
+
+    private final ConcurrentMap<Class, BlockingQueue<Unmarshaller>> unmarshallerPools =
+            new ConcurrentHashMap<Class, BlockingQueue<Unmarshaller>>();
+
+    private int poolSize = DEFAULT_POOL_SIZE;
+
+    private final AtomicLong marshallerPoolHits = new AtomicLong();
+
+    private final AtomicLong marshallerPoolMisses = new AtomicLong();
+
+    private final AtomicLong unmarshallerPoolHits = new AtomicLong();
+
+    private final AtomicLong unmarshallerPoolMisses = new AtomicLong();
+
+    /**
+     * Sets the maximum number of idle marshallers and unmarshallers that are kept per class. Setting this property to
+     * {@code 0} disables pooling, so that a new (un)marshaller is created for every message. Defaults to {@link
+     * #DEFAULT_POOL_SIZE}.
+     */
+    public void setPoolSize(int poolSize) {
+        Assert.isTrue(poolSize >= 0, "'poolSize' must not be negative");
+        this.poolSize = poolSize;
+        marshallerPools.clear();
+        unmarshallerPools.clear();
+    }
+
+    /** Returns the number of times a pooled marshaller was reused. */
+    public long getMarshallerPoolHits() {
+        return marshallerPoolHits.get();
+    }
+
+    /** Returns the number of times a marshaller had to be created, because none was available in the pool. */
+    public long getMarshallerPoolMisses() {
+        return marshallerPoolMisses.get();
+    }
+
+    /** Returns the number of times a pooled unmarshaller was reused. */
+    public long getUnmarshallerPoolHits() {
+        return unmarshallerPoolHits.get();
+    }
+
+    /** Returns the number of times an unmarshaller had to be created, because none was available in the pool. */
+    public long getUnmarshallerPoolMisses() {
+        return unmarshallerPoolMisses.get();
+    }
+
     /**
      * Marshals the given {@code jaxbElement} to the response payload of the given message context.
      *
@@ -96,13 +156,15 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         }
         else {
             Result responsePayload = response.getPayloadResult();
+            Marshaller marshaller = borrowMarshaller(clazz);
             try {
-                Jaxb2ResultCallback callback = new Jaxb2ResultCallback(clazz, jaxbElement);
+                Jaxb2ResultCallback callback = new Jaxb2ResultCallback(marshaller, jaxbElement);
                 TraxUtils.doWithResult(responsePayload, callback);
             }
             catch (Exception ex) {
                 throw convertToJaxbException(ex);
             }
+            returnMarshaller(clazz, marshaller);
         }
     }
 
@@ -120,17 +182,19 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         if (requestPayload == null) {
             return null;
         }
+        Unmarshaller unmarshaller = borrowUnmarshaller(clazz);
+        Jaxb2SourceCallback callback = new Jaxb2SourceCallback(unmarshaller);
         try {
-            Jaxb2SourceCallback callback = new Jaxb2SourceCallback(clazz);
             TraxUtils.doWithSource(requestPayload, callback);
-            if (logger.isDebugEnabled()) {
-                logger.debug("Unmarshalled payload request to [" + callback.result + "]");
-            }
-            return callback.result;
         }
         catch (Exception ex) {
             throw convertToJaxbException(ex);
         }
+        returnUnmarshaller(clazz, unmarshaller);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Unmarshalled payload request to [" + callback.result + "]");
+        }
+        return callback.result;
     }
 
     /**
@@ -147,17 +211,19 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         if (requestPayload == null) {
             return null;
         }
+        Unmarshaller unmarshaller = borrowUnmarshaller(clazz);
+        JaxbElementSourceCallback<T> callback = new JaxbElementSourceCallback<T>(unmarshaller, clazz);
         try {
-            JaxbElementSourceCallback<T> callback = new JaxbElementSourceCallback<T>(clazz);
             TraxUtils.doWithSource(requestPayload, callback);
-            if (logger.isDebugEnabled()) {
-                logger.debug("Unmarshalled payload request to [" + callback.result + "]");
-            }
-            return callback.result;
         }
         catch (Exception ex) {
             throw convertToJaxbException(ex);
         }
+        returnUnmarshaller(clazz, unmarshaller);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Unmarshalled payload request to [" + callback.result + "]");
+        }
+        return callback.result;
     }
 
     private Source getRequestPayload(MessageContext messageContext) {
@@ -187,10 +253,35 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         return jaxbContext.createMarshaller();
     }
 
-    private Marshaller createMarshaller(Class<?> clazz) throws JAXBException {
+    /**
+     * Returns a marshaller for the given class, taken from the pool if possible. Marshallers are not returned to the
+     * pool if marshalling fails.
+     */
+    private Marshaller borrowMarshaller(Class<?> clazz) throws JAXBException {
+        BlockingQueue<Marshaller> pool = marshallerPools.get(clazz);
+        Marshaller marshaller = pool != null ? pool.poll() : null;
+        if (marshaller != null) {
+            marshallerPoolHits.incrementAndGet();
+            return marshaller;
+        }
+        marshallerPoolMisses.incrementAndGet();
         return createMarshaller(getJaxbContext(clazz));
     }
 
+    private void returnMarshaller(Class<?> clazz, Marshaller marshaller) {
+        if (poolSize > 0) {
+            BlockingQueue<Marshaller> pool = marshallerPools.get(clazz);
+            if (pool == null) {
+                pool = new ArrayBlockingQueue<Marshaller>(poolSize);
+                BlockingQueue<Marshaller> existing = marshallerPools.putIfAbsent(clazz, pool);
+                if (existing != null) {
+                    pool = existing;
+                }
+            }
+            pool.offer(marshaller);
+        }
+    }
+
     /**
      * Creates a new {@link Unmarshaller} to be used for unmarshalling XML to objects. Defaults to
      * {@link javax.xml.bind.JAXBContext#createUnmarshaller()}, but can be overridden in subclasses for further
@@ -204,17 +295,82 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         return jaxbContext.createUnmarshaller();
     }
 
-    private Unmarshaller createUnmarshaller(Class<?> clazz) throws JAXBException {
+    /**
+     * Returns an unmarshaller for the given class, taken from the pool if possible. Unmarshallers are not returned to
+     * the pool if unmarshalling fails.
+     */
+    private Unmarshaller borrowUnmarshaller(Class<?> clazz) throws JAXBException {
+        BlockingQueue<Unmarshaller> pool = unmarshallerPools.get(clazz);
+        Unmarshaller unmarshaller = pool != null ? pool.poll() : null;
+        if (unmarshaller != null) {
+            unmarshallerPoolHits.incrementAndGet();
+            return unmarshaller;
+        }
+        unmarshallerPoolMisses.incrementAndGet();
         return createUnmarshaller(getJaxbContext(clazz));
     }
 
+    private void returnUnmarshaller(Class<?> clazz, Unmarshaller unmarshaller) {
+        if (poolSize > 0) {
+            BlockingQueue<Unmarshaller> pool = unmarshallerPools.get(clazz);
+            if (pool == null) {
+                pool = new ArrayBlockingQueue<Unmarshaller>(poolSize);
+                BlockingQueue<Unmarshaller> existing = unmarshallerPools.putIfAbsent(clazz, pool);
+                if (existing != null) {
+                    pool = existing;
+                }
+            }
+            pool.offer(unmarshaller);
+        }
+    }
+
+
+    /**
+     * Returns the class that is bound by JAXB when handling the given parameter or return type. Used to determine which
+     * {@link JAXBContext} to {@linkplain #initJaxbContext(Class[]) initialize} ahead of time.
+     * <p/>
+     * Default implementation returns the parameter type. Can be overridden in subclasses.
+     *
+     * @param parameter the parameter or return type
+     * @return the bound class, or {@code null} if it cannot be determined
+     */
+    public Class<?> getJaxbClass(MethodParameter parameter) {
+        return parameter.getParameterType();
+    }
+
+    /**
+     * Creates the {@link JAXBContext} for the given classes ahead of time, so that it does not have to be created when
+     * handling the first message. If more than one class is given, a single context is created that is shared between
+     * all of them. Classes for which a context already exists are ignored.
+     *
+     * @param classes the classes to create a context for
+     * @throws JAXBException in case of JAXB errors
+     */
+    public void initJaxbContext(Class<?>... classes) throws JAXBException {
+        Assert.notEmpty(classes, "'classes' must not be empty");
+        Set<Class<?>> newClasses = new LinkedHashSet<Class<?>>();
+        for (Class<?> clazz : classes) {
+            if (!jaxbContexts.containsKey(clazz)) {
+                newClasses.add(clazz);
+            }
+        }
+        if (!newClasses.isEmpty()) {
+            JAXBContext jaxbContext = JAXBContext.newInstance(newClasses.toArray(new Class<?>[newClasses.size()]));
+            for (Class<?> clazz : newClasses) {
+                jaxbContexts.putIfAbsent(clazz, jaxbContext);
+            }
+        }
+    }
 
     private JAXBContext getJaxbContext(Class<?> clazz) throws JAXBException {
         Assert.notNull(clazz, "'clazz' must not be null");
         JAXBContext jaxbContext = jaxbContexts.get(clazz);
         if (jaxbContext == null) {
             jaxbContext = JAXBContext.newInstance(clazz);
-            jaxbContexts.putIfAbsent(clazz, jaxbContext);
+            JAXBContext existing = jaxbContexts.putIfAbsent(clazz, jaxbContext);
+            if (existing != null) {
+                jaxbContext = existing;
+            }
         }
         return jaxbContext;
     }
@@ -227,8 +383,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
         private Object result;
 
-        public Jaxb2SourceCallback(Class<?> clazz) throws JAXBException {
-            this.unmarshaller = createUnmarshaller(clazz);
+        public Jaxb2SourceCallback(Unmarshaller unmarshaller) {
+            this.unmarshaller = unmarshaller;
         }
 
         public void domSource(Node node) throws JAXBException {
@@ -268,8 +424,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
         private JAXBElement<T> result;
 
-        public JaxbElementSourceCallback(Class<T> declaredType) throws JAXBException {
-            this.unmarshaller = createUnmarshaller(declaredType);
+        public JaxbElementSourceCallback(Unmarshaller unmarshaller, Class<T> declaredType) {
+            this.unmarshaller = unmarshaller;
             this.declaredType = declaredType;
         }
 
@@ -308,8 +464,8 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
         private final Object jaxbElement;
 
-        private Jaxb2ResultCallback(Class<?> clazz, Object jaxbElement) throws JAXBException {
-            this.marshaller = createMarshaller(clazz);
+        private Jaxb2ResultCallback(Marshaller marshaller, Object jaxbElement) {
+            this.marshaller = marshaller;
             this.jaxbElement = jaxbElement;
         }
 
@@ -342,18 +498,21 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
         }
     }
 
+    /**
+     * Streaming payload that marshals the given element when written. The marshaller is only borrowed from the pool for
+     * the duration of {@link #writeTo(XMLStreamWriter)}, and reset to write whole documents before it is returned.
+     */
     private class JaxbStreamingPayload implements StreamingPayload {
 
-        private final Object jaxbElement;
+        private final Class<?> clazz;
 
-        private final Marshaller marshaller;
+        private final Object jaxbElement;
 
         private final QName name;
 
         private JaxbStreamingPayload(Class<?> clazz, Object jaxbElement) throws JAXBException {
             JAXBContext jaxbContext = getJaxbContext(clazz);
-            this.marshaller = jaxbContext.createMarshaller();
-            this.marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            this.clazz = clazz;
             this.jaxbElement = jaxbElement;
             JAXBIntrospector introspector = jaxbContext.createJAXBIntrospector();
             this.name = introspector.getElementName(jaxbElement);
@@ -365,7 +524,11 @@ public abstract class AbstractJaxb2PayloadMethodProcessor extends AbstractPayloa
 
         public void writeTo(XMLStreamWriter streamWriter) throws XMLStreamException {
             try {
+                Marshaller marshaller = borrowMarshaller(clazz);
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
                 marshaller.marshal(jaxbElement, streamWriter);
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+                returnMarshaller(clazz, marshaller);
             }
             catch (JAXBException ex) {
                 throw new XMLStreamException("Could not marshal [" + jaxbElement + "]: " + ex.getMessage(), ex);
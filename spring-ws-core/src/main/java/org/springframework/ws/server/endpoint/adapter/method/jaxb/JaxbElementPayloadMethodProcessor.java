@@ -59,4 +59,18 @@ public class JaxbElementPayloadMethodProcessor extends AbstractJaxb2PayloadMetho
         JAXBElement<?> element = (JAXBElement<?>) returnValue;
         marshalToResponsePayload(messageContext, element.getDeclaredType(), element);
     }
+
+    /** Returns the type argument of the {@code JAXBElement}, if any. */
+    @Override
+    public Class<?> getJaxbClass(MethodParameter parameter) {
+        Type genericType = parameter.getParameterIndex() != -1 ? parameter.getGenericParameterType() :
+                parameter.getMethod().getGenericReturnType();
+        if (genericType instanceof ParameterizedType) {
+            Type typeArgument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (typeArgument instanceof Class) {
+                return (Class<?>) typeArgument;
+            }
+        }
+        return null;
+    }
 }
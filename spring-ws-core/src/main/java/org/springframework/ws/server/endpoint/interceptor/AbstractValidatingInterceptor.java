@@ -17,6 +17,8 @@
 package org.springframework.ws.server.endpoint.interceptor;
 
 import java.io.IOException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
 
@@ -30,8 +32,14 @@ import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.EndpointInterceptor;
 import org.springframework.ws.soap.SoapFault;
 import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.stream.DecoratingStreamWebServiceMessage;
+import org.springframework.ws.stream.StreamReaderDecorator;
 import org.springframework.xml.transform.TransformerObjectSupport;
+import org.springframework.xml.validation.PooledXmlValidator;
+import org.springframework.xml.validation.StreamingXmlValidator;
+import org.springframework.xml.validation.ValidatingXMLStreamReader;
 import org.springframework.xml.validation.ValidationErrorHandler;
+import org.springframework.xml.validation.XmlValidationException;
 import org.springframework.xml.validation.XmlValidator;
 import org.springframework.xml.validation.XmlValidatorFactory;
 import org.springframework.xml.xsd.XsdSchema;
@@ -47,6 +55,11 @@ import org.xml.sax.SAXParseException;
  * <p/>
  * By default, only the request message is validated, but this behaviour can be changed using the
  * <code>validateRequest</code> and <code>validateResponse</code> properties.
+ * <p/>
+ * When the <code>streamingValidation</code> property is enabled, and the request is a {@link
+ * DecoratingStreamWebServiceMessage} (such as an {@code AxiomSoapMessage}), the request payload is not validated up
+ * front, but while it is being read by the endpoint. Validation is completed, and any errors are handled, before the
+ * response is processed.
  *
  * @author Arjen Poutsma
  * @see #getValidationRequestSource(org.springframework.ws.WebServiceMessage)
@@ -56,6 +69,10 @@ import org.xml.sax.SAXParseException;
 public abstract class AbstractValidatingInterceptor extends TransformerObjectSupport
         implements EndpointInterceptor, InitializingBean {
 
+    /** Name of the message context property that holds the streaming validation of the request. */
+    private static final String STREAMING_VALIDATION_PROPERTY =
+            AbstractValidatingInterceptor.class.getName() + ".STREAMING_VALIDATION";
+
     private String schemaLanguage = XmlValidatorFactory.SCHEMA_W3C_XML;
 
     private Resource[] schemas;
@@ -66,6 +83,10 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
 
     private XmlValidator validator;
 
+    private int validatorPoolSize = 0;
+
+    private boolean streamingValidation = false;
+
     private ValidationErrorHandler errorHandler;
 
     public String getSchemaLanguage() {
@@ -153,6 +174,43 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
         this.validateResponse = validateResponse;
     }
 
+    /**
+     * Sets the maximum number of idle JAXP validators kept for reuse. Applies to the {@link #setSchemas(Resource[])
+     * schemas} property, and to the {@link #setXsdSchema(XsdSchema) xsdSchema} and {@link
+     * #setXsdSchemaCollection(XsdSchemaCollection) xsdSchemaCollection} properties if their validator was created by
+     * the {@link XmlValidatorFactory}, as is the case for the implementations in Spring Web Services. Defaults to
+     * <code>0</code>, meaning that a new validator is created for every validation.
+     *
+     * @see XmlValidatorFactory#createValidator(Resource[], String, int)
+     * @see XmlValidatorFactory#createPooledValidator(XmlValidator, int)
+     */
+    public void setValidatorPoolSize(int validatorPoolSize) {
+        Assert.isTrue(validatorPoolSize >= 0, "'validatorPoolSize' must not be negative");
+        this.validatorPoolSize = validatorPoolSize;
+    }
+
+    /**
+     * Indicates whether the request payload should be validated while it is read by the endpoint, rather than before
+     * the endpoint is invoked. Default is <code>false</code>.
+     * <p/>
+     * Streaming validation only applies to requests that implement {@link DecoratingStreamWebServiceMessage}, and is
+     * only appropriate when {@link #getValidationRequestSource(WebServiceMessage)} returns the payload, as the {@code
+     * PayloadValidatingInterceptor} does. Note that the endpoint will have been invoked by the time validation errors
+     * are handled; the response of the endpoint is then replaced by the result of {@link
+     * #handleRequestValidationErrors(MessageContext, SAXParseException[])}.
+     */
+    public void setStreamingValidation(boolean streamingValidation) {
+        this.streamingValidation = streamingValidation;
+    }
+
+    /**
+     * Returns the validator used by this interceptor. Pool statistics are available when it is a {@link
+     * PooledXmlValidator}.
+     */
+    public XmlValidator getValidator() {
+        return validator;
+    }
+
     public void afterPropertiesSet() throws Exception {
         if (validator == null && !ObjectUtils.isEmpty(schemas)) {
             Assert.hasLength(schemaLanguage, "schemaLanguage is required");
@@ -162,9 +220,13 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
             if (logger.isInfoEnabled()) {
                 logger.info("Validating using " + StringUtils.arrayToCommaDelimitedString(schemas));
             }
-            validator = XmlValidatorFactory.createValidator(schemas, schemaLanguage);
+            validator = XmlValidatorFactory.createValidator(schemas, schemaLanguage, validatorPoolSize);
         }
         Assert.notNull(validator, "Setting 'schema', 'schemas', 'xsdSchema', or 'xsdSchemaCollection' is required");
+        if (validatorPoolSize > 0) {
+            // validators created by an xsdSchema or xsdSchemaCollection are not pooled yet
+            validator = XmlValidatorFactory.createPooledValidator(validator, validatorPoolSize);
+        }
     }
 
     /**
@@ -181,6 +243,9 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
     public boolean handleRequest(MessageContext messageContext, Object endpoint)
             throws IOException, SAXException, TransformerException {
         if (validateRequest) {
+            if (streamingValidation && startStreamingValidation(messageContext)) {
+                return true;
+            }
             Source requestSource = getValidationRequestSource(messageContext.getRequest());
             if (requestSource != null) {
                 SAXParseException[] errors = validator.validate(requestSource, errorHandler);
@@ -195,6 +260,71 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
         return true;
     }
 
+    /**
+     * Decorates the payload reader of the request so that it is validated while being read. Returns <code>false</code>
+     * if the request does not support this.
+     */
+    private boolean startStreamingValidation(MessageContext messageContext) {
+        WebServiceMessage request = messageContext.getRequest();
+        if (!(validator instanceof StreamingXmlValidator) || !(request instanceof DecoratingStreamWebServiceMessage)) {
+            return false;
+        }
+        ValidatingReaderDecorator decorator =
+                new ValidatingReaderDecorator((StreamingXmlValidator) validator, errorHandler);
+        ((DecoratingStreamWebServiceMessage) request).setPayloadReaderDecorator(decorator);
+        messageContext.setProperty(STREAMING_VALIDATION_PROPERTY, decorator);
+        return true;
+    }
+
+    /**
+     * Completes the streaming validation of the request, if any, by reading the remainder of the payload. Returns the
+     * validation errors, or <code>null</code> if streaming validation was not started.
+     *
+     * @throws XmlValidationException if the remainder of the payload cannot be read
+     */
+    private SAXParseException[] finishStreamingValidation(MessageContext messageContext) {
+        Object property = messageContext.getProperty(STREAMING_VALIDATION_PROPERTY);
+        if (!(property instanceof ValidatingReaderDecorator)) {
+            return null;
+        }
+        messageContext.removeProperty(STREAMING_VALIDATION_PROPERTY);
+        ValidatingReaderDecorator decorator = (ValidatingReaderDecorator) property;
+        if (decorator.streamReader == null) {
+            // the payload has not been read yet, so we read it ourselves
+            DecoratingStreamWebServiceMessage request = (DecoratingStreamWebServiceMessage) messageContext.getRequest();
+            request.getPayloadSource();
+            request.setPayloadReaderDecorator(null);
+            if (decorator.streamReader == null) {
+                return new SAXParseException[0];
+            }
+        }
+        SAXParseException[] errors;
+        try {
+            errors = decorator.streamReader.finish();
+        }
+        catch (XMLStreamException ex) {
+            throw new XmlValidationException("Could not validate request: " + ex.getMessage(), ex);
+        }
+        if (ObjectUtils.isEmpty(errors) && logger.isDebugEnabled()) {
+            logger.debug("Request message validated");
+        }
+        return errors;
+    }
+
+    /**
+     * Replaces the response with the result of {@link #handleRequestValidationErrors(MessageContext,
+     * SAXParseException[])}, for errors found by streaming validation.
+     */
+    private boolean handleStreamingValidationErrors(MessageContext messageContext, SAXParseException[] errors) {
+        messageContext.clearResponse();
+        try {
+            return handleRequestValidationErrors(messageContext, errors);
+        }
+        catch (TransformerException ex) {
+            throw new XmlValidationException("Could not handle request validation errors: " + ex.getMessage(), ex);
+        }
+    }
+
     /**
      * Template method that is called when the request message contains validation errors. Default implementation logs
      * all errors, and returns <code>false</code>, i.e. do not process the request.
@@ -222,6 +352,10 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
      * @see #setValidateResponse(boolean)
      */
     public boolean handleResponse(MessageContext messageContext, Object endpoint) throws IOException, SAXException {
+        SAXParseException[] requestErrors = finishStreamingValidation(messageContext);
+        if (!ObjectUtils.isEmpty(requestErrors)) {
+            return handleStreamingValidationErrors(messageContext, requestErrors);
+        }
         if (validateResponse) {
             Source responseSource = getValidationResponseSource(messageContext.getResponse());
             if (responseSource != null) {
@@ -252,13 +386,35 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
         return false;
     }
 
-    /** Does nothing by default. Faults are not validated. */
+    /**
+     * Completes streaming validation of the request, if applicable, and replaces the fault with the result of {@link
+     * #handleRequestValidationErrors(MessageContext, SAXParseException[])} if the request is invalid. Faults are not
+     * validated.
+     */
     public boolean handleFault(MessageContext messageContext, Object endpoint) throws Exception {
+        SAXParseException[] requestErrors = finishStreamingValidation(messageContext);
+        if (!ObjectUtils.isEmpty(requestErrors)) {
+            return handleStreamingValidationErrors(messageContext, requestErrors);
+        }
         return true;
     }
 
-    /** Does nothing by default.*/
+    /**
+     * Completes streaming validation of the request, if applicable, for endpoints that did not produce a response.
+     * Validation errors can only be logged at this point.
+     */
     public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+        try {
+            SAXParseException[] requestErrors = finishStreamingValidation(messageContext);
+            if (requestErrors != null) {
+                for (SAXParseException error : requestErrors) {
+                    logger.warn("XML validation error on request: " + error.getMessage());
+                }
+            }
+        }
+        catch (XmlValidationException e) {
+            logger.warn("Could not complete validation of request: " + e.getMessage(), e);
+        }
     }
 
     /**
@@ -276,4 +432,25 @@ public abstract class AbstractValidatingInterceptor extends TransformerObjectSup
      * @return the part of the message that is to validated, or <code>null</code> not to validate anything
      */
     protected abstract Source getValidationResponseSource(WebServiceMessage response);
+
+    /** Decorator that wraps the payload reader in a {@link ValidatingXMLStreamReader}, and keeps track of it. */
+    private static class ValidatingReaderDecorator implements StreamReaderDecorator {
+
+        private final StreamingXmlValidator validator;
+
+        private final ValidationErrorHandler errorHandler;
+
+        private ValidatingXMLStreamReader streamReader;
+
+        private ValidatingReaderDecorator(StreamingXmlValidator validator, ValidationErrorHandler errorHandler) {
+            this.validator = validator;
+            this.errorHandler = errorHandler;
+        }
+
+        public XMLStreamReader decorate(XMLStreamReader streamReader) throws XMLStreamException {
+            this.streamReader = validator.createValidatingStreamReader(streamReader, errorHandler);
+            return this.streamReader;
+        }
+    }
+
 }
@@ -19,6 +19,8 @@ package org.springframework.ws.server.endpoint.mapping;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -84,6 +86,15 @@ public abstract class AbstractMethodEndpointMapping<T> extends AbstractEndpointM
         return endpointMap.get(key);
     }
 
+    /**
+     * Returns all endpoints registered with this mapping.
+     *
+     * @return an unmodifiable collection of the registered endpoints
+     */
+    public Collection<MethodEndpoint> getRegisteredEndpoints() {
+        return Collections.unmodifiableCollection(endpointMap.values());
+    }
+
     /**
      * Register the given endpoint instance under the key.
      *
@@ -27,6 +27,8 @@ import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.MessageContext;
+import org.springframework.xml.namespace.SimpleNamespaceContext;
+import org.springframework.xml.xpath.StreamingXPathExpression;
 import org.springframework.xml.xpath.XPathExpression;
 import org.springframework.xml.xpath.XPathExpressionFactory;
 
@@ -51,6 +53,10 @@ import org.w3c.dom.Element;
  * </pre>
  * The syntax is XPATH_EVALUATION=ENDPOINT_BEAN_NAME. The key is the evaluation of the XPath expression for the incoming
  * message, the value is the name of the endpoint.
+ * <p/>
+ * When the <code>streamingEvaluation</code> property is enabled, expressions that fall within the subset supported by
+ * {@link StreamingXPathExpression} are evaluated directly on the payload stream, without building a DOM tree first.
+ * Other expressions, and payloads that are not available as a stream, are evaluated as usual.
  *
  * @author Arjen Poutsma
  * @see #setExpression(String)
@@ -63,6 +69,10 @@ public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping
 
     private XPathExpression expression;
 
+    private StreamingXPathExpression streamingExpression;
+
+    private boolean streamingEvaluation = false;
+
     private Map<String, String> namespaces;
 
     private TransformerFactory transformerFactory;
@@ -77,6 +87,16 @@ public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping
         this.namespaces = namespaces;
     }
 
+    /**
+     * Indicates whether the expression should be evaluated on the payload stream, if possible. Defaults to
+     * <code>false</code>.
+     *
+     * @see StreamingXPathExpression
+     */
+    public void setStreamingEvaluation(boolean streamingEvaluation) {
+        this.streamingEvaluation = streamingEvaluation;
+    }
+
     public void afterPropertiesSet() throws Exception {
         Assert.notNull(expressionString, "expression is required");
         if (namespaces == null) {
@@ -85,11 +105,28 @@ public class XPathPayloadEndpointMapping extends AbstractMapBasedEndpointMapping
         else {
             expression = XPathExpressionFactory.createXPathExpression(expressionString, namespaces);
         }
+        if (streamingEvaluation) {
+            SimpleNamespaceContext namespaceContext = new SimpleNamespaceContext();
+            if (namespaces != null) {
+                namespaceContext.setBindings(namespaces);
+            }
+            streamingExpression = StreamingXPathExpression.compile(expressionString, namespaceContext);
+            if (streamingExpression == null && logger.isDebugEnabled()) {
+                logger.debug("Expression [" + expressionString + "] cannot be evaluated on the payload stream");
+            }
+        }
         transformerFactory = TransformerFactory.newInstance();
     }
 
     @Override
     protected String getLookupKeyForMessage(MessageContext messageContext) throws Exception {
+        if (streamingExpression != null) {
+            String[] results =
+                    StreamingXPathExpression.evaluate(messageContext.getRequest().getPayloadSource(), streamingExpression);
+            if (results != null) {
+                return results[0] != null ? results[0] : "";
+            }
+        }
         Element payloadElement = getMessagePayloadElement(messageContext.getRequest());
         return expression.evaluateAsString(payloadElement);
     }
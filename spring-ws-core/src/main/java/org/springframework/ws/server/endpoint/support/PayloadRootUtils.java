@@ -20,6 +20,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -35,17 +36,27 @@ import org.springframework.xml.transform.TraxUtils;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.XMLReaderFactory;
 
 /**
  * Helper class for determining the root qualified name of a Web Service payload.
+ * <p/>
+ * DOM and StAX sources are inspected directly. SAX, stream and system id sources are parsed up to the first start
+ * element only, so that the rest of the payload is never read. Other sources are transformed into a DOM.
  *
  * @author Arjen Poutsma
  * @since 1.0.0
  */
 public abstract class PayloadRootUtils {
 
+    private static final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
     private PayloadRootUtils() {
     }
 
@@ -133,21 +144,81 @@ public abstract class PayloadRootUtils {
         }
 
         public void saxSource(XMLReader reader, InputSource inputSource) throws Exception {
-            // Do nothing
+            if (inputSource == null) {
+                return;
+            }
+            if (reader == null) {
+                reader = XMLReaderFactory.createXMLReader();
+            }
+            ContentHandler contentHandler = reader.getContentHandler();
+            PayloadRootContentHandler payloadRootHandler = new PayloadRootContentHandler();
+            reader.setContentHandler(payloadRootHandler);
+            try {
+                reader.parse(inputSource);
+            }
+            catch (SAXException ex) {
+                // expected, we stop parsing after the first start element; some readers, such as the one of a
+                // JAXBSource, wrap the exception thrown by the content handler
+                if (payloadRootHandler.result == null) {
+                    throw ex;
+                }
+            }
+            finally {
+                reader.setContentHandler(contentHandler);
+            }
+            result = payloadRootHandler.result;
         }
 
         public void streamSource(InputStream inputStream) throws Exception {
-            // Do nothing
+            readPayloadRoot(inputFactory.createXMLStreamReader(inputStream));
         }
 
         public void streamSource(Reader reader) throws Exception {
-            // Do nothing
+            readPayloadRoot(inputFactory.createXMLStreamReader(reader));
         }
 
         public void source(String systemId) throws Exception {
-            // Do nothing
+            saxSource(null, new InputSource(systemId));
+        }
+
+        private void readPayloadRoot(XMLStreamReader streamReader) throws XMLStreamException {
+            try {
+                while (streamReader.hasNext()) {
+                    if (streamReader.next() == XMLStreamConstants.START_ELEMENT) {
+                        result = streamReader.getName();
+                        return;
+                    }
+                }
+            }
+            finally {
+                streamReader.close();
+            }
         }
     }
 
+    /** SAX content handler that stops parsing after the first start element. */
+    private static class PayloadRootContentHandler extends DefaultHandler {
+
+        private QName result;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            int idx = qName.indexOf(':');
+            String prefix = idx != -1 ? qName.substring(0, idx) : "";
+            if (localName == null || localName.length() == 0) {
+                localName = idx != -1 ? qName.substring(idx + 1) : qName;
+            }
+            result = new QName(uri != null ? uri : "", localName, prefix);
+            throw new PayloadRootFoundException();
+        }
+    }
+
+    /** Thrown by {@link PayloadRootContentHandler} to stop parsing. */
+    @SuppressWarnings("serial")
+    private static class PayloadRootFoundException extends SAXException {
+
+    }
+
 
 }
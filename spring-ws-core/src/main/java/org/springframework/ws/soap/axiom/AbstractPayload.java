@@ -16,16 +16,24 @@
 
 package org.springframework.ws.soap.axiom;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 
 import org.springframework.util.Assert;
 import org.springframework.util.xml.StaxUtils;
 import org.springframework.ws.soap.axiom.support.AxiomUtils;
+import org.springframework.ws.stream.StreamReaderDecorator;
 
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMNamespace;
 import org.apache.axiom.soap.SOAPBody;
 import org.apache.axiom.soap.SOAPFactory;
 
@@ -41,6 +49,8 @@ abstract class AbstractPayload extends Payload {
 
     private final SOAPFactory axiomFactory;
 
+    private StreamReaderDecorator readerDecorator;
+
     protected AbstractPayload(SOAPBody axiomBody, SOAPFactory axiomFactory) {
         Assert.notNull(axiomBody, "'axiomBody' must not be null");
         Assert.notNull(axiomFactory, "'axiomFactory' must not be null");
@@ -54,6 +64,12 @@ abstract class AbstractPayload extends Payload {
             OMElement payloadElement = getPayloadElement();
             if (payloadElement != null) {
                 XMLStreamReader streamReader = getStreamReader(payloadElement);
+                if (readerDecorator != null) {
+                    // the decorator cannot see the namespaces declared on the envelope and body otherwise
+                    streamReader = readerDecorator.decorate(
+                            new InheritedNamespacesStreamReader(streamReader, getAxiomBody().getNamespacesInScope()));
+                    readerDecorator = null;
+                }
                 return StaxUtils.createCustomStaxSource(streamReader);
             }
             else {
@@ -63,6 +79,14 @@ abstract class AbstractPayload extends Payload {
         catch (OMException ex) {
             throw new AxiomSoapBodyException(ex);
         }
+        catch (XMLStreamException ex) {
+            throw new AxiomSoapBodyException(ex);
+        }
+    }
+
+    @Override
+    public final void setReaderDecorator(StreamReaderDecorator readerDecorator) {
+        this.readerDecorator = readerDecorator;
     }
 
     protected abstract XMLStreamReader getStreamReader(OMElement payloadElement);
@@ -87,4 +111,104 @@ abstract class AbstractPayload extends Payload {
         return getAxiomBody().getFirstElement();
     }
 
+    /**
+     * Stream reader that reports the given inherited namespaces as declared on the root element, unless the root
+     * element redeclares them.
+     */
+    private static class InheritedNamespacesStreamReader extends StreamReaderDelegate {
+
+        private final List<OMNamespace> namespaces = new ArrayList<OMNamespace>();
+
+        private int depth;
+
+        private InheritedNamespacesStreamReader(XMLStreamReader streamReader, Iterator<?> namespacesInScope) {
+            super(streamReader);
+            while (namespacesInScope.hasNext()) {
+                namespaces.add((OMNamespace) namespacesInScope.next());
+            }
+            if (streamReader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                depth = 1;
+                removeRedeclaredNamespaces();
+            }
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            int event = super.next();
+            updateDepth(event);
+            return event;
+        }
+
+        @Override
+        public int nextTag() throws XMLStreamException {
+            int event = super.nextTag();
+            updateDepth(event);
+            return event;
+        }
+
+        @Override
+        public String getElementText() throws XMLStreamException {
+            String text = super.getElementText();
+            updateDepth(XMLStreamConstants.END_ELEMENT);
+            return text;
+        }
+
+        private void updateDepth(int event) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (++depth == 1) {
+                    removeRedeclaredNamespaces();
+                }
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        private void removeRedeclaredNamespaces() {
+            for (int i = 0; i < super.getNamespaceCount(); i++) {
+                String prefix = nullToEmpty(super.getNamespacePrefix(i));
+                for (Iterator<OMNamespace> iterator = namespaces.iterator(); iterator.hasNext(); ) {
+                    if (prefix.equals(nullToEmpty(iterator.next().getPrefix()))) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        private boolean isRoot() {
+            int event = getEventType();
+            return (event == XMLStreamConstants.START_ELEMENT && depth == 1) ||
+                    (event == XMLStreamConstants.END_ELEMENT && depth == 0);
+        }
+
+        @Override
+        public int getNamespaceCount() {
+            int count = super.getNamespaceCount();
+            return isRoot() ? count + namespaces.size() : count;
+        }
+
+        @Override
+        public String getNamespacePrefix(int index) {
+            int count = super.getNamespaceCount();
+            if (index >= count && isRoot()) {
+                String prefix = namespaces.get(index - count).getPrefix();
+                return prefix != null && prefix.length() != 0 ? prefix : null;
+            }
+            return super.getNamespacePrefix(index);
+        }
+
+        @Override
+        public String getNamespaceURI(int index) {
+            int count = super.getNamespaceCount();
+            if (index >= count && isRoot()) {
+                return namespaces.get(index - count).getNamespaceURI();
+            }
+            return super.getNamespaceURI(index);
+        }
+
+        private static String nullToEmpty(String s) {
+            return s != null ? s : "";
+        }
+    }
+
 }
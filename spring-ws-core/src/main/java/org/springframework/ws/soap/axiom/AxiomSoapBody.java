@@ -22,6 +22,7 @@ import javax.xml.transform.Source;
 import org.springframework.util.Assert;
 import org.springframework.ws.soap.SoapBody;
 import org.springframework.ws.soap.axiom.support.AxiomUtils;
+import org.springframework.ws.stream.StreamReaderDecorator;
 import org.springframework.ws.stream.StreamingPayload;
 
 import org.apache.axiom.om.OMDataSource;
@@ -53,6 +54,10 @@ abstract class AxiomSoapBody extends AxiomSoapElement implements SoapBody {
         return payload.getSource();
     }
 
+    void setPayloadReaderDecorator(StreamReaderDecorator decorator) {
+        payload.setReaderDecorator(decorator);
+    }
+
     public Result getPayloadResult() {
         return payload.getResult();
     }
@@ -48,6 +48,8 @@ import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.soap.axiom.support.AxiomUtils;
 import org.springframework.ws.soap.support.SoapUtils;
+import org.springframework.ws.stream.DecoratingStreamWebServiceMessage;
+import org.springframework.ws.stream.StreamReaderDecorator;
 import org.springframework.ws.stream.StreamingPayload;
 import org.springframework.ws.stream.StreamingWebServiceMessage;
 import org.springframework.ws.transport.TransportConstants;
@@ -61,7 +63,8 @@ import org.springframework.ws.transport.TransportOutputStream;
  * @see SOAPMessage
  * @since 1.0.0
  */
-public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWebServiceMessage {
+public class AxiomSoapMessage extends AbstractSoapMessage
+        implements StreamingWebServiceMessage, DecoratingStreamWebServiceMessage {
 
     private static final String EMPTY_SOAP_ACTION = "\"\"";
 
@@ -81,6 +84,9 @@ public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWe
 
     private OMOutputFormat outputFormat;
 
+    /** The output format of which only the headers have been written, so that its MIME boundary is used once more. */
+    private OMOutputFormat headersOutputFormat;
+
     /**
      * Create a new, empty <code>AxiomSoapMessage</code>.
      *
@@ -177,6 +183,11 @@ public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWe
         soapBody.setStreamingPayload(payload);
     }
 
+    public void setPayloadReaderDecorator(StreamReaderDecorator decorator) {
+        AxiomSoapBody soapBody = (AxiomSoapBody) getSoapBody();
+        soapBody.setPayloadReaderDecorator(decorator);
+    }
+
     public SoapEnvelope getEnvelope() {
         if (envelope == null) {
             try {
@@ -274,7 +285,10 @@ public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWe
                     transportOutputStream.addHeader(TransportConstants.HEADER_ACCEPT, version.getContentType());
                 }
                 transportOutputStream.addHeader(TransportConstants.HEADER_CONTENT_TYPE, contentType);
-
+                if (transportOutputStream.isHeadersOnly()) {
+                    headersOutputFormat = outputFormat;
+                    return;
+                }
             }
             if (!(outputFormat.isOptimized()) & outputFormat.isDoingSWA()) {
                 writeSwAMessage(outputStream, outputFormat);
@@ -301,6 +315,11 @@ public class AxiomSoapMessage extends AbstractSoapMessage implements StreamingWe
         if (outputFormat != null) {
             return outputFormat;
         }
+        else if (headersOutputFormat != null) {
+            OMOutputFormat outputFormat = headersOutputFormat;
+            headersOutputFormat = null;
+            return outputFormat;
+        }
         else {
             String charsetEncoding = axiomMessage.getCharsetEncoding();
 
@@ -19,6 +19,8 @@ package org.springframework.ws.soap.axiom;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 
+import org.springframework.ws.stream.StreamReaderDecorator;
+
 /**
  * Defines the contract for payloads in Axiom.
  *
@@ -34,6 +36,13 @@ abstract class Payload {
      */
     public abstract Source getSource();
 
+    /**
+     * Sets the decorator to apply to the stream reader of the next {@linkplain #getSource() source}.
+     *
+     * @param readerDecorator the decorator; may be {@code null}
+     */
+    public abstract void setReaderDecorator(StreamReaderDecorator readerDecorator);
+
     /**
      * Returns the result of the payload.
      *
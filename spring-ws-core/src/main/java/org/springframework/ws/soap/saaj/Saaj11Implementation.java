@@ -352,6 +352,9 @@ class Saaj11Implementation extends SaajImplementation {
                 MimeHeader mimeHeader = (MimeHeader) iterator.next();
                 transportOutputStream.addHeader(mimeHeader.getName(), mimeHeader.getValue());
             }
+            if (transportOutputStream.isHeadersOnly()) {
+                return;
+            }
         }
         message.writeTo(outputStream);
 
@@ -296,6 +296,9 @@ class Saaj12Implementation extends SaajImplementation {
                 MimeHeader mimeHeader = (MimeHeader) iterator.next();
                 transportOutputStream.addHeader(mimeHeader.getName(), mimeHeader.getValue());
             }
+            if (transportOutputStream.isHeadersOnly()) {
+                return;
+            }
         }
         message.writeTo(outputStream);
 
@@ -341,6 +341,9 @@ class Saaj13Implementation extends SaajImplementation {
                 MimeHeader mimeHeader = (MimeHeader) iterator.next();
                 transportOutputStream.addHeader(mimeHeader.getName(), mimeHeader.getValue());
             }
+            if (transportOutputStream.isHeadersOnly()) {
+                return;
+            }
         }
         message.writeTo(outputStream);
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,11 @@
 
 package org.springframework.ws.soap.saaj;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.StringTokenizer;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.MimeHeaders;
 import javax.xml.soap.SOAPConstants;
@@ -186,23 +184,6 @@ public class SaajSoapMessageFactory implements SoapMessageFactory, InitializingB
             return new SaajSoapMessage(saajMessage, langAttributeOnSoap11FaultString, messageFactory);
         }
         catch (SOAPException ex) {
-            // SAAJ 1.3 RI has a issue with handling multipart XOP content types which contain "startinfo" rather than
-            // "start-info", so let's try and do something about it
-            String contentType = StringUtils
-                    .arrayToCommaDelimitedString(mimeHeaders.getHeader(TransportConstants.HEADER_CONTENT_TYPE));
-            if (contentType.contains("startinfo")) {
-                contentType = contentType.replace("startinfo", "start-info");
-                mimeHeaders.setHeader(TransportConstants.HEADER_CONTENT_TYPE, contentType);
-                try {
-                    SOAPMessage saajMessage = messageFactory.createMessage(mimeHeaders, inputStream);
-                    postProcess(saajMessage);
-                    return new SaajSoapMessage(saajMessage,
-                            langAttributeOnSoap11FaultString);
-                }
-                catch (SOAPException e) {
-                    // fall-through
-                }
-            }
             throw new SoapMessageCreationException("Could not create message from InputStream: " + ex.getMessage(), ex);
         } catch (SaajSoapEnvelopeException ex) {
             SAXParseException parseException = getSAXParseException(ex);
@@ -230,18 +211,37 @@ public class SaajSoapMessageFactory implements SoapMessageFactory, InitializingB
             TransportInputStream transportInputStream = (TransportInputStream) inputStream;
             for (Iterator<String> headerNames = transportInputStream.getHeaderNames(); headerNames.hasNext();) {
                 String headerName = headerNames.next();
+                boolean contentType = TransportConstants.HEADER_CONTENT_TYPE.equalsIgnoreCase(headerName);
                 for (Iterator<String> headerValues = transportInputStream.getHeaders(headerName); headerValues.hasNext();) {
                     String headerValue = headerValues.next();
-                    StringTokenizer tokenizer = new StringTokenizer(headerValue, ",");
-                    while (tokenizer.hasMoreTokens()) {
-                        mimeHeaders.addHeader(headerName, tokenizer.nextToken().trim());
+                    int start = 0;
+                    int end;
+                    do {
+                        end = headerValue.indexOf(',', start);
+                        String token = (end != -1 ? headerValue.substring(start, end) : headerValue.substring(start)).trim();
+                        if (token.length() > 0) {
+                            if (contentType) {
+                                token = fixContentType(token);
+                            }
+                            mimeHeaders.addHeader(headerName, token);
+                        }
+                        start = end + 1;
                     }
+                    while (end != -1);
                 }
             }
         }
         return mimeHeaders;
     }
 
+    /**
+     * SAAJ 1.3 RI has a issue with handling multipart XOP content types which contain "startinfo" rather than
+     * "start-info", so fix these before parsing, rather than retrying afterwards.
+     */
+    private String fixContentType(String contentType) {
+        return contentType.contains("startinfo") ? contentType.replace("startinfo", "start-info") : contentType;
+    }
+
     /**
      * Checks for the UTF-8 Byte Order Mark, and removes it if present. The SAAJ RI cannot cope with these BOMs.
      *
@@ -249,28 +249,30 @@ public class SaajSoapMessageFactory implements SoapMessageFactory, InitializingB
      * @see <a href="http://unicode.org/faq/utf_bom.html#22">UTF-8 BOMs</a>
      */
     private InputStream checkForUtf8ByteOrderMark(InputStream inputStream) throws IOException {
-        PushbackInputStream pushbackInputStream = new PushbackInputStream(new BufferedInputStream(inputStream), 3);
+        // SAAJ buffers the message itself, so a small pushback buffer suffices to peek at the first bytes
+        PushbackInputStream pushbackInputStream = new PushbackInputStream(inputStream, 3);
         byte[] bytes = new byte[3];
         int bytesRead = 0;
-	    while (bytesRead < bytes.length) {
-		    int n = pushbackInputStream.read(bytes, bytesRead, bytes.length - bytesRead);
-		    if (n > 0) {
-			    bytesRead += n;
-		    } else {
-			    break;
-		    }
-	    }
+        while (bytesRead < bytes.length) {
+            int n = pushbackInputStream.read(bytes, bytesRead, bytes.length - bytesRead);
+            if (n > 0) {
+                bytesRead += n;
+            }
+            else {
+                break;
+            }
+        }
         if (bytesRead > 0) {
             // check for the UTF-8 BOM, and remove it if there. See SWS-393
-            if (!isByteOrderMark(bytes)) {
+            if (!isByteOrderMark(bytes, bytesRead)) {
                 pushbackInputStream.unread(bytes, 0, bytesRead);
             }
         }
         return pushbackInputStream;
     }
 
-    private boolean isByteOrderMark(byte[] bytes) {
-        return bytes.length == 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF;
+    private boolean isByteOrderMark(byte[] bytes, int length) {
+        return length == 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF;
     }
 
     /**
@@ -95,6 +95,21 @@ public class SoapMessageDispatcher extends MessageDispatcher {
         return true;
     }
 
+    /**
+     * Returns a key consisting of both the payload root element name and the SOAP action of the request.
+     *
+     * @see SoapMessage#getSoapAction()
+     */
+    @Override
+    protected Object getDispatchKey(MessageContext messageContext) throws Exception {
+        Object payloadKey = super.getDispatchKey(messageContext);
+        if (payloadKey != null && messageContext.getRequest() instanceof SoapMessage) {
+            String soapAction = ((SoapMessage) messageContext.getRequest()).getSoapAction();
+            return new SoapDispatchKey(payloadKey, soapAction);
+        }
+        return payloadKey;
+    }
+
     private boolean handleHeaders(EndpointInvocationChain mappedEndpoint,
                                   MessageContext messageContext,
                                   String[] actorsOrRoles,
@@ -177,4 +192,36 @@ public class SoapMessageDispatcher extends MessageDispatcher {
         }
     }
 
+    /** Dispatch key consisting of the payload root element name and the SOAP action. */
+    private static class SoapDispatchKey {
+
+        private final Object payloadKey;
+
+        private final String soapAction;
+
+        private final int hashCode;
+
+        private SoapDispatchKey(Object payloadKey, String soapAction) {
+            this.payloadKey = payloadKey;
+            this.soapAction = soapAction;
+            this.hashCode = 31 * payloadKey.hashCode() + (soapAction != null ? soapAction.hashCode() : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SoapDispatchKey)) {
+                return false;
+            }
+            SoapDispatchKey other = (SoapDispatchKey) o;
+            return payloadKey.equals(other.payloadKey) && ObjectUtils.nullSafeEquals(soapAction, other.soapAction);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.stream;
+
+import org.springframework.ws.WebServiceMessage;
+
+/**
+ * Sub-interface of {@link WebServiceMessage} that exposes its payload as a {@link javax.xml.stream.XMLStreamReader},
+ * and allows for decorating that reader.
+ *
+ * @author agent
+ * @see StreamReaderDecorator
+ * @since 2.1.5
+ */
+public interface DecoratingStreamWebServiceMessage extends WebServiceMessage {
+
+    /**
+     * Sets the decorator for the payload stream reader. The decorator is applied once: to the stream reader of the
+     * next {@linkplain #getPayloadSource() payload source} that is requested.
+     *
+     * @param decorator the decorator; or {@code null} to remove a decorator that has not been applied yet
+     */
+    void setPayloadReaderDecorator(StreamReaderDecorator decorator);
+
+}
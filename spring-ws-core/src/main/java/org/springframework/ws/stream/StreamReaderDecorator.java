@@ -0,0 +1,41 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.stream;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Callback interface that wraps the {@link XMLStreamReader} of a message payload, for instance to observe the payload
+ * as it is being read.
+ *
+ * @author agent
+ * @see DecoratingStreamWebServiceMessage
+ * @since 2.1.5
+ */
+public interface StreamReaderDecorator {
+
+    /**
+     * Decorates the given stream reader.
+     *
+     * @param streamReader the payload stream reader
+     * @return the decorated stream reader
+     * @throws XMLStreamException in case of errors
+     */
+    XMLStreamReader decorate(XMLStreamReader streamReader) throws XMLStreamException;
+
+}
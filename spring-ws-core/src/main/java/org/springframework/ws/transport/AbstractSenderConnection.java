@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -78,6 +78,35 @@ public abstract class AbstractSenderConnection extends AbstractWebServiceConnect
     /** Returns the output stream to write the request to. */
     protected abstract OutputStream getRequestOutputStream() throws IOException;
 
+    /**
+     * Indicates whether only the request headers are to be written when a message is {@linkplain
+     * #send(org.springframework.ws.WebServiceMessage) sent}, because the connection writes the message itself later.
+     * Messages that do not support this are written to the {@linkplain #getRequestOutputStream() request output
+     * stream} as usual.
+     * <p/>
+     * Default implementation returns {@code false}.
+     *
+     * @see TransportOutputStream#isHeadersOnly()
+     * @since 2.1.5
+     */
+    protected boolean isRequestHeadersOnly() {
+        return false;
+    }
+
+    /**
+     * Creates the output stream the request is written to. Called when the first bytes of the request are written, and
+     * thus after all request headers have been {@linkplain #addRequestHeader(String, String) added}.
+     * <p/>
+     * Default implementation returns the {@linkplain #getRequestOutputStream() request output stream}. Subclasses can
+     * override this method to decorate it.
+     *
+     * @return the output stream
+     * @throws IOException when an I/O exception occurs
+     */
+    protected OutputStream createRequestOutputStream() throws IOException {
+        return getRequestOutputStream();
+    }
+
     /**
      * Returns an iteration over all the header names this request contains. Returns an empty <code>Iterator</code> if
      * there are no headers.
@@ -101,9 +130,14 @@ public abstract class AbstractSenderConnection extends AbstractWebServiceConnect
             addRequestHeader(name, value);
         }
 
+        @Override
+        public boolean isHeadersOnly() {
+            return isRequestHeadersOnly();
+        }
+
         @Override
         protected OutputStream createOutputStream() throws IOException {
-            return getRequestOutputStream();
+            return createRequestOutputStream();
         }
     }
 
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport;
+
+import java.io.IOException;
+
+/**
+ * Extension of the {@link WebServiceConnection} interface for connections that can exchange messages without blocking
+ * the calling thread.
+ * <p/>
+ * After the request has been {@linkplain #send(org.springframework.ws.WebServiceMessage) sent}, which only prepares
+ * it, {@link #exchange(ExchangeCallback)} transfers the request and the response using non-blocking I/O, and returns
+ * immediately. Once the callback has been notified of completion, the response has been received in full, and the
+ * methods that read it, such as {@link #hasError()} and {@link
+ * #receive(org.springframework.ws.WebServiceMessageFactory) receive}, no longer block.
+ * <p/>
+ * When used as a plain <code>WebServiceConnection</code>, without calling <code>exchange</code>, the connection
+ * performs the exchange when the response is first read, and waits for it.
+ *
+ * @author agent
+ * @see AsyncWebServiceMessageSender
+ * @since 2.1.5
+ */
+public interface AsyncWebServiceConnection extends WebServiceConnection {
+
+    /**
+     * Starts the exchange of the sent request and its response, without waiting for it to complete. The given callback
+     * is notified when it does, typically in an I/O thread of the underlying transport.
+     *
+     * @param callback the callback to notify
+     * @throws IOException in case of I/O errors
+     */
+    void exchange(ExchangeCallback callback) throws IOException;
+
+    /**
+     * Cancels the exchange, if it has been started and not yet completed. The callback is then notified of the
+     * failure.
+     */
+    void cancel();
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Extension of the {@link WebServiceMessageSender} interface for senders whose connections can exchange messages
+ * without blocking the calling thread.
+ *
+ * @author agent
+ * @see AsyncWebServiceConnection
+ * @see org.springframework.ws.client.core.AsyncWebServiceTemplate
+ * @since 2.1.5
+ */
+public interface AsyncWebServiceMessageSender extends WebServiceMessageSender {
+
+    /**
+     * Create a new {@link AsyncWebServiceConnection} to the specified URI.
+     *
+     * @param uri the URI to open a connection to
+     * @return the new connection
+     * @throws IOException in case of I/O errors
+     */
+    AsyncWebServiceConnection createConnection(URI uri) throws IOException;
+
+}
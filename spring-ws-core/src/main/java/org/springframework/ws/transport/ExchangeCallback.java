@@ -0,0 +1,43 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport;
+
+/**
+ * Callback interface for the completion of an {@linkplain AsyncWebServiceConnection#exchange(ExchangeCallback)
+ * asynchronous exchange}.
+ * <p/>
+ * The callback methods are typically invoked in an I/O thread of the underlying transport, and should therefore not
+ * block.
+ *
+ * @author agent
+ * @see AsyncWebServiceConnection
+ * @since 2.1.5
+ */
+public interface ExchangeCallback {
+
+    /** Called when the response has been received in full, and can be read from the connection. */
+    void completed();
+
+    /**
+     * Called when the exchange has failed, or has been cancelled.
+     *
+     * @param ex the exception that caused the failure; a {@link java.util.concurrent.CancellationException} when the
+     *           exchange has been cancelled
+     */
+    void failed(Exception ex);
+
+}
@@ -78,6 +78,20 @@ public abstract class TransportOutputStream extends OutputStream {
      */
     public abstract void addHeader(String name, String value) throws IOException;
 
+    /**
+     * Indicates whether only headers are to be written to this stream. If so, the message is written later, to another
+     * stream, and writers can return after {@linkplain #addHeader(String, String) adding} the headers. Writers that
+     * write the message nonetheless are not affected.
+     * <p/>
+     * Default implementation returns {@code false}.
+     *
+     * @return {@code true} if only headers are to be written; {@code false} otherwise
+     * @since 2.1.5
+     */
+    public boolean isHeadersOnly() {
+        return false;
+    }
+
     /** Returns the output stream to write to. */
     protected abstract OutputStream createOutputStream() throws IOException;
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,15 @@
 
 package org.springframework.ws.transport.http;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.util.Iterator;
 import java.util.zip.GZIPInputStream;
 
-import org.springframework.util.FileCopyUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.transport.AbstractSenderConnection;
 import org.springframework.ws.transport.FaultAwareWebServiceConnection;
 import org.springframework.ws.transport.WebServiceConnection;
@@ -37,8 +38,28 @@ import org.springframework.ws.transport.WebServiceConnection;
 public abstract class AbstractHttpSenderConnection extends AbstractSenderConnection
         implements FaultAwareWebServiceConnection {
 
-    /** Buffer used for reading the response, when the content length is invalid. */
-    private byte[] responseBuffer;
+    /** Stream used for peeking at the response, when the content length is invalid. */
+    private PushbackInputStream responseInputStream;
+
+    /** Requests larger than this number of bytes are compressed; -1 disables compression. */
+    private int compressionThreshold = -1;
+
+    private int compressionLevel;
+
+    private CompressingOutputStream compressingRequestOutputStream;
+
+    private boolean requestCompressed;
+
+    /**
+     * Enables GZIP compression of requests larger than the given threshold.
+     *
+     * @param threshold the request size in bytes above which requests are compressed
+     * @param level     the {@link java.util.zip.Deflater} compression level
+     */
+    void setRequestCompression(int threshold, int level) {
+        this.compressionThreshold = threshold;
+        this.compressionLevel = level;
+    }
 
     public final boolean hasError() throws IOException {
         return getResponseCode() / 100 != 2;
@@ -56,6 +77,85 @@ public abstract class AbstractHttpSenderConnection extends AbstractSenderConnect
         return builder.toString();
     }
 
+    /*
+     * Sending request
+     */
+
+    /**
+     * Creates the output stream the request is written to. Returns a stream that compresses the request, if request
+     * compression is enabled.
+     */
+    @Override
+    protected OutputStream createRequestOutputStream() throws IOException {
+        if (compressionThreshold >= 0) {
+            compressingRequestOutputStream = new CompressingOutputStream(compressionThreshold, compressionLevel) {
+
+                @Override
+                protected OutputStream createOutputStream(boolean compressed) throws IOException {
+                    if (compressed) {
+                        requestCompressed = true;
+                        addRequestHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING,
+                                HttpTransportConstants.CONTENT_ENCODING_GZIP);
+                    }
+                    return getRequestOutputStream();
+                }
+            };
+            return compressingRequestOutputStream;
+        }
+        return super.createRequestOutputStream();
+    }
+
+    /**
+     * Called after the given message has been written. Finishes the compression of the request, if enabled; subclasses
+     * overriding this method must call {@code super.onSendAfterWrite} before sending the request.
+     */
+    @Override
+    protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+        if (compressingRequestOutputStream != null) {
+            CompressingOutputStream outputStream = compressingRequestOutputStream;
+            compressingRequestOutputStream = null;
+            outputStream.finish();
+        }
+    }
+
+    /**
+     * Prepares writing the message directly to the connection, with {@link #writeRequestBody(WebServiceMessage,
+     * OutputStream)}, after only its headers have been written. Since the size of such a request is not known in
+     * advance, it is compressed whenever request compression is enabled.
+     *
+     * @throws IOException in case of I/O errors
+     */
+    protected void prepareRequestBody() throws IOException {
+        if (compressionThreshold >= 0) {
+            requestCompressed = true;
+            addRequestHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING,
+                    HttpTransportConstants.CONTENT_ENCODING_GZIP);
+        }
+    }
+
+    /**
+     * Writes the given message to the given stream, compressed if the request is compressed. Allows subclasses to write
+     * the message directly to the underlying connection, when only its headers have been written to the {@linkplain
+     * #getRequestOutputStream() request output stream}.
+     *
+     * @param message      the message to write
+     * @param outputStream the stream to write to
+     * @throws IOException in case of I/O errors
+     * @see #prepareRequestBody()
+     */
+    protected void writeRequestBody(WebServiceMessage message, OutputStream outputStream) throws IOException {
+        if (requestCompressed) {
+            CompressingOutputStream.LevelGzipOutputStream gzipOutputStream =
+                    new CompressingOutputStream.LevelGzipOutputStream(outputStream, compressionLevel);
+            message.writeTo(gzipOutputStream);
+            gzipOutputStream.finish();
+        }
+        else {
+            message.writeTo(outputStream);
+        }
+        outputStream.flush();
+    }
+
     /*
      * Receiving response
      */
@@ -68,10 +168,20 @@ public abstract class AbstractHttpSenderConnection extends AbstractSenderConnect
         }
         long contentLength = getResponseContentLength();
         if (contentLength < 0) {
-            if (responseBuffer == null) {
-                responseBuffer = FileCopyUtils.copyToByteArray(getRawResponseInputStream());
+            if (responseInputStream == null) {
+                InputStream rawInputStream = getRawResponseInputStream();
+                if (rawInputStream == null) {
+                    return false;
+                }
+                responseInputStream = new PushbackInputStream(rawInputStream, 1);
+            }
+            // peek at the first byte, rather than reading the entire response
+            int b = responseInputStream.read();
+            if (b == -1) {
+                return false;
             }
-            contentLength = responseBuffer.length;
+            responseInputStream.unread(b);
+            return true;
         }
         return contentLength > 0;
     }
@@ -79,8 +189,8 @@ public abstract class AbstractHttpSenderConnection extends AbstractSenderConnect
     @Override
     protected final InputStream getResponseInputStream() throws IOException {
         InputStream inputStream;
-        if (responseBuffer != null) {
-            inputStream = new ByteArrayInputStream(responseBuffer);
+        if (responseInputStream != null) {
+            inputStream = responseInputStream;
         }
         else {
             inputStream = getRawResponseInputStream();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2007 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,10 +17,12 @@
 package org.springframework.ws.transport.http;
 
 import java.net.URI;
+import java.util.zip.Deflater;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.util.Assert;
 import org.springframework.ws.transport.WebServiceMessageSender;
 
 /**
@@ -37,8 +39,17 @@ public abstract class AbstractHttpWebServiceMessageSender implements WebServiceM
      */
     protected final Log logger = LogFactory.getLog(getClass());
 
+    /** Default request size in bytes above which requests are compressed. */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
     private boolean acceptGzipEncoding = true;
 
+    private boolean compressRequests = false;
+
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
     /**
      * Return whether to accept GZIP encoding, that is, whether to send the HTTP <code>Accept-Encoding</code> header
      * with <code>gzip</code> as value.
@@ -58,6 +69,57 @@ public abstract class AbstractHttpWebServiceMessageSender implements WebServiceM
         this.acceptGzipEncoding = acceptGzipEncoding;
     }
 
+    /** Return whether requests are compressed using GZIP. */
+    public boolean isCompressRequests() {
+        return compressRequests;
+    }
+
+    /**
+     * Set whether to compress requests using GZIP, that is, whether to compress the request as it is written, and send
+     * the HTTP <code>Content-Encoding</code> header with <code>gzip</code> as value.
+     * <p/>
+     * Default is <code>false</code>. Only turn this flag on if the HTTP server supports GZIP request compression, as
+     * the {@link MessageDispatcherServlet} does.
+     *
+     * @see #setCompressionThreshold(int)
+     * @see #setCompressionLevel(int)
+     */
+    public void setCompressRequests(boolean compressRequests) {
+        this.compressRequests = compressRequests;
+    }
+
+    /**
+     * Set the request size in bytes above which requests are compressed. Smaller requests are sent as is, since they
+     * hardly benefit from compression. Only used when {@linkplain #setCompressRequests(boolean) request compression}
+     * is enabled.
+     * <p/>
+     * Default is {@link #DEFAULT_COMPRESSION_THRESHOLD}.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        Assert.isTrue(compressionThreshold >= 0, "'compressionThreshold' must not be negative");
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Set the compression level used for requests, from 0 to 9. Only used when {@linkplain
+     * #setCompressRequests(boolean) request compression} is enabled.
+     * <p/>
+     * Default is {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        Assert.isTrue(compressionLevel == Deflater.DEFAULT_COMPRESSION ||
+                (compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION),
+                "Invalid compression level: " + compressionLevel);
+        this.compressionLevel = compressionLevel;
+    }
+
+    /** Applies the request compression settings of this sender to the given connection. */
+    void prepareRequestCompression(AbstractHttpSenderConnection connection) {
+        if (compressRequests) {
+            connection.setRequestCompression(compressionThreshold, compressionLevel);
+        }
+    }
+
     public boolean supports(URI uri) {
         return uri.getScheme().equals(HttpTransportConstants.HTTP_URI_SCHEME) ||
                 uri.getScheme().equals(HttpTransportConstants.HTTPS_URI_SCHEME);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,6 +35,7 @@ import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.URIException;
 import org.apache.commons.httpclient.methods.ByteArrayRequestEntity;
 import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
 
 /**
  * Implementation of {@link WebServiceConnection} that is based on Jakarta Commons HttpClient. Exposes a {@link
@@ -53,6 +54,8 @@ public class CommonsHttpConnection extends AbstractHttpSenderConnection {
 
     private ByteArrayOutputStream requestBuffer;
 
+    private boolean streaming;
+
     private MultiThreadedHttpConnectionManager connectionManager;
 
     protected CommonsHttpConnection(HttpClient httpClient, PostMethod postMethod) {
@@ -62,6 +65,11 @@ public class CommonsHttpConnection extends AbstractHttpSenderConnection {
         this.postMethod = postMethod;
     }
 
+    /** Enables streaming of requests, using chunked transfer encoding. */
+    void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public PostMethod getPostMethod() {
         return postMethod;
     }
@@ -96,6 +104,11 @@ public class CommonsHttpConnection extends AbstractHttpSenderConnection {
         requestBuffer = new ByteArrayOutputStream();
     }
 
+    @Override
+    protected boolean isRequestHeadersOnly() {
+        return streaming;
+    }
+
     @Override
     protected void addRequestHeader(String name, String value) throws IOException {
         postMethod.addRequestHeader(name, value);
@@ -108,8 +121,20 @@ public class CommonsHttpConnection extends AbstractHttpSenderConnection {
 
     @Override
     protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
-        postMethod.setRequestEntity(new ByteArrayRequestEntity(requestBuffer.toByteArray()));
+        super.onSendAfterWrite(message);
+        if (streaming && requestBuffer.size() == 0) {
+            // only the headers have been written, the entity writes the message itself; a content length of -1
+            // results in chunked transfer encoding
+            prepareRequestBody();
+            postMethod.setRequestEntity(new StreamingMessageRequestEntity(message));
+        }
+        else {
+            postMethod.setRequestEntity(new ByteArrayRequestEntity(requestBuffer.toByteArray()));
+        }
         requestBuffer = null;
+        // a Content-Length header set by the message does not apply to a compressed or chunked request, and is added
+        // by the entity anyway
+        postMethod.removeRequestHeader(HttpTransportConstants.HEADER_CONTENT_LENGTH);
         try {
             httpClient.executeMethod(postMethod);
         } catch (IllegalStateException ex) {
@@ -169,4 +194,33 @@ public class CommonsHttpConnection extends AbstractHttpSenderConnection {
         return Arrays.asList(values).iterator();
     }
 
+    /**
+     * Request entity that writes the message directly to the connection, in the thread that executes the method, using
+     * chunked transfer encoding.
+     */
+    private class StreamingMessageRequestEntity implements RequestEntity {
+
+        private final WebServiceMessage message;
+
+        private StreamingMessageRequestEntity(WebServiceMessage message) {
+            this.message = message;
+        }
+
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        public void writeRequest(OutputStream out) throws IOException {
+            writeRequestBody(message, out);
+        }
+
+        public long getContentLength() {
+            return -1;
+        }
+
+        public String getContentType() {
+            return null;
+        }
+    }
+
 }
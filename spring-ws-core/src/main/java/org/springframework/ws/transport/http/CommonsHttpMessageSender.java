@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -67,6 +67,8 @@ public class CommonsHttpMessageSender extends AbstractHttpWebServiceMessageSende
 
     private AuthScope authScope;
 
+    private boolean streamingRequests = false;
+
     /**
      * Create a new instance of the <code>CommonsHttpMessageSender</code> with a default {@link HttpClient} that uses a
      * default {@link MultiThreadedHttpConnectionManager}.
@@ -210,6 +212,22 @@ public class CommonsHttpMessageSender extends AbstractHttpWebServiceMessageSende
         this.authScope = authScope;
     }
 
+    /**
+     * Sets whether requests are streamed directly to the server, using chunked transfer encoding, rather than buffered
+     * in memory first. Defaults to {@code false}.
+     * <p/>
+     * Since the underlying client sends the request headers before it reads the request body, only the headers of the
+     * message are written when it is sent. The message itself is written once, directly to the connection, in the
+     * calling thread. This includes messages with attachments, and Axiom messages with payload caching disabled.
+     * Streamed requests are compressed whenever request compression is enabled, since their size is not known in
+     * advance. Messages that do not support writing only their headers are buffered.
+     *
+     * @see org.springframework.ws.transport.TransportOutputStream#isHeadersOnly()
+     */
+    public void setStreamingRequests(boolean streamingRequests) {
+        this.streamingRequests = streamingRequests;
+    }
+
     public void afterPropertiesSet() throws Exception {
         if (getCredentials() != null) {
             getHttpClient().getState().setCredentials(getAuthScope(), getCredentials());
@@ -230,7 +248,10 @@ public class CommonsHttpMessageSender extends AbstractHttpWebServiceMessageSende
             postMethod.addRequestHeader(HttpTransportConstants.HEADER_ACCEPT_ENCODING,
                     HttpTransportConstants.CONTENT_ENCODING_GZIP);
         }
-        return new CommonsHttpConnection(getHttpClient(), postMethod);
+        CommonsHttpConnection connection = new CommonsHttpConnection(getHttpClient(), postMethod);
+        prepareRequestCompression(connection);
+        connection.setStreaming(streamingRequests);
+        return connection;
     }
 
 }
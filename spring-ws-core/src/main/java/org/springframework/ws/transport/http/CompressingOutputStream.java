@@ -0,0 +1,161 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream that compresses HTTP message bodies using GZIP, if they are larger than a given threshold.
+ * <p/>
+ * The body is buffered up to the threshold. If it turns out to be larger, the target stream is {@linkplain
+ * #createOutputStream(boolean) created} for a compressed body, and the body is compressed as it is written; otherwise,
+ * the target stream is created for an uncompressed body when the stream is {@linkplain #finish() finished}.
+ *
+ * @author Arjen Poutsma
+ * @since 2.1.5
+ */
+abstract class CompressingOutputStream extends OutputStream {
+
+    private final int threshold;
+
+    private final int level;
+
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private GZIPOutputStream gzipOutputStream;
+
+    private CountingOutputStream countingOutputStream;
+
+    private long uncompressedCount;
+
+    /**
+     * Creates a new instance of the {@code CompressingOutputStream}.
+     *
+     * @param threshold the body size in bytes above which the body is compressed
+     * @param level     the {@link java.util.zip.Deflater} compression level
+     */
+    protected CompressingOutputStream(int threshold, int level) {
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    /** Indicates whether the body is compressed. */
+    public boolean isCompressed() {
+        return gzipOutputStream != null;
+    }
+
+    /** Returns the number of bytes written to this stream. */
+    public long getUncompressedCount() {
+        return uncompressedCount;
+    }
+
+    /** Returns the number of compressed bytes written to the target stream, or -1 if the body is not compressed. */
+    public long getCompressedCount() {
+        return countingOutputStream != null ? countingOutputStream.count : -1;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        uncompressedCount += len;
+        if (gzipOutputStream == null) {
+            if (buffer.size() + len <= threshold) {
+                buffer.write(b, off, len);
+                return;
+            }
+            countingOutputStream = new CountingOutputStream(createOutputStream(true));
+            gzipOutputStream = new LevelGzipOutputStream(countingOutputStream, level);
+            buffer.writeTo(gzipOutputStream);
+            buffer = null;
+        }
+        gzipOutputStream.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (gzipOutputStream != null) {
+            gzipOutputStream.flush();
+        }
+    }
+
+    /**
+     * Writes the remaining body, and finishes compression.
+     *
+     * @throws IOException in case of I/O errors
+     */
+    public void finish() throws IOException {
+        if (gzipOutputStream != null) {
+            gzipOutputStream.finish();
+            gzipOutputStream.flush();
+        }
+        else if (buffer != null) {
+            OutputStream outputStream = createOutputStream(false);
+            buffer.writeTo(outputStream);
+            buffer = null;
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Creates the target output stream. Called once, before any bytes are written to it.
+     *
+     * @param compressed {@code true} if a compressed body is written to the stream; {@code false} otherwise
+     * @return the target output stream
+     * @throws IOException in case of I/O errors
+     */
+    protected abstract OutputStream createOutputStream(boolean compressed) throws IOException;
+
+    /** {@code GZIPOutputStream} with a configurable compression level. */
+    static class LevelGzipOutputStream extends GZIPOutputStream {
+
+        LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+
+    /** Output stream that counts the bytes written to it. */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+}
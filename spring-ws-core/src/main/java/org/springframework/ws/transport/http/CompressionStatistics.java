@@ -0,0 +1,93 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of GZIP compressed HTTP messages. Thread-safe.
+ *
+ * @author Arjen Poutsma
+ * @see WebServiceMessageReceiverHandlerAdapter#getCompressionStatistics()
+ * @since 2.1.5
+ */
+public class CompressionStatistics {
+
+    private final AtomicLong compressedCount = new AtomicLong();
+
+    private final AtomicLong uncompressedCount = new AtomicLong();
+
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+
+    private final AtomicLong compressedBytes = new AtomicLong();
+
+    /** Returns the number of messages that were compressed. */
+    public long getCompressedCount() {
+        return compressedCount.get();
+    }
+
+    /** Returns the number of messages that were eligible for compression, but were too small to be compressed. */
+    public long getUncompressedCount() {
+        return uncompressedCount.get();
+    }
+
+    /** Returns the total size in bytes of the compressed messages, before compression. */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+
+    /** Returns the total size in bytes of the compressed messages, after compression. */
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    /**
+     * Returns the compression ratio: the compressed size divided by the uncompressed size of all compressed messages.
+     * Returns 1 if no messages have been compressed.
+     */
+    public double getCompressionRatio() {
+        long uncompressed = uncompressedBytes.get();
+        return uncompressed > 0 ? (double) compressedBytes.get() / uncompressed : 1.0d;
+    }
+
+    /** Resets all statistics. */
+    public void reset() {
+        compressedCount.set(0);
+        uncompressedCount.set(0);
+        uncompressedBytes.set(0);
+        compressedBytes.set(0);
+    }
+
+    /** Records the given finished compressing stream. */
+    void record(CompressingOutputStream outputStream) {
+        if (outputStream.isCompressed()) {
+            compressedCount.incrementAndGet();
+            uncompressedBytes.addAndGet(outputStream.getUncompressedCount());
+            compressedBytes.addAndGet(outputStream.getCompressedCount());
+        }
+        else {
+            uncompressedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStatistics[compressed=" + getCompressedCount() + ", uncompressed=" + getUncompressedCount() +
+                ", ratio=" + getCompressionRatio() + "]";
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.ws.transport.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Statistics of the connection pool of a {@link MonitoringClientConnectionManager}: the current number of leased,
+ * pending, and available connections, and the time spent waiting for a connection, both in total and per route.
+ * Thread-safe.
+ * <p/>
+ * Implements the {@link ConnectionPoolStatisticsMBean} standard MBean interface, so that it can be registered with an
+ * MBean server, for instance by a Spring {@link org.springframework.jmx.export.MBeanExporter}.
+ *
+ * @author agent
+ * @see HttpComponentsMessageSender#getConnectionPoolStatistics()
+ * @since 2.1.5
+ */
+public class ConnectionPoolStatistics implements ConnectionPoolStatisticsMBean {
+
+    private final MonitoringClientConnectionManager connectionManager;
+
+    private final LeaseStatistics totalStatistics = new LeaseStatistics();
+
+    private final ConcurrentMap<HttpRoute, LeaseStatistics> routeStatistics =
+            new ConcurrentHashMap<HttpRoute, LeaseStatistics>();
+
+    ConnectionPoolStatistics(MonitoringClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    public int getMaxTotal() {
+        return connectionManager.getTotalStats().getMax();
+    }
+
+    public int getLeased() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    public int getPending() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    public int getAvailable() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    public long getLeaseCount() {
+        return totalStatistics.leaseCount.get();
+    }
+
+    public long getLeaseTimeoutCount() {
+        return totalStatistics.timeoutCount.get();
+    }
+
+    public double getAverageLeaseWaitMillis() {
+        return totalStatistics.getAverageWaitMillis();
+    }
+
+    public long getMaxLeaseWaitMillis() {
+        return totalStatistics.getMaxWaitMillis();
+    }
+
+    public String[] getRouteStatistics() {
+        List<String> result = new ArrayList<String>();
+        for (HttpRoute route : getRoutes()) {
+            PoolStats stats = connectionManager.getStats(route);
+            LeaseStatistics leaseStatistics = routeStatistics.get(route);
+            result.add(route + ": leased=" + stats.getLeased() + ", pending=" + stats.getPending() + ", available=" +
+                    stats.getAvailable() + ", max=" + stats.getMax() + ", leases=" +
+                    leaseStatistics.leaseCount.get() + ", timeouts=" + leaseStatistics.timeoutCount.get() +
+                    ", averageWait=" + leaseStatistics.getAverageWaitMillis() + "ms, maxWait=" +
+                    leaseStatistics.getMaxWaitMillis() + "ms");
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    /** Returns the routes for which connections have been leased. */
+    public Set<HttpRoute> getRoutes() {
+        return Collections.unmodifiableSet(routeStatistics.keySet());
+    }
+
+    /** Returns the current number of leased, pending, and available connections for the given route. */
+    public PoolStats getStats(HttpRoute route) {
+        return connectionManager.getStats(route);
+    }
+
+    /** Returns the number of connection leases for the given route, including the ones that timed out. */
+    public long getLeaseCount(HttpRoute route) {
+        LeaseStatistics leaseStatistics = routeStatistics.get(route);
+        return leaseStatistics != null ? leaseStatistics.leaseCount.get() : 0;
+    }
+
+    /** Returns the average time in milliseconds spent waiting for a connection for the given route. */
+    public double getAverageLeaseWaitMillis(HttpRoute route) {
+        LeaseStatistics leaseStatistics = routeStatistics.get(route);
+        return leaseStatistics != null ? leaseStatistics.getAverageWaitMillis() : 0.0d;
+    }
+
+    /** Returns the maximum time in milliseconds spent waiting for a connection for the given route. */
+    public long getMaxLeaseWaitMillis(HttpRoute route) {
+        LeaseStatistics leaseStatistics = routeStatistics.get(route);
+        return leaseStatistics != null ? leaseStatistics.getMaxWaitMillis() : 0;
+    }
+
+    public void reset() {
+        totalStatistics.reset();
+        for (LeaseStatistics leaseStatistics : routeStatistics.values()) {
+            leaseStatistics.reset();
+        }
+    }
+
+    /** Records a connection lease for the given route. */
+    void recordLease(HttpRoute route, long waitNanos, boolean timedOut) {
+        LeaseStatistics leaseStatistics = routeStatistics.get(route);
+        if (leaseStatistics == null) {
+            leaseStatistics = new LeaseStatistics();
+            LeaseStatistics existing = routeStatistics.putIfAbsent(route, leaseStatistics);
+            if (existing != null) {
+                leaseStatistics = existing;
+            }
+        }
+        leaseStatistics.record(waitNanos, timedOut);
+        totalStatistics.record(waitNanos, timedOut);
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStatistics[leased=" + getLeased() + ", pending=" + getPending() + ", available=" +
+                getAvailable() + ", leases=" + getLeaseCount() + ", averageWait=" + getAverageLeaseWaitMillis() +
+                "ms]";
+    }
+
+    /** Lease statistics, either of the entire pool, or of a single route. */
+    private static class LeaseStatistics {
+
+        private final AtomicLong leaseCount = new AtomicLong();
+
+        private final AtomicLong timeoutCount = new AtomicLong();
+
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private void record(long waitNanos, boolean timedOut) {
+            leaseCount.incrementAndGet();
+            if (timedOut) {
+                timeoutCount.incrementAndGet();
+            }
+            totalWaitNanos.addAndGet(waitNanos);
+            long max = maxWaitNanos.get();
+            while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+                max = maxWaitNanos.get();
+            }
+        }
+
+        private double getAverageWaitMillis() {
+            long count = leaseCount.get();
+            return count > 0 ? (double) totalWaitNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0.0d;
+        }
+
+        private long getMaxWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+        }
+
+        private void reset() {
+            leaseCount.set(0);
+            timeoutCount.set(0);
+            totalWaitNanos.set(0);
+            maxWaitNanos.set(0);
+        }
+    }
+
+}
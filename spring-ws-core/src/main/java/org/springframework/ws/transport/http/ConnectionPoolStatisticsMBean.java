@@ -0,0 +1,57 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.ws.transport.http;
+
+/**
+ * Management interface of {@link ConnectionPoolStatistics}, exposing the statistics of an HttpClient connection pool
+ * via JMX.
+ *
+ * @author agent
+ * @since 2.1.5
+ */
+public interface ConnectionPoolStatisticsMBean {
+
+    /** Returns the maximum number of connections of the pool. */
+    int getMaxTotal();
+
+    /** Returns the number of connections currently leased from the pool. */
+    int getLeased();
+
+    /** Returns the number of requests currently waiting for a connection. */
+    int getPending();
+
+    /** Returns the number of idle connections currently available in the pool. */
+    int getAvailable();
+
+    /** Returns the number of connection leases, including the ones that timed out. */
+    long getLeaseCount();
+
+    /** Returns the number of connection leases that timed out. */
+    long getLeaseTimeoutCount();
+
+    /** Returns the average time in milliseconds spent waiting for a connection. */
+    double getAverageLeaseWaitMillis();
+
+    /** Returns the maximum time in milliseconds spent waiting for a connection. */
+    long getMaxLeaseWaitMillis();
+
+    /** Returns a description of the statistics of each route, i.e. each target host. */
+    String[] getRouteStatistics();
+
+    /** Resets the lease statistics. */
+    void reset();
+
+}
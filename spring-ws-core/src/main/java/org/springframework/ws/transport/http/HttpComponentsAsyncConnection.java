@@ -0,0 +1,258 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.util.Assert;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.transport.AsyncWebServiceConnection;
+import org.springframework.ws.transport.ExchangeCallback;
+import org.springframework.ws.transport.WebServiceConnection;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Implementation of {@link WebServiceConnection} that is based on Apache HttpAsyncClient. Exposes a {@link HttpPost}
+ * and {@link HttpResponse}.
+ * <p/>
+ * The request is buffered in memory when it is sent, and transferred by the I/O threads of the client. The response is
+ * buffered in memory as well, so that reading it does not block once the {@linkplain #exchange(ExchangeCallback)
+ * exchange} has completed.
+ *
+ * @author agent
+ * @since 2.1.5
+ */
+public class HttpComponentsAsyncConnection extends AbstractHttpSenderConnection implements AsyncWebServiceConnection {
+
+    private final HttpAsyncClient httpAsyncClient;
+
+    private final HttpPost httpPost;
+
+    private final HttpContext httpContext;
+
+    private ByteArrayOutputStream requestBuffer;
+
+    private Future<HttpResponse> responseFuture;
+
+    private volatile HttpResponse httpResponse;
+
+    protected HttpComponentsAsyncConnection(HttpAsyncClient httpAsyncClient,
+                                            HttpPost httpPost,
+                                            HttpContext httpContext) {
+        Assert.notNull(httpAsyncClient, "httpAsyncClient must not be null");
+        Assert.notNull(httpPost, "httpPost must not be null");
+        this.httpAsyncClient = httpAsyncClient;
+        this.httpPost = httpPost;
+        this.httpContext = httpContext;
+    }
+
+    public HttpPost getHttpPost() {
+        return httpPost;
+    }
+
+    public HttpResponse getHttpResponse() {
+        return httpResponse;
+    }
+
+    @Override
+    public void onClose() throws IOException {
+        cancel();
+        if (httpResponse != null && httpResponse.getEntity() != null) {
+            EntityUtils.consume(httpResponse.getEntity());
+        }
+    }
+
+    /*
+     * URI
+     */
+    public URI getUri() throws URISyntaxException {
+        return new URI(httpPost.getURI().toString());
+    }
+
+    /*
+     * Sending request
+     */
+
+    @Override
+    protected void onSendBeforeWrite(WebServiceMessage message) throws IOException {
+        requestBuffer = new ByteArrayOutputStream();
+    }
+
+    @Override
+    protected void addRequestHeader(String name, String value) throws IOException {
+        httpPost.addHeader(name, value);
+    }
+
+    @Override
+    protected OutputStream getRequestOutputStream() throws IOException {
+        return requestBuffer;
+    }
+
+    @Override
+    protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+        super.onSendAfterWrite(message);
+        httpPost.setEntity(new NByteArrayEntity(requestBuffer.toByteArray()));
+        requestBuffer = null;
+    }
+
+    /*
+     * Exchange
+     */
+
+    public void exchange(final ExchangeCallback callback) throws IOException {
+        Assert.notNull(callback, "callback must not be null");
+        execute(new FutureCallback<HttpResponse>() {
+
+            public void completed(HttpResponse response) {
+                httpResponse = response;
+                callback.completed();
+            }
+
+            public void failed(Exception ex) {
+                callback.failed(ex);
+            }
+
+            public void cancelled() {
+                callback.failed(new CancellationException("Exchange with [" + httpPost.getURI() + "] cancelled"));
+            }
+        });
+    }
+
+    private synchronized Future<HttpResponse> execute(FutureCallback<HttpResponse> callback) {
+        Assert.state(responseFuture == null, "Request has already been executed");
+        Assert.state(httpPost.getEntity() != null, "Request has not been sent");
+        if (httpContext != null) {
+            responseFuture = httpAsyncClient.execute(httpPost, httpContext, callback);
+        }
+        else {
+            responseFuture = httpAsyncClient.execute(httpPost, callback);
+        }
+        return responseFuture;
+    }
+
+    public synchronized void cancel() {
+        if (responseFuture != null && !responseFuture.isDone()) {
+            responseFuture.cancel(true);
+        }
+    }
+
+    /**
+     * Returns the response. When the exchange has not been started, as is the case when this connection is used as a
+     * blocking <code>WebServiceConnection</code>, it is started and waited for.
+     */
+    private HttpResponse getResponse() throws IOException {
+        if (httpResponse == null) {
+            Future<HttpResponse> future;
+            synchronized (this) {
+                future = responseFuture != null ? responseFuture : execute(null);
+            }
+            try {
+                httpResponse = future.get();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                throw new InterruptedIOException("Interrupted while waiting for response");
+            }
+            catch (CancellationException ex) {
+                throw new InterruptedIOException("Exchange cancelled");
+            }
+            catch (ExecutionException ex) {
+                if (ex.getCause() instanceof IOException) {
+                    throw (IOException) ex.getCause();
+                }
+                IOException ioException = new IOException(ex.getCause().getMessage());
+                ioException.initCause(ex.getCause());
+                throw ioException;
+            }
+        }
+        return httpResponse;
+    }
+
+    /*
+     * Receiving response
+     */
+
+    @Override
+    protected int getResponseCode() throws IOException {
+        return getResponse().getStatusLine().getStatusCode();
+    }
+
+    @Override
+    protected String getResponseMessage() throws IOException {
+        return getResponse().getStatusLine().getReasonPhrase();
+    }
+
+    @Override
+    protected long getResponseContentLength() throws IOException {
+        HttpEntity entity = getResponse().getEntity();
+        if (entity != null) {
+            return entity.getContentLength();
+        }
+        return 0;
+    }
+
+    @Override
+    protected InputStream getRawResponseInputStream() throws IOException {
+        HttpEntity entity = getResponse().getEntity();
+        if (entity != null) {
+            return entity.getContent();
+        }
+        throw new IllegalStateException("Response has no enclosing response entity, cannot create input stream");
+    }
+
+    @Override
+    protected Iterator<String> getResponseHeaderNames() throws IOException {
+        Header[] headers = getResponse().getAllHeaders();
+        String[] names = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            names[i] = headers[i].getName();
+        }
+        return Arrays.asList(names).iterator();
+    }
+
+    @Override
+    protected Iterator<String> getResponseHeaders(String name) throws IOException {
+        Header[] headers = getResponse().getHeaders(name);
+        String[] values = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            values[i] = headers[i].getValue();
+        }
+        return Arrays.asList(values).iterator();
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.nio.client.AbstractHttpAsyncClient;
+import org.apache.http.impl.nio.client.DefaultHttpAsyncClient;
+import org.apache.http.impl.nio.conn.PoolingClientAsyncConnectionManager;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.conn.ClientAsyncConnectionManager;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.nio.reactor.IOReactorStatus;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.protocol.HttpContext;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.ws.transport.AsyncWebServiceConnection;
+import org.springframework.ws.transport.AsyncWebServiceMessageSender;
+
+/**
+ * {@code AsyncWebServiceMessageSender} implementation that uses <a
+ * href="http://hc.apache.org/httpcomponents-asyncclient-dev">Apache HttpAsyncClient</a> to execute POST requests with
+ * non-blocking I/O.
+ * <p/>
+ * Requests and responses are transferred by the I/O threads of the client, rather than by a thread per request, so
+ * that many concurrent requests can be in progress with a small, fixed number of threads. Both are buffered in memory.
+ * The client is started by {@link #afterPropertiesSet()}, and shut down by {@link #destroy()}.
+ * <p/>
+ * Connections created by this sender can also be used as blocking connections, for instance by the {@link
+ * org.springframework.ws.client.core.WebServiceTemplate}, in which case the calling thread waits for the response.
+ *
+ * @author agent
+ * @see HttpAsyncClient
+ * @see org.springframework.ws.client.core.AsyncWebServiceTemplate
+ * @since 2.1.5
+ */
+public class HttpComponentsAsyncMessageSender extends AbstractHttpWebServiceMessageSender
+        implements AsyncWebServiceMessageSender, InitializingBean, DisposableBean {
+
+    private static final int DEFAULT_CONNECTION_TIMEOUT_MILLISECONDS = (60 * 1000);
+
+    private static final int DEFAULT_READ_TIMEOUT_MILLISECONDS = (60 * 1000);
+
+    private HttpAsyncClient httpAsyncClient;
+
+    private Credentials credentials;
+
+    private AuthScope authScope = AuthScope.ANY;
+
+    private volatile boolean started;
+
+    /**
+     * Create a new instance of the {@code HttpComponentsAsyncMessageSender} with a default {@link HttpAsyncClient},
+     * which uses a {@link PoolingClientAsyncConnectionManager}.
+     */
+    public HttpComponentsAsyncMessageSender() {
+        DefaultHttpAsyncClient defaultClient;
+        try {
+            defaultClient = new DefaultHttpAsyncClient();
+        }
+        catch (IOReactorException ex) {
+            throw new IllegalStateException("Could not create HttpAsyncClient: " + ex.getMessage(), ex);
+        }
+        defaultClient.addRequestInterceptor(new HttpComponentsMessageSender.RemoveSoapHeadersInterceptor(), 0);
+
+        this.httpAsyncClient = defaultClient;
+        setConnectionTimeout(DEFAULT_CONNECTION_TIMEOUT_MILLISECONDS);
+        setReadTimeout(DEFAULT_READ_TIMEOUT_MILLISECONDS);
+    }
+
+    /**
+     * Create a new instance of the {@code HttpComponentsAsyncMessageSender} with the given {@link HttpAsyncClient}
+     * instance.
+     * <p>
+     * This constructor does not change the given {@code HttpAsyncClient} in any way. As such, it does not set timeouts,
+     * nor does it add the {@link HttpComponentsMessageSender.RemoveSoapHeadersInterceptor}. The client is started by
+     * {@link #afterPropertiesSet()}, if it has not been started already.
+     *
+     * @param httpAsyncClient the HttpAsyncClient instance to use for this sender
+     */
+    public HttpComponentsAsyncMessageSender(HttpAsyncClient httpAsyncClient) {
+        Assert.notNull(httpAsyncClient, "httpAsyncClient must not be null");
+        this.httpAsyncClient = httpAsyncClient;
+    }
+
+    /** Returns the <code>HttpAsyncClient</code> used by this message sender. */
+    public HttpAsyncClient getHttpAsyncClient() {
+        return httpAsyncClient;
+    }
+
+    /**
+     * Sets the credentials to be used. If not set, no authentication is done.
+     *
+     * @see UsernamePasswordCredentials
+     * @see org.apache.http.auth.NTCredentials
+     */
+    public void setCredentials(Credentials credentials) {
+        this.credentials = credentials;
+    }
+
+    /**
+     * Sets the authentication scope to be used. Only used when the <code>credentials</code> property has been set.
+     * <p/>
+     * By default, the {@link AuthScope#ANY} is used.
+     *
+     * @see #setCredentials(Credentials)
+     */
+    public void setAuthScope(AuthScope authScope) {
+        this.authScope = authScope;
+    }
+
+    /**
+     * Sets the timeout until a connection is established. A value of 0 means <em>never</em> timeout.
+     *
+     * @param timeout the timeout value in milliseconds
+     * @see org.apache.http.params.HttpConnectionParams#setConnectionTimeout(org.apache.http.params.HttpParams, int)
+     */
+    public void setConnectionTimeout(int timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must be a non-negative value");
+        }
+        HttpConnectionParams.setConnectionTimeout(getHttpAsyncClient().getParams(), timeout);
+    }
+
+    /**
+     * Set the socket read timeout for the underlying HttpAsyncClient. A value of 0 means <em>never</em> timeout.
+     *
+     * @param timeout the timeout value in milliseconds
+     * @see org.apache.http.params.HttpConnectionParams#setSoTimeout(org.apache.http.params.HttpParams, int)
+     */
+    public void setReadTimeout(int timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must be a non-negative value");
+        }
+        HttpConnectionParams.setSoTimeout(getHttpAsyncClient().getParams(), timeout);
+    }
+
+    /**
+     * Sets the maximum number of connections allowed for the underlying HttpAsyncClient. Requests beyond this number
+     * wait for a connection without occupying a thread.
+     *
+     * @param maxTotalConnections the maximum number of connections allowed
+     * @see PoolingClientAsyncConnectionManager#setMaxTotal(int)
+     */
+    public void setMaxTotalConnections(int maxTotalConnections) {
+        if (maxTotalConnections <= 0) {
+            throw new IllegalArgumentException("maxTotalConnections must be a positive value");
+        }
+        getPoolingConnectionManager("maxTotalConnections").setMaxTotal(maxTotalConnections);
+    }
+
+    /**
+     * Sets the maximum number of connections per host allowed for the underlying HttpAsyncClient.
+     *
+     * @param maxConnectionsPerHost the maximum number of connections per host allowed
+     * @see PoolingClientAsyncConnectionManager#setDefaultMaxPerRoute(int)
+     */
+    public void setDefaultMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be a positive value");
+        }
+        getPoolingConnectionManager("defaultMaxConnectionsPerHost").setDefaultMaxPerRoute(maxConnectionsPerHost);
+    }
+
+    private PoolingClientAsyncConnectionManager getPoolingConnectionManager(String property) {
+        ClientAsyncConnectionManager connectionManager = getHttpAsyncClient().getConnectionManager();
+        if (!(connectionManager instanceof PoolingClientAsyncConnectionManager)) {
+            throw new IllegalArgumentException(property + " is not supported on " +
+                    connectionManager.getClass().getName() + ". Use " +
+                    PoolingClientAsyncConnectionManager.class.getName() + " instead");
+        }
+        return (PoolingClientAsyncConnectionManager) connectionManager;
+    }
+
+    public void afterPropertiesSet() throws Exception {
+        if (credentials != null && getHttpAsyncClient() instanceof AbstractHttpAsyncClient) {
+            ((AbstractHttpAsyncClient) getHttpAsyncClient()).getCredentialsProvider()
+                    .setCredentials(authScope, credentials);
+        }
+        if (getHttpAsyncClient().getStatus() == IOReactorStatus.INACTIVE) {
+            getHttpAsyncClient().start();
+        }
+        started = true;
+    }
+
+    public AsyncWebServiceConnection createConnection(URI uri) throws IOException {
+        // the I/O reactor is started asynchronously; requests executed before it is active are queued
+        IOReactorStatus status = getHttpAsyncClient().getStatus();
+        Assert.state(status == IOReactorStatus.ACTIVE || (started && status == IOReactorStatus.INACTIVE),
+                "HttpAsyncClient is not running; call afterPropertiesSet() to start it");
+        HttpPost httpPost = new HttpPost(uri);
+        if (isAcceptGzipEncoding()) {
+            httpPost.addHeader(HttpTransportConstants.HEADER_ACCEPT_ENCODING,
+                    HttpTransportConstants.CONTENT_ENCODING_GZIP);
+        }
+        HttpContext httpContext = createContext(uri);
+        HttpComponentsAsyncConnection connection =
+                new HttpComponentsAsyncConnection(getHttpAsyncClient(), httpPost, httpContext);
+        prepareRequestCompression(connection);
+        return connection;
+    }
+
+    /**
+     * Template method that allows for creation of a {@link HttpContext} for the given uri. Default implementation
+     * returns {@code null}.
+     *
+     * @param uri the URI to create the context for
+     * @return the context, or {@code null}
+     */
+    protected HttpContext createContext(URI uri) {
+        return null;
+    }
+
+    public void destroy() throws Exception {
+        getHttpAsyncClient().shutdown();
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,6 +35,7 @@ import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 
@@ -59,6 +60,8 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
 
     private ByteArrayOutputStream requestBuffer;
 
+    private boolean streaming;
+
     protected HttpComponentsConnection(HttpClient httpClient, HttpPost httpPost, HttpContext httpContext) {
         Assert.notNull(httpClient, "httpClient must not be null");
         Assert.notNull(httpPost, "httpPost must not be null");
@@ -67,6 +70,11 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
         this.httpContext = httpContext;
     }
 
+    /** Enables streaming of requests, using chunked transfer encoding. */
+    void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public HttpPost getHttpPost() {
         return httpPost;
     }
@@ -98,6 +106,11 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
         requestBuffer = new ByteArrayOutputStream();
     }
 
+    @Override
+    protected boolean isRequestHeadersOnly() {
+        return streaming;
+    }
+
     @Override
     protected void addRequestHeader(String name, String value) throws IOException {
         httpPost.addHeader(name, value);
@@ -110,7 +123,15 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
 
     @Override
     protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
-        httpPost.setEntity(new ByteArrayEntity(requestBuffer.toByteArray()));
+        super.onSendAfterWrite(message);
+        if (streaming && requestBuffer.size() == 0) {
+            // only the headers have been written, the entity writes the message itself
+            prepareRequestBody();
+            httpPost.setEntity(new StreamingMessageEntity(message));
+        }
+        else {
+            httpPost.setEntity(new ByteArrayEntity(requestBuffer.toByteArray()));
+        }
         requestBuffer = null;
         if (httpContext != null) {
             httpResponse = httpClient.execute(httpPost, httpContext);
@@ -171,4 +192,39 @@ public class HttpComponentsConnection extends AbstractHttpSenderConnection {
         }
         return Arrays.asList(values).iterator();
     }
-}
\ No newline at end of file
+
+    /**
+     * Entity that writes the message directly to the connection, in the thread that executes the request, using chunked
+     * transfer encoding.
+     */
+    private class StreamingMessageEntity extends AbstractHttpEntity {
+
+        private final WebServiceMessage message;
+
+        private StreamingMessageEntity(WebServiceMessage message) {
+            this.message = message;
+            setChunked(true);
+        }
+
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        public long getContentLength() {
+            return -1;
+        }
+
+        public InputStream getContent() throws IOException {
+            throw new UnsupportedOperationException("Streaming message entity has no content stream");
+        }
+
+        public void writeTo(OutputStream outputStream) throws IOException {
+            writeRequestBody(message, outputStream);
+        }
+
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpException;
@@ -51,6 +52,11 @@ import org.springframework.ws.transport.WebServiceConnection;
  * Allows to use a pre-configured HttpClient instance, potentially with authentication, HTTP connection pooling, etc.
  * Authentication can also be set by injecting a {@link Credentials} instance (such as the {@link
  * UsernamePasswordCredentials}).
+ * <p/>
+ * By default, connections are pooled by a {@link MonitoringClientConnectionManager}, whose {@linkplain
+ * #getConnectionPoolStatistics() statistics} can be exposed via JMX. Optionally, expired and idle connections can be
+ * evicted from the pool by a background thread, and the maximum number of connections per host can be grown when
+ * connection leases have to wait.
  *
  * @author Alan Stewart
  * @author Barry Pitman
@@ -65,18 +71,32 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
 
     private static final int DEFAULT_READ_TIMEOUT_MILLISECONDS = (60 * 1000);
 
+    private static final int DEFAULT_ADAPTIVE_LEASE_WAIT_THRESHOLD_MILLISECONDS = 100;
+
     private HttpClient httpClient;
 
     private Credentials credentials;
 
     private AuthScope authScope = AuthScope.ANY;
 
+    private boolean streamingRequests = false;
+
+    private int connectionEvictionInterval = 0;
+
+    private int idleConnectionTimeout = 0;
+
+    private int adaptiveMaxConnectionsPerHost = 0;
+
+    private int adaptiveLeaseWaitThreshold = DEFAULT_ADAPTIVE_LEASE_WAIT_THRESHOLD_MILLISECONDS;
+
+    private IdleConnectionEvictor idleConnectionEvictor;
+
     /**
      * Create a new instance of the {@code HttpClientMessageSender} with a default {@link HttpClient} that uses a
-     * default {@link PoolingClientConnectionManager}.
+     * default {@link MonitoringClientConnectionManager}.
      */
     public HttpComponentsMessageSender() {
-        DefaultHttpClient defaultClient = new DefaultHttpClient(new PoolingClientConnectionManager());
+        DefaultHttpClient defaultClient = new DefaultHttpClient(new MonitoringClientConnectionManager());
         defaultClient.addRequestInterceptor(new RemoveSoapHeadersInterceptor(), 0);
 
         this.httpClient = defaultClient;
@@ -216,10 +236,104 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
         this.authScope = authScope;
     }
 
+    /**
+     * Sets whether requests are streamed directly to the server, using chunked transfer encoding, rather than buffered
+     * in memory first. Defaults to {@code false}.
+     * <p/>
+     * Since the underlying client sends the request headers before it reads the request body, only the headers of the
+     * message are written when it is sent. The message itself is written once, directly to the connection, in the
+     * calling thread. This includes messages with attachments, and Axiom messages with payload caching disabled.
+     * Streamed requests are compressed whenever request compression is enabled, since their size is not known in
+     * advance. Messages that do not support writing only their headers are buffered.
+     *
+     * @see org.springframework.ws.transport.TransportOutputStream#isHeadersOnly()
+     */
+    public void setStreamingRequests(boolean streamingRequests) {
+        this.streamingRequests = streamingRequests;
+    }
+
+    /**
+     * Sets the interval in milliseconds at which expired and idle connections are evicted from the pool by a background
+     * thread. Evicting them prevents requests from failing on connections that have been closed by the server in the
+     * meantime. Defaults to 0, which disables eviction.
+     *
+     * @see #setIdleConnectionTimeout(int)
+     */
+    public void setConnectionEvictionInterval(int connectionEvictionInterval) {
+        Assert.isTrue(connectionEvictionInterval >= 0, "'connectionEvictionInterval' must not be negative");
+        this.connectionEvictionInterval = connectionEvictionInterval;
+    }
+
+    /**
+     * Sets the time in milliseconds after which idle connections are evicted from the pool. Only used when a {@linkplain
+     * #setConnectionEvictionInterval(int) connection eviction interval} has been set. Defaults to 0, which only evicts
+     * expired connections.
+     *
+     * @see ClientConnectionManager#closeIdleConnections(long, java.util.concurrent.TimeUnit)
+     */
+    public void setIdleConnectionTimeout(int idleConnectionTimeout) {
+        Assert.isTrue(idleConnectionTimeout >= 0, "'idleConnectionTimeout' must not be negative");
+        this.idleConnectionTimeout = idleConnectionTimeout;
+    }
+
+    /**
+     * Sets the limit up to which the maximum number of connections per host is grown when connection leases have to
+     * wait longer than the {@linkplain #setAdaptiveLeaseWaitThreshold(int) adaptive lease wait threshold}. Defaults to
+     * 0, which disables adaptive sizing.
+     * <p/>
+     * Requires a {@link MonitoringClientConnectionManager}. Note that hosts still share the {@linkplain
+     * #setMaxTotalConnections(int) maximum number of connections}, which is not grown.
+     *
+     * @see MonitoringClientConnectionManager#setAdaptiveSizing(long, int)
+     */
+    public void setAdaptiveMaxConnectionsPerHost(int adaptiveMaxConnectionsPerHost) {
+        Assert.isTrue(adaptiveMaxConnectionsPerHost >= 0, "'adaptiveMaxConnectionsPerHost' must not be negative");
+        this.adaptiveMaxConnectionsPerHost = adaptiveMaxConnectionsPerHost;
+    }
+
+    /**
+     * Sets the time in milliseconds that a connection lease may wait before the maximum number of connections of its
+     * host is grown. Only used when {@linkplain #setAdaptiveMaxConnectionsPerHost(int) adaptive sizing} is enabled.
+     * Defaults to 100.
+     */
+    public void setAdaptiveLeaseWaitThreshold(int adaptiveLeaseWaitThreshold) {
+        Assert.isTrue(adaptiveLeaseWaitThreshold >= 0, "'adaptiveLeaseWaitThreshold' must not be negative");
+        this.adaptiveLeaseWaitThreshold = adaptiveLeaseWaitThreshold;
+    }
+
+    /**
+     * Returns the statistics of the connection pool of the underlying HttpClient. The returned object implements the
+     * {@link ConnectionPoolStatisticsMBean} interface, so that it can be exposed via JMX.
+     *
+     * @throws IllegalStateException if the HttpClient does not use a {@link MonitoringClientConnectionManager}
+     */
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        return getMonitoringConnectionManager("connectionPoolStatistics").getStatistics();
+    }
+
+    private MonitoringClientConnectionManager getMonitoringConnectionManager(String property) {
+        ClientConnectionManager connectionManager = getHttpClient().getConnectionManager();
+        if (!(connectionManager instanceof MonitoringClientConnectionManager)) {
+            throw new IllegalStateException(property + " is not supported on " +
+                    connectionManager.getClass().getName() + ". Use " +
+                    MonitoringClientConnectionManager.class.getName() + " instead");
+        }
+        return (MonitoringClientConnectionManager) connectionManager;
+    }
+
     public void afterPropertiesSet() throws Exception {
         if (credentials != null && getHttpClient() instanceof DefaultHttpClient) {
             ((DefaultHttpClient) getHttpClient()).getCredentialsProvider().setCredentials(authScope, credentials);
         }
+        if (adaptiveMaxConnectionsPerHost > 0) {
+            getMonitoringConnectionManager("adaptiveMaxConnectionsPerHost")
+                    .setAdaptiveSizing(adaptiveLeaseWaitThreshold, adaptiveMaxConnectionsPerHost);
+        }
+        if (connectionEvictionInterval > 0 && idleConnectionEvictor == null) {
+            idleConnectionEvictor = new IdleConnectionEvictor(getHttpClient().getConnectionManager(),
+                    connectionEvictionInterval, idleConnectionTimeout);
+            idleConnectionEvictor.start();
+        }
     }
 
     public WebServiceConnection createConnection(URI uri) throws IOException {
@@ -229,7 +343,10 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
                     HttpTransportConstants.CONTENT_ENCODING_GZIP);
         }
         HttpContext httpContext = createContext(uri);
-        return new HttpComponentsConnection(getHttpClient(), httpPost, httpContext);
+        HttpComponentsConnection connection = new HttpComponentsConnection(getHttpClient(), httpPost, httpContext);
+        prepareRequestCompression(connection);
+        connection.setStreaming(streamingRequests);
+        return connection;
     }
 
     /**
@@ -244,9 +361,47 @@ public class HttpComponentsMessageSender extends AbstractHttpWebServiceMessageSe
     }
 
     public void destroy() throws Exception {
+        if (idleConnectionEvictor != null) {
+            idleConnectionEvictor.interrupt();
+            idleConnectionEvictor = null;
+        }
         getHttpClient().getConnectionManager().shutdown();
     }
 
+    /** Daemon thread that periodically evicts expired and idle connections from a connection manager. */
+    private static class IdleConnectionEvictor extends Thread {
+
+        private final ClientConnectionManager connectionManager;
+
+        private final long interval;
+
+        private final long idleTimeout;
+
+        private IdleConnectionEvictor(ClientConnectionManager connectionManager, long interval, long idleTimeout) {
+            super(HttpComponentsMessageSender.class.getSimpleName() + "-evictor");
+            setDaemon(true);
+            this.connectionManager = connectionManager;
+            this.interval = interval;
+            this.idleTimeout = idleTimeout;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!isInterrupted()) {
+                    Thread.sleep(interval);
+                    connectionManager.closeExpiredConnections();
+                    if (idleTimeout > 0) {
+                        connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+            catch (InterruptedException ex) {
+                // destroyed
+            }
+        }
+    }
+
     /**
      * HttpClient {@link org.apache.http.HttpRequestInterceptor} implementation that removes {@code Content-Length} and
      * {@code Transfer-Encoding} headers from the request. Necessary, because some SAAJ and other SOAP implementations set these
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,9 +22,13 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Iterator;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.transport.AbstractReceiverConnection;
 import org.springframework.ws.transport.EndpointAwareWebServiceConnection;
@@ -47,6 +51,21 @@ public class HttpServletConnection extends AbstractReceiverConnection
 
     private boolean statusCodeSet = false;
 
+    /** Responses larger than this number of bytes are compressed; -1 disables compression. */
+    private int compressionThreshold = -1;
+
+    private int compressionLevel;
+
+    private String[] compressibleContentTypes;
+
+    private CompressionStatistics compressionStatistics;
+
+    private String responseContentType;
+
+    private String responseContentLength;
+
+    private CompressingOutputStream compressingResponseOutputStream;
+
     /**
      * Constructs a new servlet connection with the given <code>HttpServletRequest</code> and
      * <code>HttpServletResponse</code>.
@@ -56,6 +75,21 @@ public class HttpServletConnection extends AbstractReceiverConnection
         this.httpServletResponse = httpServletResponse;
     }
 
+    /**
+     * Enables GZIP compression of responses larger than the given threshold, for requests that accept GZIP encoding.
+     *
+     * @param threshold    the response size in bytes above which responses are compressed
+     * @param level        the {@link java.util.zip.Deflater} compression level
+     * @param contentTypes the content types of responses that are compressed; all if empty
+     * @param statistics   the statistics to record compressed responses in
+     */
+    void setResponseCompression(int threshold, int level, String[] contentTypes, CompressionStatistics statistics) {
+        this.compressionThreshold = threshold;
+        this.compressionLevel = level;
+        this.compressibleContentTypes = contentTypes;
+        this.compressionStatistics = statistics;
+    }
+
     /** Returns the <code>HttpServletRequest</code> for this connection. */
     public HttpServletRequest getHttpServletRequest() {
         return httpServletRequest;
@@ -111,7 +145,15 @@ public class HttpServletConnection extends AbstractReceiverConnection
 
     @Override
     protected InputStream getRequestInputStream() throws IOException {
-        return getHttpServletRequest().getInputStream();
+        InputStream inputStream = getHttpServletRequest().getInputStream();
+        return isGzipRequest() ? new GZIPInputStream(inputStream) : inputStream;
+    }
+
+    /** Determine whether the request is a GZIP request. */
+    private boolean isGzipRequest() {
+        String encodingHeader = getHttpServletRequest().getHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING);
+        return encodingHeader != null &&
+                encodingHeader.toLowerCase(Locale.ENGLISH).indexOf(HttpTransportConstants.CONTENT_ENCODING_GZIP) != -1;
     }
 
     /*
@@ -120,16 +162,119 @@ public class HttpServletConnection extends AbstractReceiverConnection
 
     @Override
     protected void addResponseHeader(String name, String value) throws IOException {
+        if (HttpTransportConstants.HEADER_CONTENT_TYPE.equalsIgnoreCase(name) && responseContentType == null) {
+            responseContentType = value;
+        }
+        else if (HttpTransportConstants.HEADER_CONTENT_LENGTH.equalsIgnoreCase(name) && isGzipAccepted()) {
+            // whether the response is compressed depends on its content type, which might not be known yet
+            responseContentLength = value;
+            return;
+        }
         getHttpServletResponse().addHeader(name, value);
     }
 
     @Override
     protected OutputStream getResponseOutputStream() throws IOException {
+        if (isGzipAccepted() && isCompressibleContentType()) {
+            compressingResponseOutputStream = new CompressingOutputStream(compressionThreshold, compressionLevel) {
+
+                @Override
+                protected OutputStream createOutputStream(boolean compressed) throws IOException {
+                    if (compressed) {
+                        getHttpServletResponse().addHeader(HttpTransportConstants.HEADER_CONTENT_ENCODING,
+                                HttpTransportConstants.CONTENT_ENCODING_GZIP);
+                        getHttpServletResponse().addHeader(HttpTransportConstants.HEADER_VARY,
+                                HttpTransportConstants.HEADER_ACCEPT_ENCODING);
+                    }
+                    return getHttpServletResponse().getOutputStream();
+                }
+            };
+            return compressingResponseOutputStream;
+        }
+        if (responseContentLength != null) {
+            // the response is not compressed, so the length is correct
+            getHttpServletResponse().addHeader(HttpTransportConstants.HEADER_CONTENT_LENGTH, responseContentLength);
+        }
         return getHttpServletResponse().getOutputStream();
     }
 
+    /**
+     * Determine whether response compression is enabled, and the request accepts GZIP encoding. GZIP is accepted when
+     * the <code>Accept-Encoding</code> header lists <code>gzip</code>, or else <code>*</code>, with a non-zero quality
+     * value.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isGzipAccepted() {
+        if (compressionThreshold < 0) {
+            return false;
+        }
+        float gzipQuality = -1;
+        float anyQuality = -1;
+        Iterator<String> acceptHeaders = new EnumerationIterator(
+                getHttpServletRequest().getHeaders(HttpTransportConstants.HEADER_ACCEPT_ENCODING));
+        while (acceptHeaders.hasNext()) {
+            for (String coding : StringUtils.commaDelimitedListToStringArray(acceptHeaders.next())) {
+                String[] parts = StringUtils.delimitedListToStringArray(coding, ";");
+                String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+                if (HttpTransportConstants.CONTENT_ENCODING_GZIP.equals(name) || "x-gzip".equals(name)) {
+                    gzipQuality = getQuality(parts);
+                }
+                else if ("*".equals(name)) {
+                    anyQuality = getQuality(parts);
+                }
+            }
+        }
+        return gzipQuality >= 0 ? gzipQuality > 0 : anyQuality > 0;
+    }
+
+    /** Returns the <code>q</code> parameter of the given content coding parts, defaulting to 1. */
+    private static float getQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2).trim());
+                }
+                catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /** Determine whether the content type of the response is to be compressed. */
+    private boolean isCompressibleContentType() {
+        if (ObjectUtils.isEmpty(compressibleContentTypes)) {
+            return true;
+        }
+        if (responseContentType == null) {
+            return false;
+        }
+        String contentType = responseContentType;
+        int idx = contentType.indexOf(';');
+        if (idx != -1) {
+            contentType = contentType.substring(0, idx);
+        }
+        contentType = contentType.trim();
+        for (String compressibleContentType : compressibleContentTypes) {
+            if (compressibleContentType.equalsIgnoreCase(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+        if (compressingResponseOutputStream != null) {
+            CompressingOutputStream outputStream = compressingResponseOutputStream;
+            compressingResponseOutputStream = null;
+            outputStream.finish();
+            if (compressionStatistics != null) {
+                compressionStatistics.record(outputStream);
+            }
+        }
         statusCodeSet = true;
     }
 
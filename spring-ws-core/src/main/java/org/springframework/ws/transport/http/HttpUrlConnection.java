@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -35,14 +37,35 @@ import org.springframework.ws.transport.WebServiceConnection;
 
 /**
  * Implementation of the {@link WebServiceConnection} interface that uses a {@link HttpURLConnection}.
+ * <p/>
+ * By default, the <code>HttpURLConnection</code> is disconnected when this connection is closed. When connection reuse
+ * is enabled, the response is drained and closed instead, so that the underlying socket is returned to the JDK
+ * keep-alive cache.
  *
  * @author Arjen Poutsma
  * @since 1.0.0
  */
 public class HttpUrlConnection extends AbstractHttpSenderConnection {
 
+    /** Maximum number of unread response bytes that are drained in order to keep the connection alive. */
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
     private final HttpURLConnection connection;
 
+    /** Requests larger than this number of bytes are streamed in chunks; -1 disables streaming. */
+    private int streamingThreshold = -1;
+
+    private int streamingChunkSize;
+
+    /** Statistics to record reuse in; <code>null</code> disables reuse. */
+    private KeepAliveStatistics keepAliveStatistics;
+
+    private StreamingOutputStream streamingOutputStream;
+
+    private InputStream rawResponseInputStream;
+
+    private boolean requestSent;
+
     /**
      * Creates a new instance of the <code>HttpUrlConnection</code> with the given <code>HttpURLConnection</code>.
      *
@@ -57,9 +80,55 @@ public class HttpUrlConnection extends AbstractHttpSenderConnection {
         return connection;
     }
 
+    /**
+     * Enables streaming of requests, so that the <code>HttpURLConnection</code> does not buffer them. Requests up to the
+     * given threshold are sent in fixed-length streaming mode, larger requests in chunked streaming mode.
+     *
+     * @param threshold the request size in bytes above which requests are chunked
+     * @param chunkSize the chunk size in bytes; 0 for the default chunk size
+     * @see HttpURLConnection#setFixedLengthStreamingMode(int)
+     * @see HttpURLConnection#setChunkedStreamingMode(int)
+     */
+    void setStreaming(int threshold, int chunkSize) {
+        this.streamingThreshold = threshold;
+        this.streamingChunkSize = chunkSize;
+    }
+
+    /**
+     * Enables connection reuse: when closed, this connection drains the response rather than disconnecting.
+     *
+     * @param keepAliveStatistics the statistics to record whether connections were kept alive in
+     */
+    void setConnectionReuse(KeepAliveStatistics keepAliveStatistics) {
+        this.keepAliveStatistics = keepAliveStatistics;
+    }
+
     @Override
-    public void onClose() {
-        connection.disconnect();
+    public void onClose() throws IOException {
+        if (keepAliveStatistics == null) {
+            connection.disconnect();
+            return;
+        }
+        boolean keepAlive = false;
+        if (requestSent) {
+            try {
+                InputStream inputStream = getRawResponseInputStream();
+                if (inputStream != null) {
+                    inputStream.close();
+                }
+                keepAlive = inputStream == null || ((DrainingInputStream) inputStream).drained;
+            }
+            catch (IOException ex) {
+                // fall back to disconnecting
+            }
+        }
+        if (keepAlive) {
+            keepAliveStatistics.recordKeptAlive();
+        }
+        else {
+            connection.disconnect();
+            keepAliveStatistics.recordDisconnected();
+        }
     }
 
     /*
@@ -81,12 +150,23 @@ public class HttpUrlConnection extends AbstractHttpSenderConnection {
 
     @Override
     protected OutputStream getRequestOutputStream() throws IOException {
+        if (streamingThreshold >= 0) {
+            if (streamingOutputStream == null) {
+                streamingOutputStream = new StreamingOutputStream();
+            }
+            return streamingOutputStream;
+        }
         return connection.getOutputStream();
     }
 
     @Override
     protected void onSendAfterWrite(WebServiceMessage message) throws IOException {
+        super.onSendAfterWrite(message);
+        if (streamingOutputStream != null) {
+            streamingOutputStream.close();
+        }
         connection.connect();
+        requestSent = true;
     }
 
     /*
@@ -138,11 +218,112 @@ public class HttpUrlConnection extends AbstractHttpSenderConnection {
 
     @Override
     protected InputStream getRawResponseInputStream() throws IOException {
-        if (connection.getResponseCode() / 100 != 2) {
-            return connection.getErrorStream();
+        if (rawResponseInputStream == null) {
+            InputStream inputStream;
+            if (connection.getResponseCode() / 100 != 2) {
+                inputStream = connection.getErrorStream();
+            }
+            else {
+                inputStream = connection.getInputStream();
+            }
+            if (inputStream != null && keepAliveStatistics != null) {
+                inputStream = new DrainingInputStream(inputStream);
+            }
+            rawResponseInputStream = inputStream;
         }
-        else {
-            return connection.getInputStream();
+        return rawResponseInputStream;
+    }
+
+    /**
+     * Output stream that buffers the request up to the streaming threshold. If the request does not exceed it, it is
+     * sent in fixed-length streaming mode when the stream is closed; otherwise, it is sent in chunked streaming mode.
+     */
+    private class StreamingOutputStream extends OutputStream {
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private OutputStream outputStream;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (outputStream == null && buffer.size() + len > streamingThreshold) {
+                connection.setChunkedStreamingMode(streamingChunkSize);
+                openOutputStream();
+            }
+            if (outputStream != null) {
+                outputStream.write(b, off, len);
+            }
+            else {
+                buffer.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (outputStream != null) {
+                outputStream.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (outputStream == null) {
+                connection.setFixedLengthStreamingMode(buffer.size());
+                openOutputStream();
+            }
+            outputStream.close();
+        }
+
+        private void openOutputStream() throws IOException {
+            outputStream = connection.getOutputStream();
+            buffer.writeTo(outputStream);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Input stream that drains the remainder of the response when closed, so that the JDK can keep the underlying
+     * connection alive.
+     */
+    private class DrainingInputStream extends FilterInputStream {
+
+        private boolean closed;
+
+        private boolean drained;
+
+        private DrainingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            byte[] buf = new byte[4096];
+            long count = 0;
+            try {
+                int n;
+                while (count <= MAX_DRAIN_BYTES && (n = in.read(buf)) != -1) {
+                    count += n;
+                }
+            }
+            catch (IOException ex) {
+                // the connection is disconnected
+                return;
+            }
+            keepAliveStatistics.recordDrained(count);
+            if (count <= MAX_DRAIN_BYTES) {
+                drained = true;
+                in.close();
+            }
+            // otherwise, the connection is disconnected
         }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2006 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 
+import org.springframework.util.Assert;
 import org.springframework.ws.transport.WebServiceConnection;
 
 /**
@@ -31,6 +32,10 @@ import org.springframework.ws.transport.WebServiceConnection;
  * Designed for easy subclassing, customizing specific template methods. However, consider {@link
  * CommonsHttpMessageSender} for more sophisticated needs: the J2SE <code>HttpURLConnection</code> is rather limited in
  * its capabilities.
+ * <p/>
+ * By default, each connection is disconnected after use. Enable {@linkplain #setReuseConnections(boolean) connection
+ * reuse} to benefit from the HTTP/1.1 keep-alive cache of the JDK, and {@linkplain #setStreamingRequests(boolean)
+ * streaming requests} to keep the <code>HttpURLConnection</code> from buffering requests internally.
  *
  * @author Arjen Poutsma
  * @see java.net.HttpURLConnection
@@ -38,6 +43,74 @@ import org.springframework.ws.transport.WebServiceConnection;
  */
 public class HttpUrlConnectionMessageSender extends AbstractHttpWebServiceMessageSender {
 
+    private boolean reuseConnections = false;
+
+    private final KeepAliveStatistics keepAliveStatistics = new KeepAliveStatistics();
+
+    private boolean streamingRequests = false;
+
+    private int streamingThreshold = 0;
+
+    private int streamingChunkSize = 0;
+
+    /**
+     * Sets whether connections are reused. When enabled, the response of a connection is drained and closed when the
+     * connection is closed, including error responses, rather than disconnecting it, so that the underlying socket can
+     * be reused by the JDK keep-alive cache. Defaults to {@code false}.
+     * <p/>
+     * Note that the keep-alive cache itself is controlled by the {@code http.keepAlive} and {@code http.maxConnections}
+     * system properties.
+     *
+     * @see #getKeepAliveStatistics()
+     */
+    public void setReuseConnections(boolean reuseConnections) {
+        this.reuseConnections = reuseConnections;
+    }
+
+    /**
+     * Returns the statistics of the connections closed by this sender. Only recorded when {@linkplain
+     * #setReuseConnections(boolean) connections are reused}.
+     */
+    public KeepAliveStatistics getKeepAliveStatistics() {
+        return keepAliveStatistics;
+    }
+
+    /**
+     * Sets whether requests are streamed to the server, rather than buffered by the <code>HttpURLConnection</code>.
+     * Requests up to the {@linkplain #setStreamingThreshold(int) streaming threshold} are sent in fixed-length streaming
+     * mode, with a {@code Content-Length} header; larger requests are sent in chunked streaming mode. Defaults to
+     * {@code false}.
+     * <p/>
+     * Note that the <code>HttpURLConnection</code> cannot automatically follow redirects or retry authentication for
+     * streamed requests.
+     *
+     * @see HttpURLConnection#setFixedLengthStreamingMode(int)
+     * @see HttpURLConnection#setChunkedStreamingMode(int)
+     */
+    public void setStreamingRequests(boolean streamingRequests) {
+        this.streamingRequests = streamingRequests;
+    }
+
+    /**
+     * Sets the size in bytes up to which streaming requests are buffered, so that they can be sent in fixed-length
+     * streaming mode. Only used when {@linkplain #setStreamingRequests(boolean) streaming requests} are enabled.
+     * Defaults to 0, which sends all requests in chunked streaming mode.
+     */
+    public void setStreamingThreshold(int streamingThreshold) {
+        Assert.isTrue(streamingThreshold >= 0, "'streamingThreshold' must not be negative");
+        this.streamingThreshold = streamingThreshold;
+    }
+
+    /**
+     * Sets the chunk size in bytes used in chunked streaming mode. Only used when {@linkplain
+     * #setStreamingRequests(boolean) streaming requests} are enabled. Defaults to 0, which uses the default chunk size
+     * of the <code>HttpURLConnection</code>.
+     */
+    public void setStreamingChunkSize(int streamingChunkSize) {
+        Assert.isTrue(streamingChunkSize >= 0, "'streamingChunkSize' must not be negative");
+        this.streamingChunkSize = streamingChunkSize;
+    }
+
     public WebServiceConnection createConnection(URI uri) throws IOException {
         URL url = uri.toURL();
         URLConnection connection = url.openConnection();
@@ -47,7 +120,15 @@ public class HttpUrlConnectionMessageSender extends AbstractHttpWebServiceMessag
         else {
             HttpURLConnection httpURLConnection = (HttpURLConnection) connection;
             prepareConnection(httpURLConnection);
-            return new HttpUrlConnection(httpURLConnection);
+            HttpUrlConnection webServiceConnection = new HttpUrlConnection(httpURLConnection);
+            prepareRequestCompression(webServiceConnection);
+            if (reuseConnections) {
+                webServiceConnection.setConnectionReuse(keepAliveStatistics);
+            }
+            if (streamingRequests) {
+                webServiceConnection.setStreaming(streamingThreshold, streamingChunkSize);
+            }
+            return webServiceConnection;
         }
     }
 
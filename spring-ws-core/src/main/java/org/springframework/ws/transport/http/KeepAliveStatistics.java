@@ -0,0 +1,77 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.ws.transport.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the connections closed by a {@link HttpUrlConnectionMessageSender} that {@linkplain
+ * HttpUrlConnectionMessageSender#setReuseConnections(boolean) reuses connections}: the number of connections that were
+ * kept alive for reuse, and the number that had to be disconnected. Thread-safe.
+ *
+ * @author agent
+ * @see HttpUrlConnectionMessageSender#getKeepAliveStatistics()
+ * @since 2.1.5
+ */
+public class KeepAliveStatistics {
+
+    private final AtomicLong keptAliveCount = new AtomicLong();
+
+    private final AtomicLong disconnectedCount = new AtomicLong();
+
+    private final AtomicLong drainedBytes = new AtomicLong();
+
+    /** Returns the number of connections that were kept alive, so that they can be reused. */
+    public long getKeptAliveCount() {
+        return keptAliveCount.get();
+    }
+
+    /** Returns the number of connections that could not be kept alive, and were disconnected. */
+    public long getDisconnectedCount() {
+        return disconnectedCount.get();
+    }
+
+    /** Returns the total number of unread response bytes that were drained in order to keep connections alive. */
+    public long getDrainedBytes() {
+        return drainedBytes.get();
+    }
+
+    /** Resets all statistics. */
+    public void reset() {
+        keptAliveCount.set(0);
+        disconnectedCount.set(0);
+        drainedBytes.set(0);
+    }
+
+    void recordKeptAlive() {
+        keptAliveCount.incrementAndGet();
+    }
+
+    void recordDisconnected() {
+        disconnectedCount.incrementAndGet();
+    }
+
+    void recordDrained(long bytes) {
+        drainedBytes.addAndGet(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "KeepAliveStatistics[keptAlive=" + getKeptAliveCount() + ", disconnected=" + getDisconnectedCount() +
+                ", drainedBytes=" + getDrainedBytes() + "]";
+    }
+
+}
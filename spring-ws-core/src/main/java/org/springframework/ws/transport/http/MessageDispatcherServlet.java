@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.FrameworkServlet;
@@ -55,6 +56,14 @@ import org.springframework.xml.xsd.XsdSchema;
  * When the <code>transformWsdlLocations</code> init-param is set to <code>true</code> in this servlet's configuration
  * in <code>web.xml</code>, all <code>location</code> attributes in the WSDL definitions will reflect the URL of the
  * incoming request.
+ * <p/>
+ * When the <code>compressResponses</code> init-param is set to <code>true</code>, responses larger than the
+ * <code>responseCompressionThreshold</code> are compressed using GZIP, for requests that accept GZIP encoding.
+ * <p/>
+ * When the <code>asyncDispatch</code> init-param is set to <code>true</code>, and <code>async-supported</code> is set
+ * for this servlet in <code>web.xml</code>, messages are handled asynchronously in a Servlet 3.0 container, releasing the
+ * container thread in the meantime. This requires a bounded {@link AsyncTaskExecutor} named
+ * '<code>asyncTaskExecutor</code>' in this servlet's application context.
  *
  * @author Arjen Poutsma
  * @see org.springframework.web.servlet.DispatcherServlet
@@ -82,6 +91,12 @@ public class MessageDispatcherServlet extends FrameworkServlet {
     /** Well-known name for the {@link XsdSchemaHandlerAdapter} object in the bean factory for this namespace. */
     public static final String DEFAULT_XSD_SCHEMA_HANDLER_ADAPTER_BEAN_NAME = "xsdSchemaHandlerAdapter";
 
+    /**
+     * Well-known name for the {@link AsyncTaskExecutor} object in the bean factory for this namespace, used for
+     * asynchronous dispatch.
+     */
+    public static final String DEFAULT_ASYNC_TASK_EXECUTOR_BEAN_NAME = "asyncTaskExecutor";
+
     /** Suffix of a WSDL request uri. */
     private static final String WSDL_SUFFIX_NAME = ".wsdl";
 
@@ -121,6 +136,14 @@ public class MessageDispatcherServlet extends FrameworkServlet {
 
     private boolean transformSchemaLocations = false;
 
+    private boolean compressResponses = false;
+
+    private int responseCompressionThreshold = WebServiceMessageReceiverHandlerAdapter.DEFAULT_COMPRESSION_THRESHOLD;
+
+    private boolean asyncDispatch = false;
+
+    private String asyncTaskExecutorBeanName = DEFAULT_ASYNC_TASK_EXECUTOR_BEAN_NAME;
+
     /**
      * Public constructor, necessary for some Web application servers.
      */
@@ -236,6 +259,68 @@ public class MessageDispatcherServlet extends FrameworkServlet {
         this.transformSchemaLocations = transformSchemaLocations;
     }
 
+    /** Indicates whether responses are compressed using GZIP, for requests that accept GZIP encoding. */
+    public boolean isCompressResponses() {
+        return compressResponses;
+    }
+
+    /**
+     * Sets whether responses are compressed using GZIP, for requests that accept GZIP encoding. Defaults to
+     * <code>false</code>.
+     *
+     * @see WebServiceMessageReceiverHandlerAdapter#setCompressResponses(boolean)
+     */
+    public void setCompressResponses(boolean compressResponses) {
+        this.compressResponses = compressResponses;
+    }
+
+    /** Returns the response size in bytes above which responses are compressed. */
+    public int getResponseCompressionThreshold() {
+        return responseCompressionThreshold;
+    }
+
+    /**
+     * Sets the response size in bytes above which responses are compressed. Only used when {@linkplain
+     * #setCompressResponses(boolean) response compression} is enabled. Defaults to {@link
+     * WebServiceMessageReceiverHandlerAdapter#DEFAULT_COMPRESSION_THRESHOLD}.
+     *
+     * @see WebServiceMessageReceiverHandlerAdapter#setCompressionThreshold(int)
+     */
+    public void setResponseCompressionThreshold(int responseCompressionThreshold) {
+        this.responseCompressionThreshold = responseCompressionThreshold;
+    }
+
+    /** Indicates whether messages are handled asynchronously, using Servlet 3.0 asynchronous request processing. */
+    public boolean isAsyncDispatch() {
+        return asyncDispatch;
+    }
+
+    /**
+     * Sets whether messages are handled asynchronously, using Servlet 3.0 asynchronous request processing. Requires an
+     * {@link AsyncTaskExecutor} bean named after the {@linkplain #setAsyncTaskExecutorBeanName(String) async task
+     * executor bean name}. Defaults to <code>false</code>.
+     *
+     * @see WebServiceMessageReceiverHandlerAdapter#setAsyncDispatch(boolean)
+     */
+    public void setAsyncDispatch(boolean asyncDispatch) {
+        this.asyncDispatch = asyncDispatch;
+    }
+
+    /** Returns the bean name used to lookup an {@link AsyncTaskExecutor} for asynchronous dispatch. */
+    public String getAsyncTaskExecutorBeanName() {
+        return asyncTaskExecutorBeanName;
+    }
+
+    /**
+     * Sets the bean name used to lookup an {@link AsyncTaskExecutor} for asynchronous dispatch. Defaults to {@link
+     * #DEFAULT_ASYNC_TASK_EXECUTOR_BEAN_NAME}.
+     *
+     * @see WebServiceMessageReceiverHandlerAdapter#setAsyncTaskExecutor(AsyncTaskExecutor)
+     */
+    public void setAsyncTaskExecutorBeanName(String asyncTaskExecutorBeanName) {
+        this.asyncTaskExecutorBeanName = asyncTaskExecutorBeanName;
+    }
+
     /** Returns the bean name used to lookup a {@link WebServiceMessageReceiverHandlerAdapter}. */
     public String getMessageReceiverHandlerAdapterBeanName() {
         return messageReceiverHandlerAdapterBeanName;
@@ -384,6 +469,17 @@ public class MessageDispatcherServlet extends FrameworkServlet {
                 messageReceiverHandlerAdapter = new WebServiceMessageReceiverHandlerAdapter();
             }
             initWebServiceMessageFactory(context);
+            if (isCompressResponses()) {
+                messageReceiverHandlerAdapter.setCompressResponses(true);
+                messageReceiverHandlerAdapter.setCompressionThreshold(getResponseCompressionThreshold());
+            }
+            if (isAsyncDispatch()) {
+                messageReceiverHandlerAdapter.setAsyncDispatch(true);
+                if (context.containsBean(getAsyncTaskExecutorBeanName())) {
+                    messageReceiverHandlerAdapter.setAsyncTaskExecutor(
+                            context.getBean(getAsyncTaskExecutorBeanName(), AsyncTaskExecutor.class));
+                }
+            }
             messageReceiverHandlerAdapter.afterPropertiesSet();
         }
         catch (Exception ex) {
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.ws.transport.http;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link PoolingClientConnectionManager} that records the time spent waiting for pooled connections in {@link
+ * ConnectionPoolStatistics}.
+ * <p/>
+ * Optionally, the maximum number of connections per route can be grown adaptively: whenever a lease has waited longer
+ * than a given threshold, the maximum of its route is incremented by one, up to a given limit. Note that the routes
+ * still share the {@linkplain #setMaxTotal(int) maximum total number of connections}, which is not grown.
+ *
+ * @author agent
+ * @see HttpComponentsMessageSender
+ * @since 2.1.5
+ */
+public class MonitoringClientConnectionManager extends PoolingClientConnectionManager {
+
+    private static final Log logger = LogFactory.getLog(MonitoringClientConnectionManager.class);
+
+    private final ConnectionPoolStatistics statistics = new ConnectionPoolStatistics(this);
+
+    private volatile long adaptiveLeaseWaitThresholdNanos;
+
+    private volatile int adaptiveMaxPerRouteLimit;
+
+    /** Creates a new <code>MonitoringClientConnectionManager</code> with a default scheme registry. */
+    public MonitoringClientConnectionManager() {
+        this(SchemeRegistryFactory.createDefault());
+    }
+
+    /** Creates a new <code>MonitoringClientConnectionManager</code> with the given scheme registry. */
+    public MonitoringClientConnectionManager(SchemeRegistry schemeRegistry) {
+        super(schemeRegistry);
+    }
+
+    /** Returns the statistics of this connection manager. */
+    public ConnectionPoolStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Enables adaptive sizing of the maximum number of connections per route. Disabled by default.
+     *
+     * @param leaseWaitThreshold the lease wait time in milliseconds above which the maximum of a route is grown
+     * @param maxPerRouteLimit   the limit up to which the maximum of a route is grown
+     */
+    public void setAdaptiveSizing(long leaseWaitThreshold, int maxPerRouteLimit) {
+        Assert.isTrue(leaseWaitThreshold >= 0, "'leaseWaitThreshold' must not be negative");
+        Assert.isTrue(maxPerRouteLimit > 0, "'maxPerRouteLimit' must be larger than 0");
+        this.adaptiveLeaseWaitThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leaseWaitThreshold);
+        this.adaptiveMaxPerRouteLimit = maxPerRouteLimit;
+    }
+
+    @Override
+    public ClientConnectionRequest requestConnection(final HttpRoute route, Object state) {
+        final ClientConnectionRequest request = super.requestConnection(route, state);
+        return new ClientConnectionRequest() {
+
+            public ManagedClientConnection getConnection(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                boolean timedOut = true;
+                try {
+                    ManagedClientConnection connection = request.getConnection(timeout, tunit);
+                    timedOut = false;
+                    return connection;
+                }
+                finally {
+                    leased(route, System.nanoTime() - start, timedOut);
+                }
+            }
+
+            public void abortRequest() {
+                request.abortRequest();
+            }
+        };
+    }
+
+    private void leased(HttpRoute route, long waitNanos, boolean timedOut) {
+        statistics.recordLease(route, waitNanos, timedOut);
+        int limit = adaptiveMaxPerRouteLimit;
+        if (limit > 0 && waitNanos > adaptiveLeaseWaitThresholdNanos) {
+            growMaxPerRoute(route, limit);
+        }
+    }
+
+    private synchronized void growMaxPerRoute(HttpRoute route, int limit) {
+        int max = getMaxPerRoute(route);
+        if (max < limit) {
+            setMaxPerRoute(route, max + 1);
+            if (logger.isInfoEnabled()) {
+                logger.info("Grew maximum number of connections for route [" + route + "] to " + (max + 1));
+            }
+        }
+    }
+
+}
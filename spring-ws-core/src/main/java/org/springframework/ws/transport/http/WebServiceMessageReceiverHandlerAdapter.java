@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,27 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.zip.Deflater;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.CallableProcessingInterceptorAdapter;
+import org.springframework.web.context.request.async.NoSupportAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.servlet.HandlerAdapter;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.ws.InvalidXmlException;
-import org.springframework.ws.transport.WebServiceConnection;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
 import org.springframework.ws.transport.support.WebServiceMessageReceiverObjectSupport;
 
@@ -35,6 +49,16 @@ import org.springframework.ws.transport.support.WebServiceMessageReceiverObjectS
  * <p/>
  * Note that the <code>MessageDispatcher</code> implements the <code>WebServiceMessageReceiver</code> interface,
  * enabling this adapter to function as a gateway to further message handling logic.
+ * <p/>
+ * When {@linkplain #setAsyncDispatch(boolean) asynchronous dispatch} is enabled and running in a Servlet 3.0 container,
+ * messages are handled by a bounded {@link AsyncTaskExecutor} rather than by the container thread, which is released
+ * in the meantime. The response is written by the executor thread, after which the request is dispatched back to the
+ * container to complete it. When asynchronous handling times out, the executor thread is interrupted, and can no longer
+ * write to the response.
+ * <p/>
+ * Note that asynchronous dispatch only moves the handling of messages, including any blocking calls made by endpoints,
+ * from the container threads to the threads of the executor: each message in progress still occupies a thread. It
+ * allows for sizing the executor independently of the container, but does not make message handling non-blocking.
  *
  * @author Arjen Poutsma
  * @see #setMessageFactory(org.springframework.ws.WebServiceMessageFactory)
@@ -46,6 +70,126 @@ import org.springframework.ws.transport.support.WebServiceMessageReceiverObjectS
 public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageReceiverObjectSupport
         implements HandlerAdapter {
 
+    private static final CallableProcessingInterceptor TIMEOUT_INTERCEPTOR = new MessageHandlingTimeoutInterceptor();
+
+    /** Default response size in bytes above which responses are compressed. */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    private boolean compressResponses = false;
+
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    private String[] compressibleContentTypes = new String[]{"text/xml", "application/soap+xml"};
+
+    private final CompressionStatistics compressionStatistics = new CompressionStatistics();
+
+    private boolean asyncDispatch = false;
+
+    private AsyncTaskExecutor asyncTaskExecutor;
+
+    private Long asyncTimeout;
+
+    /** Indicates whether responses are compressed using GZIP. */
+    public boolean isCompressResponses() {
+        return compressResponses;
+    }
+
+    /**
+     * Sets whether to compress responses using GZIP, for requests that send the HTTP <code>Accept-Encoding</code>
+     * header with <code>gzip</code> as value. Responses are compressed as they are written, and are sent with the
+     * <code>Content-Encoding</code> header. Defaults to <code>false</code>.
+     *
+     * @see #setCompressionThreshold(int)
+     * @see #setCompressibleContentTypes(String[])
+     */
+    public void setCompressResponses(boolean compressResponses) {
+        this.compressResponses = compressResponses;
+    }
+
+    /**
+     * Sets the response size in bytes above which responses are compressed. Smaller responses are sent as is, since
+     * they hardly benefit from compression. Defaults to {@link #DEFAULT_COMPRESSION_THRESHOLD}.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        Assert.isTrue(compressionThreshold >= 0, "'compressionThreshold' must not be negative");
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /** Sets the compression level used for responses, from 0 to 9. Defaults to {@link Deflater#DEFAULT_COMPRESSION}. */
+    public void setCompressionLevel(int compressionLevel) {
+        Assert.isTrue(compressionLevel == Deflater.DEFAULT_COMPRESSION ||
+                (compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION),
+                "Invalid compression level: " + compressionLevel);
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Sets the content types of responses that are compressed, ignoring parameters. An empty array compresses all
+     * responses. Defaults to <code>text/xml</code> and <code>application/soap+xml</code>; MTOM responses
+     * (<code>multipart/related</code>) are not compressed by default, as their binary parts hardly compress.
+     */
+    public void setCompressibleContentTypes(String[] compressibleContentTypes) {
+        Assert.notNull(compressibleContentTypes, "'compressibleContentTypes' must not be null");
+        this.compressibleContentTypes = compressibleContentTypes;
+    }
+
+    /** Returns the statistics of the responses compressed by this adapter. */
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    /** Indicates whether messages are handled asynchronously. */
+    public boolean isAsyncDispatch() {
+        return asyncDispatch;
+    }
+
+    /**
+     * Sets whether messages are handled asynchronously, using Servlet 3.0 asynchronous request processing. The
+     * container thread is released while the message is handled by the {@linkplain
+     * #setAsyncTaskExecutor(AsyncTaskExecutor) asynchronous task executor}, which is required when enabled. Defaults to
+     * <code>false</code>.
+     * <p/>
+     * Requires that asynchronous support is enabled for the servlet and all filters involved, using the
+     * <code>&lt;async-supported&gt;</code> element in <code>web.xml</code>. In a pre-3.0 container, messages are
+     * handled synchronously.
+     */
+    public void setAsyncDispatch(boolean asyncDispatch) {
+        this.asyncDispatch = asyncDispatch;
+    }
+
+    /**
+     * Sets the executor that handles messages when {@linkplain #setAsyncDispatch(boolean) asynchronous dispatch} is
+     * enabled. There is no default; the executor must be bounded, such as a {@link
+     * org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor} sized for the blocking calls made by endpoints,
+     * or a {@link SimpleAsyncTaskExecutor} with a concurrency limit.
+     */
+    public void setAsyncTaskExecutor(AsyncTaskExecutor asyncTaskExecutor) {
+        Assert.notNull(asyncTaskExecutor, "'asyncTaskExecutor' must not be null");
+        Assert.isTrue(!(asyncTaskExecutor instanceof SimpleAsyncTaskExecutor) ||
+                ((SimpleAsyncTaskExecutor) asyncTaskExecutor).isThrottleActive(),
+                "'asyncTaskExecutor' must be bounded; set a concurrency limit on the SimpleAsyncTaskExecutor");
+        this.asyncTaskExecutor = asyncTaskExecutor;
+    }
+
+    /**
+     * Sets the time in milliseconds after which asynchronous handling times out, and the container responds with a 503:
+     * Service Unavailable. The thread handling the message is then interrupted, and any further writes to the response
+     * are rejected. Defaults to the timeout of the container.
+     */
+    public void setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        super.afterPropertiesSet();
+        if (asyncDispatch) {
+            Assert.notNull(asyncTaskExecutor, "asyncTaskExecutor is required for asynchronous dispatch");
+        }
+    }
+
     public long getLastModified(HttpServletRequest request, Object handler) {
         return -1L;
     }
@@ -54,7 +198,10 @@ public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageRe
                                HttpServletResponse httpServletResponse,
                                Object handler) throws Exception {
         if (HttpTransportConstants.METHOD_POST.equals(httpServletRequest.getMethod())) {
-            WebServiceConnection connection = new HttpServletConnection(httpServletRequest, httpServletResponse);
+            if (asyncDispatch && handleAsync(httpServletRequest, httpServletResponse, handler)) {
+                return null;
+            }
+            HttpServletConnection connection = createConnection(httpServletRequest, httpServletResponse);
             try {
                 handleConnection(connection, (WebServiceMessageReceiver) handler);
             }
@@ -68,6 +215,79 @@ public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageRe
         return null;
     }
 
+    private HttpServletConnection createConnection(HttpServletRequest httpServletRequest,
+                                                   HttpServletResponse httpServletResponse) {
+        HttpServletConnection connection = new HttpServletConnection(httpServletRequest, httpServletResponse);
+        if (compressResponses) {
+            connection.setResponseCompression(compressionThreshold, compressionLevel, compressibleContentTypes,
+                    compressionStatistics);
+        }
+        return connection;
+    }
+
+    /**
+     * Handles the given request asynchronously, or completes asynchronous handling when the request has been dispatched
+     * back to the container.
+     *
+     * @return <code>true</code> if the request was handled; <code>false</code> if asynchronous handling is not
+     *         supported
+     */
+    private boolean handleAsync(HttpServletRequest httpServletRequest,
+                                HttpServletResponse httpServletResponse,
+                                final Object handler) throws Exception {
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(httpServletRequest);
+        if (asyncManager.hasConcurrentResult()) {
+            Object result = asyncManager.getConcurrentResult();
+            asyncManager.clearConcurrentResult();
+            if (result instanceof InvalidXmlException) {
+                handleInvalidXmlException(httpServletRequest, httpServletResponse, handler,
+                        (InvalidXmlException) result);
+            }
+            else if (result instanceof Exception) {
+                throw (Exception) result;
+            }
+            else if (result instanceof Error) {
+                throw (Error) result;
+            }
+            return true;
+        }
+        AsyncWebRequest asyncWebRequest = createAsyncWebRequest(httpServletRequest, httpServletResponse);
+        if (asyncWebRequest instanceof NoSupportAsyncWebRequest) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Asynchronous dispatch requires Servlet 3.0; handling message synchronously");
+            }
+            return false;
+        }
+        Assert.state(asyncTaskExecutor != null, "asyncTaskExecutor is required for asynchronous dispatch");
+        if (asyncTimeout != null) {
+            asyncWebRequest.setTimeout(asyncTimeout);
+        }
+        asyncManager.setAsyncWebRequest(asyncWebRequest);
+        asyncManager.setTaskExecutor(asyncTaskExecutor);
+        asyncManager.registerCallableInterceptor(MessageHandlingTimeoutInterceptor.class.getName(), TIMEOUT_INTERCEPTOR);
+        CancellableResponse cancellableResponse = new CancellableResponse(httpServletResponse);
+        HttpServletConnection connection = createConnection(httpServletRequest, cancellableResponse);
+        asyncManager.startCallableProcessing(
+                new MessageHandlingTask(connection, cancellableResponse, (WebServiceMessageReceiver) handler));
+        return true;
+    }
+
+    /**
+     * Template method that creates the {@link AsyncWebRequest} used for asynchronous dispatch. Called from {@link
+     * #handle(HttpServletRequest, HttpServletResponse, Object)}.
+     * <p/>
+     * Default implementation delegates to {@link WebAsyncUtils#createAsyncWebRequest(HttpServletRequest,
+     * HttpServletResponse)}, which returns a {@link NoSupportAsyncWebRequest} in a pre-3.0 container.
+     *
+     * @param httpServletRequest  current HTTP request
+     * @param httpServletResponse current HTTP response
+     * @return the asynchronous web request
+     */
+    protected AsyncWebRequest createAsyncWebRequest(HttpServletRequest httpServletRequest,
+                                                    HttpServletResponse httpServletResponse) {
+        return WebAsyncUtils.createAsyncWebRequest(httpServletRequest, httpServletResponse);
+    }
+
     public boolean supports(Object handler) {
         return handler instanceof WebServiceMessageReceiver;
     }
@@ -106,4 +326,154 @@ public class WebServiceMessageReceiverHandlerAdapter extends WebServiceMessageRe
         httpServletResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST);
     }
 
+    /** Task that handles a message asynchronously, and that can be cancelled when asynchronous handling times out. */
+    private class MessageHandlingTask implements Callable<Object> {
+
+        private final HttpServletConnection connection;
+
+        private final CancellableResponse response;
+
+        private final WebServiceMessageReceiver receiver;
+
+        private Thread thread;
+
+        private boolean cancelled;
+
+        private MessageHandlingTask(HttpServletConnection connection,
+                                    CancellableResponse response,
+                                    WebServiceMessageReceiver receiver) {
+            this.connection = connection;
+            this.response = response;
+            this.receiver = receiver;
+        }
+
+        public Object call() throws Exception {
+            synchronized (this) {
+                if (cancelled) {
+                    return null;
+                }
+                thread = Thread.currentThread();
+            }
+            try {
+                handleConnection(connection, receiver);
+                return null;
+            }
+            finally {
+                synchronized (this) {
+                    thread = null;
+                    if (cancelled) {
+                        // do not leave the interrupt to the next task of a pooled thread
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        /** Rejects further writes to the response, and interrupts the thread handling the message, if any. */
+        private synchronized void cancel() {
+            cancelled = true;
+            response.cancel();
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    /** Interceptor that cancels message handling tasks that time out, before the container responds with a 503. */
+    private static class MessageHandlingTimeoutInterceptor extends CallableProcessingInterceptorAdapter {
+
+        @Override
+        public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) throws Exception {
+            if (task instanceof MessageHandlingTask) {
+                ((MessageHandlingTask) task).cancel();
+            }
+            return RESULT_NONE;
+        }
+    }
+
+    /** Response wrapper that rejects writes, and ignores status and header changes, once it has been cancelled. */
+    private static class CancellableResponse extends HttpServletResponseWrapper {
+
+        private volatile boolean cancelled;
+
+        private ServletOutputStream outputStream;
+
+        private CancellableResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+
+        private void checkNotCancelled() throws IOException {
+            if (cancelled) {
+                throw new IOException("Asynchronous message handling timed out");
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            checkNotCancelled();
+            if (outputStream == null) {
+                final ServletOutputStream target = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        checkNotCancelled();
+                        target.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        checkNotCancelled();
+                        target.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        checkNotCancelled();
+                        target.flush();
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            checkNotCancelled();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            if (!cancelled) {
+                super.setStatus(sc);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!cancelled) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!cancelled) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setContentType(String type) {
+            if (!cancelled) {
+                super.setContentType(type);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+
+import org.springframework.oxm.Marshaller;
+import org.springframework.oxm.Unmarshaller;
+import org.springframework.ws.MockWebServiceMessage;
+import org.springframework.ws.MockWebServiceMessageFactory;
+import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.client.WebServiceIOException;
+import org.springframework.ws.client.WebServiceTransportException;
+import org.springframework.ws.transport.AsyncWebServiceConnection;
+import org.springframework.ws.transport.AsyncWebServiceMessageSender;
+import org.springframework.ws.transport.ExchangeCallback;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.TransportContextHolder;
+
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class AsyncWebServiceTemplateTest {
+
+    private static final String URI_STRING = "http://www.springframework.org/spring-ws";
+
+    private MockWebServiceMessageFactory messageFactory;
+
+    private WebServiceTemplate webServiceTemplate;
+
+    private LinkedList<AsyncWebServiceConnection> connections;
+
+    private AsyncWebServiceTemplate template;
+
+    @Before
+    public void setUp() throws Exception {
+        messageFactory = new MockWebServiceMessageFactory();
+        webServiceTemplate = new WebServiceTemplate(messageFactory);
+        connections = new LinkedList<AsyncWebServiceConnection>();
+        webServiceTemplate.setMessageSender(new AsyncWebServiceMessageSender() {
+
+            public AsyncWebServiceConnection createConnection(URI uri) throws IOException {
+                return connections.removeFirst();
+            }
+
+            public boolean supports(URI uri) {
+                return true;
+            }
+        });
+        webServiceTemplate.setDefaultUri(URI_STRING);
+        template = new AsyncWebServiceTemplate(webServiceTemplate);
+    }
+
+    @Test
+    public void testSendAndReceive() throws Exception {
+        AsyncWebServiceConnection connectionMock = createConnectionMock();
+        Capture<ExchangeCallback> exchangeCallback = new Capture<ExchangeCallback>();
+        connectionMock.send(isA(WebServiceMessage.class));
+        connectionMock.exchange(capture(exchangeCallback));
+        expect(connectionMock.hasError()).andReturn(false);
+        expect(connectionMock.receive(messageFactory)).andReturn(new MockWebServiceMessage("<response/>"));
+        connectionMock.close();
+
+        replay(connectionMock);
+
+        final AtomicReference<Thread> extractingThread = new AtomicReference<Thread>();
+        final AtomicReference<WebServiceConnection> transportConnection = new AtomicReference<WebServiceConnection>();
+        Future<String> future = template.sendAndReceive(URI_STRING, null, new WebServiceMessageExtractor<String>() {
+            public String extractData(WebServiceMessage message) throws IOException {
+                extractingThread.set(Thread.currentThread());
+                transportConnection.set(TransportContextHolder.getTransportContext().getConnection());
+                return "extracted";
+            }
+        });
+        assertFalse("Operation completed before the exchange", future.isDone());
+        assertNull("Transport context not restored", TransportContextHolder.getTransportContext());
+
+        Thread ioThread = complete(exchangeCallback.getValue());
+        assertEquals("Invalid result", "extracted", future.get(10, TimeUnit.SECONDS));
+        assertSame("Response not handled by the completing thread", ioThread, extractingThread.get());
+        assertSame("Invalid transport context", connectionMock, transportConnection.get());
+        verify(connectionMock);
+    }
+
+    @Test
+    public void testSendAndReceiveConnectionError() throws Exception {
+        AsyncWebServiceConnection connectionMock = createConnectionMock();
+        Capture<ExchangeCallback> exchangeCallback = new Capture<ExchangeCallback>();
+        connectionMock.send(isA(WebServiceMessage.class));
+        connectionMock.exchange(capture(exchangeCallback));
+        expect(connectionMock.hasError()).andReturn(true);
+        expect(connectionMock.getErrorMessage()).andReturn("errorMessage");
+        connectionMock.close();
+        WebServiceMessageExtractor<?> extractorMock = createMock(WebServiceMessageExtractor.class);
+        @SuppressWarnings("unchecked")
+        WebServiceResultCallback<Object> resultCallbackMock = createMock(WebServiceResultCallback.class);
+        resultCallbackMock.onFailure(isA(WebServiceTransportException.class));
+
+        replay(connectionMock, extractorMock, resultCallbackMock);
+
+        @SuppressWarnings("unchecked")
+        Future<Object> future = template.sendAndReceive(URI_STRING, null,
+                (WebServiceMessageExtractor<Object>) extractorMock, resultCallbackMock);
+        complete(exchangeCallback.getValue());
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        }
+        catch (ExecutionException ex) {
+            assertTrue("Invalid cause", ex.getCause() instanceof WebServiceTransportException);
+            assertEquals("Invalid exception message", "errorMessage", ex.getCause().getMessage());
+        }
+        verify(connectionMock, extractorMock, resultCallbackMock);
+    }
+
+    @Test
+    public void testSendAndReceiveExchangeFailed() throws Exception {
+        AsyncWebServiceConnection connectionMock = createConnectionMock();
+        Capture<ExchangeCallback> exchangeCallback = new Capture<ExchangeCallback>();
+        connectionMock.send(isA(WebServiceMessage.class));
+        connectionMock.exchange(capture(exchangeCallback));
+        connectionMock.close();
+        WebServiceMessageExtractor<?> extractorMock = createMock(WebServiceMessageExtractor.class);
+
+        replay(connectionMock, extractorMock);
+
+        Future<?> future = template.sendAndReceive(URI_STRING, null, extractorMock);
+        exchangeCallback.getValue().failed(new IOException("Connection refused"));
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        }
+        catch (ExecutionException ex) {
+            assertTrue("Invalid cause", ex.getCause() instanceof WebServiceIOException);
+        }
+        verify(connectionMock, extractorMock);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        AsyncWebServiceConnection connectionMock = createConnectionMock();
+        connectionMock.send(isA(WebServiceMessage.class));
+        connectionMock.exchange(isA(ExchangeCallback.class));
+        connectionMock.cancel();
+        WebServiceMessageExtractor<?> extractorMock = createMock(WebServiceMessageExtractor.class);
+
+        replay(connectionMock, extractorMock);
+
+        Future<?> future = template.sendAndReceive(URI_STRING, null, extractorMock);
+        assertTrue("Operation not cancelled", future.cancel(true));
+        verify(connectionMock, extractorMock);
+    }
+
+    @Test
+    public void testMarshalSendAndReceiveAll() throws Exception {
+        Marshaller marshallerMock = createMock(Marshaller.class);
+        webServiceTemplate.setMarshaller(marshallerMock);
+        Unmarshaller unmarshallerMock = createMock(Unmarshaller.class);
+        webServiceTemplate.setUnmarshaller(unmarshallerMock);
+        Object response = new Object();
+        marshallerMock.marshal(isA(Object.class), isA(Result.class));
+        expectLastCall().times(2);
+        expect(unmarshallerMock.unmarshal(isA(Source.class))).andReturn(response);
+
+        AsyncWebServiceConnection completingConnectionMock = createConnectionMock();
+        Capture<ExchangeCallback> exchangeCallback = new Capture<ExchangeCallback>();
+        completingConnectionMock.send(isA(WebServiceMessage.class));
+        completingConnectionMock.exchange(capture(exchangeCallback));
+        expect(completingConnectionMock.hasError()).andReturn(false);
+        expect(completingConnectionMock.receive(messageFactory)).andReturn(new MockWebServiceMessage("<response/>"));
+        completingConnectionMock.close();
+
+        AsyncWebServiceConnection hangingConnectionMock = createConnectionMock();
+        hangingConnectionMock.send(isA(WebServiceMessage.class));
+        hangingConnectionMock.exchange(isA(ExchangeCallback.class));
+        hangingConnectionMock.cancel();
+
+        replay(marshallerMock, unmarshallerMock, completingConnectionMock, hangingConnectionMock);
+
+        final AtomicReference<List<WebServiceBatchResult>> results = new AtomicReference<List<WebServiceBatchResult>>();
+        Thread caller = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    results.set(template.marshalSendAndReceiveAll(Arrays.asList(
+                            new WebServiceBatchRequest(URI_STRING, new Object()),
+                            new WebServiceBatchRequest(URI_STRING, new Object())), 500, 10000, TimeUnit.MILLISECONDS));
+                }
+                catch (InterruptedException ex) {
+                    // ignore
+                }
+            }
+        };
+        caller.start();
+        while (!exchangeCallback.hasCaptured()) {
+            Thread.sleep(10);
+        }
+        exchangeCallback.getValue().completed();
+        caller.join(10000);
+
+        List<WebServiceBatchResult> batchResults = new ArrayList<WebServiceBatchResult>(results.get());
+        assertEquals("Invalid amount of results", 2, batchResults.size());
+        assertTrue("First request failed", batchResults.get(0).isSuccess());
+        assertSame("Invalid response payload", response, batchResults.get(0).getResponsePayload());
+        assertFalse("Second request did not fail", batchResults.get(1).isSuccess());
+        assertTrue("Second request did not time out", batchResults.get(1).getFailure() instanceof TimeoutException);
+        verify(marshallerMock, unmarshallerMock, completingConnectionMock, hangingConnectionMock);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoAsyncMessageSender() throws Exception {
+        webServiceTemplate.setMessageSender(createMock(org.springframework.ws.transport.WebServiceMessageSender.class));
+        try {
+            template.sendAndReceive(URI_STRING, null, createMock(WebServiceMessageExtractor.class)).get();
+        }
+        catch (ExecutionException ex) {
+            throw (Exception) ex.getCause();
+        }
+    }
+
+    private AsyncWebServiceConnection createConnectionMock() throws Exception {
+        AsyncWebServiceConnection connectionMock = createMock(AsyncWebServiceConnection.class);
+        expect(connectionMock.getUri()).andReturn(new URI(URI_STRING)).anyTimes();
+        connections.add(connectionMock);
+        return connectionMock;
+    }
+
+    /** Notifies the given callback of completion in a separate thread, as an I/O thread would. */
+    private Thread complete(final ExchangeCallback exchangeCallback) throws InterruptedException {
+        Thread ioThread = new Thread() {
+            @Override
+            public void run() {
+                exchangeCallback.completed();
+            }
+        };
+        ioThread.start();
+        ioThread.join(10000);
+        return ioThread;
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.client.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.ws.client.WebServiceIOException;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.context.DefaultTransportContext;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class ExecutorWebServiceTemplateTest {
+
+    private WebServiceOperations operationsMock;
+
+    private ExecutorService executor;
+
+    private ExecutorWebServiceTemplate template;
+
+    @Before
+    public void setUp() throws Exception {
+        operationsMock = createMock(WebServiceOperations.class);
+        executor = Executors.newFixedThreadPool(4);
+        template = new ExecutorWebServiceTemplate(operationsMock, executor);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnboundedExecutor() throws Exception {
+        new ExecutorWebServiceTemplate(operationsMock, new SimpleAsyncTaskExecutor());
+    }
+
+    @Test
+    public void testBoundedSimpleAsyncTaskExecutor() throws Exception {
+        SimpleAsyncTaskExecutor simpleExecutor = new SimpleAsyncTaskExecutor();
+        simpleExecutor.setConcurrencyLimit(4);
+        new ExecutorWebServiceTemplate(operationsMock, simpleExecutor);
+    }
+
+    @Test
+    public void testMarshalSendAndReceive() throws Exception {
+        Object request = new Object();
+        Object response = new Object();
+        expect(operationsMock.marshalSendAndReceive("http://example.com", request, null)).andReturn(response);
+
+        replay(operationsMock);
+
+        Future<Object> future = template.marshalSendAndReceive("http://example.com", request);
+        assertSame("Invalid response", response, future.get(10, TimeUnit.SECONDS));
+
+        verify(operationsMock);
+    }
+
+    @Test
+    public void testMarshalSendAndReceiveCallback() throws Exception {
+        Object request = new Object();
+        Object response = new Object();
+        expect(operationsMock.marshalSendAndReceive("http://example.com", request, null)).andReturn(response);
+
+        replay(operationsMock);
+
+        ResultCallback<Object> callback = new ResultCallback<Object>();
+        template.marshalSendAndReceive("http://example.com", request, null, callback);
+        assertTrue("Callback not invoked", callback.latch.await(10, TimeUnit.SECONDS));
+        assertSame("Invalid response", response, callback.result.get());
+        assertNull("Failure notified", callback.failure.get());
+
+        verify(operationsMock);
+    }
+
+    @Test
+    public void testSendAndReceiveFailure() throws Exception {
+        WebServiceIOException exception = new WebServiceIOException("msg");
+        expect(operationsMock.sendAndReceive(eq("http://example.com"), (WebServiceMessageCallback) isNull(),
+                (WebServiceMessageExtractor<Object>) isNull())).andThrow(exception);
+
+        replay(operationsMock);
+
+        ResultCallback<Object> callback = new ResultCallback<Object>();
+        Future<Object> future = template.sendAndReceive("http://example.com", null, null, callback);
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        }
+        catch (ExecutionException ex) {
+            assertSame("Invalid cause", exception, ex.getCause());
+        }
+        assertTrue("Callback not invoked", callback.latch.await(10, TimeUnit.SECONDS));
+        assertSame("Invalid failure", exception, callback.failure.get());
+
+        verify(operationsMock);
+    }
+
+    @Test
+    public void testMarshalSendAndReceiveAll() throws Exception {
+        final Object response = new Object();
+        final WebServiceIOException exception = new WebServiceIOException("msg");
+        final AtomicReference<Object> transportContext = new AtomicReference<Object>();
+        WebServiceTemplate operations = new WebServiceTemplate() {
+            @Override
+            public Object marshalSendAndReceive(String uri, Object requestPayload, WebServiceMessageCallback callback) {
+                if ("1".equals(requestPayload)) {
+                    transportContext.set(TransportContextHolder.getTransportContext());
+                    return response;
+                }
+                else if ("2".equals(requestPayload)) {
+                    throw exception;
+                }
+                try {
+                    Thread.sleep(10000);
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return response;
+            }
+        };
+        template = new ExecutorWebServiceTemplate(operations, executor);
+
+        List<WebServiceBatchRequest> requests = new ArrayList<WebServiceBatchRequest>();
+        requests.add(new WebServiceBatchRequest("http://example.com/1", "1"));
+        requests.add(new WebServiceBatchRequest("http://example.com/2", "2"));
+        requests.add(new WebServiceBatchRequest("http://example.com/3", "3"));
+        List<WebServiceBatchResult> results =
+                template.marshalSendAndReceiveAll(requests, 200, 5000, TimeUnit.MILLISECONDS);
+
+        assertEquals("Invalid amount of results", 3, results.size());
+        assertTrue("Request failed", results.get(0).isSuccess());
+        assertSame("Invalid response", response, results.get(0).getResponsePayload());
+        assertNull("TransportContext set", transportContext.get());
+        assertSame("Invalid request", requests.get(1), results.get(1).getRequest());
+        assertFalse("Request succeeded", results.get(1).isSuccess());
+        assertSame("Invalid failure", exception, results.get(1).getFailure());
+        assertFalse("Request succeeded", results.get(2).isSuccess());
+        assertTrue("Invalid failure", results.get(2).getFailure() instanceof TimeoutException);
+    }
+
+    @Test
+    public void testMarshalSendAndReceiveAllCallerRuns() throws Exception {
+        final Object response = new Object();
+        WebServiceTemplate operations = new WebServiceTemplate() {
+            @Override
+            public Object marshalSendAndReceive(String uri, Object requestPayload, WebServiceMessageCallback callback) {
+                // leaves a transport context behind
+                TransportContextHolder.setTransportContext(
+                        new DefaultTransportContext(createMock(WebServiceConnection.class)));
+                return response;
+            }
+        };
+        template = new ExecutorWebServiceTemplate(operations, new SyncTaskExecutor());
+        TransportContext transportContext = new DefaultTransportContext(createMock(WebServiceConnection.class));
+        TransportContextHolder.setTransportContext(transportContext);
+        try {
+            List<WebServiceBatchRequest> requests = new ArrayList<WebServiceBatchRequest>();
+            requests.add(new WebServiceBatchRequest("http://example.com/1", "1"));
+            requests.add(new WebServiceBatchRequest("http://example.com/2", "2"));
+            List<WebServiceBatchResult> results =
+                    template.marshalSendAndReceiveAll(requests, 5000, 5000, TimeUnit.MILLISECONDS);
+
+            assertEquals("Invalid amount of results", 2, results.size());
+            assertTrue("Request failed", results.get(0).isSuccess());
+            assertTrue("Request failed", results.get(1).isSuccess());
+            assertSame("TransportContext of caller not kept", transportContext,
+                    TransportContextHolder.getTransportContext());
+        }
+        finally {
+            TransportContextHolder.setTransportContext(null);
+        }
+    }
+
+    private static class ResultCallback<T> implements WebServiceResultCallback<T> {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private final AtomicReference<T> result = new AtomicReference<T>();
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        public void onSuccess(T result) {
+            this.result.set(result);
+            latch.countDown();
+        }
+
+        public void onFailure(Throwable ex) {
+            failure.set(ex);
+            latch.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.ws.client.support.destination;
+
+import java.net.URI;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CachingDestinationProviderTest {
+
+    private CountingDestinationProvider provider;
+
+    @Before
+    public void setUp() throws Exception {
+        provider = new CountingDestinationProvider();
+    }
+
+    @Test
+    public void testCacheForever() throws Exception {
+        assertEquals("Invalid destination", new URI("http://example.com/1"), provider.getDestination());
+        assertEquals("Invalid destination", new URI("http://example.com/1"), provider.getDestination());
+        assertEquals("Invalid lookup count", 1, provider.count.get());
+    }
+
+    @Test
+    public void testNoCache() throws Exception {
+        provider.setCache(false);
+        assertEquals("Invalid destination", new URI("http://example.com/1"), provider.getDestination());
+        assertEquals("Invalid destination", new URI("http://example.com/2"), provider.getDestination());
+    }
+
+    @Test
+    public void testCacheSeconds() throws Exception {
+        provider.setCacheSeconds(1);
+        assertEquals("Invalid destination", new URI("http://example.com/1"), provider.getDestination());
+        provider.currentTimeMillis += 999;
+        assertEquals("Invalid destination", new URI("http://example.com/1"), provider.getDestination());
+        provider.currentTimeMillis += 1;
+        assertEquals("Invalid destination", new URI("http://example.com/2"), provider.getDestination());
+        assertEquals("Invalid lookup count", 2, provider.count.get());
+    }
+
+    @Test
+    public void testAsyncRefresh() throws Exception {
+        DeferredExecutor executor = new DeferredExecutor();
+        provider.setCacheSeconds(1);
+        provider.setAsyncRefresh(true);
+        provider.setRefreshExecutor(executor);
+        assertEquals("Invalid destination", new URI("http://example.com/1"), provider.getDestination());
+        provider.currentTimeMillis += 1000;
+        assertEquals("Expired destination not returned", new URI("http://example.com/1"), provider.getDestination());
+        assertEquals("Expired destination not returned", new URI("http://example.com/1"), provider.getDestination());
+        assertNotNull("Refresh not scheduled", executor.task);
+        executor.task.run();
+        assertEquals("Invalid destination", new URI("http://example.com/2"), provider.getDestination());
+        assertEquals("Invalid lookup count", 2, provider.count.get());
+    }
+
+    @Test
+    public void testFallbackToCachedDestination() throws Exception {
+        provider.setCacheSeconds(1);
+        provider.setFallbackToCachedDestination(true);
+        assertEquals("Invalid destination", new URI("http://example.com/1"), provider.getDestination());
+        provider.currentTimeMillis += 1000;
+        provider.fail = true;
+        assertEquals("Cached destination not returned", new URI("http://example.com/1"), provider.getDestination());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoFallbackToCachedDestination() throws Exception {
+        provider.setCacheSeconds(1);
+        assertEquals("Invalid destination", new URI("http://example.com/1"), provider.getDestination());
+        provider.currentTimeMillis += 1000;
+        provider.fail = true;
+        provider.getDestination();
+    }
+
+    private static class CountingDestinationProvider extends AbstractCachingDestinationProvider {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private volatile boolean fail;
+
+        private long currentTimeMillis = 1000;
+
+        @Override
+        protected URI lookupDestination() {
+            if (fail) {
+                throw new IllegalStateException("Lookup failed");
+            }
+            return URI.create("http://example.com/" + count.incrementAndGet());
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return currentTimeMillis;
+        }
+    }
+
+    private static class DeferredExecutor implements Executor {
+
+        private Runnable task;
+
+        public void execute(Runnable task) {
+            assertNull("Refresh scheduled twice", this.task);
+            this.task = task;
+        }
+    }
+
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.ws.client.support.destination;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -65,4 +67,35 @@ public class Wsdl11DestinationProviderTest {
 
         Assert.assertEquals("Invalid URI returned", new URI("http://example.com/soap12"), result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUnmodifiedWsdlNotParsedAgain() throws Exception {
+        CountingResource wsdl = new CountingResource("simple.wsdl", getClass());
+        provider.setWsdl(wsdl);
+        provider.setCache(false);
+
+        Assert.assertEquals("Invalid URI returned", new URI("http://example.com/myService"), provider.getDestination());
+        Assert.assertEquals("Invalid URI returned", new URI("http://example.com/myService"), provider.getDestination());
+        Assert.assertEquals("WSDL parsed again", 1, wsdl.count);
+    }
+
+    private static class CountingResource extends ClassPathResource {
+
+        private int count;
+
+        private CountingResource(String path, Class<?> clazz) {
+            super(path, clazz);
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return 42;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            count++;
+            return super.getInputStream();
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.springframework.ws.NoEndpointFoundException;
 import org.springframework.ws.WebServiceMessageFactory;
 import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.MethodEndpoint;
 import org.springframework.ws.server.endpoint.adapter.PayloadEndpointAdapter;
 import org.springframework.ws.server.endpoint.mapping.PayloadRootQNameEndpointMapping;
 import org.springframework.ws.soap.server.endpoint.SimpleSoapExceptionResolver;
@@ -84,6 +85,77 @@ public class MessageDispatcherTest {
         Assert.assertEquals("getEndpointAdapter returns invalid EndpointAdapter", adapterMock, result);
     }
 
+    @Test
+    public void testGetEndpointDispatchTable() throws Exception {
+        EndpointMapping mappingMock = createMock(EndpointMapping.class);
+        dispatcher.setEndpointMappings(Collections.singletonList(mappingMock));
+        dispatcher.setDispatchTableEnabled(true);
+
+        messageContext = new DefaultMessageContext(
+                new MockWebServiceMessage("<root xmlns='http://springframework.org/spring-ws'/>"), factoryMock);
+        EndpointInvocationChain chain = new EndpointInvocationChain(new Object());
+
+        expect(mappingMock.getEndpoint(messageContext)).andReturn(chain).once();
+
+        replay(mappingMock, factoryMock);
+
+        Assert.assertEquals("getEndpoint returns invalid EndpointInvocationChain", chain,
+                dispatcher.getEndpoint(messageContext));
+        Assert.assertEquals("getEndpoint returns invalid EndpointInvocationChain", chain,
+                dispatcher.getEndpoint(messageContext));
+
+        verify(mappingMock, factoryMock);
+    }
+
+    @Test
+    public void testGetEndpointAdapterDispatchTable() throws Exception {
+        EndpointAdapter adapterMock = createMock(EndpointAdapter.class);
+        dispatcher.setEndpointAdapters(Collections.singletonList(adapterMock));
+        dispatcher.setDispatchTableEnabled(true);
+
+        Object endpoint = new Object();
+        expect(adapterMock.supports(endpoint)).andReturn(true).once();
+
+        replay(adapterMock, factoryMock);
+
+        Assert.assertEquals("getEndpointAdapter returns invalid EndpointAdapter", adapterMock,
+                dispatcher.getEndpointAdapter(endpoint));
+        // another endpoint of the same class
+        Assert.assertEquals("getEndpointAdapter returns invalid EndpointAdapter", adapterMock,
+                dispatcher.getEndpointAdapter(new Object()));
+
+        verify(adapterMock, factoryMock);
+    }
+
+    @Test
+    public void testGetEndpointAdapterDispatchTableMethodEndpoint() throws Exception {
+        EndpointAdapter adapterMock = createMock(EndpointAdapter.class);
+        dispatcher.setEndpointAdapters(Collections.singletonList(adapterMock));
+        dispatcher.setDispatchTableEnabled(true);
+
+        MethodEndpoint endpoint = new MethodEndpoint(new Object(), "toString");
+        MethodEndpoint otherEndpoint = new MethodEndpoint(new Object(), "hashCode");
+        expect(adapterMock.supports(endpoint)).andReturn(true).once();
+        expect(adapterMock.supports(otherEndpoint)).andReturn(false).once();
+
+        replay(adapterMock, factoryMock);
+
+        Assert.assertEquals("getEndpointAdapter returns invalid EndpointAdapter", adapterMock,
+                dispatcher.getEndpointAdapter(endpoint));
+        // another bean with the same method
+        Assert.assertEquals("getEndpointAdapter returns invalid EndpointAdapter", adapterMock,
+                dispatcher.getEndpointAdapter(new MethodEndpoint(new Object(), "toString")));
+        try {
+            dispatcher.getEndpointAdapter(otherEndpoint);
+            Assert.fail("IllegalStateException expected");
+        }
+        catch (IllegalStateException ex) {
+            // expected
+        }
+
+        verify(adapterMock, factoryMock);
+    }
+
     @Test
     public void testGetEndpointAdapterUnsupportedEndpoint() throws Exception {
         EndpointAdapter adapterMock = createMock(EndpointAdapter.class);
@@ -17,9 +17,15 @@
 package org.springframework.ws.server.endpoint.adapter;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.annotation.XmlRootElement;
 
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.core.MethodParameter;
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
@@ -28,6 +34,12 @@ import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.server.endpoint.MethodEndpoint;
 import org.springframework.ws.server.endpoint.adapter.method.MethodArgumentResolver;
 import org.springframework.ws.server.endpoint.adapter.method.MethodReturnValueHandler;
+import org.springframework.ws.server.endpoint.adapter.method.jaxb.XmlRootElementPayloadMethodProcessor;
+import org.springframework.ws.server.endpoint.annotation.Endpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.ws.server.endpoint.mapping.PayloadRootAnnotationMethodEndpointMapping;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -146,6 +158,35 @@ public class DefaultMethodEndpointAdapterTest {
         verify(argumentResolver1, argumentResolver2, returnValueHandler);
     }
 
+    @Test
+    public void invokeSupportedTwice() throws Exception {
+        MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        String value = "Foo";
+
+        // resolvers and handler are only looked up once
+        expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+        expect(argumentResolver1.supportsParameter(isA(MethodParameter.class))).andReturn(false);
+        expect(argumentResolver2.supportsParameter(isA(MethodParameter.class))).andReturn(true);
+        expect(returnValueHandler.supportsReturnType(isA(MethodParameter.class))).andReturn(true);
+
+        expect(argumentResolver1.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn(value)
+                .times(2);
+        expect(argumentResolver2.resolveArgument(eq(messageContext), isA(MethodParameter.class))).andReturn(new Integer(42))
+                .times(2);
+        returnValueHandler.handleReturnValue(eq(messageContext), isA(MethodParameter.class), eq(value));
+        expectLastCall().times(2);
+
+        replay(argumentResolver1, argumentResolver2, returnValueHandler);
+
+        adapter.invoke(messageContext, supportedEndpoint);
+        adapter.invoke(messageContext, supportedEndpoint);
+        assertEquals("Invalid argument passed", value, supportedArgument);
+
+        verify(argumentResolver1, argumentResolver2, returnValueHandler);
+    }
+
     @Test
     public void invokeException() throws Exception {
         MockWebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'/>");
@@ -171,6 +212,33 @@ public class DefaultMethodEndpointAdapterTest {
         verify(argumentResolver1, argumentResolver2, returnValueHandler);
     }
 
+    @Test
+    public void initJaxbContexts() throws Exception {
+        final List<Class<?>> initialized = Collections.synchronizedList(new ArrayList<Class<?>>());
+        XmlRootElementPayloadMethodProcessor processor = new XmlRootElementPayloadMethodProcessor() {
+            @Override
+            public void initJaxbContext(Class<?>... classes) throws JAXBException {
+                super.initJaxbContext(classes);
+                initialized.addAll(Arrays.asList(classes));
+            }
+        };
+        adapter = new DefaultMethodEndpointAdapter();
+        adapter.setMethodArgumentResolvers(Collections.<MethodArgumentResolver>singletonList(processor));
+        adapter.setMethodReturnValueHandlers(Collections.<MethodReturnValueHandler>singletonList(processor));
+        adapter.setInitJaxbContexts(true);
+        adapter.setSharedJaxbContext(true);
+
+        StaticApplicationContext applicationContext = new StaticApplicationContext();
+        applicationContext.registerSingleton("mapping", PayloadRootAnnotationMethodEndpointMapping.class);
+        applicationContext.registerSingleton("endpoint", JaxbEndpoint.class);
+        applicationContext.refresh();
+
+        adapter.onApplicationEvent(new ContextRefreshedEvent(applicationContext));
+
+        assertEquals("Invalid JAXB contexts initialized",
+                Arrays.<Class<?>>asList(JaxbRequest.class, JaxbResponse.class), initialized);
+    }
+
     public String supported(String s, Integer i) {
         supportedArgument = s;
         return s;
@@ -185,4 +253,24 @@ public class DefaultMethodEndpointAdapterTest {
         supportedArgument = s;
         throw new IOException(s);
     }
+
+    @Endpoint
+    public static class JaxbEndpoint {
+
+        @PayloadRoot(localPart = "request", namespace = "http://springframework.org/spring-ws")
+        @ResponsePayload
+        public JaxbResponse handle(@RequestPayload JaxbRequest request) {
+            return new JaxbResponse();
+        }
+    }
+
+    @XmlRootElement(name = "request", namespace = "http://springframework.org/spring-ws")
+    public static class JaxbRequest {
+
+    }
+
+    @XmlRootElement(name = "response", namespace = "http://springframework.org/spring-ws")
+    public static class JaxbResponse {
+
+    }
 }
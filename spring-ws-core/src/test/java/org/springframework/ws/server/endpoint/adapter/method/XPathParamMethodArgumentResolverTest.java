@@ -17,6 +17,7 @@
 package org.springframework.ws.server.endpoint.adapter.method;
 
 import java.lang.reflect.Method;
+import javax.xml.transform.Source;
 
 import org.springframework.core.MethodParameter;
 import org.springframework.ws.MockWebServiceMessage;
@@ -86,6 +87,63 @@ public class XPathParamMethodArgumentResolverTest {
         assertFalse("resolver supports parameter without @XPathParam", resolver.supportsParameter(unsupportedParameter));
     }
 
+    @Test
+    public void resolveMultipleTransformsOnce() throws Exception {
+        final int[] payloadSourceCount = new int[1];
+        MockWebServiceMessage request = new MockWebServiceMessage(CONTENTS) {
+            @Override
+            public Source getPayloadSource() {
+                payloadSourceCount[0]++;
+                return super.getPayloadSource();
+            }
+        };
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        assertEquals("invalid result", "text", resolver.resolveArgument(messageContext, stringParameter));
+        assertEquals("invalid result", 42D, resolver.resolveArgument(messageContext, doubleParameter));
+        assertEquals("invalid result", "text", resolver.resolveArgument(messageContext, stringParameter));
+        assertEquals("payload transformed more than once", 1, payloadSourceCount[0]);
+    }
+
+    @Test
+    public void resolveStreaming() throws Exception {
+        resolver.setStreamingEvaluation(true);
+        final int[] payloadSourceCount = new int[1];
+        MockWebServiceMessage request = new MockWebServiceMessage(CONTENTS) {
+            @Override
+            public Source getPayloadSource() {
+                payloadSourceCount[0]++;
+                return super.getPayloadSource();
+            }
+        };
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+        Method streamingTypes = getClass()
+                .getMethod("streamingTypes", Boolean.TYPE, Boolean.TYPE, Double.TYPE, String.class, Integer.TYPE);
+
+        assertEquals("invalid result", Boolean.TRUE,
+                resolver.resolveArgument(messageContext, new MethodParameter(streamingTypes, 0)));
+        assertEquals("invalid result", Boolean.FALSE,
+                resolver.resolveArgument(messageContext, new MethodParameter(streamingTypes, 1)));
+        assertEquals("invalid result", 42D,
+                resolver.resolveArgument(messageContext, new MethodParameter(streamingTypes, 2)));
+        assertEquals("invalid result", "text",
+                resolver.resolveArgument(messageContext, new MethodParameter(streamingTypes, 3)));
+        assertEquals("invalid result", 42,
+                resolver.resolveArgument(messageContext, new MethodParameter(streamingTypes, 4)));
+        assertEquals("payload read more than once", 1, payloadSourceCount[0]);
+    }
+
+    @Test
+    public void resolveStreamingFallback() throws Exception {
+        resolver.setStreamingEvaluation(true);
+        MockWebServiceMessage request = new MockWebServiceMessage(CONTENTS);
+        MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        assertEquals("invalid result", "text", resolver.resolveArgument(messageContext, stringParameter));
+        Object result = resolver.resolveArgument(messageContext, nodeParameter);
+        assertTrue("resolver does not return Node", result instanceof Node);
+    }
+
     @Test
     public void resolveBoolean() throws Exception {
         MockWebServiceMessage request = new MockWebServiceMessage(CONTENTS);
@@ -194,6 +252,13 @@ public class XPathParamMethodArgumentResolverTest {
                                @XPathParam("/root/child/text")String param5) {
     }
 
+    public void streamingTypes(@XPathParam("/root/child")boolean param1,
+                               @XPathParam("/root/other")boolean param2,
+                               @XPathParam("/root/child/number")double param3,
+                               @XPathParam("/root/child/text/text()")String param4,
+                               @XPathParam("/root/child/number")int param5) {
+    }
+
     public void convertedType(@XPathParam("/root/child/number")int param) {
     }
 
@@ -98,6 +98,34 @@ public class XmlRootElementPayloadMethodProcessorTest {
         assertEquals("invalid result", "Foo", type.getString());
     }
 
+    @Test
+    public void resolveArgumentPooledUnmarshaller() throws JAXBException {
+        for (int i = 0; i < 3; i++) {
+            WebServiceMessage request = new MockWebServiceMessage("<root xmlns='http://springframework.org'><string>Foo</string></root>");
+            MessageContext messageContext = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+            MyRootElement rootElement = (MyRootElement) processor.resolveArgument(messageContext, rootElementParameter);
+            assertEquals("invalid result", "Foo", rootElement.getString());
+        }
+        assertEquals("invalid pool misses", 1, processor.getUnmarshallerPoolMisses());
+        assertEquals("invalid pool hits", 2, processor.getUnmarshallerPoolHits());
+    }
+
+    @Test
+    public void handleReturnValuePooledMarshaller() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MessageContext messageContext = new DefaultMessageContext(new MockWebServiceMessageFactory());
+
+            MyRootElement rootElement = new MyRootElement();
+            rootElement.setString("Foo");
+            processor.handleReturnValue(messageContext, rootElementReturnType, rootElement);
+            MockWebServiceMessage response = (MockWebServiceMessage) messageContext.getResponse();
+            assertXMLEqual("<root xmlns='http://springframework.org'><string>Foo</string></root>", response.getPayloadAsString());
+        }
+        assertEquals("invalid pool misses", 1, processor.getMarshallerPoolMisses());
+        assertEquals("invalid pool hits", 2, processor.getMarshallerPoolHits());
+    }
+
     @Test
     public void handleReturnValue() throws JAXBException, IOException, SAXException {
         MessageContext messageContext = new DefaultMessageContext(new MockWebServiceMessageFactory());
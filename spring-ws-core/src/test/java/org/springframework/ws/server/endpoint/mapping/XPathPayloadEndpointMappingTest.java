@@ -16,6 +16,8 @@
 
 package org.springframework.ws.server.endpoint.mapping;
 
+import java.util.Collections;
+
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
 import org.springframework.ws.context.DefaultMessageContext;
@@ -46,4 +48,18 @@ public class XPathPayloadEndpointMappingTest {
         Assert.assertNotNull("mapping returns null", result);
         Assert.assertEquals("mapping returns invalid result", "value", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetLookupKeyForMessageStreaming() throws Exception {
+        mapping.setExpression("/p:root/p:child[@type='b']/@id");
+        mapping.setNamespaces(Collections.singletonMap("p", "urn:p"));
+        mapping.setStreamingEvaluation(true);
+        mapping.afterPropertiesSet();
+
+        MockWebServiceMessage request = new MockWebServiceMessage(
+                "<root xmlns='urn:p'><child type='a' id='1'/><child type='b' id='2'/></root>");
+        MessageContext context = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+
+        Assert.assertEquals("mapping returns invalid result", "2", mapping.getLookupKeyForMessage(context));
+    }
+}
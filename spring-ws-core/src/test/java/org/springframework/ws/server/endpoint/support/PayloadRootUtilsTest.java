@@ -16,7 +16,11 @@
 
 package org.springframework.ws.server.endpoint.support;
 
+import java.io.ByteArrayInputStream;
 import java.io.StringReader;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.util.JAXBSource;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -102,9 +106,46 @@ public class PayloadRootUtilsTest {
         Assert.assertEquals("Qname has invalid prefix", "prefix", qName.getPrefix());
     }
 
+    @Test
+    public void testGetQNameForStreamSourceStopsAtRoot() throws Exception {
+        String contents = "<prefix:localname xmlns:prefix='namespace'><child>";
+        Source source = new StreamSource(new ByteArrayInputStream(contents.getBytes("UTF-8")));
+        QName qName = PayloadRootUtils.getPayloadRootQName(source, TransformerFactory.newInstance());
+        Assert.assertNotNull("getQNameForNode returns null", qName);
+        Assert.assertEquals("QName has invalid localname", "localname", qName.getLocalPart());
+        Assert.assertEquals("Qname has invalid namespace", "namespace", qName.getNamespaceURI());
+        Assert.assertEquals("Qname has invalid prefix", "prefix", qName.getPrefix());
+    }
+
+    @Test
+    public void testGetQNameForSaxSourceStopsAtRoot() throws Exception {
+        String contents = "<prefix:localname xmlns:prefix='namespace'><child>";
+        Source source = new SAXSource(new InputSource(new StringReader(contents)));
+        QName qName = PayloadRootUtils.getPayloadRootQName(source, TransformerFactory.newInstance());
+        Assert.assertNotNull("getQNameForNode returns null", qName);
+        Assert.assertEquals("QName has invalid localname", "localname", qName.getLocalPart());
+        Assert.assertEquals("Qname has invalid namespace", "namespace", qName.getNamespaceURI());
+        Assert.assertEquals("Qname has invalid prefix", "prefix", qName.getPrefix());
+    }
+
+    @Test
+    public void testGetQNameForJaxbSource() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(Payload.class);
+        Source source = new JAXBSource(context, new Payload());
+        QName qName = PayloadRootUtils.getPayloadRootQName(source, TransformerFactory.newInstance());
+        Assert.assertNotNull("getQNameForNode returns null", qName);
+        Assert.assertEquals("QName has invalid localname", "localname", qName.getLocalPart());
+        Assert.assertEquals("Qname has invalid namespace", "namespace", qName.getNamespaceURI());
+    }
+
     @Test
     public void testGetQNameForNullSource() throws Exception {
         QName qName = PayloadRootUtils.getPayloadRootQName(null, TransformerFactory.newInstance());
         Assert.assertNull("Qname returned", qName);
     }
+
+    @XmlRootElement(name = "localname", namespace = "namespace")
+    public static class Payload {
+
+    }
 }
\ No newline at end of file
@@ -16,6 +16,7 @@
 
 package org.springframework.ws.soap.server.endpoint.interceptor;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.util.Locale;
@@ -25,15 +26,18 @@ import javax.xml.soap.SOAPConstants;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.MockWebServiceMessage;
 import org.springframework.ws.MockWebServiceMessageFactory;
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapBody;
 import org.springframework.ws.soap.SoapMessage;
 import org.springframework.ws.soap.SoapVersion;
 import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
@@ -44,6 +48,7 @@ import org.springframework.ws.soap.soap11.Soap11Fault;
 import org.springframework.ws.soap.soap12.Soap12Fault;
 import org.springframework.ws.transport.MockTransportInputStream;
 import org.springframework.ws.transport.TransportInputStream;
+import org.springframework.xml.validation.PooledXmlValidator;
 import org.springframework.xml.validation.ValidationErrorHandler;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 
@@ -180,6 +185,24 @@ public class PayloadValidatingInterceptorTest {
         Assert.assertFalse("Response set", context.hasResponse());
     }
 
+    @Test
+    public void testHandleValidRequestPooled() throws Exception {
+        interceptor = new PayloadValidatingInterceptor();
+        interceptor.setSchema(new ClassPathResource(SCHEMA, getClass()));
+        interceptor.setValidatorPoolSize(1);
+        interceptor.afterPropertiesSet();
+
+        for (int i = 0; i < 2; i++) {
+            MockWebServiceMessage request = new MockWebServiceMessage();
+            request.setPayload(new ClassPathResource(VALID_MESSAGE, getClass()));
+            context = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+            Assert.assertTrue("Invalid response from interceptor", interceptor.handleRequest(context, null));
+        }
+        PooledXmlValidator validator = (PooledXmlValidator) interceptor.getValidator();
+        Assert.assertEquals("Invalid pool misses", 1, validator.getPoolMisses());
+        Assert.assertEquals("Invalid pool hits", 1, validator.getPoolHits());
+    }
+
     @Test
     public void testHandleInvalidResponse() throws Exception {
         MockWebServiceMessage request = new MockWebServiceMessage();
@@ -329,6 +352,27 @@ public class PayloadValidatingInterceptorTest {
         Assert.assertFalse("Response set", context.hasResponse());
     }
 
+    @Test
+    public void testXsdSchemaPooled() throws Exception {
+        PayloadValidatingInterceptor interceptor = new PayloadValidatingInterceptor();
+        SimpleXsdSchema schema = new SimpleXsdSchema(new ClassPathResource(SCHEMA, getClass()));
+        schema.afterPropertiesSet();
+        interceptor.setXsdSchema(schema);
+        interceptor.setValidatorPoolSize(1);
+        interceptor.afterPropertiesSet();
+
+        for (int i = 0; i < 2; i++) {
+            MockWebServiceMessage request = new MockWebServiceMessage();
+            request.setPayload(new ClassPathResource(VALID_MESSAGE, getClass()));
+            context = new DefaultMessageContext(request, new MockWebServiceMessageFactory());
+            Assert.assertTrue("Invalid response from interceptor", interceptor.handleRequest(context, null));
+        }
+        PooledXmlValidator validator = (PooledXmlValidator) interceptor.getValidator();
+        Assert.assertEquals("Invalid pool size", 1, validator.getPoolSize());
+        Assert.assertEquals("Invalid pool misses", 1, validator.getPoolMisses());
+        Assert.assertEquals("Invalid pool hits", 1, validator.getPoolHits());
+    }
+
     @Test
     public void testAxiom() throws Exception {
         AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
@@ -394,4 +438,79 @@ public class PayloadValidatingInterceptorTest {
         Assert.assertFalse("Context has response", context.hasResponse());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testStreamingValidationAxiom() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setPayloadCaching(false);
+        messageFactory.afterPropertiesSet();
+        interceptor.setStreamingValidation(true);
+
+        context = createAxiomContext(messageFactory, VALID_MESSAGE);
+        Assert.assertTrue("Invalid response from interceptor", interceptor.handleRequest(context, null));
+        DOMResult payload = new DOMResult();
+        transformer.transform(context.getRequest().getPayloadSource(), payload);
+        Assert.assertNotNull("Payload not read", payload.getNode().getFirstChild());
+        context.getResponse();
+        Assert.assertTrue("Invalid response from interceptor", interceptor.handleResponse(context, null));
+        Assert.assertFalse("Response has fault", ((SoapMessage) context.getResponse()).getSoapBody().hasFault());
+
+        context = createAxiomContext(messageFactory, INVALID_MESSAGE);
+        Assert.assertTrue("Invalid response from interceptor", interceptor.handleRequest(context, null));
+        transformer.transform(context.getRequest().getPayloadSource(), new DOMResult());
+        Assert.assertFalse("Invalid response from interceptor", interceptor.handleResponse(context, null));
+        SoapBody responseBody = ((SoapMessage) context.getResponse()).getSoapBody();
+        Assert.assertTrue("Response has no fault", responseBody.hasFault());
+    }
+
+    @Test
+    public void testStreamingValidationAxiomUnreadPayload() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setPayloadCaching(false);
+        messageFactory.afterPropertiesSet();
+        interceptor.setStreamingValidation(true);
+
+        context = createAxiomContext(messageFactory, INVALID_MESSAGE);
+        Assert.assertTrue("Invalid response from interceptor", interceptor.handleRequest(context, null));
+        context.getResponse();
+        Assert.assertFalse("Invalid response from interceptor", interceptor.handleResponse(context, null));
+        Assert.assertTrue("Response has no fault", ((SoapMessage) context.getResponse()).getSoapBody().hasFault());
+    }
+
+    @Test
+    public void testStreamingValidationAxiomInheritedPrefix() throws Exception {
+        interceptor.setStreamingValidation(true);
+        // the prefixes used in the xsi:type value are declared on the envelope only
+        String envelope = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/' " +
+                "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' " +
+                "xmlns:tns='http://www.springframework.org/spring-ws/test/validation'>" +
+                "<soapenv:Body><tns:product xsi:type='tns:ProductType'>" +
+                "<tns:number>42</tns:number><tns:size>10</tns:size>" +
+                "</tns:product></soapenv:Body></soapenv:Envelope>";
+        for (boolean payloadCaching : new boolean[]{true, false}) {
+            AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+            messageFactory.setPayloadCaching(payloadCaching);
+            messageFactory.afterPropertiesSet();
+            TransportInputStream tis =
+                    new MockTransportInputStream(new ByteArrayInputStream(envelope.getBytes("UTF-8")));
+            context = new DefaultMessageContext(messageFactory.createWebServiceMessage(tis), messageFactory);
+
+            Assert.assertTrue("Invalid response from interceptor", interceptor.handleRequest(context, null));
+            transformer.transform(context.getRequest().getPayloadSource(), new DOMResult());
+            context.getResponse();
+            Assert.assertTrue("Invalid response from interceptor", interceptor.handleResponse(context, null));
+            Assert.assertFalse("Response has fault", ((SoapMessage) context.getResponse()).getSoapBody().hasFault());
+        }
+    }
+
+    private MessageContext createAxiomContext(AxiomSoapMessageFactory messageFactory, String payloadResource)
+            throws Exception {
+        String payload = new String(
+                FileCopyUtils.copyToByteArray(getClass().getResourceAsStream(payloadResource)), "UTF-8");
+        payload = payload.substring(payload.indexOf("?>") + 2);
+        String envelope = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+                "<soapenv:Body>" + payload + "</soapenv:Body></soapenv:Envelope>";
+        TransportInputStream tis = new MockTransportInputStream(new ByteArrayInputStream(envelope.getBytes("UTF-8")));
+        return new DefaultMessageContext(messageFactory.createWebServiceMessage(tis), messageFactory);
+    }
+
+}
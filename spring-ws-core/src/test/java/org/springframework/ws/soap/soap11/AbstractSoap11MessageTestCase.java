@@ -34,6 +34,7 @@ import org.springframework.ws.transport.MockTransportOutputStream;
 import org.springframework.xml.transform.StringSource;
 
 import junit.framework.Assert;
+import org.junit.Test;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -75,6 +76,26 @@ public abstract class AbstractSoap11MessageTestCase extends AbstractSoapMessageT
         assertNotNull("Invalid accept header", resultAccept);
     }
 
+    @Test
+    public void testWriteToTransportOutputStreamHeadersOnly() throws Exception {
+        SoapBody body = soapMessage.getSoapBody();
+        String payload = "<payload xmlns='http://www.springframework.org' />";
+        transformer.transform(new StringSource(payload), body.getPayloadResult());
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        MockTransportOutputStream tos = new MockTransportOutputStream(bos);
+        tos.setHeadersOnly(true);
+        soapMessage.writeTo(tos);
+        assertEquals("Message written", 0, bos.size());
+        String contentType = (String) tos.getHeaders().get("Content-Type");
+        assertTrue("Invalid Content-Type set", contentType.indexOf(SoapVersion.SOAP_11.getContentType()) != -1);
+
+        soapMessage.writeTo(bos);
+        assertXMLEqual(
+                "<Envelope xmlns='http://schemas.xmlsoap.org/soap/envelope/'><Body><payload xmlns='http://www.springframework.org' /></Body></Envelope>",
+                bos.toString("UTF-8"));
+    }
+
     @Override
     public void testWriteToTransportResponseAttachment() throws Exception {
         InputStreamSource inputStreamSource = new ByteArrayResource("contents".getBytes("UTF-8"));
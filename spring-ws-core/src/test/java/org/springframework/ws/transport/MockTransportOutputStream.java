@@ -29,6 +29,8 @@ public class MockTransportOutputStream extends TransportOutputStream {
 
     private OutputStream outputStream;
 
+    private boolean headersOnly;
+
     public MockTransportOutputStream(OutputStream outputStream) {
         Assert.notNull(outputStream, "outputStream must not be null");
         this.outputStream = outputStream;
@@ -47,4 +49,13 @@ public class MockTransportOutputStream extends TransportOutputStream {
     public void addHeader(String name, String value) throws IOException {
         headers.put(name, value);
     }
+
+    @Override
+    public boolean isHeadersOnly() {
+        return headersOnly;
+    }
+
+    public void setHeadersOnly(boolean headersOnly) {
+        this.headersOnly = headersOnly;
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,11 @@
 package org.springframework.ws.transport.http;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
@@ -36,6 +38,7 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.WebServiceMessage;
@@ -59,6 +62,7 @@ import org.mortbay.jetty.servlet.ServletHolder;
 
 import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
 
@@ -119,6 +123,9 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
         if (jettyServer.isRunning()) {
             jettyServer.stop();
         }
+        if (messageSender instanceof DisposableBean) {
+            ((DisposableBean) messageSender).destroy();
+        }
     }
 
     @Test
@@ -138,6 +145,13 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
         validateNonResponse(new MyServlet());
     }
 
+    @Test
+    public void testSendAndReceiveNoResponseInvalidContentSize() throws Exception {
+        MyServlet servlet = new MyServlet();
+        servlet.setContentLength(-1);
+        validateNonResponse(servlet);
+    }
+
     @Test
     public void testSendAndReceiveNoResponseAccepted() throws Exception {
         MyServlet servlet = new MyServlet();
@@ -153,6 +167,24 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
         validateResponse(servlet);
     }
 
+    @Test
+    public void testSendCompressedAndReceive() throws Exception {
+        messageSender.setCompressRequests(true);
+        messageSender.setCompressionThreshold(0);
+        MyServlet servlet = new MyServlet();
+        servlet.setResponse(true);
+        servlet.setRequestGzip(true);
+        validateResponse(servlet);
+    }
+
+    @Test
+    public void testSendCompressedBelowThresholdAndReceive() throws Exception {
+        messageSender.setCompressRequests(true);
+        MyServlet servlet = new MyServlet();
+        servlet.setResponse(true);
+        validateResponse(servlet);
+    }
+
     @Test
     public void testSendAndReceiveInvalidContentSize() throws Exception {
         MyServlet servlet = new MyServlet();
@@ -251,6 +283,8 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
 
         private boolean gzip;
 
+        private boolean requestGzip;
+
         public void setResponseStatus(int responseStatus) {
             this.responseStatus = responseStatus;
         }
@@ -267,14 +301,28 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
             this.gzip = gzip;
         }
 
+        public void setRequestGzip(boolean requestGzip) {
+            this.requestGzip = requestGzip;
+        }
+
         @Override
         protected void doPost(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse)
                 throws ServletException, IOException {
             try {
                 assertEquals("Invalid header value received on server side", REQUEST_HEADER_VALUE,
                         httpServletRequest.getHeader(REQUEST_HEADER_NAME));
+                InputStream requestInputStream = httpServletRequest.getInputStream();
+                if (requestGzip) {
+                    assertEquals("Invalid Content-Encoding header value received on server side", "gzip",
+                            httpServletRequest.getHeader("Content-Encoding"));
+                    requestInputStream = new GZIPInputStream(requestInputStream);
+                }
+                else {
+                    assertNull("Content-Encoding header received on server side",
+                            httpServletRequest.getHeader("Content-Encoding"));
+                }
                 String receivedRequest =
-                        new String(FileCopyUtils.copyToByteArray(httpServletRequest.getInputStream()), "UTF-8");
+                        new String(FileCopyUtils.copyToByteArray(requestInputStream), "UTF-8");
                 assertXMLEqual("Invalid request received", SOAP_REQUEST, receivedRequest);
                 if (gzip) {
                     assertEquals("Invalid Accept-Encoding header value received on server side", "gzip",
@@ -300,6 +348,10 @@ public abstract class AbstractHttpWebServiceMessageSenderIntegrationTestCase {
                     }
                     FileCopyUtils.copy(SOAP_RESPONSE.getBytes("UTF-8"), os);
                 }
+                else if (contentLength != null && contentLength < 0) {
+                    // commit the response without a Content-Length, resulting in an empty chunked response
+                    httpServletResponse.flushBuffer();
+                }
             }
             catch (Exception ex) {
                 throw new ServletException(ex);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,25 +16,40 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.xml.namespace.QName;
 import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
 
 import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.MockWebServiceMessage;
-import org.springframework.ws.WebServiceMessage;
+import org.springframework.ws.mime.Attachment;
+import org.springframework.ws.soap.axiom.AxiomSoapMessage;
+import org.springframework.ws.soap.axiom.AxiomSoapMessageFactory;
 import org.springframework.ws.soap.saaj.SaajSoapMessage;
 import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.MockTransportInputStream;
 import org.springframework.ws.transport.WebServiceConnection;
 import org.springframework.ws.transport.support.FreePortScanner;
+import org.springframework.xml.transform.StringResult;
+import org.springframework.xml.transform.StringSource;
 
 import org.apache.commons.httpclient.ConnectTimeoutException;
 import org.apache.commons.httpclient.URIException;
@@ -43,6 +58,10 @@ import org.mortbay.jetty.Server;
 import org.mortbay.jetty.servlet.Context;
 import org.mortbay.jetty.servlet.ServletHolder;
 
+import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
 public class CommonsHttpMessageSenderIntegrationTest extends AbstractHttpWebServiceMessageSenderIntegrationTestCase {
 
     @Override
@@ -101,13 +120,172 @@ public class CommonsHttpMessageSenderIntegrationTest extends AbstractHttpWebServ
 
     }
 
+    @Test
+    public void testStreamingRequests() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            builder.append("<item>").append(i).append("</item>");
+        }
+        SOAPMessage request = messageFactory.createMessage();
+        TransformerFactory.newInstance().newTransformer()
+                .transform(new StringSource("<request>" + builder + "</request>"),
+                        new DOMResult(request.getSOAPBody()));
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        EchoServlet servlet = new EchoServlet();
+        jettyContext.addServlet(new ServletHolder(servlet), "/");
+        jettyServer.start();
+        try {
+            CommonsHttpMessageSender messageSender = new CommonsHttpMessageSender();
+            messageSender.setStreamingRequests(true);
+            assertEchoed(messageSender, port, request, messageFactory);
+            assertEquals("Request not chunked", "chunked", servlet.transferEncoding);
+            assertEquals("Request has Content-Length", -1, servlet.contentLength);
+
+            messageSender.setCompressRequests(true);
+            messageSender.setCompressionThreshold(0);
+            assertEchoed(messageSender, port, request, messageFactory);
+            assertEquals("Request not chunked", "chunked", servlet.transferEncoding);
+            assertEquals("Request not compressed", "gzip", servlet.contentEncoding);
+        }
+        finally {
+            if (jettyServer.isRunning()) {
+                jettyServer.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingRequestsWithAttachment() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        SOAPMessage saajMessage = messageFactory.createMessage();
+        saajMessage.getSOAPBody().addBodyElement(new QName("http://springframework.org/spring-ws", "request"));
+        SaajSoapMessage request = new SaajSoapMessage(saajMessage);
+        request.addAttachment("attachment", new ByteArrayResource("Attachment".getBytes("UTF-8")), "text/plain");
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        EchoServlet servlet = new EchoServlet();
+        jettyContext.addServlet(new ServletHolder(servlet), "/");
+        jettyServer.start();
+        try {
+            CommonsHttpMessageSender messageSender = new CommonsHttpMessageSender();
+            messageSender.setStreamingRequests(true);
+            WebServiceConnection connection = messageSender.createConnection(new URI("http://localhost:" + port));
+            try {
+                connection.send(request);
+                assertEquals("Request not chunked", "chunked", servlet.transferEncoding);
+                SaajSoapMessage response =
+                        (SaajSoapMessage) connection.receive(new SaajSoapMessageFactory(messageFactory));
+                assertNotNull("No response", response);
+                Attachment attachment = response.getAttachment("attachment");
+                assertNotNull("No attachment", attachment);
+                assertEquals("Invalid attachment", "Attachment",
+                        FileCopyUtils.copyToString(new InputStreamReader(attachment.getInputStream(), "UTF-8")));
+            }
+            finally {
+                connection.close();
+            }
+        }
+        finally {
+            if (jettyServer.isRunning()) {
+                jettyServer.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingRequestsWithoutPayloadCaching() throws Exception {
+        AxiomSoapMessageFactory messageFactory = new AxiomSoapMessageFactory();
+        messageFactory.setPayloadCaching(false);
+        messageFactory.afterPropertiesSet();
+        String envelope = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
+                "<soapenv:Body><request xmlns='http://springframework.org/spring-ws'/></soapenv:Body>" +
+                "</soapenv:Envelope>";
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Content-Type", "text/xml");
+        // a message read without payload caching can only be written once
+        AxiomSoapMessage request = messageFactory.createWebServiceMessage(
+                new MockTransportInputStream(new ByteArrayInputStream(envelope.getBytes("UTF-8")), headers));
+        request.addAttachment("attachment", new ByteArrayResource("Attachment".getBytes("UTF-8")), "text/plain");
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        EchoServlet servlet = new EchoServlet();
+        jettyContext.addServlet(new ServletHolder(servlet), "/");
+        jettyServer.start();
+        try {
+            CommonsHttpMessageSender messageSender = new CommonsHttpMessageSender();
+            messageSender.setStreamingRequests(true);
+            WebServiceConnection connection = messageSender.createConnection(new URI("http://localhost:" + port));
+            try {
+                connection.send(request);
+                assertEquals("Request not chunked", "chunked", servlet.transferEncoding);
+                AxiomSoapMessage response = (AxiomSoapMessage) connection.receive(messageFactory);
+                assertNotNull("No response", response);
+                StringResult payload = new StringResult();
+                TransformerFactory.newInstance().newTransformer().transform(response.getPayloadSource(), payload);
+                assertXMLEqual("Invalid response", "<request xmlns='http://springframework.org/spring-ws'/>",
+                        payload.toString());
+                Attachment attachment = response.getAttachment("attachment");
+                assertNotNull("No attachment", attachment);
+                assertEquals("Invalid attachment", "Attachment",
+                        FileCopyUtils.copyToString(new InputStreamReader(attachment.getInputStream(), "UTF-8")));
+            }
+            finally {
+                connection.close();
+            }
+        }
+        finally {
+            if (jettyServer.isRunning()) {
+                jettyServer.stop();
+            }
+        }
+    }
+
+    private void assertEchoed(CommonsHttpMessageSender messageSender, int port, SOAPMessage request,
+                              MessageFactory messageFactory) throws Exception {
+        WebServiceConnection connection = messageSender.createConnection(new URI("http://localhost:" + port));
+        try {
+            SaajSoapMessage requestMessage = new SaajSoapMessage(request);
+            connection.send(requestMessage);
+            SaajSoapMessage response =
+                    (SaajSoapMessage) connection.receive(new SaajSoapMessageFactory(messageFactory));
+            assertNotNull("No response", response);
+            StringResult expected = new StringResult();
+            StringResult actual = new StringResult();
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.transform(requestMessage.getPayloadSource(), expected);
+            transformer.transform(response.getPayloadSource(), actual);
+            assertXMLEqual("Invalid response", expected.toString(), actual.toString());
+        }
+        finally {
+            connection.close();
+        }
+    }
+
     private class EchoServlet extends HttpServlet {
 
+        private String transferEncoding;
+
+        private int contentLength;
+
+        private String contentEncoding;
+
         @Override
         protected void doPost(HttpServletRequest request, HttpServletResponse response)
                 throws ServletException, IOException {
-            response.setContentType("text/xml");
-            FileCopyUtils.copy(request.getInputStream(), response.getOutputStream());
+            transferEncoding = request.getHeader("Transfer-Encoding");
+            contentLength = request.getContentLength();
+            contentEncoding = request.getHeader("Content-Encoding");
+            InputStream inputStream = request.getInputStream();
+            if ("gzip".equals(contentEncoding)) {
+                inputStream = new GZIPInputStream(inputStream);
+            }
+            response.setContentType(request.getContentType());
+            FileCopyUtils.copy(inputStream, response.getOutputStream());
 
         }
     }
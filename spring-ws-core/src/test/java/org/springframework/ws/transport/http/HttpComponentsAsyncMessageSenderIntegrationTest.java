@@ -0,0 +1,103 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.xml.soap.MessageFactory;
+
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.AsyncWebServiceConnection;
+import org.springframework.ws.transport.ExchangeCallback;
+import org.springframework.ws.transport.support.FreePortScanner;
+
+import org.junit.Test;
+import org.mortbay.jetty.Server;
+import org.mortbay.jetty.servlet.Context;
+import org.mortbay.jetty.servlet.ServletHolder;
+
+import static org.junit.Assert.*;
+
+public class HttpComponentsAsyncMessageSenderIntegrationTest
+        extends AbstractHttpWebServiceMessageSenderIntegrationTestCase {
+
+    @Override
+    protected AbstractHttpWebServiceMessageSender createMessageSender() {
+        return new HttpComponentsAsyncMessageSender();
+    }
+
+    @Test
+    public void testExchangeDoesNotBlock() throws Exception {
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        final CountDownLatch responseLatch = new CountDownLatch(1);
+        jettyContext.addServlet(new ServletHolder(new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest request, HttpServletResponse response)
+                    throws ServletException, IOException {
+                try {
+                    responseLatch.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            }
+        }), "/");
+        jettyServer.start();
+        HttpComponentsAsyncMessageSender messageSender = new HttpComponentsAsyncMessageSender();
+        messageSender.afterPropertiesSet();
+        try {
+            AsyncWebServiceConnection connection =
+                    messageSender.createConnection(new URI("http", null, "localhost", port, null, null, null));
+            SaajSoapMessageFactory messageFactory = new SaajSoapMessageFactory(MessageFactory.newInstance());
+            connection.send(messageFactory.createWebServiceMessage());
+            final CountDownLatch exchangeLatch = new CountDownLatch(1);
+            final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+            connection.exchange(new ExchangeCallback() {
+                public void completed() {
+                    exchangeLatch.countDown();
+                }
+
+                public void failed(Exception ex) {
+                    failure.set(ex);
+                    exchangeLatch.countDown();
+                }
+            });
+            assertEquals("Exchange completed before response was sent", 1, exchangeLatch.getCount());
+            responseLatch.countDown();
+            assertTrue("Exchange not completed", exchangeLatch.await(10, TimeUnit.SECONDS));
+            assertNull("Exchange failed", failure.get());
+            assertFalse("Connection has error", connection.hasError());
+            assertNull("Response", connection.receive(messageFactory));
+            connection.close();
+        }
+        finally {
+            messageSender.destroy();
+            jettyServer.stop();
+        }
+    }
+
+}
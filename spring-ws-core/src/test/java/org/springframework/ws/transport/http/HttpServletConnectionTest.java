@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,11 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.MimeHeaders;
 import javax.xml.soap.SOAPConstants;
@@ -25,6 +30,7 @@ import javax.xml.transform.TransformerFactory;
 
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.ws.soap.saaj.SaajSoapMessage;
 import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
 import org.springframework.xml.transform.StringResult;
@@ -88,6 +94,25 @@ public class HttpServletConnectionTest {
         Assert.assertEquals("Response has invalid header values", HEADER_VALUE, headerValues[0]);
     }
 
+    @Test
+    public void testReceiveCompressed() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(bos);
+        gzipOutputStream.write(SOAP_CONTENT.getBytes("UTF-8"));
+        gzipOutputStream.close();
+        byte[] bytes = bos.toByteArray();
+        httpServletRequest.addHeader("Content-Type", "text/xml");
+        httpServletRequest.addHeader("Content-Length", Integer.toString(bytes.length));
+        httpServletRequest.addHeader("Content-Encoding", "gzip");
+        httpServletRequest.setContent(bytes);
+        SaajSoapMessage message = (SaajSoapMessage) connection.receive(messageFactory);
+        Assert.assertNotNull("No message received", message);
+        StringResult result = new StringResult();
+        Transformer transformer = transformerFactory.newTransformer();
+        transformer.transform(message.getPayloadSource(), result);
+        assertXMLEqual("Invalid message", CONTENT, result.toString());
+    }
+
     @Test
     public void testSend() throws Exception {
         SaajSoapMessage message = (SaajSoapMessage) messageFactory.createWebServiceMessage();
@@ -103,4 +128,100 @@ public class HttpServletConnectionTest {
         assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSendCompressed() throws Exception {
+        CompressionStatistics statistics = new CompressionStatistics();
+        connection.setResponseCompression(0, Deflater.BEST_SPEED, new String[]{"text/xml"}, statistics);
+        httpServletRequest.addHeader("Accept-Encoding", "GZIP, deflate");
+
+        connection.send(createMessage());
+
+        Assert.assertEquals("Invalid Content-Encoding header", "gzip",
+                httpServletResponse.getHeader("Content-Encoding"));
+        Assert.assertEquals("Invalid Vary header", "Accept-Encoding", httpServletResponse.getHeader("Vary"));
+        Assert.assertNull("Content-Length header set", httpServletResponse.getHeader("Content-Length"));
+        byte[] content = FileCopyUtils.copyToByteArray(
+                new GZIPInputStream(new ByteArrayInputStream(httpServletResponse.getContentAsByteArray())));
+        assertXMLEqual("Invalid content", SOAP_CONTENT, new String(content, "UTF-8"));
+        Assert.assertEquals("Invalid compressed count", 1, statistics.getCompressedCount());
+        Assert.assertEquals("Invalid uncompressed bytes", content.length, statistics.getUncompressedBytes());
+        Assert.assertEquals("Invalid compressed bytes", httpServletResponse.getContentAsByteArray().length,
+                statistics.getCompressedBytes());
+    }
+
+    @Test
+    public void testSendCompressedBelowThreshold() throws Exception {
+        CompressionStatistics statistics = new CompressionStatistics();
+        connection.setResponseCompression(64 * 1024, Deflater.DEFAULT_COMPRESSION, new String[0], statistics);
+        httpServletRequest.addHeader("Accept-Encoding", "gzip");
+
+        connection.send(createMessage());
+
+        Assert.assertNull("Content-Encoding header set", httpServletResponse.getHeader("Content-Encoding"));
+        assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
+        Assert.assertEquals("Invalid compressed count", 0, statistics.getCompressedCount());
+        Assert.assertEquals("Invalid uncompressed count", 1, statistics.getUncompressedCount());
+    }
+
+    @Test
+    public void testSendCompressedNotAccepted() throws Exception {
+        CompressionStatistics statistics = new CompressionStatistics();
+        connection.setResponseCompression(0, Deflater.DEFAULT_COMPRESSION, new String[0], statistics);
+
+        connection.send(createMessage());
+
+        Assert.assertNull("Content-Encoding header set", httpServletResponse.getHeader("Content-Encoding"));
+        Assert.assertNull("Vary header set", httpServletResponse.getHeader("Vary"));
+        assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
+        Assert.assertEquals("Invalid uncompressed count", 0, statistics.getUncompressedCount());
+    }
+
+    @Test
+    public void testSendCompressedRejected() throws Exception {
+        CompressionStatistics statistics = new CompressionStatistics();
+        connection.setResponseCompression(0, Deflater.DEFAULT_COMPRESSION, new String[0], statistics);
+        httpServletRequest.addHeader("Accept-Encoding", "deflate, gzip;q=0, *");
+
+        connection.send(createMessage());
+
+        Assert.assertNull("Content-Encoding header set", httpServletResponse.getHeader("Content-Encoding"));
+        assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
+        Assert.assertEquals("Invalid uncompressed count", 0, statistics.getUncompressedCount());
+    }
+
+    @Test
+    public void testSendCompressedAcceptedByWildcard() throws Exception {
+        connection.setResponseCompression(0, Deflater.DEFAULT_COMPRESSION, new String[0],
+                new CompressionStatistics());
+        httpServletRequest.addHeader("Accept-Encoding", "identity;q=0.5, *;q=0.1");
+
+        connection.send(createMessage());
+
+        Assert.assertEquals("Invalid Content-Encoding header", "gzip",
+                httpServletResponse.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void testSendCompressedOtherContentType() throws Exception {
+        connection.setResponseCompression(0, Deflater.DEFAULT_COMPRESSION, new String[]{"application/soap+xml"},
+                new CompressionStatistics());
+        httpServletRequest.addHeader("Accept-Encoding", "gzip");
+
+        connection.send(createMessage());
+
+        Assert.assertNull("Content-Encoding header set", httpServletResponse.getHeader("Content-Encoding"));
+        Assert.assertNull("Vary header set", httpServletResponse.getHeader("Vary"));
+        Assert.assertEquals("Invalid Content-Length header",
+                Integer.toString(httpServletResponse.getContentAsByteArray().length),
+                httpServletResponse.getHeader("Content-Length"));
+        assertXMLEqual("Invalid content", SOAP_CONTENT, httpServletResponse.getContentAsString());
+    }
+
+    private SaajSoapMessage createMessage() throws Exception {
+        SaajSoapMessage message = (SaajSoapMessage) messageFactory.createWebServiceMessage();
+        Transformer transformer = transformerFactory.newTransformer();
+        transformer.transform(new StringSource(CONTENT), message.getPayloadResult());
+        return message;
+    }
+
+}
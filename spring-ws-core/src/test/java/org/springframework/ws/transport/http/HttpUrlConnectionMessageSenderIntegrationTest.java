@@ -16,6 +16,30 @@
 
 package org.springframework.ws.transport.http;
 
+import java.io.IOException;
+import java.net.URI;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.xml.namespace.QName;
+import javax.xml.soap.MessageFactory;
+import javax.xml.soap.SOAPMessage;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.ws.soap.saaj.SaajSoapMessage;
+import org.springframework.ws.soap.saaj.SaajSoapMessageFactory;
+import org.springframework.ws.transport.FaultAwareWebServiceConnection;
+import org.springframework.ws.transport.WebServiceConnection;
+import org.springframework.ws.transport.support.FreePortScanner;
+
+import org.junit.Test;
+import org.mortbay.jetty.Server;
+import org.mortbay.jetty.servlet.Context;
+import org.mortbay.jetty.servlet.ServletHolder;
+
+import static org.junit.Assert.*;
+
 public class HttpUrlConnectionMessageSenderIntegrationTest
         extends AbstractHttpWebServiceMessageSenderIntegrationTestCase {
 
@@ -23,4 +47,129 @@ public class HttpUrlConnectionMessageSenderIntegrationTest
     protected AbstractHttpWebServiceMessageSender createMessageSender() {
         return new HttpUrlConnectionMessageSender();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReuseConnections() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        EchoServlet servlet = new EchoServlet();
+        jettyContext.addServlet(new ServletHolder(servlet), "/");
+        jettyServer.start();
+        try {
+            HttpUrlConnectionMessageSender messageSender = new HttpUrlConnectionMessageSender();
+            messageSender.setReuseConnections(true);
+
+            servlet.status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            WebServiceConnection connection = messageSender.createConnection(new URI("http://localhost:" + port));
+            try {
+                connection.send(new SaajSoapMessage(createRequest(messageFactory)));
+                assertTrue("No error", ((FaultAwareWebServiceConnection) connection).hasError());
+            }
+            finally {
+                connection.close();
+            }
+            int remotePort = servlet.remotePort;
+
+            servlet.status = HttpServletResponse.SC_OK;
+            connection = messageSender.createConnection(new URI("http://localhost:" + port));
+            try {
+                connection.send(new SaajSoapMessage(createRequest(messageFactory)));
+                assertNotNull("No response", connection.receive(new SaajSoapMessageFactory(messageFactory)));
+            }
+            finally {
+                connection.close();
+            }
+            assertEquals("Connection not reused", remotePort, servlet.remotePort);
+            KeepAliveStatistics statistics = messageSender.getKeepAliveStatistics();
+            assertEquals("Invalid kept alive count", 2, statistics.getKeptAliveCount());
+            assertEquals("Invalid disconnected count", 0, statistics.getDisconnectedCount());
+            assertTrue("Error response not drained", statistics.getDrainedBytes() > 0);
+        }
+        finally {
+            if (jettyServer.isRunning()) {
+                jettyServer.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingRequests() throws Exception {
+        MessageFactory messageFactory = MessageFactory.newInstance();
+        int port = FreePortScanner.getFreePort();
+        Server jettyServer = new Server(port);
+        Context jettyContext = new Context(jettyServer, "/");
+        EchoServlet servlet = new EchoServlet();
+        jettyContext.addServlet(new ServletHolder(servlet), "/");
+        jettyServer.start();
+        try {
+            HttpUrlConnectionMessageSender messageSender = new HttpUrlConnectionMessageSender();
+            messageSender.setStreamingRequests(true);
+            assertEchoed(messageSender, port, messageFactory);
+            assertEquals("Request not chunked", "chunked", servlet.transferEncoding);
+            assertEquals("Request has Content-Length", -1, servlet.contentLength);
+
+            messageSender.setStreamingThreshold(1024 * 1024);
+            assertEchoed(messageSender, port, messageFactory);
+            assertNull("Request chunked", servlet.transferEncoding);
+            assertTrue("Request has no Content-Length", servlet.contentLength > 0);
+        }
+        finally {
+            if (jettyServer.isRunning()) {
+                jettyServer.stop();
+            }
+        }
+    }
+
+    private void assertEchoed(HttpUrlConnectionMessageSender messageSender, int port, MessageFactory messageFactory)
+            throws Exception {
+        WebServiceConnection connection = messageSender.createConnection(new URI("http://localhost:" + port));
+        try {
+            connection.send(new SaajSoapMessage(createRequest(messageFactory)));
+            SaajSoapMessage response =
+                    (SaajSoapMessage) connection.receive(new SaajSoapMessageFactory(messageFactory));
+            assertNotNull("No response", response);
+            assertEquals("Invalid response", "request",
+                    response.getSaajMessage().getSOAPBody().getFirstChild().getLocalName());
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private SOAPMessage createRequest(MessageFactory messageFactory) throws Exception {
+        SOAPMessage request = messageFactory.createMessage();
+        request.getSOAPBody().addBodyElement(new QName("http://springframework.org/spring-ws", "request"));
+        return request;
+    }
+
+    private class EchoServlet extends HttpServlet {
+
+        private int status = HttpServletResponse.SC_OK;
+
+        private String transferEncoding;
+
+        private int contentLength;
+
+        private int remotePort;
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response)
+                throws ServletException, IOException {
+            transferEncoding = request.getHeader("Transfer-Encoding");
+            contentLength = request.getContentLength();
+            remotePort = request.getRemotePort();
+            response.setStatus(status);
+            if (status == HttpServletResponse.SC_OK) {
+                response.setContentType("text/xml");
+                FileCopyUtils.copy(request.getInputStream(), response.getOutputStream());
+            }
+            else {
+                response.setContentType("text/plain");
+                FileCopyUtils.copy("Internal error".getBytes("UTF-8"), response.getOutputStream());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.ws.transport.http;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MonitoringClientConnectionManagerTest {
+
+    private MonitoringClientConnectionManager connectionManager;
+
+    private HttpRoute route;
+
+    @Before
+    public void setUp() throws Exception {
+        connectionManager = new MonitoringClientConnectionManager();
+        connectionManager.setMaxTotal(10);
+        route = new HttpRoute(new HttpHost("www.example.com", 80, "http"));
+        connectionManager.setMaxPerRoute(route, 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connectionManager.shutdown();
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        ManagedClientConnection connection =
+                connectionManager.requestConnection(route, null).getConnection(1, TimeUnit.SECONDS);
+        ConnectionPoolStatistics statistics = connectionManager.getStatistics();
+        assertEquals("Invalid leased count", 1, statistics.getLeased());
+        assertEquals("Invalid route leased count", 1, statistics.getStats(route).getLeased());
+        try {
+            connectionManager.requestConnection(route, null).getConnection(50, TimeUnit.MILLISECONDS);
+            fail("ConnectionPoolTimeoutException expected");
+        }
+        catch (ConnectionPoolTimeoutException ex) {
+            // expected
+        }
+        connectionManager.releaseConnection(connection, 0, TimeUnit.MILLISECONDS);
+
+        assertEquals("Invalid lease count", 2, statistics.getLeaseCount());
+        assertEquals("Invalid lease timeout count", 1, statistics.getLeaseTimeoutCount());
+        assertTrue("Invalid max lease wait", statistics.getMaxLeaseWaitMillis() >= 40);
+        assertEquals("Invalid route lease count", 2, statistics.getLeaseCount(route));
+        assertTrue("Route not registered", statistics.getRoutes().contains(route));
+        assertEquals("Invalid leased count", 0, statistics.getLeased());
+
+        statistics.reset();
+        assertEquals("Invalid lease count", 0, statistics.getLeaseCount());
+        assertEquals("Invalid route lease count", 0, statistics.getLeaseCount(route));
+    }
+
+    @Test
+    public void testAdaptiveSizing() throws Exception {
+        connectionManager.setAdaptiveSizing(20, 2);
+        ManagedClientConnection connection1 =
+                connectionManager.requestConnection(route, null).getConnection(1, TimeUnit.SECONDS);
+        try {
+            connectionManager.requestConnection(route, null).getConnection(50, TimeUnit.MILLISECONDS);
+            fail("ConnectionPoolTimeoutException expected");
+        }
+        catch (ConnectionPoolTimeoutException ex) {
+            // expected
+        }
+        assertEquals("Maximum not grown", 2, connectionManager.getMaxPerRoute(route));
+
+        ManagedClientConnection connection2 =
+                connectionManager.requestConnection(route, null).getConnection(1, TimeUnit.SECONDS);
+        try {
+            connectionManager.requestConnection(route, null).getConnection(50, TimeUnit.MILLISECONDS);
+            fail("ConnectionPoolTimeoutException expected");
+        }
+        catch (ConnectionPoolTimeoutException ex) {
+            // expected
+        }
+        assertEquals("Maximum grown beyond limit", 2, connectionManager.getMaxPerRoute(route));
+        connectionManager.releaseConnection(connection1, 0, TimeUnit.MILLISECONDS);
+        connectionManager.releaseConnection(connection2, 0, TimeUnit.MILLISECONDS);
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2012 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,16 @@ package org.springframework.ws.transport.http;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
 import org.springframework.ws.FaultAwareWebServiceMessage;
 import org.springframework.ws.InvalidXmlException;
 import org.springframework.ws.NoEndpointFoundException;
@@ -29,6 +35,7 @@ import org.springframework.ws.WebServiceMessageFactory;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.transport.WebServiceMessageReceiver;
 
+import org.easymock.IAnswer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -201,6 +208,170 @@ public class WebServiceMessageReceiverHandlerAdapterTest {
         verifyMockControls();
     }
 
+    @Test
+    public void testHandlePostAsync() throws Exception {
+        final StubAsyncWebRequest asyncWebRequest = new StubAsyncWebRequest(httpRequest, httpResponse);
+        adapter = new WebServiceMessageReceiverHandlerAdapter() {
+            @Override
+            protected AsyncWebRequest createAsyncWebRequest(HttpServletRequest httpServletRequest,
+                                                            HttpServletResponse httpServletResponse) {
+                return asyncWebRequest;
+            }
+        };
+        adapter.setMessageFactory(factoryMock);
+        adapter.setAsyncDispatch(true);
+        SimpleAsyncTaskExecutor asyncTaskExecutor = new SimpleAsyncTaskExecutor();
+        asyncTaskExecutor.setConcurrencyLimit(1);
+        adapter.setAsyncTaskExecutor(asyncTaskExecutor);
+        httpRequest.setMethod(HttpTransportConstants.METHOD_POST);
+        httpRequest.setContent(REQUEST.getBytes("UTF-8"));
+        httpRequest.setContentType("text/xml; charset=\"utf-8\"");
+        httpRequest.setCharacterEncoding("UTF-8");
+        expect(factoryMock.createWebServiceMessage(isA(InputStream.class))).andReturn(requestMock);
+        expect(factoryMock.createWebServiceMessage()).andReturn(responseMock);
+        expect(responseMock.hasFault()).andReturn(false);
+        responseMock.writeTo(isA(OutputStream.class));
+
+        replayMockControls();
+        final CountDownLatch received = new CountDownLatch(1);
+        final Thread containerThread = Thread.currentThread();
+        WebServiceMessageReceiver endpoint = new WebServiceMessageReceiver() {
+
+            public void receive(MessageContext messageContext) throws Exception {
+                Assert.assertNotSame("Message handled by container thread", containerThread, Thread.currentThread());
+                messageContext.getResponse();
+                received.countDown();
+            }
+        };
+
+        adapter.handle(httpRequest, httpResponse, endpoint);
+        Assert.assertTrue("Asynchronous processing not started", asyncWebRequest.started);
+        Assert.assertTrue("Request not dispatched", asyncWebRequest.dispatched.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals("Message not received", 0, received.getCount());
+
+        adapter.handle(httpRequest, httpResponse, endpoint);
+        Assert.assertEquals("Invalid status code on response", HttpServletResponse.SC_OK, httpResponse.getStatus());
+        verifyMockControls();
+    }
+
+    @Test
+    public void testHandlePostAsyncTimeout() throws Exception {
+        final StubAsyncWebRequest asyncWebRequest = new StubAsyncWebRequest(httpRequest, httpResponse);
+        adapter = new WebServiceMessageReceiverHandlerAdapter() {
+            @Override
+            protected AsyncWebRequest createAsyncWebRequest(HttpServletRequest httpServletRequest,
+                                                            HttpServletResponse httpServletResponse) {
+                return asyncWebRequest;
+            }
+        };
+        adapter.setMessageFactory(factoryMock);
+        adapter.setAsyncDispatch(true);
+        httpRequest.setMethod(HttpTransportConstants.METHOD_POST);
+        httpRequest.setContent(REQUEST.getBytes("UTF-8"));
+        httpRequest.setContentType("text/xml; charset=\"utf-8\"");
+        httpRequest.setCharacterEncoding("UTF-8");
+        expect(factoryMock.createWebServiceMessage(isA(InputStream.class))).andReturn(requestMock);
+        expect(factoryMock.createWebServiceMessage()).andReturn(responseMock);
+        expect(responseMock.hasFault()).andReturn(false);
+        responseMock.writeTo(isA(OutputStream.class));
+        expectLastCall().andAnswer(new IAnswer<Object>() {
+            public Object answer() throws Throwable {
+                ((OutputStream) getCurrentArguments()[0]).write(new byte[]{'<', '/', '>'});
+                return null;
+            }
+        }).anyTimes();
+
+        replayMockControls();
+        final CountDownLatch receiving = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CountDownLatch timedOut = new CountDownLatch(1);
+        final CountDownLatch handled = new CountDownLatch(1);
+        SimpleAsyncTaskExecutor asyncTaskExecutor = new SimpleAsyncTaskExecutor() {
+            @Override
+            public void execute(final Runnable task, long startTimeout) {
+                super.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            task.run();
+                        }
+                        finally {
+                            handled.countDown();
+                        }
+                    }
+                }, startTimeout);
+            }
+        };
+        asyncTaskExecutor.setConcurrencyLimit(1);
+        adapter.setAsyncTaskExecutor(asyncTaskExecutor);
+        WebServiceMessageReceiver endpoint = new WebServiceMessageReceiver() {
+
+            public void receive(MessageContext messageContext) throws Exception {
+                receiving.countDown();
+                try {
+                    new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+                timedOut.await(10, TimeUnit.SECONDS);
+                messageContext.getResponse();
+            }
+        };
+
+        adapter.handle(httpRequest, httpResponse, endpoint);
+        Assert.assertTrue("Message not received", receiving.await(10, TimeUnit.SECONDS));
+        asyncWebRequest.timeoutHandler.run();
+        // the container completes the request after the timeout
+        asyncWebRequest.completed = true;
+        Assert.assertTrue("Handling thread not interrupted", interrupted.await(10, TimeUnit.SECONDS));
+        timedOut.countDown();
+        Assert.assertTrue("Message not handled", handled.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals("Request dispatched after timeout", 1, asyncWebRequest.dispatched.getCount());
+        Assert.assertEquals("Invalid status code on response", HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                httpResponse.getStatus());
+        Assert.assertEquals("Response written after timeout", 0, httpResponse.getContentAsByteArray().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAsyncDispatchRequiresExecutor() throws Exception {
+        adapter.setMessageFactory(factoryMock);
+        adapter.setAsyncDispatch(true);
+        adapter.afterPropertiesSet();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAsyncTaskExecutorUnbounded() throws Exception {
+        adapter.setAsyncTaskExecutor(new SimpleAsyncTaskExecutor());
+    }
+
+    @Test
+    public void testHandlePostAsyncNotSupported() throws Exception {
+        adapter.setAsyncDispatch(true);
+        httpRequest.setMethod(HttpTransportConstants.METHOD_POST);
+        httpRequest.setContent(REQUEST.getBytes("UTF-8"));
+        httpRequest.setContentType("text/xml; charset=\"utf-8\"");
+        httpRequest.setCharacterEncoding("UTF-8");
+        expect(factoryMock.createWebServiceMessage(isA(InputStream.class))).andReturn(requestMock);
+        expect(factoryMock.createWebServiceMessage()).andReturn(responseMock);
+        expect(responseMock.hasFault()).andReturn(false);
+        responseMock.writeTo(isA(OutputStream.class));
+
+        replayMockControls();
+        final Thread containerThread = Thread.currentThread();
+        WebServiceMessageReceiver endpoint = new WebServiceMessageReceiver() {
+
+            public void receive(MessageContext messageContext) throws Exception {
+                Assert.assertSame("Message not handled by container thread", containerThread, Thread.currentThread());
+                messageContext.getResponse();
+            }
+        };
+
+        adapter.handle(httpRequest, httpResponse, endpoint);
+
+        Assert.assertEquals("Invalid status code on response", HttpServletResponse.SC_OK, httpResponse.getStatus());
+        verifyMockControls();
+    }
+
     private void replayMockControls() {
         replay(factoryMock, requestMock, responseMock);
     }
@@ -209,4 +380,46 @@ public class WebServiceMessageReceiverHandlerAdapterTest {
         verify(factoryMock, requestMock, responseMock);
     }
 
+
+    private static class StubAsyncWebRequest extends ServletWebRequest implements AsyncWebRequest {
+
+        private volatile boolean started;
+
+        private volatile Runnable timeoutHandler;
+
+        private volatile boolean completed;
+
+        private final CountDownLatch dispatched = new CountDownLatch(1);
+
+        private StubAsyncWebRequest(HttpServletRequest request, HttpServletResponse response) {
+            super(request, response);
+        }
+
+        public void setTimeout(Long timeout) {
+        }
+
+        public void addTimeoutHandler(Runnable runnable) {
+            timeoutHandler = runnable;
+        }
+
+        public void addCompletionHandler(Runnable runnable) {
+        }
+
+        public void startAsync() {
+            started = true;
+        }
+
+        public boolean isAsyncStarted() {
+            return started && dispatched.getCount() > 0;
+        }
+
+        public void dispatch() {
+            dispatched.countDown();
+        }
+
+        public boolean isAsyncComplete() {
+            return completed;
+        }
+    }
+
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.wss4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timing statistics of the signature and encryption phases of messages secured by a {@link Wss4jSecurityInterceptor}.
+ *
+ * @author agent
+ * @see Wss4jSecurityInterceptor#getSecurementStatistics()
+ * @since 2.1.5
+ */
+public class Wss4jSecurementStatistics {
+
+    private final PhaseStatistics signature = new PhaseStatistics();
+
+    private final PhaseStatistics encryption = new PhaseStatistics();
+
+    /** Returns the amount of messages signed. */
+    public long getSignatureCount() {
+        return signature.count.get();
+    }
+
+    /** Returns the average time spent signing a message, in milliseconds. */
+    public double getAverageSignatureMillis() {
+        return signature.getAverageMillis();
+    }
+
+    /** Returns the maximum time spent signing a message, in milliseconds. */
+    public long getMaxSignatureMillis() {
+        return signature.getMaxMillis();
+    }
+
+    /** Returns the amount of messages encrypted. */
+    public long getEncryptionCount() {
+        return encryption.count.get();
+    }
+
+    /** Returns the average time spent encrypting a message, in milliseconds. */
+    public double getAverageEncryptionMillis() {
+        return encryption.getAverageMillis();
+    }
+
+    /** Returns the maximum time spent encrypting a message, in milliseconds. */
+    public long getMaxEncryptionMillis() {
+        return encryption.getMaxMillis();
+    }
+
+    /** Resets all statistics. */
+    public void reset() {
+        signature.reset();
+        encryption.reset();
+    }
+
+    void recordSignature(long nanos) {
+        signature.record(nanos);
+    }
+
+    void recordEncryption(long nanos) {
+        encryption.record(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "Wss4jSecurementStatistics[signatures=" + getSignatureCount() + ", averageSignatureMillis=" +
+                getAverageSignatureMillis() + ", encryptions=" + getEncryptionCount() + ", averageEncryptionMillis=" +
+                getAverageEncryptionMillis() + "]";
+    }
+
+    private static class PhaseStatistics {
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong totalNanos = new AtomicLong();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        private double getAverageMillis() {
+            long n = count.get();
+            return n > 0 ? (double) totalNanos.get() / n / TimeUnit.MILLISECONDS.toNanos(1) : 0.0d;
+        }
+
+        private long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        private void reset() {
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+        }
+    }
+}
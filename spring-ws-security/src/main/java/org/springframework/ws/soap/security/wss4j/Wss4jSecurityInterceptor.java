@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,10 +20,17 @@ import java.io.IOException;
 import java.security.Principal;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import javax.security.auth.callback.Callback;
 import javax.security.auth.callback.CallbackHandler;
 import javax.security.auth.callback.UnsupportedCallbackException;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMResult;
 
 import org.apache.ws.security.WSConstants;
 import org.apache.ws.security.WSSConfig;
@@ -31,29 +38,45 @@ import org.apache.ws.security.WSSecurityEngine;
 import org.apache.ws.security.WSSecurityEngineResult;
 import org.apache.ws.security.WSSecurityException;
 import org.apache.ws.security.WSUsernameTokenPrincipal;
+import org.apache.ws.security.WsuIdAllocator;
+import org.apache.ws.security.action.Action;
+import org.apache.ws.security.cache.ReplayCache;
 import org.apache.ws.security.components.crypto.Crypto;
 import org.apache.ws.security.handler.RequestData;
+import org.apache.ws.security.handler.WSHandler;
 import org.apache.ws.security.handler.WSHandlerConstants;
 import org.apache.ws.security.handler.WSHandlerResult;
 import org.apache.ws.security.message.token.Timestamp;
+import org.apache.ws.security.processor.Processor;
 import org.apache.ws.security.util.WSSecurityUtil;
 import org.apache.ws.security.validate.Credential;
 import org.apache.ws.security.validate.SignatureTrustValidator;
 import org.apache.ws.security.validate.TimestampValidator;
+import org.apache.ws.security.validate.Validator;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.SoapEnvelope;
+import org.springframework.ws.soap.SoapHeader;
+import org.springframework.ws.soap.SoapHeaderElement;
 import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.axiom.AxiomSoapMessage;
 import org.springframework.ws.soap.security.AbstractWsSecurityInterceptor;
 import org.springframework.ws.soap.security.WsSecuritySecurementException;
 import org.springframework.ws.soap.security.WsSecurityValidationException;
 import org.springframework.ws.soap.security.callback.CallbackHandlerChain;
 import org.springframework.ws.soap.security.callback.CleanupCallback;
 import org.springframework.ws.soap.security.wss4j.callback.UsernameTokenPrincipalCallback;
+import org.springframework.ws.soap.security.wss4j.support.CachingCrypto;
+import org.springframework.ws.soap.security.wss4j.support.InMemoryReplayCache;
+import org.springframework.xml.namespace.QNameUtils;
+import org.springframework.xml.transform.TransformerHelper;
 
 /**
  * A WS-Security endpoint interceptor based on Apache's WSS4J. This interceptor supports messages created by the {@link
@@ -78,6 +101,10 @@ import org.springframework.ws.soap.security.wss4j.callback.UsernameTokenPrincipa
  * <p/>
  * The order of the actions that the client performed to secure the messages is significant and is enforced by the
  * interceptor.
+ * <p/>
+ * When validating Axiom messages with only <code>UsernameToken</code> and <code>Timestamp</code> actions, only the
+ * WS-Security header is converted to DOM, leaving the rest of the envelope as is. Messages whose validation decrypts
+ * parts of the envelope are the only ones converted back from DOM.
  *
  * @author Tareq Abed Rabbo
  * @author Arjen Poutsma
@@ -88,6 +115,9 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 
     public static final String SECUREMENT_USER_PROPERTY_NAME = "Wss4jSecurityInterceptor.securementUser";
 
+    private static final boolean axiomPresent =
+            ClassUtils.isPresent("org.apache.axiom.om.OMElement", Wss4jSecurityInterceptor.class.getClassLoader());
+
     private int securementAction;
 
     private String securementActions;
@@ -120,6 +150,10 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
     
     private WSSConfig wssConfig;
 
+    private final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+
+    private final TransformerHelper transformerHelper = new TransformerHelper();
+
     private final Wss4jHandler handler = new Wss4jHandler();
 
     private final WSSecurityEngine securityEngine = new WSSecurityEngine();
@@ -130,6 +164,26 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 
     private boolean securementUseDerivedKey;
 
+    private Crypto securementEncryptionCrypto;
+
+    private Crypto securementSignatureCrypto;
+
+    private boolean cacheSecurementKeys = false;
+
+    private WSSConfig securementConfig;
+
+    private final Wss4jSecurementStatistics securementStatistics = new Wss4jSecurementStatistics();
+
+    private boolean replayDetection = false;
+
+    private ReplayCache nonceReplayCache;
+
+    private ReplayCache timestampReplayCache;
+
+    public Wss4jSecurityInterceptor() {
+        documentBuilderFactory.setNamespaceAware(true);
+    }
+
     public void setSecurementActions(String securementActions) {
         this.securementActions = securementActions;
         securementActionsVector = new ArrayList<Integer>();
@@ -153,6 +207,7 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
     }
 
     public void setSecurementEncryptionCrypto(Crypto securementEncryptionCrypto) {
+        this.securementEncryptionCrypto = securementEncryptionCrypto;
         handler.setSecurementEncryptionCrypto(securementEncryptionCrypto);
     }
 
@@ -279,6 +334,7 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
     }
 
     public void setSecurementSignatureCrypto(Crypto securementSignatureCrypto) {
+        this.securementSignatureCrypto = securementSignatureCrypto;
         handler.setSecurementSignatureCrypto(securementSignatureCrypto);
     }
 
@@ -470,6 +526,68 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
         this.bspCompliant = bspCompliant;
     }
 
+    /**
+     * Indicates whether the certificate chains and private keys resolved from the securement signature and encryption
+     * cryptos should be cached by alias. Default is <code>false</code>.
+     * <p/>
+     * Resolving keys from a key store is relatively expensive, and involves locking in most implementations. When
+     * enabled, call {@link #refreshSecurementKeys()} after changing the underlying key stores.
+     *
+     * @see CachingCrypto
+     */
+    public void setCacheSecurementKeys(boolean cacheSecurementKeys) {
+        this.cacheSecurementKeys = cacheSecurementKeys;
+    }
+
+    /**
+     * Removes the cached securement certificate chains and private keys, so that they are resolved again from the key
+     * stores. Only applicable if {@link #setCacheSecurementKeys(boolean) cacheSecurementKeys} is enabled.
+     */
+    public void refreshSecurementKeys() {
+        if (securementSignatureCrypto instanceof CachingCrypto) {
+            ((CachingCrypto) securementSignatureCrypto).refresh();
+        }
+        if (securementEncryptionCrypto instanceof CachingCrypto) {
+            ((CachingCrypto) securementEncryptionCrypto).refresh();
+        }
+    }
+
+    /** Returns the timing statistics of the signature and encryption securement actions. */
+    public Wss4jSecurementStatistics getSecurementStatistics() {
+        return securementStatistics;
+    }
+
+    /**
+     * Indicates whether replayed messages should be rejected. Default is <code>false</code>.
+     * <p/>
+     * When enabled, the nonces of received <code>UsernameToken</code>s, and the values of signatures in messages with a
+     * timestamp are recorded for the {@link #setValidationTimeToLive(int) validation time to live}, and messages that
+     * contain one already seen are rejected. Unless set explicitly, an {@link InMemoryReplayCache} is used for both.
+     *
+     * @see #setNonceReplayCache(ReplayCache)
+     * @see #setTimestampReplayCache(ReplayCache)
+     */
+    public void setReplayDetection(boolean replayDetection) {
+        this.replayDetection = replayDetection;
+    }
+
+    /**
+     * Sets the cache used to detect replayed <code>UsernameToken</code> nonces. Setting this property enables replay
+     * detection of nonces, regardless of the {@link #setReplayDetection(boolean) replayDetection} property.
+     */
+    public void setNonceReplayCache(ReplayCache nonceReplayCache) {
+        this.nonceReplayCache = nonceReplayCache;
+    }
+
+    /**
+     * Sets the cache used to detect replayed signatures, identified by the timestamp they cover. Setting this property
+     * enables replay detection of signatures, regardless of the {@link #setReplayDetection(boolean) replayDetection}
+     * property.
+     */
+    public void setTimestampReplayCache(ReplayCache timestampReplayCache) {
+        this.timestampReplayCache = timestampReplayCache;
+    }
+
     /**
      * Sets the location of the SAML properties file. The file should be available on the classpath.
      */
@@ -495,6 +613,36 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
         // allow for qualified password types for .Net interoperability
         securityEngine.getWssConfig().setAllowNamespaceQualifiedPasswordTypes(true);
         securityEngine.getWssConfig().setWsiBSPCompliant(bspCompliant);
+
+        if (replayDetection) {
+            if (nonceReplayCache == null) {
+                nonceReplayCache = new InMemoryReplayCache(validationTimeToLive);
+            }
+            if (timestampReplayCache == null) {
+                timestampReplayCache = new InMemoryReplayCache(validationTimeToLive);
+            }
+        }
+        if (cacheSecurementKeys) {
+            initCachingCryptos();
+        }
+        securementConfig = new TimingWssConfig(wssConfig != null ? wssConfig : WSSConfig.getNewInstance());
+    }
+
+    private void initCachingCryptos() {
+        if (securementSignatureCrypto != null && !(securementSignatureCrypto instanceof CachingCrypto)) {
+            setSecurementSignatureCrypto(new CachingCrypto(securementSignatureCrypto));
+        }
+        if (securementEncryptionCrypto != null && !(securementEncryptionCrypto instanceof CachingCrypto)) {
+            Crypto encryptionCrypto = securementEncryptionCrypto;
+            if (securementSignatureCrypto instanceof CachingCrypto &&
+                    ((CachingCrypto) securementSignatureCrypto).getTargetCrypto() == encryptionCrypto) {
+                // share the cache of a crypto used for both
+                setSecurementEncryptionCrypto(securementSignatureCrypto);
+            }
+            else {
+                setSecurementEncryptionCrypto(new CachingCrypto(encryptionCrypto));
+            }
+        }
     }
 
     @Override
@@ -513,11 +661,12 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
             // In case on signature confirmation with no other securement
             // action, we need to pass an empty securementActionsVector to avoid
             // NPE
+            List<Integer> actions = securementActionsVector;
             if (securementAction == WSConstants.NO_SECURITY) {
-                securementActionsVector = new ArrayList<Integer>(0);
+                actions = new ArrayList<Integer>(0);
             }
 
-            handler.doSenderAction(securementAction, envelopeAsDocument, requestData, securementActionsVector, false);
+            handler.doSenderAction(securementAction, envelopeAsDocument, requestData, actions, false);
         }
         catch (WSSecurityException ex) {
             throw new Wss4jSecuritySecurementException(ex.getMessage(), ex);
@@ -549,7 +698,7 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
 
         requestData.setUseDerivedKey(securementUseDerivedKey);
         
-        requestData.setWssConfig(wssConfig);
+        requestData.setWssConfig(securementConfig != null ? securementConfig : wssConfig);
 
         return requestData;
     }
@@ -566,14 +715,24 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
             return;
         }
 
-        Document envelopeAsDocument = soapMessage.getDocument();
+        boolean securityHeaderOnly = isSecurityHeaderSufficient(soapMessage);
+        Document envelopeAsDocument;
+        if (securityHeaderOnly) {
+            envelopeAsDocument = getSecurityHeaderDocument(soapMessage);
+        }
+        else {
+            envelopeAsDocument = soapMessage.getDocument();
+        }
 
         // Header processing
 
+        List<WSSecurityEngineResult> results = null;
         try {
-            List<WSSecurityEngineResult> results = securityEngine
-                    .processSecurityHeader(envelopeAsDocument, validationActor, validationCallbackHandler,
-                            validationSignatureCrypto, validationDecryptionCrypto);
+            String actor = validationActor != null ? validationActor : "";
+            Element securityHeader = WSSecurityUtil.getSecurityHeader(envelopeAsDocument, actor);
+            if (securityHeader != null) {
+                results = securityEngine.processSecurityHeader(securityHeader, initializeValidationRequestData());
+            }
 
             // Results verification
             if (CollectionUtils.isEmpty(results)) {
@@ -596,11 +755,81 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
             throw new Wss4jSecurityValidationException(ex.getMessage(), ex);
         }
 
-        soapMessage.setDocument(envelopeAsDocument);
+        // only decryption changes the envelope; signature, timestamp, and username token processing leave it as is
+        if (!securityHeaderOnly && WSSecurityUtil.fetchActionResult(results, WSConstants.ENCR) != null) {
+            soapMessage.setDocument(envelopeAsDocument);
+        }
 
         soapMessage.getEnvelope().getHeader().removeHeaderElement(WS_SECURITY_NAME);
     }
 
+    /** Creates a request data for processing the WS-Security header of a received message. */
+    private RequestData initializeValidationRequestData() {
+        RequestData requestData = new RequestData();
+        requestData.setWssConfig(securityEngine.getWssConfig());
+        requestData.setCallbackHandler(validationCallbackHandler);
+        requestData.setSigCrypto(validationSignatureCrypto);
+        requestData.setDecCrypto(validationDecryptionCrypto);
+        requestData.setNonceReplayCache(nonceReplayCache);
+        requestData.setTimestampReplayCache(timestampReplayCache);
+        return requestData;
+    }
+
+    /**
+     * Indicates whether the validation actions can be performed on the WS-Security header alone. This is the case for
+     * Axiom messages validated with <code>UsernameToken</code> and <code>Timestamp</code> actions only, since these do
+     * not refer to other parts of the envelope.
+     */
+    private boolean isSecurityHeaderSufficient(SoapMessage soapMessage) {
+        if ((validationAction & ~(WSConstants.UT | WSConstants.TS)) != 0) {
+            return false;
+        }
+        return axiomPresent && soapMessage instanceof AxiomSoapMessage;
+    }
+
+    /**
+     * Returns a DOM document that contains the envelope and header of the given message, but only the WS-Security
+     * header elements. The body is not converted.
+     */
+    private Document getSecurityHeaderDocument(SoapMessage soapMessage) throws Wss4jSecurityValidationException {
+        try {
+            Document document;
+            synchronized (documentBuilderFactory) {
+                document = documentBuilderFactory.newDocumentBuilder().newDocument();
+            }
+            SoapEnvelope envelope = soapMessage.getEnvelope();
+            Element envelopeElement = createElement(document, envelope.getName());
+            document.appendChild(envelopeElement);
+            SoapHeader header = envelope.getHeader();
+            if (header != null) {
+                Element headerElement = createElement(document, header.getName());
+                envelopeElement.appendChild(headerElement);
+                for (Iterator<SoapHeaderElement> iterator = header.examineHeaderElements(WS_SECURITY_NAME);
+                     iterator.hasNext();) {
+                    SoapHeaderElement securityHeader = iterator.next();
+                    transformerHelper.transform(securityHeader.getSource(), new DOMResult(headerElement));
+                }
+            }
+            return document;
+        }
+        catch (ParserConfigurationException ex) {
+            throw new Wss4jSecurityValidationException("Could not create DOM document: " + ex.getMessage(), ex);
+        }
+        catch (TransformerException ex) {
+            throw new Wss4jSecurityValidationException("Could not convert WS-Security header: " + ex.getMessage(),
+                    ex);
+        }
+    }
+
+    private Element createElement(Document document, QName name) {
+        Element element = document.createElementNS(name.getNamespaceURI(), QNameUtils.toQualifiedName(name));
+        String prefix = QNameUtils.getPrefix(name);
+        String attributeName = prefix.length() != 0 ? XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix :
+                XMLConstants.XMLNS_ATTRIBUTE;
+        element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attributeName, name.getNamespaceURI());
+        return element;
+    }
+
     /**
      * Checks whether the received headers match the configured validation actions. Subclasses could override this method
      * for custom verification behavior.
@@ -710,4 +939,220 @@ public class Wss4jSecurityInterceptor extends AbstractWsSecurityInterceptor impl
             }
         }
     }
+
+    /**
+     * WSS4J configuration that delegates to the configuration of this interceptor, but wraps the signature and
+     * encryption actions in a {@link TimingAction}. Since the actions are wrapped when looked up, the target
+     * configuration, which might be shared with other interceptors, is never modified.
+     */
+    private class TimingWssConfig extends WSSConfig {
+
+        private final WSSConfig targetConfig;
+
+        private TimingWssConfig(WSSConfig targetConfig) {
+            this.targetConfig = targetConfig;
+        }
+
+        @Override
+        public Action getAction(int action) throws WSSecurityException {
+            Action targetAction = targetConfig.getAction(action);
+            if (action == WSConstants.SIGN || action == WSConstants.ENCR) {
+                return new TimingAction(targetAction, action);
+            }
+            return targetAction;
+        }
+
+        @Override
+        public Class<?> setAction(int key, Action action) {
+            return targetConfig.setAction(key, action);
+        }
+
+        @Override
+        public Class<?> setAction(int key, Class<?> clazz) {
+            return targetConfig.setAction(key, clazz);
+        }
+
+        @Override
+        public Processor getProcessor(QName key) throws WSSecurityException {
+            return targetConfig.getProcessor(key);
+        }
+
+        @Override
+        public Class<?> setProcessor(QName key, Processor processor) {
+            return targetConfig.setProcessor(key, processor);
+        }
+
+        @Override
+        public Class<?> setProcessor(QName key, Class<?> clazz) {
+            return targetConfig.setProcessor(key, clazz);
+        }
+
+        @Override
+        public Validator getValidator(QName key) throws WSSecurityException {
+            return targetConfig.getValidator(key);
+        }
+
+        @Override
+        public Class<?> setValidator(QName key, Validator validator) {
+            return targetConfig.setValidator(key, validator);
+        }
+
+        @Override
+        public Class<?> setValidator(QName key, Class<?> clazz) {
+            return targetConfig.setValidator(key, clazz);
+        }
+
+        @Override
+        public boolean isWsiBSPCompliant() {
+            return targetConfig.isWsiBSPCompliant();
+        }
+
+        @Override
+        public void setWsiBSPCompliant(boolean wsiBSPCompliant) {
+            targetConfig.setWsiBSPCompliant(wsiBSPCompliant);
+        }
+
+        @Override
+        public boolean isPrecisionInMilliSeconds() {
+            return targetConfig.isPrecisionInMilliSeconds();
+        }
+
+        @Override
+        public void setPrecisionInMilliSeconds(boolean precisionInMilliSeconds) {
+            targetConfig.setPrecisionInMilliSeconds(precisionInMilliSeconds);
+        }
+
+        @Override
+        public boolean isEnableSignatureConfirmation() {
+            return targetConfig.isEnableSignatureConfirmation();
+        }
+
+        @Override
+        public void setEnableSignatureConfirmation(boolean enableSignatureConfirmation) {
+            targetConfig.setEnableSignatureConfirmation(enableSignatureConfirmation);
+        }
+
+        @Override
+        public boolean getHandleCustomPasswordTypes() {
+            return targetConfig.getHandleCustomPasswordTypes();
+        }
+
+        @Override
+        public void setHandleCustomPasswordTypes(boolean handleCustomPasswordTypes) {
+            targetConfig.setHandleCustomPasswordTypes(handleCustomPasswordTypes);
+        }
+
+        @Override
+        public boolean getAllowNamespaceQualifiedPasswordTypes() {
+            return targetConfig.getAllowNamespaceQualifiedPasswordTypes();
+        }
+
+        @Override
+        public void setAllowNamespaceQualifiedPasswordTypes(boolean allowNamespaceQualifiedPasswordTypes) {
+            targetConfig.setAllowNamespaceQualifiedPasswordTypes(allowNamespaceQualifiedPasswordTypes);
+        }
+
+        @Override
+        public boolean isTimeStampStrict() {
+            return targetConfig.isTimeStampStrict();
+        }
+
+        @Override
+        public void setTimeStampStrict(boolean timeStampStrict) {
+            targetConfig.setTimeStampStrict(timeStampStrict);
+        }
+
+        @Override
+        public String getRequiredPasswordType() {
+            return targetConfig.getRequiredPasswordType();
+        }
+
+        @Override
+        public void setRequiredPasswordType(String requiredPasswordType) {
+            targetConfig.setRequiredPasswordType(requiredPasswordType);
+        }
+
+        @Override
+        public int getTimeStampTTL() {
+            return targetConfig.getTimeStampTTL();
+        }
+
+        @Override
+        public void setTimeStampTTL(int timeStampTTL) {
+            targetConfig.setTimeStampTTL(timeStampTTL);
+        }
+
+        @Override
+        public int getTimeStampFutureTTL() {
+            return targetConfig.getTimeStampFutureTTL();
+        }
+
+        @Override
+        public void setTimeStampFutureTTL(int timeStampFutureTTL) {
+            targetConfig.setTimeStampFutureTTL(timeStampFutureTTL);
+        }
+
+        @Override
+        public int getSecretKeyLength() {
+            return targetConfig.getSecretKeyLength();
+        }
+
+        @Override
+        public void setSecretKeyLength(int secretKeyLength) {
+            targetConfig.setSecretKeyLength(secretKeyLength);
+        }
+
+        @Override
+        public boolean getPasswordsAreEncoded() {
+            return targetConfig.getPasswordsAreEncoded();
+        }
+
+        @Override
+        public void setPasswordsAreEncoded(boolean passwordsAreEncoded) {
+            targetConfig.setPasswordsAreEncoded(passwordsAreEncoded);
+        }
+
+        @Override
+        public WsuIdAllocator getIdAllocator() {
+            return targetConfig.getIdAllocator();
+        }
+
+        @Override
+        public void setIdAllocator(WsuIdAllocator idAllocator) {
+            targetConfig.setIdAllocator(idAllocator);
+        }
+    }
+
+    /**
+     * WSS4J action that records the time spent by the signature or encryption action it wraps in the securement
+     * statistics.
+     */
+    private class TimingAction implements Action {
+
+        private final Action targetAction;
+
+        private final int action;
+
+        private TimingAction(Action targetAction, int action) {
+            this.targetAction = targetAction;
+            this.action = action;
+        }
+
+        public void execute(WSHandler handler, int actionToDo, Document doc, RequestData reqData)
+                throws WSSecurityException {
+            long start = System.nanoTime();
+            try {
+                targetAction.execute(handler, actionToDo, doc, reqData);
+            }
+            finally {
+                long nanos = System.nanoTime() - start;
+                if (action == WSConstants.SIGN) {
+                    securementStatistics.recordSignature(nanos);
+                }
+                else {
+                    securementStatistics.recordEncryption(nanos);
+                }
+            }
+        }
+    }
 }
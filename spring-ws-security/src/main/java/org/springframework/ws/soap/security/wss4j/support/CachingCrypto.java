@@ -0,0 +1,182 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.wss4j.support;
+
+import java.io.InputStream;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.security.auth.callback.CallbackHandler;
+
+import org.apache.ws.security.WSSecurityException;
+import org.apache.ws.security.components.crypto.Crypto;
+import org.apache.ws.security.components.crypto.CryptoType;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link Crypto} decorator that caches the certificate chains and private keys resolved by alias. Resolving these from
+ * a key store typically involves synchronization and, for private keys, decryption, which becomes a bottleneck when
+ * securing many messages concurrently.
+ * <p/>
+ * Since the cache is not aware of changes made to the underlying key store, {@link #refresh()} has to be called after
+ * these. All other operations are delegated to the wrapped <code>Crypto</code>.
+ *
+ * @author agent
+ * @see org.springframework.ws.soap.security.wss4j.Wss4jSecurityInterceptor#setCacheSecurementKeys(boolean)
+ * @since 2.1.5
+ */
+public class CachingCrypto implements Crypto {
+
+    private final Crypto targetCrypto;
+
+    private final ConcurrentMap<String, X509Certificate[]> certificates =
+            new ConcurrentHashMap<String, X509Certificate[]>();
+
+    private final ConcurrentMap<String, PrivateKeyEntry> privateKeys = new ConcurrentHashMap<String, PrivateKeyEntry>();
+
+    /**
+     * Creates a new <code>CachingCrypto</code> that wraps the given crypto.
+     *
+     * @param targetCrypto the crypto to cache the keys of
+     */
+    public CachingCrypto(Crypto targetCrypto) {
+        Assert.notNull(targetCrypto, "'targetCrypto' must not be null");
+        this.targetCrypto = targetCrypto;
+    }
+
+    /** Returns the wrapped crypto. */
+    public Crypto getTargetCrypto() {
+        return targetCrypto;
+    }
+
+    /** Removes all cached certificate chains and private keys, so that they are resolved again on next use. */
+    public void refresh() {
+        certificates.clear();
+        privateKeys.clear();
+    }
+
+    public X509Certificate[] getX509Certificates(CryptoType cryptoType) throws WSSecurityException {
+        if (cryptoType == null || cryptoType.getType() != CryptoType.TYPE.ALIAS || cryptoType.getAlias() == null) {
+            return targetCrypto.getX509Certificates(cryptoType);
+        }
+        String alias = cryptoType.getAlias();
+        X509Certificate[] chain = certificates.get(alias);
+        if (chain == null) {
+            chain = targetCrypto.getX509Certificates(cryptoType);
+            if (chain == null) {
+                return null;
+            }
+            certificates.put(alias, chain);
+        }
+        return chain.clone();
+    }
+
+    public PrivateKey getPrivateKey(String identifier, String password) throws WSSecurityException {
+        if (identifier == null) {
+            return targetCrypto.getPrivateKey(identifier, password);
+        }
+        PrivateKeyEntry entry = privateKeys.get(identifier);
+        if (entry == null || !ObjectUtils.nullSafeEquals(entry.password, password)) {
+            PrivateKey privateKey = targetCrypto.getPrivateKey(identifier, password);
+            if (privateKey == null) {
+                return null;
+            }
+            entry = new PrivateKeyEntry(password, privateKey);
+            privateKeys.put(identifier, entry);
+        }
+        return entry.privateKey;
+    }
+
+    public PrivateKey getPrivateKey(X509Certificate certificate, CallbackHandler callbackHandler)
+            throws WSSecurityException {
+        return targetCrypto.getPrivateKey(certificate, callbackHandler);
+    }
+
+    public String getCryptoProvider() {
+        return targetCrypto.getCryptoProvider();
+    }
+
+    public void setCryptoProvider(String provider) {
+        targetCrypto.setCryptoProvider(provider);
+    }
+
+    public String getDefaultX509Identifier() throws WSSecurityException {
+        return targetCrypto.getDefaultX509Identifier();
+    }
+
+    public void setDefaultX509Identifier(String identifier) {
+        targetCrypto.setDefaultX509Identifier(identifier);
+    }
+
+    public void setCertificateFactory(String provider, CertificateFactory certificateFactory) {
+        targetCrypto.setCertificateFactory(provider, certificateFactory);
+    }
+
+    public CertificateFactory getCertificateFactory() throws WSSecurityException {
+        return targetCrypto.getCertificateFactory();
+    }
+
+    public X509Certificate loadCertificate(InputStream in) throws WSSecurityException {
+        return targetCrypto.loadCertificate(in);
+    }
+
+    public byte[] getSKIBytesFromCert(X509Certificate certificate) throws WSSecurityException {
+        return targetCrypto.getSKIBytesFromCert(certificate);
+    }
+
+    public byte[] getBytesFromCertificates(X509Certificate[] certificates) throws WSSecurityException {
+        return targetCrypto.getBytesFromCertificates(certificates);
+    }
+
+    public X509Certificate[] getCertificatesFromBytes(byte[] data) throws WSSecurityException {
+        return targetCrypto.getCertificatesFromBytes(data);
+    }
+
+    public String getX509Identifier(X509Certificate certificate) throws WSSecurityException {
+        return targetCrypto.getX509Identifier(certificate);
+    }
+
+    public boolean verifyTrust(X509Certificate[] certificates) throws WSSecurityException {
+        return targetCrypto.verifyTrust(certificates);
+    }
+
+    public boolean verifyTrust(X509Certificate[] certificates, boolean enableRevocation) throws WSSecurityException {
+        return targetCrypto.verifyTrust(certificates, enableRevocation);
+    }
+
+    public boolean verifyTrust(PublicKey publicKey) throws WSSecurityException {
+        return targetCrypto.verifyTrust(publicKey);
+    }
+
+    private static class PrivateKeyEntry {
+
+        private final String password;
+
+        private final PrivateKey privateKey;
+
+        private PrivateKeyEntry(String password, PrivateKey privateKey) {
+            this.password = password;
+            this.privateKey = privateKey;
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.wss4j.support;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ws.security.cache.ReplayCache;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-memory, bounded implementation of the WSS4J {@link ReplayCache}, used to detect replayed nonces and signatures.
+ * <p/>
+ * Identifiers are distributed over a number of independently locked stripes, so that concurrent messages rarely
+ * contend. Within a stripe, identifiers are kept in a ring of time buckets, each covering a fraction of the {@link
+ * #setTimeToLive(int) time to live}; a bucket is discarded as a whole once its time has passed. Both adding and checking
+ * an identifier therefore take constant time.
+ * <p/>
+ * When a stripe reaches its share of the {@link #setMaxEntries(int) maximum amount of entries}, the bucket that expires
+ * first is evicted. Evictions are counted in the {@link #getEvictionCount() eviction count}, since they narrow the
+ * window in which replays are detected.
+ *
+ * @author agent
+ * @see org.springframework.ws.soap.security.wss4j.Wss4jSecurityInterceptor#setReplayDetection(boolean)
+ * @since 2.1.5
+ */
+public class InMemoryReplayCache implements ReplayCache {
+
+    /** The default time to live, in seconds. */
+    public static final int DEFAULT_TIME_TO_LIVE = 300;
+
+    /** The default maximum amount of entries. */
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    private static final int DEFAULT_BUCKET_COUNT = 10;
+
+    private static final int DEFAULT_STRIPE_COUNT = 16;
+
+    private final AtomicLong checkCount = new AtomicLong();
+
+    private final AtomicLong replayCount = new AtomicLong();
+
+    private final AtomicLong addCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private int timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private int bucketCount = DEFAULT_BUCKET_COUNT;
+
+    private volatile long bucketMillis;
+
+    private volatile Stripe[] stripes;
+
+    public InMemoryReplayCache() {
+        this(DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Creates a new <code>InMemoryReplayCache</code> with the given time to live.
+     *
+     * @param timeToLive the time to live of entries, in seconds
+     */
+    public InMemoryReplayCache(int timeToLive) {
+        setTimeToLive(timeToLive);
+    }
+
+    /**
+     * Sets the time to live of entries, in seconds. This is also the maximum time to live of entries added with an
+     * explicit time to live. Defaults to {@link #DEFAULT_TIME_TO_LIVE}.
+     * <p/>
+     * Typically set to the time to live of timestamps, since messages with older timestamps are rejected anyway.
+     */
+    public void setTimeToLive(int timeToLive) {
+        Assert.isTrue(timeToLive > 0, "'timeToLive' must be larger than 0");
+        this.timeToLive = timeToLive;
+        initStripes();
+    }
+
+    /** Sets the maximum amount of entries kept in the cache. Defaults to {@link #DEFAULT_MAX_ENTRIES}. */
+    public void setMaxEntries(int maxEntries) {
+        Assert.isTrue(maxEntries > 0, "'maxEntries' must be larger than 0");
+        this.maxEntries = maxEntries;
+        initStripes();
+    }
+
+    /**
+     * Sets the amount of time buckets the time to live is divided into. More buckets expire entries more precisely, at
+     * the cost of slower checks. Defaults to 10.
+     */
+    public void setBucketCount(int bucketCount) {
+        Assert.isTrue(bucketCount > 0, "'bucketCount' must be larger than 0");
+        this.bucketCount = bucketCount;
+        initStripes();
+    }
+
+    private void initStripes() {
+        bucketMillis = (TimeUnit.SECONDS.toMillis(timeToLive) + bucketCount - 1) / bucketCount;
+        int maxStripeEntries = Math.max(1, maxEntries / DEFAULT_STRIPE_COUNT);
+        Stripe[] stripes = new Stripe[DEFAULT_STRIPE_COUNT];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(bucketCount + 1, maxStripeEntries);
+        }
+        this.stripes = stripes;
+    }
+
+    public void add(String identifier) {
+        add(identifier, timeToLive);
+    }
+
+    public void add(String identifier, long timeToLive) {
+        if (identifier == null) {
+            return;
+        }
+        long ttlMillis = TimeUnit.SECONDS.toMillis(Math.min(Math.max(timeToLive, 1), this.timeToLive));
+        long now = currentTimeMillis();
+        long bucketMillis = this.bucketMillis;
+        // round up, so that entries never expire early
+        long slot = (now + ttlMillis + bucketMillis - 1) / bucketMillis;
+        if (getStripe(identifier).add(identifier, slot, now / bucketMillis)) {
+            addCount.incrementAndGet();
+        }
+    }
+
+    public boolean contains(String identifier) {
+        if (identifier == null) {
+            return false;
+        }
+        checkCount.incrementAndGet();
+        boolean contains = getStripe(identifier).contains(identifier, currentTimeMillis() / bucketMillis);
+        if (contains) {
+            replayCount.incrementAndGet();
+        }
+        return contains;
+    }
+
+    /** Removes all entries from the cache. */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /** Returns the amount of entries in the cache, including those expired but not discarded yet. */
+    public int getSize() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.getSize();
+        }
+        return size;
+    }
+
+    /** Returns the amount of identifiers checked. */
+    public long getCheckCount() {
+        return checkCount.get();
+    }
+
+    /** Returns the amount of identifiers checked that were found in the cache, i.e. the amount of replays detected. */
+    public long getReplayCount() {
+        return replayCount.get();
+    }
+
+    /** Returns the amount of identifiers added. */
+    public long getAddCount() {
+        return addCount.get();
+    }
+
+    /** Returns the amount of entries evicted before they expired, because the cache was full. */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /** Returns the current time in milliseconds. Can be overridden for testing purposes. */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private Stripe getStripe(String identifier) {
+        Stripe[] stripes = this.stripes;
+        int hash = identifier.hashCode();
+        // spread the hash, since the low bits of string hash codes are not uniformly distributed
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return stripes[(hash & 0x7fffffff) % stripes.length];
+    }
+
+    /** A lock stripe: a ring of time buckets. */
+    private class Stripe {
+
+        private final long[] slots;
+
+        private final Set<String>[] buckets;
+
+        private final int maxEntries;
+
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private Stripe(int bucketCount, int maxEntries) {
+            this.slots = new long[bucketCount];
+            this.buckets = new Set[bucketCount];
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] = new HashSet<String>();
+            }
+            this.maxEntries = maxEntries;
+        }
+
+        private synchronized boolean add(String identifier, long slot, long currentSlot) {
+            int index = (int) (slot % buckets.length);
+            if (slots[index] != slot) {
+                // the bucket belongs to a past slot, and has expired
+                discard(index);
+                slots[index] = slot;
+            }
+            if (buckets[index].contains(identifier)) {
+                return false;
+            }
+            if (size >= maxEntries) {
+                evict(currentSlot);
+            }
+            buckets[index].add(identifier);
+            size++;
+            return true;
+        }
+
+        private synchronized boolean contains(String identifier, long currentSlot) {
+            for (int i = 0; i < buckets.length; i++) {
+                if (slots[i] > currentSlot && buckets[i].contains(identifier)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Discards expired buckets, and if that does not free any space, the bucket that expires first. */
+        private void evict(long currentSlot) {
+            int first = -1;
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i].isEmpty()) {
+                    continue;
+                }
+                if (slots[i] <= currentSlot) {
+                    discard(i);
+                }
+                else if (first == -1 || slots[i] < slots[first]) {
+                    first = i;
+                }
+            }
+            if (size >= maxEntries && first != -1) {
+                evictionCount.addAndGet(buckets[first].size());
+                discard(first);
+            }
+        }
+
+        private void discard(int index) {
+            size -= buckets[index].size();
+            buckets[index].clear();
+        }
+
+        private synchronized void clear() {
+            for (int i = 0; i < buckets.length; i++) {
+                discard(i);
+            }
+        }
+
+        private synchronized int getSize() {
+            return size;
+        }
+    }
+
+}
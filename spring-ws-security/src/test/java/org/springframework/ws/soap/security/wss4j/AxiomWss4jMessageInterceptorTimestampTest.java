@@ -1,5 +1,5 @@
 /*
- * Copyright 2008 the original author or authors.
+ * Copyright 2008-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,34 @@
 
 package org.springframework.ws.soap.security.wss4j;
 
+import org.apache.axiom.soap.SOAPMessage;
+
+import org.springframework.ws.context.DefaultMessageContext;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.soap.axiom.AxiomSoapMessage;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+
 public class AxiomWss4jMessageInterceptorTimestampTest extends Wss4jMessageInterceptorTimestampTestCase {
 
+    @Test
+    public void testValidateTimestampKeepsEnvelope() throws Exception {
+        Wss4jSecurityInterceptor interceptor = new Wss4jSecurityInterceptor();
+        interceptor.setSecurementActions("Timestamp");
+        interceptor.setValidationActions("Timestamp");
+        interceptor.afterPropertiesSet();
+        AxiomSoapMessage message = (AxiomSoapMessage) loadSoap11Message("empty-soap.xml");
+        MessageContext context = getSoap11MessageContext(message);
+        interceptor.secureMessage(message, context);
+
+        SOAPMessage axiomMessage = message.getAxiomMessage();
+        context = new DefaultMessageContext(message, getSoap11MessageFactory());
+        interceptor.validateMessage(message, context);
+        assertSame("Envelope converted", axiomMessage, message.getAxiomMessage());
+        assertXpathNotExists("Security Header not removed", "/SOAP-ENV:Envelope/SOAP-ENV:Header/wsse:Security",
+                getDocument(message));
+    }
+
 }
@@ -18,6 +18,10 @@ package org.springframework.ws.soap.security.wss4j;
 
 import java.util.Properties;
 
+import org.apache.ws.security.WSConstants;
+import org.apache.ws.security.WSSConfig;
+import org.apache.ws.security.action.SignatureAction;
+
 import org.springframework.ws.WebServiceMessage;
 import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
@@ -27,7 +31,9 @@ import org.springframework.ws.soap.security.wss4j.support.CryptoFactoryBean;
 import org.junit.Test;
 import org.w3c.dom.Document;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 public abstract class Wss4jMessageInterceptorSignTestCase extends Wss4jTestCase {
 
@@ -120,4 +126,49 @@ public abstract class Wss4jMessageInterceptorSignTestCase extends Wss4jTestCase
 
 
     }
+
+    @Test
+    public void testSignResponseWithCachedKeys() throws Exception {
+        interceptor.setSecurementActions("Signature");
+        interceptor.setEnableSignatureConfirmation(false);
+        interceptor.setSecurementPassword("123456");
+        interceptor.setSecurementUsername("rsaKey");
+        interceptor.setCacheSecurementKeys(true);
+        interceptor.afterPropertiesSet();
+
+        for (int i = 0; i < 2; i++) {
+            SoapMessage message = loadSoap11Message("empty-soap.xml");
+            MessageContext messageContext = getSoap11MessageContext(message);
+            interceptor.secureMessage(message, messageContext);
+
+            Document document = getDocument(message);
+            assertXpathExists("Absent Signature element",
+                    "/SOAP-ENV:Envelope/SOAP-ENV:Header/wsse:Security/ds:Signature", document);
+            interceptor.refreshSecurementKeys();
+        }
+        assertEquals("Invalid signature count", 2, interceptor.getSecurementStatistics().getSignatureCount());
+    }
+
+    @Test
+    public void testSignResponseWithSharedConfig() throws Exception {
+        WSSConfig config = WSSConfig.getNewInstance();
+        SignatureAction signatureAction = new SignatureAction();
+        config.setAction(WSConstants.SIGN, signatureAction);
+        interceptor.setWssConfig(config);
+        interceptor.setSecurementActions("Signature");
+        interceptor.setEnableSignatureConfirmation(false);
+        interceptor.setSecurementPassword("123456");
+        interceptor.setSecurementUsername("rsaKey");
+        interceptor.afterPropertiesSet();
+
+        SoapMessage message = loadSoap11Message("empty-soap.xml");
+        MessageContext messageContext = getSoap11MessageContext(message);
+        interceptor.secureMessage(message, messageContext);
+
+        Document document = getDocument(message);
+        assertXpathExists("Absent Signature element",
+                "/SOAP-ENV:Envelope/SOAP-ENV:Header/wsse:Security/ds:Signature", document);
+        assertSame("Shared configuration modified", signatureAction, config.getAction(WSConstants.SIGN));
+        assertEquals("Invalid signature count", 1, interceptor.getSecurementStatistics().getSignatureCount());
+    }
 }
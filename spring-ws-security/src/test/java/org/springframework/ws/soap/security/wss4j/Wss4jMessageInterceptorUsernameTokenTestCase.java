@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.Properties;
 import org.springframework.ws.context.DefaultMessageContext;
 import org.springframework.ws.context.MessageContext;
 import org.springframework.ws.soap.SoapMessage;
+import org.springframework.ws.soap.security.WsSecurityValidationException;
 import org.springframework.ws.soap.security.wss4j.callback.SimplePasswordValidationCallbackHandler;
 
 import org.apache.ws.security.WSConstants;
@@ -56,6 +57,20 @@ public abstract class Wss4jMessageInterceptorUsernameTokenTestCase extends Wss4j
         assertValidateUsernameToken(message);
     }
 
+    @Test(expected = WsSecurityValidationException.class)
+    public void testValidateUsernameTokenDigestReplayed() throws Exception {
+        Wss4jSecurityInterceptor interceptor = prepareInterceptor("UsernameToken", true, true);
+        interceptor.setReplayDetection(true);
+        interceptor.afterPropertiesSet();
+        SoapMessage message = loadSoap11Message("usernameTokenDigest-soap.xml");
+        MessageContext messageContext = new DefaultMessageContext(message, getSoap11MessageFactory());
+        interceptor.validateMessage(message, messageContext);
+
+        message = loadSoap11Message("usernameTokenDigest-soap.xml");
+        messageContext = new DefaultMessageContext(message, getSoap11MessageFactory());
+        interceptor.validateMessage(message, messageContext);
+    }
+
     @Test
     public void testValidateUsernameTokenWithQualifiedType() throws Exception {
         Wss4jSecurityInterceptor interceptor = prepareInterceptor("UsernameToken", true, false);
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.wss4j.support;
+
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+
+import org.apache.ws.security.components.crypto.Crypto;
+import org.apache.ws.security.components.crypto.CryptoType;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class CachingCryptoTest {
+
+    private Crypto targetMock;
+
+    private CachingCrypto crypto;
+
+    @Before
+    public void setUp() throws Exception {
+        targetMock = createMock(Crypto.class);
+        crypto = new CachingCrypto(targetMock);
+    }
+
+    @Test
+    public void testGetX509Certificates() throws Exception {
+        X509Certificate certificate = createMock(X509Certificate.class);
+        X509Certificate[] chain = new X509Certificate[]{certificate};
+        expect(targetMock.getX509Certificates(isA(CryptoType.class))).andReturn(chain).times(2);
+
+        replay(targetMock);
+
+        assertArrayEquals("Invalid chain", chain, crypto.getX509Certificates(createAliasType("alias")));
+        assertArrayEquals("Invalid chain", chain, crypto.getX509Certificates(createAliasType("alias")));
+        crypto.refresh();
+        assertArrayEquals("Invalid chain", chain, crypto.getX509Certificates(createAliasType("alias")));
+
+        verify(targetMock);
+    }
+
+    @Test
+    public void testGetPrivateKey() throws Exception {
+        PrivateKey privateKey = createMock(PrivateKey.class);
+        expect(targetMock.getPrivateKey("alias", "password")).andReturn(privateKey);
+        expect(targetMock.getPrivateKey("alias", "other")).andReturn(privateKey);
+
+        replay(targetMock);
+
+        assertSame("Invalid key", privateKey, crypto.getPrivateKey("alias", "password"));
+        assertSame("Invalid key", privateKey, crypto.getPrivateKey("alias", "password"));
+        // a different password has to be verified by the key store
+        assertSame("Invalid key", privateKey, crypto.getPrivateKey("alias", "other"));
+
+        verify(targetMock);
+    }
+
+    private CryptoType createAliasType(String alias) {
+        CryptoType cryptoType = new CryptoType(CryptoType.TYPE.ALIAS);
+        cryptoType.setAlias(alias);
+        return cryptoType;
+    }
+
+}
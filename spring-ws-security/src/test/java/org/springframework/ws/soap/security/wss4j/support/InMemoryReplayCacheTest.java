@@ -0,0 +1,85 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.soap.security.wss4j.support;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InMemoryReplayCacheTest {
+
+    private long now = 1000000L;
+
+    private InMemoryReplayCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new InMemoryReplayCache(10) {
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void testAddContains() throws Exception {
+        assertFalse("Identifier found", cache.contains("nonce"));
+        cache.add("nonce");
+        assertTrue("Identifier not found", cache.contains("nonce"));
+        assertFalse("Identifier found", cache.contains("other"));
+
+        assertEquals("Invalid size", 1, cache.getSize());
+        assertEquals("Invalid check count", 3, cache.getCheckCount());
+        assertEquals("Invalid replay count", 1, cache.getReplayCount());
+        assertEquals("Invalid add count", 1, cache.getAddCount());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        cache.add("nonce");
+        cache.add("short", 2);
+        now += 2000;
+        assertTrue("Identifier expired early", cache.contains("nonce"));
+        now += 1000;
+        assertFalse("Identifier not expired", cache.contains("short"));
+        assertTrue("Identifier expired early", cache.contains("nonce"));
+        now += 8000;
+        assertFalse("Identifier not expired", cache.contains("nonce"));
+    }
+
+    @Test
+    public void testMaxTimeToLive() throws Exception {
+        cache.add("nonce", 3600);
+        now += 11000;
+        assertFalse("Identifier not expired", cache.contains("nonce"));
+    }
+
+    @Test
+    public void testMaxEntries() throws Exception {
+        cache.setMaxEntries(16);
+        for (int i = 0; i < 1000; i++) {
+            cache.add("nonce" + i);
+            now += 10;
+        }
+        assertTrue("Cache not bounded", cache.getSize() <= 16);
+        assertTrue("No evictions", cache.getEvictionCount() > 0);
+        assertTrue("Last identifier evicted", cache.contains("nonce999"));
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2005-2010 the original author or authors.
+ * Copyright 2005-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,26 @@
 
 package org.springframework.ws.transport.support;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.SchedulingAwareRunnable;
+import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Abstract base class for asynchronous standalone, server-side transport objects. Contains a Spring {@link
  * TaskExecutor}, and various lifecycle callbacks.
+ * <p/>
+ * The number of messages handled concurrently can be limited by setting the {@link #setConcurrencyLimit(int)
+ * concurrencyLimit}; when the limit is reached, {@link #execute(Runnable)} blocks until a message has been handled.
+ * Long-lived tasks, as indicated by {@link SchedulingAwareRunnable#isLongLived()}, are not limited.
  *
  * @author Arjen Poutsma
  */
@@ -33,10 +45,19 @@ public abstract class AbstractAsyncStandaloneMessageReceiver extends AbstractSta
     /** Default thread name prefix. */
     public final String DEFAULT_THREAD_NAME_PREFIX = ClassUtils.getShortName(getClass()) + "-";
 
+    /** Value of the {@link #setConcurrencyLimit(int) concurrencyLimit} indicating no limit. */
+    public static final int UNBOUNDED_CONCURRENCY = -1;
+
     private TaskExecutor taskExecutor;
 
     private String beanName;
 
+    private boolean virtualThreads = false;
+
+    private int concurrencyLimit = UNBOUNDED_CONCURRENCY;
+
+    private Semaphore concurrencyPermits;
+
     /**
      * Set the Spring {@link TaskExecutor} to use for running the listener threads. Default is {@link
      * SimpleAsyncTaskExecutor}, starting up a number of new threads.
@@ -52,11 +73,43 @@ public abstract class AbstractAsyncStandaloneMessageReceiver extends AbstractSta
         this.beanName = beanName;
     }
 
+    /**
+     * Indicates whether the default task executor should run each task on its own virtual thread, rather than on a new
+     * platform thread. Virtual threads are cheap to create and block, which makes them a good fit for I/O-bound
+     * endpoints. Defaults to <code>false</code>.
+     * <p/>
+     * Virtual threads require Java 21 or higher; on older JVMs, this receiver falls back to platform threads. This
+     * property is ignored if an explicit {@link #setTaskExecutor(TaskExecutor) taskExecutor} is set.
+     * <p/>
+     * Every message is handled on a fresh thread, and its {@link org.springframework.ws.transport.context.TransportContext
+     * TransportContext} is only bound during handling, so no thread-bound state is carried over from one message to the
+     * next. Consider setting a {@link #setConcurrencyLimit(int) concurrencyLimit} to protect downstream resources.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Sets the maximum number of messages that are handled concurrently. Defaults to {@link #UNBOUNDED_CONCURRENCY},
+     * i.e. no limit.
+     * <p/>
+     * When the limit is reached, the thread receiving messages blocks until a message has been handled, thus providing
+     * back pressure to the underlying transport.
+     */
+    public void setConcurrencyLimit(int concurrencyLimit) {
+        Assert.isTrue(concurrencyLimit == UNBOUNDED_CONCURRENCY || concurrencyLimit > 0,
+                "'concurrencyLimit' must be larger than 0, or UNBOUNDED_CONCURRENCY");
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
         if (taskExecutor == null) {
             taskExecutor = createDefaultTaskExecutor();
         }
+        if (concurrencyLimit != UNBOUNDED_CONCURRENCY) {
+            concurrencyPermits = new Semaphore(concurrencyLimit, true);
+        }
         super.afterPropertiesSet();
     }
 
@@ -64,21 +117,103 @@ public abstract class AbstractAsyncStandaloneMessageReceiver extends AbstractSta
      * Create a default TaskExecutor. Called if no explicit TaskExecutor has been specified.
      * <p/>
      * The default implementation builds a {@link org.springframework.core.task.SimpleAsyncTaskExecutor} with the
-     * specified bean name (or the class name, if no bean name specified) as thread name prefix.
+     * specified bean name (or the class name, if no bean name specified) as thread name prefix. If {@link
+     * #setVirtualThreads(boolean) virtualThreads} is enabled and supported by the JVM, the executor creates virtual
+     * threads.
      *
      * @see org.springframework.core.task.SimpleAsyncTaskExecutor#SimpleAsyncTaskExecutor(String)
      */
     protected TaskExecutor createDefaultTaskExecutor() {
         String threadNamePrefix = beanName != null ? beanName + "-" : DEFAULT_THREAD_NAME_PREFIX;
+        if (virtualThreads) {
+            ThreadFactory threadFactory = createVirtualThreadFactory(threadNamePrefix);
+            if (threadFactory != null) {
+                return new SimpleAsyncTaskExecutor(threadFactory);
+            }
+            if (logger.isWarnEnabled()) {
+                logger.warn("Virtual threads are not supported by this JVM; using platform threads");
+            }
+        }
         return new SimpleAsyncTaskExecutor(threadNamePrefix);
     }
 
+    /**
+     * Creates a factory for virtual threads with the given name prefix, using the Java 21
+     * <code>Thread.ofVirtual()</code> builder. Returns <code>null</code> if virtual threads are not supported.
+     */
+    private ThreadFactory createVirtualThreadFactory(String threadNamePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = ClassUtils.forName("java.lang.Thread$Builder", Thread.class.getClassLoader());
+            Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+            builder = nameMethod.invoke(builder, threadNamePrefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        }
+        catch (NoSuchMethodException ex) {
+            return null;
+        }
+        catch (ClassNotFoundException ex) {
+            return null;
+        }
+        catch (Exception ex) {
+            ReflectionUtils.handleReflectionException(ex);
+            return null;
+        }
+    }
+
     /**
      * Executes the given {@link Runnable} via this receiver's {@link TaskExecutor}.
+     * <p/>
+     * If a {@link #setConcurrencyLimit(int) concurrencyLimit} is set, and the runnable is not long-lived, this method
+     * blocks until a permit is available.
      *
+     * @throws TaskRejectedException if the current thread was interrupted while waiting for a permit
      * @see #setTaskExecutor(TaskExecutor)
      */
     protected void execute(Runnable runnable) {
-        taskExecutor.execute(runnable);
+        if (concurrencyPermits == null || isLongLived(runnable)) {
+            taskExecutor.execute(runnable);
+            return;
+        }
+        try {
+            concurrencyPermits.acquire();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Interrupted while waiting for concurrency permit", ex);
+        }
+        boolean executed = false;
+        try {
+            taskExecutor.execute(new ConcurrencyPermitRunnable(runnable));
+            executed = true;
+        }
+        finally {
+            if (!executed) {
+                concurrencyPermits.release();
+            }
+        }
+    }
+
+    private static boolean isLongLived(Runnable runnable) {
+        return runnable instanceof SchedulingAwareRunnable && ((SchedulingAwareRunnable) runnable).isLongLived();
+    }
+
+    /** Runnable that releases a concurrency permit after running its target. */
+    private class ConcurrencyPermitRunnable implements Runnable {
+
+        private final Runnable target;
+
+        private ConcurrencyPermitRunnable(Runnable target) {
+            this.target = target;
+        }
+
+        public void run() {
+            try {
+                target.run();
+            }
+            finally {
+                concurrencyPermits.release();
+            }
+        }
     }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.ws.transport.support;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.scheduling.SchedulingAwareRunnable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AsyncStandaloneMessageReceiverTest {
+
+    private TestingMessageReceiver receiver;
+
+    @Before
+    public void setUp() throws Exception {
+        receiver = new TestingMessageReceiver();
+        receiver.setBeanName("receiver");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        receiver.destroy();
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        receiver.setVirtualThreads(true);
+        receiver.afterPropertiesSet();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> threadName = new AtomicReference<String>();
+        receiver.execute(new Runnable() {
+            public void run() {
+                threadName.set(Thread.currentThread().getName());
+                latch.countDown();
+            }
+        });
+        assertTrue("Runnable not executed", latch.await(10, TimeUnit.SECONDS));
+        assertTrue("Invalid thread name", threadName.get().startsWith("receiver-"));
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        receiver.setConcurrencyLimit(2);
+        receiver.afterPropertiesSet();
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(3);
+        final Runnable handler = new Runnable() {
+            public void run() {
+                int current = running.incrementAndGet();
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), current));
+                }
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            }
+        };
+        final CountDownLatch submitted = new CountDownLatch(1);
+        final CountDownLatch longLivedStarted = new CountDownLatch(1);
+        Thread submitter = new Thread() {
+            @Override
+            public void run() {
+                receiver.execute(handler);
+                receiver.execute(handler);
+                // long-lived tasks are not limited
+                receiver.execute(new SchedulingAwareRunnable() {
+                    public void run() {
+                        longLivedStarted.countDown();
+                    }
+
+                    public boolean isLongLived() {
+                        return true;
+                    }
+                });
+                receiver.execute(handler);
+                submitted.countDown();
+            }
+        };
+        submitter.start();
+
+        assertTrue("Long-lived runnable not executed", longLivedStarted.await(10, TimeUnit.SECONDS));
+        assertFalse("Concurrency limit not applied", submitted.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue("Runnables not executed", done.await(10, TimeUnit.SECONDS));
+        assertTrue("Submitter still blocked", submitted.await(10, TimeUnit.SECONDS));
+        assertEquals("Invalid maximum concurrency", 2, maxRunning.get());
+    }
+
+    private static class TestingMessageReceiver extends AbstractAsyncStandaloneMessageReceiver {
+
+        @Override
+        protected void onActivate() throws Exception {
+        }
+
+        @Override
+        protected void onStart() {
+        }
+
+        @Override
+        protected void onStop() {
+        }
+
+        @Override
+        protected void onShutdown() {
+        }
+    }
+}
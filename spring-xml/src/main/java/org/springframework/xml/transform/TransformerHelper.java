@@ -16,6 +16,9 @@
 
 package org.springframework.xml.transform;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -29,6 +32,10 @@ import org.springframework.util.Assert;
 /**
  * Helper class for {@link Transformer} usage. Provides {@link #createTransformer()} and {@link #transform(Source,
  * Result)}.
+ * <p/>
+ * By default, {@link #transform(Source, Result)} creates a new {@code Transformer} for every call. Setting the {@link
+ * #setTransformerPoolSize(int) transformerPoolSize} to a positive number makes it reuse identity transformers from a
+ * bounded pool instead.
  *
  * @author Arjen Poutsma
  * @since 3.0
@@ -39,6 +46,10 @@ public class TransformerHelper {
 
     private Class<? extends TransformerFactory> transformerFactoryClass;
 
+    private volatile BlockingQueue<Transformer> transformerPool;
+
+    private final AtomicLong transformerCount = new AtomicLong();
+
     /**
      * Initializes a new instance of the {@code TransformerHelper}.
      */
@@ -67,6 +78,26 @@ public class TransformerHelper {
         this.transformerFactoryClass = transformerFactoryClass;
     }
 
+    /**
+     * Sets the maximum number of idle identity transformers kept for reuse by {@link #transform(Source, Result)}.
+     * Transformers are {@linkplain Transformer#reset() reset} before being returned to the pool. Defaults to
+     * <code>0</code>, meaning that a new transformer is created for every transformation.
+     */
+    public void setTransformerPoolSize(int transformerPoolSize) {
+        Assert.isTrue(transformerPoolSize >= 0, "'transformerPoolSize' must not be negative");
+        this.transformerPool =
+                transformerPoolSize > 0 ? new ArrayBlockingQueue<Transformer>(transformerPoolSize) : null;
+    }
+
+    /**
+     * Returns the number of transformers created by this helper so far.
+     *
+     * @see #createTransformer()
+     */
+    public long getTransformerCount() {
+        return transformerCount.get();
+    }
+
     /**
      * Instantiate a new TransformerFactory.
      * <p/>
@@ -122,20 +153,35 @@ public class TransformerHelper {
      *          if thrown by JAXP methods
      */
     public Transformer createTransformer() throws TransformerConfigurationException {
-        return getTransformerFactory().newTransformer();
+        Transformer transformer = getTransformerFactory().newTransformer();
+        transformerCount.incrementAndGet();
+        return transformer;
     }
 
     /**
      * Transforms the given {@link Source} to the given {@link Result}. Creates a new {@link Transformer} for every
-     * call, as transformers are not thread-safe.
+     * call, as transformers are not thread-safe, unless a {@link #setTransformerPoolSize(int) transformerPoolSize} has
+     * been set.
      *
      * @param source the source to transform from
      * @param result the result to transform to
      * @throws TransformerException if thrown by JAXP methods
      */
     public void transform(Source source, Result result) throws TransformerException {
-        Transformer transformer = createTransformer();
+        BlockingQueue<Transformer> pool = transformerPool;
+        if (pool == null) {
+            Transformer transformer = createTransformer();
+            transformer.transform(source, result);
+            return;
+        }
+        Transformer transformer = pool.poll();
+        if (transformer == null) {
+            transformer = createTransformer();
+        }
         transformer.transform(source, result);
+        // only reuse transformers that completed successfully
+        transformer.reset();
+        pool.offer(transformer);
     }
 
 }
@@ -51,6 +51,25 @@ public abstract class TransformerObjectSupport {
         transformerHelper.setTransformerFactoryClass(transformerFactoryClass);
     }
 
+    /**
+     * Sets the maximum number of idle identity transformers kept for reuse by {@link #transform(Source, Result)}.
+     * Defaults to <code>0</code>, meaning that a new transformer is created for every transformation.
+     *
+     * @see TransformerHelper#setTransformerPoolSize(int)
+     */
+    public void setTransformerPoolSize(int transformerPoolSize) {
+        transformerHelper.setTransformerPoolSize(transformerPoolSize);
+    }
+
+    /**
+     * Returns the number of transformers created so far.
+     *
+     * @see TransformerHelper#getTransformerCount()
+     */
+    public long getTransformerCount() {
+        return transformerHelper.getTransformerCount();
+    }
+
     /**
      * Instantiate a new TransformerFactory. <p>The default implementation simply calls {@link
      * TransformerFactory#newInstance()}. If a {@link #setTransformerFactoryClass "transformerFactoryClass"} has been
@@ -86,7 +105,8 @@ public abstract class TransformerObjectSupport {
 
     /**
      * Transforms the given {@link Source} to the given {@link Result}. Creates a new {@link Transformer} for every
-     * call, as transformers are not thread-safe.
+     * call, as transformers are not thread-safe, unless a {@link #setTransformerPoolSize(int) transformerPoolSize}
+     * has been set.
      *
      * @param source the source to transform from
      * @param result the result to transform to
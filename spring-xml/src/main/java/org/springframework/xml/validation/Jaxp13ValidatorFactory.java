@@ -19,6 +19,11 @@ package org.springframework.xml.validation;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
@@ -37,21 +42,59 @@ import org.xml.sax.SAXParseException;
 abstract class Jaxp13ValidatorFactory {
 
     static XmlValidator createValidator(Resource[] resources, String schemaLanguage) throws IOException {
+        return createValidator(resources, schemaLanguage, 0);
+    }
+
+    static PooledXmlValidator createValidator(Resource[] resources, String schemaLanguage, int poolSize)
+            throws IOException {
         try {
             Schema schema = SchemaLoaderUtils.loadSchema(resources, schemaLanguage);
-            return new Jaxp13Validator(schema);
+            return new Jaxp13Validator(schema, poolSize);
         }
         catch (SAXException ex) {
             throw new XmlValidationException("Could not create Schema: " + ex.getMessage(), ex);
         }
     }
 
-    private static class Jaxp13Validator implements XmlValidator {
+    static XmlValidator createPooledValidator(XmlValidator validator, int poolSize) {
+        if (validator instanceof Jaxp13Validator) {
+            Jaxp13Validator jaxp13Validator = (Jaxp13Validator) validator;
+            if (jaxp13Validator.poolSize != poolSize) {
+                // the schema is thread-safe, and can be shared
+                return new Jaxp13Validator(jaxp13Validator.schema, poolSize);
+            }
+        }
+        return validator;
+    }
+
+    private static class Jaxp13Validator implements PooledXmlValidator, StreamingXmlValidator {
+
+        private final Schema schema;
 
-        private Schema schema;
+        private final int poolSize;
 
-        public Jaxp13Validator(Schema schema) {
+        private final BlockingQueue<Validator> pool;
+
+        private final AtomicLong poolHits = new AtomicLong();
+
+        private final AtomicLong poolMisses = new AtomicLong();
+
+        public Jaxp13Validator(Schema schema, int poolSize) {
             this.schema = schema;
+            this.poolSize = poolSize;
+            this.pool = poolSize > 0 ? new ArrayBlockingQueue<Validator>(poolSize) : null;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public long getPoolHits() {
+            return poolHits.get();
+        }
+
+        public long getPoolMisses() {
+            return poolMisses.get();
         }
 
         public SAXParseException[] validate(Source source) throws IOException {
@@ -62,15 +105,43 @@ abstract class Jaxp13ValidatorFactory {
             if (errorHandler == null) {
                 errorHandler = new DefaultValidationErrorHandler();
             }
-            Validator validator = schema.newValidator();
+            Validator validator = borrowValidator();
             validator.setErrorHandler(errorHandler);
             try {
                 validator.validate(source);
-                return errorHandler.getErrors();
             }
             catch (SAXException ex) {
                 throw new XmlValidationException("Could not validate source: " + ex.getMessage(), ex);
             }
+            // only reuse validators that completed successfully
+            returnValidator(validator);
+            return errorHandler.getErrors();
+        }
+
+        public ValidatingXMLStreamReader createValidatingStreamReader(XMLStreamReader streamReader,
+                                                                      ValidationErrorHandler errorHandler)
+                throws XMLStreamException {
+            if (errorHandler == null) {
+                errorHandler = new DefaultValidationErrorHandler();
+            }
+            return new ValidatingXMLStreamReader(streamReader, schema.newValidatorHandler(), errorHandler);
+        }
+
+        private Validator borrowValidator() {
+            Validator validator = pool != null ? pool.poll() : null;
+            if (validator != null) {
+                poolHits.incrementAndGet();
+                return validator;
+            }
+            poolMisses.incrementAndGet();
+            return schema.newValidator();
+        }
+
+        private void returnValidator(Validator validator) {
+            if (pool != null) {
+                validator.reset();
+                pool.offer(validator);
+            }
         }
     }
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+/**
+ * Extension of the {@link XmlValidator} interface that reuses the underlying validators from a bounded pool, and
+ * exposes statistics about that pool. Can be created via the {@link XmlValidatorFactory}.
+ *
+ * @author agent
+ * @see XmlValidatorFactory#createValidator(org.springframework.core.io.Resource[], String, int)
+ * @since 2.1.5
+ */
+public interface PooledXmlValidator extends XmlValidator {
+
+    /** Returns the maximum number of idle validators kept in the pool. A size of <code>0</code> disables pooling. */
+    int getPoolSize();
+
+    /** Returns the number of validations that reused a pooled validator. */
+    long getPoolHits();
+
+    /** Returns the number of validations that had to create a new validator. */
+    long getPoolMisses();
+
+}
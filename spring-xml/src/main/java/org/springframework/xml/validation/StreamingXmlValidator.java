@@ -0,0 +1,44 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Extension of the {@link XmlValidator} interface that can validate a document while it is being read through a
+ * {@link XMLStreamReader}. Can be created via the {@link XmlValidatorFactory}.
+ *
+ * @author agent
+ * @see ValidatingXMLStreamReader
+ * @since 2.1.5
+ */
+public interface StreamingXmlValidator extends XmlValidator {
+
+    /**
+     * Wraps the given {@link XMLStreamReader} in a reader that validates the document as it is read.
+     *
+     * @param streamReader the reader to wrap
+     * @param errorHandler the error handler to use. May be {@code null}, in which case a default will be used.
+     * @return the validating reader
+     * @throws XMLStreamException in case of validation errors on the current event of the given reader
+     */
+    ValidatingXMLStreamReader createValidatingStreamReader(XMLStreamReader streamReader,
+                                                           ValidationErrorHandler errorHandler)
+            throws XMLStreamException;
+
+}
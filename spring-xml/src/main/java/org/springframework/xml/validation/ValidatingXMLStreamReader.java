@@ -0,0 +1,267 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.validation.ValidatorHandler;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * {@link XMLStreamReader} wrapper that validates the events of the wrapped reader as they are read, by feeding them to
+ * a JAXP {@link ValidatorHandler}. This allows a document to be validated while it is consumed by some other party,
+ * without the need to buffer it.
+ * <p/>
+ * Validation errors are collected by the given {@link ValidationErrorHandler}; use {@link #finish()} to read (and
+ * validate) any remaining events once the consumer is done, and {@link #getErrors()} to retrieve the errors. The
+ * errors carry the line and column number of the {@linkplain #getLocation() location} of the wrapped reader.
+ * <p/>
+ * When the wrapped reader starts at an element within a larger document, such as the payload of a SOAP message, the
+ * namespaces declared on the ancestors of that element are still needed to validate prefixed values, such as
+ * {@code xsi:type} attributes. These are taken from the namespace declarations the wrapped reader reports on its
+ * first element, so it should report all namespaces in scope there.
+ *
+ * @author agent
+ * @see StreamingXmlValidator#createValidatingStreamReader(XMLStreamReader, ValidationErrorHandler)
+ * @since 2.1.5
+ */
+public class ValidatingXMLStreamReader extends StreamReaderDelegate {
+
+    private final ValidatorHandler validatorHandler;
+
+    private final ValidationErrorHandler errorHandler;
+
+    private int depth;
+
+    private boolean complete;
+
+    /**
+     * Creates a new {@code ValidatingXMLStreamReader} that wraps the given reader.
+     *
+     * @param streamReader     the reader to wrap; positioned at the start of the document or the root element
+     * @param validatorHandler the validator handler to feed events to
+     * @param errorHandler     the error handler that collects validation errors
+     * @throws XMLStreamException in case of validation errors on the current event
+     */
+    public ValidatingXMLStreamReader(XMLStreamReader streamReader, ValidatorHandler validatorHandler,
+                                     ValidationErrorHandler errorHandler) throws XMLStreamException {
+        super(streamReader);
+        Assert.notNull(validatorHandler, "'validatorHandler' must not be null");
+        Assert.notNull(errorHandler, "'errorHandler' must not be null");
+        this.validatorHandler = validatorHandler;
+        this.errorHandler = errorHandler;
+        validatorHandler.setErrorHandler(errorHandler);
+        validatorHandler.setDocumentLocator(new StreamReaderLocator());
+        try {
+            validatorHandler.startDocument();
+        }
+        catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+        handleEvent(streamReader.getEventType());
+    }
+
+    /** Indicates whether the complete document has been read, and thus validated. */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the validation errors found so far. Only when this reader is {@linkplain #isComplete() complete} does
+     * this represent all errors in the document.
+     */
+    public SAXParseException[] getErrors() {
+        return errorHandler.getErrors();
+    }
+
+    /**
+     * Reads all remaining events, so that the complete document is validated.
+     *
+     * @return the validation errors
+     * @throws XMLStreamException in case of XML parsing errors
+     */
+    public SAXParseException[] finish() throws XMLStreamException {
+        while (!complete && super.hasNext()) {
+            next();
+        }
+        return getErrors();
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        int event = super.next();
+        handleEvent(event);
+        return event;
+    }
+
+    /** Overridden to route all events through {@link #next()}. */
+    @Override
+    public int nextTag() throws XMLStreamException {
+        int event = next();
+        while ((event == XMLStreamConstants.CHARACTERS && isWhiteSpace()) ||
+                (event == XMLStreamConstants.CDATA && isWhiteSpace()) || event == XMLStreamConstants.SPACE ||
+                event == XMLStreamConstants.PROCESSING_INSTRUCTION || event == XMLStreamConstants.COMMENT) {
+            event = next();
+        }
+        if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+            throw new XMLStreamException("expected start or end tag", getLocation());
+        }
+        return event;
+    }
+
+    /** Overridden to route all events through {@link #next()}. */
+    @Override
+    public String getElementText() throws XMLStreamException {
+        if (getEventType() != XMLStreamConstants.START_ELEMENT) {
+            throw new XMLStreamException("parser must be on START_ELEMENT to read next text", getLocation());
+        }
+        int event = next();
+        StringBuilder builder = new StringBuilder();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA ||
+                    event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                builder.append(getText());
+            }
+            else if (event == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("unexpected end of document when reading element text content",
+                        getLocation());
+            }
+            else if (event == XMLStreamConstants.START_ELEMENT) {
+                throw new XMLStreamException("element text content may not contain START_ELEMENT", getLocation());
+            }
+            event = next();
+        }
+        return builder.toString();
+    }
+
+    private void handleEvent(int event) throws XMLStreamException {
+        if (complete) {
+            return;
+        }
+        try {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    startElement();
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    endElement();
+                    if (--depth == 0) {
+                        endDocument();
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (depth > 0) {
+                        validatorHandler.characters(getTextCharacters(), getTextStart(), getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (depth > 0) {
+                        char[] text = getText().toCharArray();
+                        validatorHandler.characters(text, 0, text.length);
+                    }
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    endDocument();
+                    break;
+            }
+        }
+        catch (SAXException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    private void startElement() throws SAXException {
+        for (int i = 0; i < getNamespaceCount(); i++) {
+            validatorHandler.startPrefixMapping(nullToEmpty(getNamespacePrefix(i)), nullToEmpty(getNamespaceURI(i)));
+        }
+        AttributesImpl attributes = new AttributesImpl();
+        for (int i = 0; i < getAttributeCount(); i++) {
+            String namespaceUri = nullToEmpty(getAttributeNamespace(i));
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceUri)) {
+                continue;
+            }
+            String localName = getAttributeLocalName(i);
+            String type = getAttributeType(i);
+            attributes.addAttribute(namespaceUri, localName, toQualifiedName(getAttributePrefix(i), localName),
+                    type != null ? type : "CDATA", getAttributeValue(i));
+        }
+        validatorHandler.startElement(nullToEmpty(getNamespaceURI()), getLocalName(),
+                toQualifiedName(getPrefix(), getLocalName()), attributes);
+    }
+
+    private void endElement() throws SAXException {
+        validatorHandler.endElement(nullToEmpty(getNamespaceURI()), getLocalName(),
+                toQualifiedName(getPrefix(), getLocalName()));
+        for (int i = 0; i < getNamespaceCount(); i++) {
+            validatorHandler.endPrefixMapping(nullToEmpty(getNamespacePrefix(i)));
+        }
+    }
+
+    private void endDocument() throws SAXException {
+        if (!complete) {
+            complete = true;
+            validatorHandler.endDocument();
+        }
+    }
+
+    private static String toQualifiedName(String prefix, String localName) {
+        return StringUtils.hasLength(prefix) ? prefix + ":" + localName : localName;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s != null ? s : "";
+    }
+
+    /** SAX locator that returns the location of the current event. */
+    private class StreamReaderLocator implements Locator {
+
+        public String getPublicId() {
+            Location location = getLocation();
+            return location != null ? location.getPublicId() : null;
+        }
+
+        public String getSystemId() {
+            Location location = getLocation();
+            return location != null ? location.getSystemId() : null;
+        }
+
+        public int getLineNumber() {
+            Location location = getLocation();
+            return location != null ? location.getLineNumber() : -1;
+        }
+
+        public int getColumnNumber() {
+            Location location = getLocation();
+            return location != null ? location.getColumnNumber() : -1;
+        }
+    }
+
+}
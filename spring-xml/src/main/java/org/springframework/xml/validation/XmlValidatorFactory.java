@@ -80,6 +80,28 @@ public abstract class XmlValidatorFactory {
      * @see #SCHEMA_W3C_XML
      */
     public static XmlValidator createValidator(Resource[] schemaResources, String schemaLanguage) throws IOException {
+        return createValidator(schemaResources, schemaLanguage, 0);
+    }
+
+    /**
+     * Create a {@link PooledXmlValidator} with the given schema resources, schema language type, and pool size. The
+     * schema language must be one of the <code>SCHEMA_XXX</code> constants. Up to <code>poolSize</code> idle JAXP
+     * validators are kept for reuse; a pool size of <code>0</code> creates a new validator for every validation.
+     *
+     * @param schemaResources an array of resource that locate the schemas to validate against
+     * @param schemaLanguage  the language of the schemas
+     * @param poolSize        the maximum number of idle validators to keep
+     * @return a validator
+     * @throws IOException              if the schema resource cannot be read
+     * @throws IllegalArgumentException if the schema language is not supported
+     * @throws IllegalStateException    if JAXP 1.0 cannot be located
+     * @throws XmlValidationException   if a <code>XmlValidator</code> cannot be created
+     * @see #SCHEMA_RELAX_NG
+     * @see #SCHEMA_W3C_XML
+     */
+    public static PooledXmlValidator createValidator(Resource[] schemaResources, String schemaLanguage, int poolSize)
+            throws IOException {
+        Assert.isTrue(poolSize >= 0, "'poolSize' must not be negative");
         Assert.notEmpty(schemaResources, "No resources given");
         Assert.hasLength(schemaLanguage, "No schema language provided");
         Assert.isTrue(SCHEMA_W3C_XML.equals(schemaLanguage) || SCHEMA_RELAX_NG.equals(schemaLanguage),
@@ -89,11 +111,30 @@ public abstract class XmlValidatorFactory {
         }
         if (JaxpVersion.getJaxpVersion() >= JaxpVersion.JAXP_13) {
             logger.trace("Creating JAXP 1.3 XmlValidator");
-            return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage);
+            return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage, poolSize);
         }
         else {
             throw new IllegalStateException("Could not locate JAXP 1.3.");
         }
     }
 
+    /**
+     * Create a validator that validates against the same schema as the given validator, and that keeps up to
+     * <code>poolSize</code> idle JAXP validators for reuse. The compiled schema is shared with the given validator.
+     * <p/>
+     * Only validators created by this factory, such as the ones created by the {@link
+     * org.springframework.xml.xsd.XsdSchema} and {@link org.springframework.xml.xsd.XsdSchemaCollection}
+     * implementations, can be pooled; other validators are returned as is.
+     *
+     * @param validator the validator to pool
+     * @param poolSize  the maximum number of idle validators to keep
+     * @return the pooled validator, or the given validator if it cannot be pooled
+     * @see #createValidator(Resource[], String, int)
+     */
+    public static XmlValidator createPooledValidator(XmlValidator validator, int poolSize) {
+        Assert.notNull(validator, "'validator' must not be null");
+        Assert.isTrue(poolSize >= 0, "'poolSize' must not be negative");
+        return Jaxp13ValidatorFactory.createPooledValidator(validator, poolSize);
+    }
+
 }
@@ -0,0 +1,474 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.xpath;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+
+import org.springframework.util.Assert;
+import org.springframework.util.xml.StaxUtils;
+
+/**
+ * XPath expression that is evaluated in a single forward pass over a {@link XMLStreamReader}, without building a DOM
+ * tree. Only a restricted subset of XPath is supported: absolute location paths consisting of child element steps
+ * (either qualified names or <code>*</code>), optionally filtered by attribute predicates (<code>[@attr]</code> or
+ * <code>[@attr='value']</code>), and optionally ending in an attribute step (<code>@attr</code>) or a
+ * <code>text()</code> step. For example: <code>/p:order/p:item[@type='book']/@id</code>.
+ * <p/>
+ * Use {@link #compile(String, NamespaceContext)} to check whether an expression falls within this subset; callers are
+ * expected to fall back to a full XPath implementation if it does not. Instances are immutable, and thus thread-safe.
+ *
+ * @author Arjen Poutsma
+ * @see #evaluate(XMLStreamReader, StreamingXPathExpression...)
+ * @since 2.1.5
+ */
+public class StreamingXPathExpression {
+
+    private static final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+    private final String expression;
+
+    private final Step[] steps;
+
+    private final QName attributeName;
+
+    private final boolean text;
+
+    private StreamingXPathExpression(String expression, Step[] steps, QName attributeName, boolean text) {
+        this.expression = expression;
+        this.steps = steps;
+        this.attributeName = attributeName;
+        this.text = text;
+    }
+
+    /**
+     * Compiles the given XPath expression into a streaming expression, if it falls within the supported subset.
+     *
+     * @param expression       the XPath expression
+     * @param namespaceContext the namespace context used to resolve prefixes; may be <code>null</code>
+     * @return the streaming expression, or <code>null</code> if the expression is not supported
+     */
+    public static StreamingXPathExpression compile(String expression, NamespaceContext namespaceContext) {
+        Assert.hasLength(expression, "expression is empty");
+        return new Parser(expression.trim(), namespaceContext).parse();
+    }
+
+    /**
+     * Evaluates the given expressions in a single pass over the given source. Only {@link StreamSource}s backed by a
+     * stream or reader, and StAX sources backed by a {@link XMLStreamReader}, can be evaluated in this manner.
+     *
+     * @param source      the source to evaluate against
+     * @param expressions the expressions to evaluate
+     * @return the results, in the same order as the expressions; or <code>null</code> if the source cannot be streamed
+     * @throws XPathException in case of XML parsing errors
+     * @see #evaluate(XMLStreamReader, StreamingXPathExpression...)
+     */
+    public static String[] evaluate(Source source, StreamingXPathExpression... expressions) throws XPathException {
+        try {
+            if (StaxUtils.isStaxSource(source)) {
+                XMLStreamReader streamReader = StaxUtils.getXMLStreamReader(source);
+                return streamReader != null ? evaluate(streamReader, expressions) : null;
+            }
+            else if (source instanceof StreamSource) {
+                StreamSource streamSource = (StreamSource) source;
+                XMLStreamReader streamReader;
+                if (streamSource.getInputStream() != null) {
+                    InputStream inputStream = streamSource.getInputStream();
+                    streamReader = streamSource.getSystemId() != null ?
+                            inputFactory.createXMLStreamReader(streamSource.getSystemId(), inputStream) :
+                            inputFactory.createXMLStreamReader(inputStream);
+                }
+                else if (streamSource.getReader() != null) {
+                    Reader reader = streamSource.getReader();
+                    streamReader = streamSource.getSystemId() != null ?
+                            inputFactory.createXMLStreamReader(streamSource.getSystemId(), reader) :
+                            inputFactory.createXMLStreamReader(reader);
+                }
+                else {
+                    return null;
+                }
+                try {
+                    return evaluate(streamReader, expressions);
+                }
+                finally {
+                    streamReader.close();
+                }
+            }
+            else {
+                return null;
+            }
+        }
+        catch (XMLStreamException ex) {
+            throw new XPathException("Could not evaluate streaming XPath expressions: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Evaluates the given expressions in a single pass over the given stream reader. Reading stops as soon as all
+     * expressions have been resolved, so the reader is generally not positioned at the end of the document afterwards.
+     * <p/>
+     * The result for each expression is the string value of the first matching node in document order, or
+     * <code>null</code> if no node matched. Note that a <code>null</code> result corresponds to an empty node-set,
+     * i.e. an XPath string value of <code>""</code> and a boolean value of <code>false</code>.
+     *
+     * @param streamReader the stream reader, positioned at the start of the document or the root element
+     * @param expressions  the expressions to evaluate
+     * @return the results, in the same order as the expressions
+     * @throws XMLStreamException in case of XML parsing errors
+     */
+    public static String[] evaluate(XMLStreamReader streamReader, StreamingXPathExpression... expressions)
+            throws XMLStreamException {
+        Assert.notNull(streamReader, "'streamReader' must not be null");
+        String[] results = new String[expressions.length];
+        State[] states = new State[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            states[i] = new State(expressions[i]);
+        }
+        int unresolved = expressions.length;
+        int depth = 0;
+        int event = streamReader.getEventType();
+        while (unresolved > 0) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    for (int i = 0; i < states.length; i++) {
+                        if (results[i] == null) {
+                            results[i] = states[i].startElement(streamReader, depth);
+                            if (results[i] != null) {
+                                unresolved--;
+                            }
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    for (int i = 0; i < states.length; i++) {
+                        if (results[i] == null) {
+                            results[i] = states[i].endElement(depth);
+                            if (results[i] != null) {
+                                unresolved--;
+                            }
+                        }
+                    }
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    for (int i = 0; i < states.length; i++) {
+                        if (results[i] == null) {
+                            states[i].characters(streamReader, depth);
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    for (int i = 0; i < states.length; i++) {
+                        if (results[i] == null) {
+                            results[i] = states[i].endText(depth);
+                            if (results[i] != null) {
+                                unresolved--;
+                            }
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    return results;
+            }
+            if (unresolved == 0 || !streamReader.hasNext()) {
+                break;
+            }
+            event = streamReader.next();
+        }
+        return results;
+    }
+
+    /** Returns the string representation of this expression. */
+    public String getExpression() {
+        return expression;
+    }
+
+    public String toString() {
+        return expression;
+    }
+
+    /** Mutable evaluation state of a single expression. */
+    private static class State {
+
+        private final StreamingXPathExpression expression;
+
+        /** The depth up to which the steps of the expression match the current element path. */
+        private int matchedDepth;
+
+        private StringBuilder buffer;
+
+        private State(StreamingXPathExpression expression) {
+            this.expression = expression;
+        }
+
+        private String startElement(XMLStreamReader streamReader, int depth) {
+            Step[] steps = expression.steps;
+            if (buffer != null && expression.text) {
+                String result = endText(depth - 1);
+                if (result != null) {
+                    return result;
+                }
+            }
+            if (matchedDepth == depth - 1 && depth <= steps.length && steps[depth - 1].matches(streamReader)) {
+                matchedDepth = depth;
+                if (depth == steps.length) {
+                    if (expression.attributeName != null) {
+                        return getAttributeValue(streamReader, expression.attributeName);
+                    }
+                    else {
+                        buffer = new StringBuilder();
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void characters(XMLStreamReader streamReader, int depth) {
+            if (buffer != null && (!expression.text || depth == matchedDepth)) {
+                buffer.append(streamReader.getText());
+            }
+        }
+
+        private String endText(int depth) {
+            if (buffer != null && expression.text && depth == matchedDepth && buffer.length() > 0) {
+                String result = buffer.toString();
+                buffer = null;
+                return result;
+            }
+            return null;
+        }
+
+        private String endElement(int depth) {
+            String result = null;
+            if (depth == matchedDepth) {
+                if (buffer != null && (!expression.text || buffer.length() > 0)) {
+                    result = buffer.toString();
+                }
+                buffer = null;
+                matchedDepth--;
+            }
+            return result;
+        }
+
+    }
+
+    private static String getAttributeValue(XMLStreamReader streamReader, QName attributeName) {
+        for (int i = 0; i < streamReader.getAttributeCount(); i++) {
+            if (attributeName.getLocalPart().equals(streamReader.getAttributeLocalName(i)) &&
+                    attributeName.getNamespaceURI().equals(nullToEmpty(streamReader.getAttributeNamespace(i)))) {
+                return streamReader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s != null ? s : XMLConstants.NULL_NS_URI;
+    }
+
+    /** A single child element step, with optional attribute predicates. */
+    private static class Step {
+
+        /** The element name; or <code>null</code> for <code>*</code>. */
+        private final QName name;
+
+        private final List<Predicate> predicates;
+
+        private Step(QName name, List<Predicate> predicates) {
+            this.name = name;
+            this.predicates = predicates;
+        }
+
+        private boolean matches(XMLStreamReader streamReader) {
+            if (name != null && !(name.getLocalPart().equals(streamReader.getLocalName()) &&
+                    name.getNamespaceURI().equals(nullToEmpty(streamReader.getNamespaceURI())))) {
+                return false;
+            }
+            for (Predicate predicate : predicates) {
+                String value = getAttributeValue(streamReader, predicate.attributeName);
+                if (value == null || (predicate.value != null && !predicate.value.equals(value))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** An attribute predicate: <code>[@attr]</code> if the value is <code>null</code>; <code>[@attr='value']</code> otherwise. */
+    private static class Predicate {
+
+        private final QName attributeName;
+
+        private final String value;
+
+        private Predicate(QName attributeName, String value) {
+            this.attributeName = attributeName;
+            this.value = value;
+        }
+    }
+
+    /** Recursive-descent parser for the supported subset. Returns <code>null</code> for anything outside it. */
+    private static class Parser {
+
+        private final String expression;
+
+        private final NamespaceContext namespaceContext;
+
+        private int pos;
+
+        private Parser(String expression, NamespaceContext namespaceContext) {
+            this.expression = expression;
+            this.namespaceContext = namespaceContext;
+        }
+
+        private StreamingXPathExpression parse() {
+            List<Step> steps = new ArrayList<Step>();
+            QName attributeName = null;
+            boolean text = false;
+            while (pos < expression.length()) {
+                if (!consume('/')) {
+                    return null;
+                }
+                if (consume('@')) {
+                    attributeName = parseName(false);
+                    if (attributeName == null || pos != expression.length()) {
+                        return null;
+                    }
+                }
+                else if (expression.startsWith("text()", pos)) {
+                    pos += "text()".length();
+                    if (pos != expression.length()) {
+                        return null;
+                    }
+                    text = true;
+                }
+                else {
+                    Step step = parseStep();
+                    if (step == null) {
+                        return null;
+                    }
+                    steps.add(step);
+                }
+            }
+            if (steps.isEmpty()) {
+                return null;
+            }
+            return new StreamingXPathExpression(expression, steps.toArray(new Step[steps.size()]), attributeName,
+                    text);
+        }
+
+        private Step parseStep() {
+            QName name = null;
+            if (!consume('*')) {
+                name = parseName(true);
+                if (name == null) {
+                    return null;
+                }
+            }
+            List<Predicate> predicates = new ArrayList<Predicate>();
+            while (consume('[')) {
+                if (!consume('@')) {
+                    return null;
+                }
+                QName attributeName = parseName(false);
+                if (attributeName == null) {
+                    return null;
+                }
+                String value = null;
+                if (consume('=')) {
+                    if (pos >= expression.length()) {
+                        return null;
+                    }
+                    char quote = expression.charAt(pos);
+                    if (quote != '\'' && quote != '"') {
+                        return null;
+                    }
+                    int end = expression.indexOf(quote, pos + 1);
+                    if (end == -1) {
+                        return null;
+                    }
+                    value = expression.substring(pos + 1, end);
+                    pos = end + 1;
+                }
+                if (!consume(']')) {
+                    return null;
+                }
+                predicates.add(new Predicate(attributeName, value));
+            }
+            return new Step(name, predicates);
+        }
+
+        /**
+         * Parses a (possibly prefixed) name. Unprefixed element and attribute names are in no namespace, as per XPath
+         * 1.0; prefixed names must be bound in the namespace context.
+         */
+        private QName parseName(boolean element) {
+            int start = pos;
+            while (pos < expression.length() && isNameChar(expression.charAt(pos))) {
+                pos++;
+            }
+            String name = expression.substring(start, pos);
+            if (name.length() == 0 || !Character.isLetter(name.charAt(0)) && name.charAt(0) != '_') {
+                return null;
+            }
+            int colon = name.indexOf(':');
+            if (colon == -1) {
+                return new QName(name);
+            }
+            String prefix = name.substring(0, colon);
+            String localName = name.substring(colon + 1);
+            if (localName.length() == 0 || localName.indexOf(':') != -1 || namespaceContext == null) {
+                return null;
+            }
+            String namespaceUri = namespaceContext.getNamespaceURI(prefix);
+            if (namespaceUri == null || namespaceUri.length() == 0 ||
+                    (!element && XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceUri))) {
+                return null;
+            }
+            return new QName(namespaceUri, localName, prefix);
+        }
+
+        private boolean isNameChar(char ch) {
+            return Character.isLetterOrDigit(ch) || ch == '_' || ch == '-' || ch == '.' || ch == ':';
+        }
+
+        private boolean consume(char ch) {
+            if (pos < expression.length() && expression.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import org.junit.Test;
 import org.xml.sax.SAXException;
 
 import static org.custommonkey.xmlunit.XMLAssert.assertXMLEqual;
+import static org.junit.Assert.assertEquals;
 
 public class TransformerHelperTest {
 
@@ -48,6 +49,19 @@ public class TransformerHelperTest {
         doTest();
     }
 
+    @Test
+    public void transformerPool() throws TransformerException, IOException, SAXException {
+        doTest();
+        doTest();
+        assertEquals("Invalid transformer count", 2, helper.getTransformerCount());
+
+        helper.setTransformerPoolSize(1);
+        doTest();
+        doTest();
+        doTest();
+        assertEquals("Transformer not reused", 3, helper.getTransformerCount());
+    }
+
     private void doTest() throws TransformerException, SAXException, IOException {
         String xml = "<root xmlns='http://springframework.org/spring-ws'><child>text</child></root>";
         Source source = new StringSource(xml);
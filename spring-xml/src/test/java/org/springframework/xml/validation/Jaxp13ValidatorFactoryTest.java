@@ -17,13 +17,75 @@
 package org.springframework.xml.validation;
 
 import java.io.IOException;
+import java.io.InputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.stax.StAXSource;
 
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXParseException;
+
 public class Jaxp13ValidatorFactoryTest extends AbstractValidatorFactoryTestCase {
 
     @Override
     protected XmlValidator createValidator(Resource[] schemaResources, String schemaLanguage) throws IOException {
         return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testValidatingStreamReader() throws Exception {
+        Assert.assertEquals("ValidationErrors returned", 0, validateStreaming("validDocument.xml"));
+        Assert.assertEquals("ValidationErrors returned", 3, validateStreaming("invalidDocument.xml"));
+    }
+
+    @Test
+    public void testValidatingStreamReaderFinish() throws Exception {
+        Resource[] schemaResource =
+                new Resource[]{new ClassPathResource("schema.xsd", AbstractValidatorFactoryTestCase.class)};
+        StreamingXmlValidator validator = (StreamingXmlValidator) Jaxp13ValidatorFactory
+                .createValidator(schemaResource, XmlValidatorFactory.SCHEMA_W3C_XML);
+        InputStream inputStream = AbstractValidatorFactoryTestCase.class.getResourceAsStream("invalidDocument.xml");
+        try {
+            ValidatingXMLStreamReader streamReader = validator.createValidatingStreamReader(
+                    XMLInputFactory.newInstance().createXMLStreamReader(inputStream), null);
+            streamReader.nextTag();
+            Assert.assertFalse("Reader complete", streamReader.isComplete());
+            SAXParseException[] errors = streamReader.finish();
+            Assert.assertEquals("ValidationErrors returned", 3, errors.length);
+            Assert.assertTrue("Reader not complete", streamReader.isComplete());
+            for (SAXParseException error : errors) {
+                Assert.assertTrue("No line number", error.getLineNumber() > 0);
+                Assert.assertTrue("No column number", error.getColumnNumber() > 0);
+            }
+        }
+        finally {
+            inputStream.close();
+        }
+    }
+
+    private int validateStreaming(String document) throws Exception {
+        Resource[] schemaResource =
+                new Resource[]{new ClassPathResource("schema.xsd", AbstractValidatorFactoryTestCase.class)};
+        StreamingXmlValidator validator = (StreamingXmlValidator) Jaxp13ValidatorFactory
+                .createValidator(schemaResource, XmlValidatorFactory.SCHEMA_W3C_XML);
+        InputStream inputStream = AbstractValidatorFactoryTestCase.class.getResourceAsStream(document);
+        try {
+            ValidatingXMLStreamReader streamReader = validator.createValidatingStreamReader(
+                    XMLInputFactory.newInstance().createXMLStreamReader(inputStream), null);
+            DOMResult result = new DOMResult();
+            TransformerFactory.newInstance().newTransformer().transform(new StAXSource(streamReader), result);
+            Assert.assertNotNull("Document not read", ((Document) result.getNode()).getDocumentElement());
+            Assert.assertTrue("Reader not complete", streamReader.isComplete());
+            return streamReader.finish().length;
+        }
+        finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.xml.transform.stream.StreamSource;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.xml.sax.SAXParseException;
+
+public class PooledJaxp13ValidatorFactoryTest extends AbstractValidatorFactoryTestCase {
+
+    @Override
+    protected XmlValidator createValidator(Resource[] schemaResources, String schemaLanguage) throws IOException {
+        return Jaxp13ValidatorFactory.createValidator(schemaResources, schemaLanguage, 2);
+    }
+
+    @Test
+    public void testPoolStatistics() throws Exception {
+        Resource[] schemaResource =
+                new Resource[]{new ClassPathResource("schema.xsd", AbstractValidatorFactoryTestCase.class)};
+        PooledXmlValidator validator =
+                Jaxp13ValidatorFactory.createValidator(schemaResource, XmlValidatorFactory.SCHEMA_W3C_XML, 2);
+        Assert.assertEquals("Invalid pool size", 2, validator.getPoolSize());
+
+        Assert.assertEquals("ValidationErrors returned", 3, validate(validator, "invalidDocument.xml").length);
+        Assert.assertEquals("ValidationErrors returned", 0, validate(validator, "validDocument.xml").length);
+        Assert.assertEquals("ValidationErrors returned", 3, validate(validator, "invalidDocument.xml").length);
+
+        Assert.assertEquals("Invalid pool misses", 1, validator.getPoolMisses());
+        Assert.assertEquals("Invalid pool hits", 2, validator.getPoolHits());
+    }
+
+    @Test
+    public void testCreatePooledValidator() throws Exception {
+        Resource[] schemaResource =
+                new Resource[]{new ClassPathResource("schema.xsd", AbstractValidatorFactoryTestCase.class)};
+        XmlValidator validator =
+                Jaxp13ValidatorFactory.createValidator(schemaResource, XmlValidatorFactory.SCHEMA_W3C_XML);
+        PooledXmlValidator pooledValidator =
+                (PooledXmlValidator) XmlValidatorFactory.createPooledValidator(validator, 2);
+        Assert.assertEquals("Invalid pool size", 2, pooledValidator.getPoolSize());
+        Assert.assertSame("Pooled validator not reused", pooledValidator,
+                XmlValidatorFactory.createPooledValidator(pooledValidator, 2));
+
+        Assert.assertEquals("ValidationErrors returned", 3, validate(pooledValidator, "invalidDocument.xml").length);
+        Assert.assertEquals("ValidationErrors returned", 0, validate(pooledValidator, "validDocument.xml").length);
+        Assert.assertEquals("Invalid pool hits", 1, pooledValidator.getPoolHits());
+    }
+
+    private SAXParseException[] validate(XmlValidator validator, String document) throws IOException {
+        InputStream inputStream = AbstractValidatorFactoryTestCase.class.getResourceAsStream(document);
+        try {
+            return validator.validate(new StreamSource(inputStream));
+        }
+        finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2005-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.xml.xpath;
+
+import java.io.StringReader;
+import java.util.Collections;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+
+import org.springframework.xml.namespace.SimpleNamespaceContext;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingXPathExpressionTest {
+
+    private static final String XML = "<root xmlns:p='urn:p'>" + "<p:item type='cd' id='1'>first</p:item>" +
+            "<p:item type='book' id='2'>sec<b>o</b>nd<![CDATA[!]]></p:item>" + "<p:item type='book' id='3'/>" +
+            "<text>a<!-- c -->b</text>" + "</root>";
+
+    private SimpleNamespaceContext namespaceContext;
+
+    @Before
+    public void setUp() throws Exception {
+        namespaceContext = new SimpleNamespaceContext();
+        namespaceContext.setBindings(Collections.singletonMap("p", "urn:p"));
+    }
+
+    @Test
+    public void compileUnsupported() {
+        String[] expressions = new String[]{"root", "//root", "/root//p:item", "/root/p:item[1]", "count(/root)",
+                "/root/..", "/root/unbound:item", "/root/p:item[@type='book'", "/root/@id/text()", "/@id",
+                "/root/p:item[text()='first']", "/root/p:*"};
+        for (String expression : expressions) {
+            Assert.assertNull("Expression [" + expression + "] compiled",
+                    StreamingXPathExpression.compile(expression, namespaceContext));
+        }
+    }
+
+    @Test
+    public void evaluateElement() throws Exception {
+        Assert.assertEquals("Invalid result", "first", evaluate("/root/p:item"));
+        Assert.assertEquals("Invalid result", "second!", evaluate("/root/p:item[@type='book']"));
+        Assert.assertEquals("Invalid result", "", evaluate("/root/p:item[@id=\"3\"]"));
+        Assert.assertEquals("Invalid result", "o", evaluate("/root/*[@type][@id='2']/b"));
+        Assert.assertNull("Invalid result", evaluate("/root/item"));
+        Assert.assertNull("Invalid result", evaluate("/other"));
+    }
+
+    @Test
+    public void evaluateAttribute() throws Exception {
+        Assert.assertEquals("Invalid result", "2", evaluate("/root/p:item[@type='book']/@id"));
+        Assert.assertNull("Invalid result", evaluate("/root/p:item/@other"));
+    }
+
+    @Test
+    public void evaluateText() throws Exception {
+        Assert.assertEquals("Invalid result", "sec", evaluate("/root/p:item[@type='book']/text()"));
+        Assert.assertEquals("Invalid result", "a", evaluate("/root/text/text()"));
+        Assert.assertNull("Invalid result", evaluate("/root/p:item[@id='3']/text()"));
+    }
+
+    @Test
+    public void evaluateMultiple() throws Exception {
+        StreamingXPathExpression first = StreamingXPathExpression.compile("/root/p:item/@id", namespaceContext);
+        StreamingXPathExpression second = StreamingXPathExpression.compile("/root/text", namespaceContext);
+        StreamingXPathExpression third = StreamingXPathExpression.compile("/root/none", namespaceContext);
+        String[] results = StreamingXPathExpression.evaluate(new StreamSource(new StringReader(XML)), first, second,
+                third);
+        Assert.assertArrayEquals("Invalid results", new String[]{"1", "ab", null}, results);
+    }
+
+    @Test
+    public void evaluateStopsWhenResolved() throws Exception {
+        StreamingXPathExpression expression = StreamingXPathExpression.compile("/root/p:item/@id", namespaceContext);
+        XMLStreamReader streamReader =
+                XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(XML));
+        String[] results = StreamingXPathExpression.evaluate(streamReader, expression);
+        Assert.assertEquals("Invalid result", "1", results[0]);
+        Assert.assertEquals("Reader not left at matching element", "item", streamReader.getLocalName());
+    }
+
+    @Test
+    public void evaluateUnsupportedSource() throws Exception {
+        StreamingXPathExpression expression = StreamingXPathExpression.compile("/root", namespaceContext);
+        Assert.assertNull("Result for DOMSource", StreamingXPathExpression.evaluate(new DOMSource(), expression));
+    }
+
+    private String evaluate(String expression) throws Exception {
+        StreamingXPathExpression streamingExpression = StreamingXPathExpression.compile(expression, namespaceContext);
+        Assert.assertNotNull("Expression [" + expression + "] not compiled", streamingExpression);
+        return StreamingXPathExpression.evaluate(new StreamSource(new StringReader(XML)), streamingExpression)[0];
+    }
+
+}